@@ -7,6 +7,7 @@ import javax.ws.rs.ApplicationPath;
 
 import org.glassfish.jersey.server.ResourceConfig;
 
+import edu.utexas.tacc.tapis.jobs.api.utils.JobStatusListener;
 import edu.utexas.tacc.tapis.jobs.config.RuntimeParameters;
 import edu.utexas.tacc.tapis.jobs.impl.JobsImpl;
 import edu.utexas.tacc.tapis.jobs.queue.JobQueueManager;
@@ -167,7 +168,12 @@ extends ResourceConfig
             errors.add("**** FAILURE TO INITIALIZE: tapis-jobsapi JobQueueManager ****\n" + e.getMessage());
             e.printStackTrace();
         }
-        
+
+       // ------ Status Streaming
+       // Feed status changes to long-poll and streaming status requests.
+       // Connection failures are retried in the background.
+       if (errors.isEmpty()) JobStatusListener.getInstance().start();
+
        // We're done.
        System.out.println("\n**********************************************");
        System.out.println("**** tapis-jobsapi Initialized [errors=" + errors.size() + "] ****");
@@ -12,6 +12,7 @@ import java.util.List;
 import java.util.Random;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.Future;
 import java.util.regex.Pattern;
 
 import javax.ws.rs.core.Response.Status;
@@ -30,6 +31,7 @@ import edu.utexas.tacc.tapis.apps.client.gen.model.TapisApp;
 import edu.utexas.tacc.tapis.client.shared.exceptions.TapisClientException;
 import edu.utexas.tacc.tapis.jobs.api.requestBody.ReqSubmitJob;
 import edu.utexas.tacc.tapis.jobs.api.requestBody.ReqSubscribe;
+import edu.utexas.tacc.tapis.jobs.api.utils.ConcurrentFetcher;
 import edu.utexas.tacc.tapis.jobs.api.utils.JobParmSetMarshaller;
 import edu.utexas.tacc.tapis.jobs.api.utils.JobParmSetMarshaller.ArgTypeEnum;
 import edu.utexas.tacc.tapis.jobs.api.utils.JobsApiUtils;
@@ -115,9 +117,10 @@ public final class SubmitContext
     /*                                    Fields                                    */
     /* **************************************************************************** */
     // Constructor input.
-    private final ReqSubmitJob       _submitReq;
-    private final TapisThreadContext _threadContext;
-    private final Job                _job;
+    private final ReqSubmitJob          _submitReq;
+    private final TapisThreadContext    _threadContext;
+    private final Job                   _job;
+    private final SubmitDefinitionCache _definitionCache; // can be null
     
     // The raw sources of job information.
     private TapisApp    _app;
@@ -140,8 +143,23 @@ public final class SubmitContext
     /* constructor:                                                                 */
     /* ---------------------------------------------------------------------------- */
     public SubmitContext(ReqSubmitJob submitReq)
+    {
+        this(submitReq, null);
+    }
+    
+    /* ---------------------------------------------------------------------------- */
+    /* constructor:                                                                 */
+    /* ---------------------------------------------------------------------------- */
+    /** Create a context whose application and system definitions are shared with
+     * the other jobs of a bulk submission through the definition cache.
+     * 
+     * @param submitReq the job request
+     * @param definitionCache the request-scoped definition cache or null
+     */
+    public SubmitContext(ReqSubmitJob submitReq, SubmitDefinitionCache definitionCache)
     {
         _submitReq = submitReq;
+        _definitionCache = definitionCache;
         _threadContext = TapisThreadLocal.tapisThreadContext.get();
         
         // Create the new job.
@@ -240,6 +258,37 @@ public final class SubmitContext
      * @throws TapisImplException
      */
     public void assignApp() throws TapisImplException
+    {
+        // Get the application from its service or from the bulk submission cache.
+        if (_definitionCache == null) _app = fetchApp();
+          else _app = _definitionCache.getApp(_submitReq.getTenant(), _submitReq.getOwner(), 
+                                              _submitReq.getAppId(), _submitReq.getAppVersion(), 
+                                              this::fetchApp);
+        
+        // Reject the job early if its application is not available.
+        if (_app.getEnabled() == null || !_app.getEnabled()) 
+        {
+            String msg = MsgUtils.getMsg("JOBS_APP_NOT_AVAILABLE", _job.getUuid(), _app.getId());
+            throw new TapisImplException(msg, Status.BAD_REQUEST.getStatusCode());
+        }
+        
+        // Check that the runtime has appropriate options selected.
+        validateApp(_app);
+        
+        // Always establish our shared application context.
+        _sharedAppCtx = new JobSharedAppCtx(_app);
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* fetchApp:                                                                    */
+    /* ---------------------------------------------------------------------------- */
+    /** Retrieve the application from the Apps service.  Failure messages contain
+     * no job-specific information.
+     * 
+     * @return the non-null application
+     * @throws TapisImplException
+     */
+    private TapisApp fetchApp() throws TapisImplException
     {
         // Get the application client for this user@tenant.
         AppsClient appsClient = null;
@@ -255,7 +304,8 @@ public final class SubmitContext
         // Get the application.
         final String authz = "READ,EXECUTE";
         Boolean execPerm = Boolean.TRUE;
-        try {_app = appsClient.getApp(_submitReq.getAppId(), _submitReq.getAppVersion(), execPerm);}
+        TapisApp app = null;
+        try {app = appsClient.getApp(_submitReq.getAppId(), _submitReq.getAppVersion(), execPerm);}
         catch (TapisClientException e) {
             // Determine why we failed.
             String msg;
@@ -288,24 +338,13 @@ public final class SubmitContext
         }
         
         // Double-check!  This shouldn't happen, but it's absolutely critical that we have an app.
-        if (_app == null) {
+        if (app == null) {
             String msg = MsgUtils.getMsg("TAPIS_APPCLIENT_INTERNAL_ERROR", _submitReq.getAppId(), 
                             _submitReq.getAppVersion(), authz, _submitReq.getOwner(), _submitReq.getTenant());
             throw new TapisImplException(msg, Status.NOT_FOUND.getStatusCode());
         }
         
-        // Reject the job early if its application is not available.
-        if (_app.getEnabled() == null || !_app.getEnabled()) 
-        {
-            String msg = MsgUtils.getMsg("JOBS_APP_NOT_AVAILABLE", _job.getUuid(), _app.getId());
-            throw new TapisImplException(msg, Status.BAD_REQUEST.getStatusCode());
-        }
-        
-        // Check that the runtime has appropriate options selected.
-        validateApp(_app);
-        
-        // Always establish our shared application context.
-        _sharedAppCtx = new JobSharedAppCtx(_app);
+        return app;
     }
 
     /* **************************************************************************** */
@@ -506,6 +545,10 @@ public final class SubmitContext
      *  - _dtnSystem (can be null)
      *  - _archiveSsytem 
      * 
+     * Once its id is known, the archive system is loaded concurrently with the 
+     * execution and dtn systems.  Errors are still reported in the same order 
+     * as if the systems were loaded one after the other.
+     * 
      * @throws TapisImplException
      */
     private void resolveSystems() throws TapisImplException
@@ -524,10 +567,41 @@ public final class SubmitContext
         // Dynamic execution system selection must be explicitly specified.
         // The _execSystem field is always filled in after this code block.
         // Static system selection includes calculating the sharing attribute.
+        // The archive system load is started as soon as the execution system id is known.
         boolean isDynamicExecSystem = _submitReq.getDynamicExecSystem();
-        if (isDynamicExecSystem) resolveDynamicExecSystem(systemsClient);
-          else resolveStaticExecSystem(systemsClient);
-        
+        Future<TapisSystem> archiveFuture = null;
+        try {
+            if (isDynamicExecSystem) {
+                resolveDynamicExecSystem(systemsClient);
+                archiveFuture = startArchiveSystemLoad(systemsClient);
+            }
+            else archiveFuture = resolveStaticExecSystem(systemsClient);
+            
+            // Validate the execution and dtn systems, then wait for the archive system.
+            validateExecAndDtnSystems(systemsClient);
+            if (archiveFuture == null) _archiveSystem = _execSystem;
+              else _archiveSystem = ConcurrentFetcher.join(archiveFuture);
+        }
+        finally {
+            // An abandoned load's result is never used.
+            if (archiveFuture != null) archiveFuture.cancel(true);
+        }
+    }
+    
+    /* ---------------------------------------------------------------------------- */
+    /* validateExecAndDtnSystems:                                                   */
+    /* ---------------------------------------------------------------------------- */
+    /** Validate the loaded execution system and load and validate its dtn system,
+     * if one is specified.
+     * 
+     * Context fields guaranteed to be assigned if required:
+     *  - _dtnSystem (can be null)
+     * 
+     * @throws TapisImplException
+     */
+    private void validateExecAndDtnSystems(SystemsClient systemsClient) 
+     throws TapisImplException
+    {
         // Make sure the execution system is still executable.
         if (_execSystem.getCanExec() == null || !_execSystem.getCanExec()) {
             String msg = MsgUtils.getMsg("JOBS_INVALID_EXEC_SYSTEM", _execSystem.getId());
@@ -580,7 +654,22 @@ public final class SubmitContext
                throw new TapisImplException(msg, Status.BAD_REQUEST.getStatusCode());
            }
         }
-        
+    }
+    
+    /* ---------------------------------------------------------------------------- */
+    /* startArchiveSystemLoad:                                                      */
+    /* ---------------------------------------------------------------------------- */
+    /** Assign the archive system id and start loading the archive system if it's
+     * different from the execution system.  The execution system id must be 
+     * assigned in the request.
+     * 
+     * Request fields guaranteed to be assigned:
+     *  - archiveSystemId
+     *  
+     * @return the future archive system or null if it's the execution system
+     */
+    private Future<TapisSystem> startArchiveSystemLoad(SystemsClient systemsClient)
+    {
         // --------------------- Archive System ------------------
         // Assign and load the archive system if one is specified.
         if (StringUtils.isBlank(_submitReq.getArchiveSystemId()))
@@ -597,33 +686,36 @@ public final class SubmitContext
                                           _app.getJobAttributes().getArchiveSystemId(),
                                           _submitReq.getExecSystemId());
                 
-        // Assign the archive system object if it's the same as the execution system.
+        // The archive system object is the execution system if they're the same.
         if (_submitReq.getArchiveSystemId().equals(_submitReq.getExecSystemId()))
-            _archiveSystem = _execSystem;
-        else {
-            // Load the archive system if it's different from the execution system,
-            // which is the same as saying that it hasn't been assigned yet.
-            boolean requireExecPerm = false;
-           _archiveSystem = loadSystemDefinition(systemsClient, _submitReq.getArchiveSystemId(), 
-                                                 requireExecPerm, LoadSystemTypes.archive,
-                                                 _sharedAppCtx.isSharingArchiveSystemId()); 
-        }
+            return null;
+        
+        // Load the archive system if it's different from the execution system.
+        final boolean requireExecPerm = false;
+        final String archiveSystemId = _submitReq.getArchiveSystemId();
+        final boolean sharing = _sharedAppCtx.isSharingArchiveSystemId();
+        return ConcurrentFetcher.getInstance().submit(() -> 
+            loadSystemDefinition(systemsClient, archiveSystemId, requireExecPerm, 
+                                 LoadSystemTypes.archive, sharing));
     }
     
     /* ---------------------------------------------------------------------------- */
     /* resolveStaticExecSystem:                                                     */
     /* ---------------------------------------------------------------------------- */
-    /** Assign the execution system from application and/or request input.
+    /** Assign the execution system from application and/or request input.  The 
+     * archive system load is started while the execution system is loading.
      * 
      * Request fields guaranteed to be assigned:
      *  - execSystemId
+     *  - archiveSystemId
      *  
      * Context fields guaranteed to be assigned:
      *  - _execSystem 
      * 
+     * @return the future archive system or null if it's the execution system
      * @throws TapisImplException
      */
-    private void resolveStaticExecSystem(SystemsClient systemsClient) 
+    private Future<TapisSystem> resolveStaticExecSystem(SystemsClient systemsClient) 
      throws TapisImplException
     {
         // Use the system specified in the job submission request if it exists.
@@ -642,17 +734,28 @@ public final class SubmitContext
         // Determine the shared application context attribute.
         _sharedAppCtx.calcExecSystemId(execSystemId, _app.getJobAttributes().getExecSystemId());
                 
+        // Start loading the archive system.
+        var archiveFuture = startArchiveSystemLoad(systemsClient);
+        
         // Load the system.
-        boolean requireExecPerm = true;
-        _execSystem = loadSystemDefinition(systemsClient, execSystemId, requireExecPerm, 
-                                           LoadSystemTypes.execution, _sharedAppCtx.isSharingExecSystemId());
-        
-        // Double-check!  This shouldn't happen, but it's absolutely critical that we have a system.
-        if (_execSystem == null) {
-            String msg = MsgUtils.getMsg("TAPIS_SYSCLIENT_INTERNAL_ERROR", execSystemId, 
-                                         _submitReq.getOwner(), _submitReq.getTenant(), "execution");
-            throw new TapisImplException(msg, Status.NOT_FOUND.getStatusCode());
+        try {
+            boolean requireExecPerm = true;
+            _execSystem = loadSystemDefinition(systemsClient, execSystemId, requireExecPerm, 
+                                               LoadSystemTypes.execution, _sharedAppCtx.isSharingExecSystemId());
+        
+            // Double-check!  This shouldn't happen, but it's absolutely critical that we have a system.
+            if (_execSystem == null) {
+                String msg = MsgUtils.getMsg("TAPIS_SYSCLIENT_INTERNAL_ERROR", execSystemId, 
+                                             _submitReq.getOwner(), _submitReq.getTenant(), "execution");
+                throw new TapisImplException(msg, Status.NOT_FOUND.getStatusCode());
+            }
+        }
+        catch (TapisImplException | RuntimeException e) {
+            if (archiveFuture != null) archiveFuture.cancel(true);
+            throw e;
         }
+        
+        return archiveFuture;
     }
     
     /* ---------------------------------------------------------------------------- */
@@ -2022,6 +2125,45 @@ public final class SubmitContext
                                              LoadSystemTypes systemType,
                                              boolean sharedAppCtx) 
       throws TapisImplException
+    {
+        // Load the system definition from its service or from the bulk submission cache.
+        TapisSystem system;
+        if (_definitionCache == null) 
+            system = fetchSystemDefinition(systemsClient, systemId, requireExecPerm, systemType, sharedAppCtx);
+        else 
+            system = _definitionCache.getSystem(_submitReq.getTenant(), _submitReq.getOwner(), 
+                         systemId, systemType.name(), requireExecPerm, sharedAppCtx,
+                         () -> fetchSystemDefinition(systemsClient, systemId, requireExecPerm, 
+                                                     systemType, sharedAppCtx));
+        
+        // Reject the job early if a required system is not available.  A DTN system
+        // may be defined but not used, so we don't check its availability.
+        if (system != null && 
+            systemType != LoadSystemTypes.dtn &&
+            (system.getEnabled() == null || !system.getEnabled())) 
+        {
+            String msg = MsgUtils.getMsg("JOBS_SYSTEM_NOT_AVAILABLE", _job.getUuid(), system.getId());
+            throw new TapisImplException(msg, Status.BAD_REQUEST.getStatusCode());
+        }
+        
+        return system;
+    }
+    
+    /* ---------------------------------------------------------------------------- */
+    /* fetchSystemDefinition:                                                       */
+    /* ---------------------------------------------------------------------------- */
+    /** Retrieve a system definition from the Systems service.  Failure messages 
+     * contain no job-specific information.
+     * 
+     * @return the system definition
+     * @throws TapisImplException
+     */
+    private TapisSystem fetchSystemDefinition(SystemsClient systemsClient,
+                                              String systemId, 
+                                              boolean requireExecPerm,
+                                              LoadSystemTypes systemType,
+                                              boolean sharedAppCtx) 
+      throws TapisImplException
     {
         // Load the system definition.
         TapisSystem system = null;
@@ -2062,16 +2204,6 @@ public final class SubmitContext
             throw new TapisImplException(msg, e, Status.INTERNAL_SERVER_ERROR.getStatusCode());
         }
         
-        // Reject the job early if a required system is not available.  A DTN system
-        // may be defined but not used, so we don't check its availability.
-        if (system != null && 
-            systemType != LoadSystemTypes.dtn &&
-            (system.getEnabled() == null || !system.getEnabled())) 
-        {
-            String msg = MsgUtils.getMsg("JOBS_SYSTEM_NOT_AVAILABLE", _job.getUuid(), system.getId());
-            throw new TapisImplException(msg, Status.BAD_REQUEST.getStatusCode());
-        }
-        
         return system;
     }
     
@@ -0,0 +1,133 @@
+package edu.utexas.tacc.tapis.jobs.api.model;
+
+import java.util.HashMap;
+
+import edu.utexas.tacc.tapis.apps.client.gen.model.TapisApp;
+import edu.utexas.tacc.tapis.shared.exceptions.TapisImplException;
+import edu.utexas.tacc.tapis.systems.client.gen.model.TapisSystem;
+
+/** Application and system definitions retrieved while processing a single bulk
+ * job submission request.  The jobs in a bulk submission typically reference the
+ * same application and systems, so each definition is retrieved once and shared
+ * by the SubmitContext of every job in the request.
+ *
+ * Retrieval failures are also recorded so that they are reported for each job
+ * without calling the remote service again.  The messages of recorded failures
+ * must not contain job-specific information.  Shared definitions are read-only;
+ * SubmitContext never modifies the app or system objects it validates against.
+ *
+ * This cache lives only as long as the request that created it.
+ *
+ * @author rcardone
+ */
+public final class SubmitDefinitionCache
+{
+    /* **************************************************************************** */
+    /*                                    Fields                                    */
+    /* **************************************************************************** */
+    // Definitions or TapisImplExceptions keyed by type and retrieval parameters.
+    private final HashMap<String,Object> _definitions = new HashMap<>();
+
+    // Statistics.
+    private int _hits;
+    private int _misses;
+
+    /* **************************************************************************** */
+    /*                                  Interfaces                                  */
+    /* **************************************************************************** */
+    /** Retrieve a definition from its service. */
+    @FunctionalInterface
+    public interface DefinitionLoader<T>
+    {
+        T load() throws TapisImplException;
+    }
+
+    /* **************************************************************************** */
+    /*                                Public Methods                                */
+    /* **************************************************************************** */
+    /* ---------------------------------------------------------------------------- */
+    /* getApp:                                                                      */
+    /* ---------------------------------------------------------------------------- */
+    /** Get the application definition as retrieved by the owner.
+     *
+     * @param tenant the job tenant
+     * @param owner the job owner
+     * @param appId the application id
+     * @param appVersion the application version
+     * @param loader retrieves the definition on a cache miss
+     * @return the application definition
+     * @throws TapisImplException the current or recorded retrieval failure
+     */
+    public TapisApp getApp(String tenant, String owner, String appId, String appVersion,
+                           DefinitionLoader<TapisApp> loader)
+     throws TapisImplException
+    {
+        String key = "app|" + tenant + "|" + owner + "|" + appId + "|" + appVersion;
+        return get(key, loader);
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* getSystem:                                                                   */
+    /* ---------------------------------------------------------------------------- */
+    /** Get the system definition as retrieved by the owner.  The system type is
+     * part of the key because it appears in retrieval failure messages.
+     *
+     * @param tenant the job tenant
+     * @param owner the job owner
+     * @param systemId the system id
+     * @param systemType execution, archive or dtn
+     * @param requireExecPerm whether execute permission was required
+     * @param sharedAppCtx whether the system was accessed in a shared context
+     * @param loader retrieves the definition on a cache miss
+     * @return the system definition
+     * @throws TapisImplException the current or recorded retrieval failure
+     */
+    public TapisSystem getSystem(String tenant, String owner, String systemId,
+                                 String systemType, boolean requireExecPerm,
+                                 boolean sharedAppCtx, DefinitionLoader<TapisSystem> loader)
+     throws TapisImplException
+    {
+        String key = "sys|" + tenant + "|" + owner + "|" + systemId + "|" + systemType + "|" +
+                     requireExecPerm + "|" + sharedAppCtx;
+        return get(key, loader);
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* accessors:                                                                   */
+    /* ---------------------------------------------------------------------------- */
+    public synchronized int getHits() {return _hits;}
+    public synchronized int getMisses() {return _misses;}
+
+    /* **************************************************************************** */
+    /*                               Private Methods                                */
+    /* **************************************************************************** */
+    /* ---------------------------------------------------------------------------- */
+    /* get:                                                                         */
+    /* ---------------------------------------------------------------------------- */
+    /** Return the cached definition or rethrow the cached failure.  On a miss the
+     * loader is called without holding the lock since SubmitContext may load
+     * systems concurrently.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T get(String key, DefinitionLoader<T> loader) throws TapisImplException
+    {
+        // Check the cache.
+        Object value;
+        synchronized (this) {
+            value = _definitions.get(key);
+            if (value != null) _hits++; else _misses++;
+        }
+
+        // Retrieve and record the definition or failure.
+        if (value == null) {
+            try {value = loader.load();}
+                catch (TapisImplException e) {value = e;}
+            if (value != null)
+                synchronized (this) {_definitions.putIfAbsent(key, value);}
+        }
+
+        // Report the outcome.
+        if (value instanceof TapisImplException) throw (TapisImplException) value;
+        return (T) value;
+    }
+}
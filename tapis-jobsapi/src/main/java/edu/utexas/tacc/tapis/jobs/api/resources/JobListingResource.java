@@ -30,6 +30,8 @@ import edu.utexas.tacc.tapis.jobs.api.utils.JobListUtils;
 import edu.utexas.tacc.tapis.jobs.api.utils.JobsApiUtils;
 import edu.utexas.tacc.tapis.jobs.impl.JobsImpl;
 import edu.utexas.tacc.tapis.jobs.model.dto.JobListDTO;
+import edu.utexas.tacc.tapis.jobs.model.dto.JobListPage;
+import edu.utexas.tacc.tapis.jobs.model.enumerations.JobListCountMode;
 import edu.utexas.tacc.tapis.jobs.model.enumerations.JobListType;
 import edu.utexas.tacc.tapis.shared.exceptions.TapisImplException;
 import edu.utexas.tacc.tapis.shared.i18n.MsgUtils;
@@ -213,53 +215,23 @@ extends AbstractResource
 		} 
 
 
-		// ----------   Compute Total Count --------------
-		// If we need the total count and there was a limit then we need to make a call. 
-		// Default limit is always greater than zero.
-		int totalCountOwner = 0;
-		int totalCountShared = 0;
-
-		if (computeTotal){
-			//totalCountOwner represents all the jobs that the user is owner, admin or creator of the job.
-			if((listType.equals(JobListType.MY_JOBS.name())) || (listType.equals(JobListType.ALL_JOBS.name()))) {
-				try {
-					totalCountOwner = JobListUtils.computeTotalCount(threadContext.getOboUser(), 
-							threadContext.getOboTenantId(), searchList, srchParms.getOrderByList(), !SHARED);
-				} catch (TapisImplException e) {
-					_log.error(e.getMessage(), e);
-					return Response.status(JobsApiUtils.toHttpStatus(e.condition)).
-							entity(TapisRestUtils.createErrorResponse(e.getMessage(), prettyPrint)).build();
-				}
-			}
-			//totalCountShared represents all the jobs that are shared with the user
-			if(sharedWithMe) {
-				try {
-					totalCountShared = JobListUtils.computeTotalCount(threadContext.getOboUser(), 
-							threadContext.getOboTenantId(), sharedSearchList, srchParms.getOrderByList(), SHARED);
-				} catch (TapisImplException e) {
-					_log.error(e.getMessage(), e);
-					return Response.status(JobsApiUtils.toHttpStatus(e.condition)).
-							entity(TapisRestUtils.createErrorResponse(e.getMessage(), prettyPrint)).build();
-				}
-			} 
-
-			if(listType.equals(JobListType.ALL_JOBS.name())){
-				totalCount = totalCountOwner +  totalCountShared;
-			} else if (listType.equals(JobListType.MY_JOBS.name())){
-				totalCount = totalCountOwner;
-			} else {
-				totalCount = totalCountShared;
-			}
-		}
-
 		// ------------ Retrieve Job List -----------------------------
+		// The owner's total count is computed by the same query that retrieves the
+		// owner's page of jobs.  totalCountOwner represents all the jobs that the user 
+		// is owner, admin or creator of the job.
+		int totalCountOwner = JobListPage.NO_TOTAL_COUNT;
+		int totalCountShared = 0;
+		boolean ownerEstimated = false;
 		List<JobListDTO> jobList = new ArrayList<JobListDTO>();
 		var jobsImpl = JobsImpl.getInstance();
 		if((listType.equals(JobListType.MY_JOBS.name())) || (listType.equals(JobListType.ALL_JOBS.name()))) {
 			try {
-				jobList = jobsImpl.getJobSearchListByUsername(threadContext.getOboUser(), threadContext.getOboTenantId(), searchList,
-						srchParms.getOrderByList(), srchParms.getLimit(),srchParms.getSkip(), !SHARED); // user's owned jobs
-
+				var countMode = computeTotal ? JobListCountMode.ESTIMATE : JobListCountMode.NONE;
+				var page = jobsImpl.getJobSearchPageByUsername(threadContext.getOboUser(), threadContext.getOboTenantId(), searchList,
+						srchParms.getOrderByList(), srchParms.getLimit(),srchParms.getSkip(), !SHARED, countMode); // user's owned jobs
+				jobList = page.getJobs();
+				totalCountOwner = page.getTotalCount();
+				ownerEstimated = page.isEstimated();
 			}
 			catch (TapisImplException e) {
 				_log.error(e.getMessage(), e);
@@ -273,6 +245,24 @@ extends AbstractResource
 			}
 		}
 
+		// ----------   Compute Total Count --------------
+		// If we need the total count and there was a limit then we need to make a call. 
+		// Default limit is always greater than zero.
+		if (computeTotal){
+			//totalCountShared represents all the jobs that are shared with the user
+			if(sharedWithMe) {
+				try {
+					totalCountShared = JobListUtils.computeTotalCount(threadContext.getOboUser(), 
+							threadContext.getOboTenantId(), sharedSearchList, srchParms.getOrderByList(), SHARED);
+				} catch (TapisImplException e) {
+					_log.error(e.getMessage(), e);
+					return Response.status(JobsApiUtils.toHttpStatus(e.condition)).
+							entity(TapisRestUtils.createErrorResponse(e.getMessage(), prettyPrint)).build();
+				}
+			} 
+			totalCount = JobListUtils.combineTotalCount(listType, totalCountOwner, ownerEstimated, totalCountShared);
+		}
+
 		int diffLimit = 0;
 		int diffSkip = 0;
 
@@ -283,8 +273,10 @@ extends AbstractResource
 		} else {
 			diffLimit = srchParms.getLimit();
 			// When jobList is empty, then either all the records for jobs when user is the owner have been skipped 
-  		    // or the list type is SHARED_JOBS
-			try {
+  		    // or the list type is SHARED_JOBS.  An exact owner total avoids another count.
+			if (totalCountOwner >= 0 && !ownerEstimated)
+				diffSkip = JobListUtils.computeSkip(listType, totalCountOwner, srchParms.getSkip());
+			else try {
 				diffSkip = JobListUtils.computeSkip(listType,threadContext.getOboUser(), 
 						   threadContext.getOboTenantId(), searchList, srchParms.getOrderByList(), srchParms.getSkip(), !SHARED );
 			  } catch (TapisImplException e) {
@@ -1,5 +1,6 @@
 package edu.utexas.tacc.tapis.jobs.api.resources;
 
+import java.io.IOException;
 import java.util.List;
 
 import javax.servlet.ServletContext;
@@ -17,6 +18,7 @@ import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
 import javax.ws.rs.core.SecurityContext;
+import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.core.UriInfo;
 
 import org.apache.commons.lang3.StringUtils;
@@ -25,7 +27,9 @@ import org.slf4j.LoggerFactory;
 
 import edu.utexas.tacc.tapis.files.client.gen.model.FileInfo;
 import edu.utexas.tacc.tapis.jobs.api.responses.RespGetJobOutputList;
+import edu.utexas.tacc.tapis.jobs.api.utils.JobOutputListWriter;
 import edu.utexas.tacc.tapis.jobs.api.utils.JobsApiUtils;
+import edu.utexas.tacc.tapis.jobs.config.RuntimeParameters;
 import edu.utexas.tacc.tapis.jobs.impl.JobsImpl;
 import edu.utexas.tacc.tapis.jobs.model.Job;
 import edu.utexas.tacc.tapis.jobs.model.enumerations.JobResourceShare;
@@ -113,6 +117,7 @@ public class JobOutputListingResource extends AbstractResource{
              description = "Retrieve job's output files list for previously submitted job by its UUID. The job must be in a terminal state (FINISHED or FAILED or CANCELLED)  \n\n"
                            + "The caller must be the job owner, creator or a tenant administrator.\n"
             		       + "The URL must ends with '/' even if there is no outputPath is specified. "
+                           + "Listings larger than one page from the Files service are streamed as they are received.\n"
                            + "",
              tags = "jobs",
              security = {@SecurityRequirement(name = "TapisJWT")},
@@ -217,11 +222,18 @@ public class JobOutputListingResource extends AbstractResource{
        
        if(srchParms.getLimit() == null) {srchParms.setLimit(SearchParameters.DEFAULT_LIMIT);}
        
+       // Listings that may span more than one page from Files are streamed to the
+       // client.  The first page is always retrieved here so that errors can still
+       // be reported with the appropriate status code.
+       int pageSize = RuntimeParameters.getInstance().getOutputListPageSize();
+       boolean streamable = srchParms.getLimit() < 0 || srchParms.getLimit() > pageSize;
+       int firstLimit = streamable ? pageSize : srchParms.getLimit();
+       
        List<FileInfo> filesList = null;
        
        try {
 		filesList = jobsImpl.getJobOutputList(job, threadContext.getOboTenantId(), threadContext.getOboUser(), outputPath, 
-				srchParms.getLimit(),skip, JobResourceShare.JOB_OUTPUT.name(), JobTapisPermission.READ.name());
+				firstLimit,skip, JobResourceShare.JOB_OUTPUT.name(), JobTapisPermission.READ.name());
 	   } catch (TapisImplException e) {
 		   _log.error(e.getMessage(), e);
            return Response.status(JobsApiUtils.toHttpStatus(e.condition)).
@@ -236,16 +248,59 @@ public class JobOutputListingResource extends AbstractResource{
        }
        
        // ------------------------- Process Results --------------------------
-      
+       String successMsg = MsgUtils.getMsg("JOBS_OUTPUT_FILES_LIST_RETRIEVED", jobUuid, threadContext.getOboUser(),
+                                           threadContext.getOboTenantId());
+       if (streamable && filesList.size() >= pageSize) 
+           return streamJobOutputList(job, threadContext, outputPath, srchParms, skip, 
+                                      filesList, successMsg, prettyPrint);
        
        // Success.
        RespGetJobOutputList r = new RespGetJobOutputList(filesList,srchParms.getLimit(),srchParms.getSkip());
        return Response.status(Status.OK).entity(TapisRestUtils.createSuccessResponse(
-               MsgUtils.getMsg("JOBS_OUTPUT_FILES_LIST_RETRIEVED", jobUuid, threadContext.getOboUser(),
-            		   threadContext.getOboTenantId()), prettyPrint, r)).build();
+               successMsg, prettyPrint, r)).build();
      }
      
-     
+     /* **************************************************************************** */
+     /*                               Private Methods                                */
+     /* **************************************************************************** */
+     /* ---------------------------------------------------------------------------- */
+     /* streamJobOutputList:                                                         */
+     /* ---------------------------------------------------------------------------- */
+     /** Write the first page and then each following page as it's received from 
+      * Files.  The response has the same format as RespGetJobOutputList.  Errors
+      * that occur after the first page has been sent terminate the response, which
+      * clients detect as an incomplete JSON document.
+      */
+     private Response streamJobOutputList(Job job, TapisThreadContext threadContext,
+                                          String outputPath, SearchParameters srchParms,
+                                          int skip, List<FileInfo> firstPage,
+                                          String successMsg, boolean prettyPrint)
+     {
+       // Capture the request values used after this method returns.
+       final String tenant = threadContext.getOboTenantId();
+       final String user   = threadContext.getOboUser();
+       final int limit = srchParms.getLimit();
+       final int remaining = limit < 0 ? limit : limit - firstPage.size();
+       final int nextSkip  = skip + firstPage.size();
+       final String envelope = TapisRestUtils.createSuccessResponse(successMsg, prettyPrint, 
+                          new RespGetJobOutputList(List.of(), limit, srchParms.getSkip()));
+       
+       StreamingOutput stream = out -> {
+           var writer = new JobOutputListWriter(out, envelope, prettyPrint);
+           writer.write(firstPage);
+           try {
+               if (remaining != 0)
+                   JobsImpl.getInstance().streamJobOutputList(job, tenant, user, outputPath, 
+                       remaining, nextSkip, JobResourceShare.JOB_OUTPUT.name(), 
+                       JobTapisPermission.READ.name(), writer);
+           } catch (TapisImplException e) {
+               _log.error(e.getMessage(), e);
+               throw new IOException(e.getMessage(), e);
+           }
+           writer.finish();
+       };
+       return Response.ok(stream, MediaType.APPLICATION_JSON).build();
+     }
 }
 
 
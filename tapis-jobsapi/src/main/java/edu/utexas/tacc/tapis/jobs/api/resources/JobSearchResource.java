@@ -38,6 +38,8 @@ import edu.utexas.tacc.tapis.jobs.api.utils.JobsApiUtils;
 import edu.utexas.tacc.tapis.jobs.impl.JobsImpl;
 import edu.utexas.tacc.tapis.jobs.model.Job;
 import edu.utexas.tacc.tapis.jobs.model.dto.JobListDTO;
+import edu.utexas.tacc.tapis.jobs.model.dto.JobListPage;
+import edu.utexas.tacc.tapis.jobs.model.enumerations.JobListCountMode;
 import edu.utexas.tacc.tapis.jobs.model.enumerations.JobListType;
 import edu.utexas.tacc.tapis.jobs.utils.SelectTuple;
 import edu.utexas.tacc.tapis.search.SearchUtils;
@@ -281,42 +283,27 @@ public class JobSearchResource extends AbstractResource {
       }     
       
       // --------------------   Compute Total Count -----------------------------------------------
-      // If we need the total count and there was a limit then we need to make a call
-      int totalCountOwner = 0;
+      // If we need the total count and there was a limit then we need to make a call.
+      // totalCountOwner represents all the jobs that the user is owner, admin or creator of
+      // the job; it's computed by the same query that retrieves the owner's page of jobs.
+      int totalCountOwner = JobListPage.NO_TOTAL_COUNT;
       int totalCountShared = 0;
-     
+      boolean ownerEstimated = false;
+      var ownerCountMode = computeTotal ? JobListCountMode.ESTIMATE : JobListCountMode.NONE;
+
       if (computeTotal){
-    	  //totalCountOwner represents all the jobs that the user is owner, admin or creator of the job.
-    	  if((listType.equals(JobListType.MY_JOBS.name())) || (listType.equals(JobListType.ALL_JOBS.name()))) {
-    		  try {
- 	        	 totalCountOwner = JobListUtils.computeTotalCount(threadContext.getOboUser(), 
- 					   threadContext.getOboTenantId(), searchList, srchParms.getOrderByList(), !SHARED);
- 			 } catch (TapisImplException e) {
- 					_log.error(e.getMessage(), e);
- 			           return Response.status(JobsApiUtils.toHttpStatus(e.condition)).
- 			                   entity(TapisRestUtils.createErrorResponse(e.getMessage(), prettyPrint)).build();
- 			 }
-    	  }
-    	  //totalCountShared represents all the jobs that are shared with the user
-    	  if(sharedWithMe) {
-    		  try {
-    	           totalCountShared = JobListUtils.computeTotalCount(threadContext.getOboUser(), 
-    	 				   threadContext.getOboTenantId(), sharedSearchList, srchParms.getOrderByList(), SHARED);
-    	 		 } catch (TapisImplException e) {
-    	 				_log.error(e.getMessage(), e);
-    	 		           return Response.status(JobsApiUtils.toHttpStatus(e.condition)).
-    	 		                   entity(TapisRestUtils.createErrorResponse(e.getMessage(), prettyPrint)).build();
-    	 		 }
-    	  } 
-    	  
-    	  if(listType.equals(JobListType.ALL_JOBS.name())){
-    		 totalCount = totalCountOwner +  totalCountShared;
-    	  } else if (listType.equals(JobListType.MY_JOBS.name())){
-    		  totalCount = totalCountOwner;
-    	  } else {
-    		  totalCount = totalCountShared;
-    	  }
-     }
+      	  //totalCountShared represents all the jobs that are shared with the user
+      	  if(sharedWithMe) {
+      		  try {
+      		       totalCountShared = JobListUtils.computeTotalCount(threadContext.getOboUser(), 
+      				   threadContext.getOboTenantId(), sharedSearchList, srchParms.getOrderByList(), SHARED);
+      		  } catch (TapisImplException e) {
+      			  _log.error(e.getMessage(), e);
+      			  return Response.status(JobsApiUtils.toHttpStatus(e.condition)).
+      			          entity(TapisRestUtils.createErrorResponse(e.getMessage(), prettyPrint)).build();
+      		  }
+      	  } 
+      }
      // ----------- Compute Total Ends -------------
       
       int diffLimit = 0;
@@ -328,8 +315,11 @@ public class JobSearchResource extends AbstractResource {
     	  // Get the user's jobs in which the user is the owner (no shared jobs)
     	  if((listType.equals(JobListType.MY_JOBS.name())) || (listType.equals(JobListType.ALL_JOBS.name()))) {
 		       try {
-		           jobSummaryList = jobsImpl.getJobSearchListByUsername(threadContext.getOboUser(), threadContext.getOboTenantId(), searchList,
-		        		   srchParms.getOrderByList(), srchParms.getLimit(),srchParms.getSkip(), !SHARED);                       
+		           var page = jobsImpl.getJobSearchPageByUsername(threadContext.getOboUser(), threadContext.getOboTenantId(), searchList,
+		        		   srchParms.getOrderByList(), srchParms.getLimit(),srchParms.getSkip(), !SHARED, ownerCountMode);
+		           jobSummaryList = page.getJobs();
+		           totalCountOwner = page.getTotalCount();
+		           ownerEstimated = page.isEstimated();
 		       }
 		       catch (TapisImplException e) {
 		           _log.error(e.getMessage(), e);
@@ -344,6 +334,7 @@ public class JobSearchResource extends AbstractResource {
 		     
     	   }
     	  
+		    if (computeTotal) totalCount = JobListUtils.combineTotalCount(listType, totalCountOwner, ownerEstimated, totalCountShared);
 		    // compute limit and skip for shared list
 	    	  if(!jobSummaryList.isEmpty()) {
 	    		  diffLimit = srchParms.getLimit() - jobSummaryList.size();
@@ -352,7 +343,9 @@ public class JobSearchResource extends AbstractResource {
 	    		  // When jobSummaryList is empty, then either all the records for jobs when user is the owner have been skipped 
 	    		  // or the list type is SHARED_JOBS
 	    		  diffLimit = srchParms.getLimit();
-	    		  try {
+	    		  if (totalCountOwner >= 0 && !ownerEstimated)
+	    		      diffSkip = JobListUtils.computeSkip(listType, totalCountOwner, srchParms.getSkip());
+	    		  else try {
 	  				diffSkip = JobListUtils.computeSkip(listType,threadContext.getOboUser(), 
 	  						   threadContext.getOboTenantId(), searchList, srchParms.getOrderByList(), srchParms.getSkip(), !SHARED );
 	  			  } catch (TapisImplException e) {
@@ -402,8 +395,11 @@ public class JobSearchResource extends AbstractResource {
 	   	   // then select the attributes that the user provides 
     	  if((listType.equals(JobListType.MY_JOBS.name())) || (listType.equals(JobListType.ALL_JOBS.name()))) {
     	   try {
-		   	   jobs = jobsImpl.getJobSearchAllAttributesByUsername(threadContext.getOboUser(), threadContext.getOboTenantId(), searchList,
-		        		   srchParms.getOrderByList(), srchParms.getLimit(),srchParms.getSkip(), !(SHARED));  // This is the list of all non-shared jobs                     
+		   	   var page = jobsImpl.getJobSearchAllAttributesPageByUsername(threadContext.getOboUser(), threadContext.getOboTenantId(), searchList,
+		        		   srchParms.getOrderByList(), srchParms.getLimit(),srchParms.getSkip(), !(SHARED), selectList, ownerCountMode);  // This is the list of all non-shared jobs
+		   	   jobs = page.getJobs();
+		   	   totalCountOwner = page.getTotalCount();
+		   	   ownerEstimated = page.isEstimated();
 		   } catch (TapisImplException e) {
 	           _log.error(e.getMessage(), e);
 	           return Response.status(JobsApiUtils.toHttpStatus(e.condition)).
@@ -415,13 +411,16 @@ public class JobSearchResource extends AbstractResource {
 	       }
     	  }
     	  
+    	  if (computeTotal) totalCount = JobListUtils.combineTotalCount(listType, totalCountOwner, ownerEstimated, totalCountShared);
     	  // compute limit and skip for shared list
     	  if(!jobs.isEmpty()) {
     		  diffLimit = srchParms.getLimit() - jobs.size();
     		  diffSkip = 0;
     	  } else {
     		  diffLimit = srchParms.getLimit();
-    		  try {
+    		  if (totalCountOwner >= 0 && !ownerEstimated)
+    		      diffSkip = JobListUtils.computeSkip(listType, totalCountOwner, srchParms.getSkip());
+    		  else try {
 				diffSkip = JobListUtils.computeSkip(listType,threadContext.getOboUser(), 
 						   threadContext.getOboTenantId(), searchList, srchParms.getOrderByList(), srchParms.getSkip(), !SHARED );
 			  } catch (TapisImplException e) {
@@ -433,8 +432,8 @@ public class JobSearchResource extends AbstractResource {
 	   	   //----------  Get the jobs shared with the user ---------------------------------------
            if(sharedWithMe && !sharedJobUuidsList.isEmpty()) {
 	    	  try {
-				jobsShared = jobsImpl.getJobSearchAllAttributesByUsername(threadContext.getOboUser(), threadContext.getOboTenantId(), sharedSearchList,
-						   srchParms.getOrderByList(), diffLimit,diffSkip, SHARED);
+				jobsShared = jobsImpl.getJobSearchAllAttributesPageByUsername(threadContext.getOboUser(), threadContext.getOboTenantId(), sharedSearchList,
+						   srchParms.getOrderByList(), diffLimit,diffSkip, SHARED, selectList, JobListCountMode.NONE).getJobs();
 			  } catch (TapisImplException e) {
 			    	 _log.error(e.getMessage(), e);
 			           return Response.status(JobsApiUtils.toHttpStatus(e.condition)).
@@ -660,42 +659,27 @@ public class JobSearchResource extends AbstractResource {
      }     
      
      // --------------------   Compute Total Count -----------------------------------------------
-     // If we need the total count and there was a limit then we need to make a call
-     int totalCountOwner = 0;
+     // If we need the total count and there was a limit then we need to make a call.
+     // totalCountOwner represents all the jobs that the user is owner, admin or creator of
+     // the job; it's computed by the same query that retrieves the owner's page of jobs.
+     int totalCountOwner = JobListPage.NO_TOTAL_COUNT;
      int totalCountShared = 0;
-    
+     boolean ownerEstimated = false;
+     var ownerCountMode = computeTotal ? JobListCountMode.ESTIMATE : JobListCountMode.NONE;
+
      if (computeTotal){
-   	  //totalCountOwner represents all the jobs that the user is owner, admin or creator of the job.
-	   	  if((listType.equals(JobListType.MY_JOBS.name())) || (listType.equals(JobListType.ALL_JOBS.name()))) {
-	   		  try {
-		        	 totalCountOwner = jobsImpl.getJobsSearchListCountByUsernameUsingSqlSearchStr(threadContext.getOboUser(), threadContext.getOboTenantId(),sqlSearchStr,
-							   srchParms.getOrderByList(),!SHARED);
-				 } catch (TapisImplException e) {
-						_log.error(e.getMessage(), e);
-				           return Response.status(JobsApiUtils.toHttpStatus(e.condition)).
-				                   entity(TapisRestUtils.createErrorResponse(e.getMessage(), prettyPrint)).build();
-				 }
-	   	  }
-	   	  //totalCountShared represents all the jobs that are shared with the user
-	   	  if(sharedWithMe) {
-	   		  try {
-	   	           totalCountShared = jobsImpl.getJobsSearchListCountByUsernameUsingSqlSearchStr(threadContext.getOboUser(), threadContext.getOboTenantId(),sqlSearchStrShared,
-						   srchParms.getOrderByList(),SHARED);
-	   	 		 } catch (TapisImplException e) {
-	   	 				_log.error(e.getMessage(), e);
-	   	 		           return Response.status(JobsApiUtils.toHttpStatus(e.condition)).
-	   	 		                   entity(TapisRestUtils.createErrorResponse(e.getMessage(), prettyPrint)).build();
-	   	 		 }
-	   	  } 
-	   	  
-	   	  if(listType.equals(JobListType.ALL_JOBS.name())){
-	   		 totalCount = totalCountOwner +  totalCountShared;
-	   	  } else if (listType.equals(JobListType.MY_JOBS.name())){
-	   		  totalCount = totalCountOwner;
-	   	  } else {
-	   		  totalCount = totalCountShared;
-	   	  }
-    }
+     	  //totalCountShared represents all the jobs that are shared with the user
+     	  if(sharedWithMe) {
+     		  try {
+     		       totalCountShared = jobsImpl.getJobsSearchListCountByUsernameUsingSqlSearchStr(threadContext.getOboUser(), threadContext.getOboTenantId(),sqlSearchStrShared,
+     				   srchParms.getOrderByList(),SHARED);
+     		  } catch (TapisImplException e) {
+     			  _log.error(e.getMessage(), e);
+     			  return Response.status(JobsApiUtils.toHttpStatus(e.condition)).
+     			          entity(TapisRestUtils.createErrorResponse(e.getMessage(), prettyPrint)).build();
+     		  }
+     	  } 
+     }
     // ----------- Compute Total Ends -------------
      
     
@@ -708,9 +692,12 @@ public class JobSearchResource extends AbstractResource {
 		     
 	       try {
 	          
-	         jobSummaryList = jobsImpl.getJobSearchListByUsernameUsingSqlSearchStr(threadContext.getOboUser(), 
+	         var page = jobsImpl.getJobSearchPageByUsernameUsingSqlSearchStr(threadContext.getOboUser(), 
 	        		 threadContext.getOboTenantId(), sqlSearchStr, srchParms.getOrderByList(), 
-	        		 srchParms.getLimit(),srchParms.getSkip(),!SHARED);                       
+	        		 srchParms.getLimit(),srchParms.getSkip(),!SHARED, ownerCountMode);
+	         jobSummaryList = page.getJobs();
+	         totalCountOwner = page.getTotalCount();
+	         ownerEstimated = page.isEstimated();
 	       }
 	       catch (TapisImplException e) {
 	           _log.error(e.getMessage(), e);
@@ -724,6 +711,7 @@ public class JobSearchResource extends AbstractResource {
 	       }
 	       
    	  }
+	       if (computeTotal) totalCount = JobListUtils.combineTotalCount(listType, totalCountOwner, ownerEstimated, totalCountShared);
 	       // compute limit and skip for shared list
     	  if(!jobSummaryList.isEmpty()) {
     		  diffLimit = srchParms.getLimit() - jobSummaryList.size();
@@ -732,7 +720,9 @@ public class JobSearchResource extends AbstractResource {
     		  // When jobSummaryList is empty, then either all the records for jobs when user is the owner have been skipped 
     		  // or the list type is SHARED_JOBS
     		  diffLimit = srchParms.getLimit();
-    		  try {
+    		  if (totalCountOwner >= 0 && !ownerEstimated)
+    		      diffSkip = JobListUtils.computeSkip(listType, totalCountOwner, srchParms.getSkip());
+    		  else try {
   				diffSkip = JobListUtils.computeSkipSqlStr(listType,threadContext.getOboUser(), 
   						   threadContext.getOboTenantId(), sqlSearchStrShared, srchParms.getOrderByList(), srchParms.getSkip(), !SHARED );
   			  } catch (TapisImplException e) {
@@ -781,9 +771,12 @@ public class JobSearchResource extends AbstractResource {
   	   // then select the attributes that the user provides 
    		if((listType.equals(JobListType.MY_JOBS.name())) || (listType.equals(JobListType.ALL_JOBS.name()))) {
 	  	   try {
-			   jobs = jobsImpl.getJobSearchAllAttributesByUsernameUsingSqlSearchStr(threadContext.getOboUser(), 
+			   var page = jobsImpl.getJobSearchAllAttributesPageByUsernameUsingSqlSearchStr(threadContext.getOboUser(), 
 		        		   threadContext.getOboTenantId(), sqlSearchStr, srchParms.getOrderByList(), 
-		        		   srchParms.getLimit(), srchParms.getSkip(),!SHARED);                       
+		        		   srchParms.getLimit(), srchParms.getSkip(),!SHARED, selectList, ownerCountMode);
+			   jobs = page.getJobs();
+			   totalCountOwner = page.getTotalCount();
+			   ownerEstimated = page.isEstimated();
 		       }
 		       catch (TapisImplException e) {
 		           _log.error(e.getMessage(), e);
@@ -796,12 +789,15 @@ public class JobSearchResource extends AbstractResource {
 		                   entity(TapisRestUtils.createErrorResponse(e.getMessage(), prettyPrint)).build();
 		       }
    		}
+	   	 if (computeTotal) totalCount = JobListUtils.combineTotalCount(listType, totalCountOwner, ownerEstimated, totalCountShared);
 	   	 if(!jobs.isEmpty()) {
    		  diffLimit = srchParms.getLimit() - jobs.size();
    		  diffSkip = 0;
 	  	 } else {
 	   		  diffLimit = srchParms.getLimit();
-	   		  try {
+	   		  if (totalCountOwner >= 0 && !ownerEstimated)
+	   		      diffSkip = JobListUtils.computeSkip(listType, totalCountOwner, srchParms.getSkip());
+	   		  else try {
 					diffSkip = JobListUtils.computeSkipSqlStr(listType,threadContext.getOboUser(), 
 							   threadContext.getOboTenantId(), sqlSearchStrShared, srchParms.getOrderByList(), srchParms.getSkip(), !SHARED );
 				  } catch (TapisImplException e) {
@@ -813,8 +809,8 @@ public class JobSearchResource extends AbstractResource {
 	  	 //----------  Get the jobs shared with the user ---------------------------------------
          if(sharedWithMe && !sharedJobUuidsList.isEmpty()) {
 	    	  try {
-				jobsShared = jobsImpl.getJobSearchAllAttributesByUsernameUsingSqlSearchStr(threadContext.getOboUser(), threadContext.getOboTenantId(), sqlSearchStrShared,
-						   srchParms.getOrderByList(), diffLimit,diffSkip, SHARED);
+				jobsShared = jobsImpl.getJobSearchAllAttributesPageByUsernameUsingSqlSearchStr(threadContext.getOboUser(), threadContext.getOboTenantId(), sqlSearchStrShared,
+						   srchParms.getOrderByList(), diffLimit,diffSkip, SHARED, selectList, JobListCountMode.NONE).getJobs();
 			  } catch (TapisImplException e) {
 			    	 _log.error(e.getMessage(), e);
 			           return Response.status(JobsApiUtils.toHttpStatus(e.condition)).
@@ -1,5 +1,11 @@
 package edu.utexas.tacc.tapis.jobs.api.resources;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 import javax.servlet.ServletContext;
 import javax.servlet.http.HttpServletRequest;
 import javax.ws.rs.DefaultValue;
@@ -8,6 +14,9 @@ import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.CompletionCallback;
+import javax.ws.rs.container.Suspended;
 import javax.ws.rs.core.Application;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.HttpHeaders;
@@ -15,6 +24,7 @@ import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
 import javax.ws.rs.core.SecurityContext;
+import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.core.UriInfo;
 
 import org.apache.commons.lang3.StringUtils;
@@ -22,11 +32,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import edu.utexas.tacc.tapis.jobs.api.responses.RespGetJobStatus;
+import edu.utexas.tacc.tapis.jobs.api.utils.JobStatusBus;
+import edu.utexas.tacc.tapis.jobs.api.utils.JobStatusBus.StatusChange;
 import edu.utexas.tacc.tapis.jobs.api.utils.JobsApiUtils;
 import edu.utexas.tacc.tapis.jobs.impl.JobsImpl;
 import edu.utexas.tacc.tapis.jobs.model.dto.JobStatusDTO;
 import edu.utexas.tacc.tapis.jobs.model.dto.JobStatusDisplay;
 import edu.utexas.tacc.tapis.jobs.model.enumerations.JobResourceShare;
+import edu.utexas.tacc.tapis.jobs.model.enumerations.JobStatusType;
 import edu.utexas.tacc.tapis.jobs.model.enumerations.JobTapisPermission;
 import edu.utexas.tacc.tapis.shared.exceptions.TapisImplException;
 import edu.utexas.tacc.tapis.shared.i18n.MsgUtils;
@@ -51,6 +64,15 @@ public class JobStatusResource
     // Local logger.
     private static final Logger _log = LoggerFactory.getLogger(JobStatusResource.class);
     
+    // Long-poll and stream limits in seconds.
+    private static final int DEFAULT_WAIT_SECONDS = 60;
+    private static final int MAX_WAIT_SECONDS     = 300;
+    private static final int MAX_STREAM_SECONDS   = 3600;
+    private static final int HEARTBEAT_SECONDS    = 15;
+    
+    // Server-sent events.
+    private static final String SSE_MEDIA_TYPE = "text/event-stream";
+    
     /* **************************************************************************** */
     /*                                    Fields                                    */
     /* **************************************************************************** */
@@ -201,4 +223,396 @@ public class JobStatusResource
        return Response.status(Status.OK).entity(TapisRestUtils.createSuccessResponse(
                MsgUtils.getMsg("JOBS_STATUS_RETRIEVED", jobUuid), prettyPrint, r)).build();
      }
+
+     /* ---------------------------------------------------------------------------- */
+     /* waitJobStatus:                                                               */
+     /* ---------------------------------------------------------------------------- */
+     @GET
+     @Path("/{jobUuid}/status/wait")
+     @Produces(MediaType.APPLICATION_JSON)
+     @Operation(
+             description = "Long-poll the status of a job.  The current status is returned "
+                           + "immediately if it differs from lastStatus or if lastStatus is not "
+                           + "specified.  Otherwise, the request is held until the job's status "
+                           + "changes or the timeout expires, in which case the unchanged status "
+                           + "is returned.  The timeout is in seconds and cannot exceed "
+                           + MAX_WAIT_SECONDS + ".  Held requests do not occupy a server thread.\n\n"
+                           + "The caller must be the job owner, creator or a tenant administrator."
+                           + "",
+             tags = "jobs",
+             security = {@SecurityRequirement(name = "TapisJWT")},
+             responses = 
+                 {
+                  @ApiResponse(responseCode = "200", description = "Job status retrieved.",
+                      content = @Content(schema = @Schema(
+                         implementation = edu.utexas.tacc.tapis.jobs.api.responses.RespGetJobStatus.class))),
+                  @ApiResponse(responseCode = "400", description = "Input error.",
+                      content = @Content(schema = @Schema(
+                         implementation = edu.utexas.tacc.tapis.sharedapi.responses.RespBasic.class))),
+                  @ApiResponse(responseCode = "401", description = "Not authorized.",
+                      content = @Content(schema = @Schema(
+                         implementation = edu.utexas.tacc.tapis.sharedapi.responses.RespBasic.class))),
+                  @ApiResponse(responseCode = "403", description = "Forbidden.",
+                      content = @Content(schema = @Schema(
+                         implementation = edu.utexas.tacc.tapis.sharedapi.responses.RespBasic.class))),
+                  @ApiResponse(responseCode = "404", description = "Job not found.",
+                      content = @Content(schema = @Schema(
+                         implementation = edu.utexas.tacc.tapis.sharedapi.responses.RespBasic.class))),
+                  @ApiResponse(responseCode = "429", description = "Too many held status requests.",
+                      content = @Content(schema = @Schema(
+                         implementation = edu.utexas.tacc.tapis.sharedapi.responses.RespBasic.class))),
+                  @ApiResponse(responseCode = "500", description = "Server error.",
+                      content = @Content(schema = @Schema(
+                         implementation = edu.utexas.tacc.tapis.sharedapi.responses.RespBasic.class)))}
+     )
+     public void waitJobStatus(@Suspended AsyncResponse asyncResponse,
+                               @PathParam("jobUuid") String jobUuid,
+                               @QueryParam("lastStatus") String lastStatus,
+                               @DefaultValue("" + DEFAULT_WAIT_SECONDS) @QueryParam("timeout") int timeout,
+                               @DefaultValue("false") @QueryParam("pretty") boolean prettyPrint)
+     {
+       // Trace this request.
+       if (_log.isTraceEnabled()) {
+         String msg = MsgUtils.getMsg("TAPIS_TRACE_REQUEST", getClass().getSimpleName(), "waitJobStatus", 
+                                      "  " + _request.getRequestURL());
+         _log.trace(msg);
+       }
+       
+       // ------------------------- Input Processing -------------------------
+       if (StringUtils.isBlank(jobUuid)) {
+           String msg = MsgUtils.getMsg("SK_MISSING_PARAMETER", "jobUuid");
+           _log.error(msg);
+           asyncResponse.resume(Response.status(Status.BAD_REQUEST).
+                      entity(TapisRestUtils.createErrorResponse(msg, prettyPrint)).build());
+           return;
+       }
+       if (timeout < 0 || timeout > MAX_WAIT_SECONDS) {
+           String msg = MsgUtils.getMsg("TAPIS_INVALID_PARAMETER", "waitJobStatus", "timeout", timeout);
+           _log.error(msg);
+           asyncResponse.resume(Response.status(Status.BAD_REQUEST).
+                      entity(TapisRestUtils.createErrorResponse(msg, prettyPrint)).build());
+           return;
+       }
+       
+       // ------------------------- Create Context ---------------------------
+       // Validate the threadlocal content here so no subsequent code on this request needs to.
+       TapisThreadContext threadContext = TapisThreadLocal.tapisThreadContext.get();
+       if (!threadContext.validate()) {
+           var msg = MsgUtils.getMsg("TAPIS_INVALID_THREADLOCAL_VALUE", "validate");
+           _log.error(msg);
+           asyncResponse.resume(Response.status(Status.INTERNAL_SERVER_ERROR).
+                   entity(TapisRestUtils.createErrorResponse(msg, prettyPrint)).build());
+           return;
+       }
+       
+       // ------------------------- Wait for Status --------------------------
+       // Register before reading the status so that no change is missed between
+       // the read and the wait.  The waiter is closed when the response completes.
+       JobStatusBus.Waiter waiter = null;
+       JobStatusType status;
+       try {
+           waiter = JobStatusBus.getInstance().subscribeJob(threadContext.getOboTenantId(), 
+                                                            threadContext.getOboUser(), jobUuid, false);
+           status = getAuthorizedStatus(jobUuid, threadContext).getStatus();
+       } catch (TapisImplException e) {
+           if (waiter != null) waiter.close();
+           _log.error(e.getMessage(), e);
+           asyncResponse.resume(Response.status(JobsApiUtils.toHttpStatus(e.condition)).
+                   entity(TapisRestUtils.createErrorResponse(e.getMessage(), prettyPrint)).build());
+           return;
+       } catch (Exception e) {
+           if (waiter != null) waiter.close();
+           _log.error(e.getMessage(), e);
+           asyncResponse.resume(Response.status(Status.INTERNAL_SERVER_ERROR).
+                   entity(TapisRestUtils.createErrorResponse(e.getMessage(), prettyPrint)).build());
+           return;
+       }
+       
+       // Respond now if the status already differs or can't change.
+       if (!status.name().equals(lastStatus) || status.isTerminal() || timeout == 0) {
+           waiter.close();
+           asyncResponse.resume(statusResponse(jobUuid, status, prettyPrint));
+           return;
+       }
+       
+       // Release this thread and respond on the first change or the timeout,
+       // whichever comes first.  Changes arrive on the event listener's thread,
+       // which writes the small response into the container's output buffer.
+       final var jobWaiter = waiter;
+       final var unchanged = status;
+       final var done = new AtomicBoolean();
+       asyncResponse.register((CompletionCallback) throwable -> jobWaiter.close());
+       asyncResponse.setTimeoutHandler(ar -> {
+           if (done.compareAndSet(false, true)) 
+               ar.resume(statusResponse(jobUuid, unchanged, prettyPrint));
+       });
+       asyncResponse.setTimeout(timeout, TimeUnit.SECONDS);
+       jobWaiter.listen(change -> {
+           if (!change.status().name().equals(lastStatus) && done.compareAndSet(false, true))
+               asyncResponse.resume(statusResponse(jobUuid, change.status(), prettyPrint));
+       });
+     }
+
+     /* ---------------------------------------------------------------------------- */
+     /* streamJobStatus:                                                             */
+     /* ---------------------------------------------------------------------------- */
+     @GET
+     @Path("/{jobUuid}/status/stream")
+     @Produces(SSE_MEDIA_TYPE)
+     @Operation(
+             description = "Stream the status changes of a job as server-sent events.  The "
+                           + "first event contains the job's current status and each subsequent "
+                           + "event contains a new status.  The stream ends after the job reaches "
+                           + "a terminal status or after " + MAX_STREAM_SECONDS + " seconds, after "
+                           + "which clients can reconnect.  The number of concurrent streams per "
+                           + "server is limited.  Each event's data is a JSON object "
+                           + "with jobUuid, status and terminal fields.\n\n"
+                           + "The caller must be the job owner, creator or a tenant administrator."
+                           + "",
+             tags = "jobs",
+             security = {@SecurityRequirement(name = "TapisJWT")},
+             responses = 
+                 {
+                  @ApiResponse(responseCode = "200", description = "Job status stream started."),
+                  @ApiResponse(responseCode = "400", description = "Input error.",
+                      content = @Content(schema = @Schema(
+                         implementation = edu.utexas.tacc.tapis.sharedapi.responses.RespBasic.class))),
+                  @ApiResponse(responseCode = "401", description = "Not authorized.",
+                      content = @Content(schema = @Schema(
+                         implementation = edu.utexas.tacc.tapis.sharedapi.responses.RespBasic.class))),
+                  @ApiResponse(responseCode = "403", description = "Forbidden.",
+                      content = @Content(schema = @Schema(
+                         implementation = edu.utexas.tacc.tapis.sharedapi.responses.RespBasic.class))),
+                  @ApiResponse(responseCode = "404", description = "Job not found.",
+                      content = @Content(schema = @Schema(
+                         implementation = edu.utexas.tacc.tapis.sharedapi.responses.RespBasic.class))),
+                  @ApiResponse(responseCode = "429", description = "Too many held status requests.",
+                      content = @Content(schema = @Schema(
+                         implementation = edu.utexas.tacc.tapis.sharedapi.responses.RespBasic.class))),
+                  @ApiResponse(responseCode = "500", description = "Server error.",
+                      content = @Content(schema = @Schema(
+                         implementation = edu.utexas.tacc.tapis.sharedapi.responses.RespBasic.class)))}
+     )
+     public Response streamJobStatus(@PathParam("jobUuid") String jobUuid)
+     {
+       // Trace this request.
+       if (_log.isTraceEnabled()) {
+         String msg = MsgUtils.getMsg("TAPIS_TRACE_REQUEST", getClass().getSimpleName(), "streamJobStatus", 
+                                      "  " + _request.getRequestURL());
+         _log.trace(msg);
+       }
+       
+       // ------------------------- Input Processing -------------------------
+       if (StringUtils.isBlank(jobUuid)) {
+           String msg = MsgUtils.getMsg("SK_MISSING_PARAMETER", "jobUuid");
+           _log.error(msg);
+           return Response.status(Status.BAD_REQUEST).type(MediaType.APPLICATION_JSON).
+                      entity(TapisRestUtils.createErrorResponse(msg, false)).build();
+       }
+       
+       // ------------------------- Create Context ---------------------------
+       // Validate the threadlocal content here so no subsequent code on this request needs to.
+       TapisThreadContext threadContext = TapisThreadLocal.tapisThreadContext.get();
+       if (!threadContext.validate()) {
+           var msg = MsgUtils.getMsg("TAPIS_INVALID_THREADLOCAL_VALUE", "validate");
+           _log.error(msg);
+           return Response.status(Status.INTERNAL_SERVER_ERROR).type(MediaType.APPLICATION_JSON).
+                   entity(TapisRestUtils.createErrorResponse(msg, false)).build();
+       }
+       
+       // ------------------------- Open Stream ------------------------------
+       // The waiter is handed off to the stream, which closes it.
+       JobStatusBus.Waiter waiter = null;
+       JobStatusType status;
+       try {
+           waiter = JobStatusBus.getInstance().subscribeJob(threadContext.getOboTenantId(), 
+                                                            threadContext.getOboUser(), jobUuid, true);
+           status = getAuthorizedStatus(jobUuid, threadContext).getStatus();
+       } catch (TapisImplException e) {
+           if (waiter != null) waiter.close();
+           _log.error(e.getMessage(), e);
+           return Response.status(JobsApiUtils.toHttpStatus(e.condition)).type(MediaType.APPLICATION_JSON).
+                   entity(TapisRestUtils.createErrorResponse(e.getMessage(), false)).build();
+       } catch (Exception e) {
+           if (waiter != null) waiter.close();
+           _log.error(e.getMessage(), e);
+           return Response.status(Status.INTERNAL_SERVER_ERROR).type(MediaType.APPLICATION_JSON).
+                   entity(TapisRestUtils.createErrorResponse(e.getMessage(), false)).build();
+       }
+       
+       // Send the current status and then each change.
+       var current = new StatusChange(threadContext.getOboTenantId(), jobUuid, null, status);
+       final var jobWaiter = waiter;
+       StreamingOutput stream = out -> {
+           try (jobWaiter) {
+               writeEvent(out, current);
+               if (!current.status().isTerminal()) streamChanges(jobWaiter, out, true);
+           }
+       };
+       return sseResponse(stream);
+     }
+
+     /* ---------------------------------------------------------------------------- */
+     /* streamUserJobStatus:                                                         */
+     /* ---------------------------------------------------------------------------- */
+     @GET
+     @Path("/status/stream")
+     @Produces(SSE_MEDIA_TYPE)
+     @Operation(
+             description = "Stream the status changes of all jobs owned by the caller as "
+                           + "server-sent events.  Each event's data is a JSON object with "
+                           + "jobUuid, status and terminal fields.  The stream ends after "
+                           + MAX_STREAM_SECONDS + " seconds, after which clients can reconnect.  "
+                           + "The number of concurrent streams per server is limited."
+                           + "",
+             tags = "jobs",
+             security = {@SecurityRequirement(name = "TapisJWT")},
+             responses = 
+                 {
+                  @ApiResponse(responseCode = "200", description = "Job status stream started."),
+                  @ApiResponse(responseCode = "401", description = "Not authorized.",
+                      content = @Content(schema = @Schema(
+                         implementation = edu.utexas.tacc.tapis.sharedapi.responses.RespBasic.class))),
+                  @ApiResponse(responseCode = "429", description = "Too many held status requests.",
+                      content = @Content(schema = @Schema(
+                         implementation = edu.utexas.tacc.tapis.sharedapi.responses.RespBasic.class))),
+                  @ApiResponse(responseCode = "500", description = "Server error.",
+                      content = @Content(schema = @Schema(
+                         implementation = edu.utexas.tacc.tapis.sharedapi.responses.RespBasic.class)))}
+     )
+     public Response streamUserJobStatus()
+     {
+       // Trace this request.
+       if (_log.isTraceEnabled()) {
+         String msg = MsgUtils.getMsg("TAPIS_TRACE_REQUEST", getClass().getSimpleName(), "streamUserJobStatus", 
+                                      "  " + _request.getRequestURL());
+         _log.trace(msg);
+       }
+       
+       // ------------------------- Create Context ---------------------------
+       // Validate the threadlocal content here so no subsequent code on this request needs to.
+       TapisThreadContext threadContext = TapisThreadLocal.tapisThreadContext.get();
+       if (!threadContext.validate()) {
+           var msg = MsgUtils.getMsg("TAPIS_INVALID_THREADLOCAL_VALUE", "validate");
+           _log.error(msg);
+           return Response.status(Status.INTERNAL_SERVER_ERROR).type(MediaType.APPLICATION_JSON).
+                   entity(TapisRestUtils.createErrorResponse(msg, false)).build();
+       }
+       
+       // ------------------------- Open Stream ------------------------------
+       // Users only see the jobs they own, so no further authorization is needed.
+       final JobStatusBus.Waiter waiter;
+       try {
+           waiter = JobStatusBus.getInstance().subscribeOwner(threadContext.getOboTenantId(), 
+                                                              threadContext.getOboUser());
+       } catch (TapisImplException e) {
+           _log.error(e.getMessage(), e);
+           return Response.status(JobsApiUtils.toHttpStatus(e.condition)).type(MediaType.APPLICATION_JSON).
+                   entity(TapisRestUtils.createErrorResponse(e.getMessage(), false)).build();
+       }
+       
+       StreamingOutput stream = out -> {
+           try (waiter) {
+               writeComment(out, "connected");
+               streamChanges(waiter, out, false);
+           }
+       };
+       return sseResponse(stream);
+     }
+
+     /* **************************************************************************** */
+     /*                               Private Methods                                */
+     /* **************************************************************************** */
+     /* ---------------------------------------------------------------------------- */
+     /* getAuthorizedStatus:                                                         */
+     /* ---------------------------------------------------------------------------- */
+     /** Read the job's status with the same authorization as getJobStatus.
+      * 
+      * @param jobUuid the job
+      * @param threadContext the validated request context
+      * @return the visible job's status
+      * @throws TapisImplException if the job is not found, not visible or not accessible
+      */
+     private JobStatusDTO getAuthorizedStatus(String jobUuid, TapisThreadContext threadContext)
+      throws TapisImplException
+     {
+         var jobstatus = JobsImpl.getInstance().getJobStatusByUuid(jobUuid, threadContext.getOboUser(),
+                             threadContext.getOboTenantId(), JobResourceShare.JOB_HISTORY.name(), 
+                             JobTapisPermission.READ.name());
+         if (jobstatus == null) 
+             throw new TapisImplException(MsgUtils.getMsg("TAPIS_NOT_FOUND", "Job", jobUuid),
+                                          Status.NOT_FOUND.getStatusCode());
+         if (!jobstatus.getVisible())
+             throw new TapisImplException(MsgUtils.getMsg("JOBS_JOB_NOT_VISIBLE", jobUuid, 
+                                                          threadContext.getOboTenantId()),
+                                          Status.NOT_FOUND.getStatusCode());
+         return jobstatus;
+     }
+
+     /* ---------------------------------------------------------------------------- */
+     /* statusResponse:                                                              */
+     /* ---------------------------------------------------------------------------- */
+     private static Response statusResponse(String jobUuid, JobStatusType status, 
+                                            boolean prettyPrint)
+     {
+         JobStatusDisplay resultStatus = new JobStatusDisplay ();
+         resultStatus.setStatus(status.toString());
+         RespGetJobStatus r = new RespGetJobStatus(resultStatus);
+         return Response.status(Status.OK).entity(TapisRestUtils.createSuccessResponse(
+                 MsgUtils.getMsg("JOBS_STATUS_RETRIEVED", jobUuid), prettyPrint, r)).build();
+     }
+
+     /* ---------------------------------------------------------------------------- */
+     /* streamChanges:                                                               */
+     /* ---------------------------------------------------------------------------- */
+     /** Write status changes as server-sent events until the maximum stream time
+      * elapses, the client disconnects or, optionally, a terminal status is sent.
+      * Heartbeat comments detect disconnected clients when no changes occur.
+      */
+     private static void streamChanges(JobStatusBus.Waiter waiter, OutputStream out,
+                                       boolean stopOnTerminal)
+      throws IOException
+     {
+         long deadline = System.currentTimeMillis() + MAX_STREAM_SECONDS * 1000L;
+         try {
+             while (System.currentTimeMillis() < deadline) {
+                 var change = waiter.poll(HEARTBEAT_SECONDS * 1000L);
+                 if (change == null) {writeComment(out, "heartbeat"); continue;}
+                 writeEvent(out, change);
+                 if (stopOnTerminal && change.status().isTerminal()) break;
+             }
+         } catch (InterruptedException e) {
+             Thread.currentThread().interrupt();
+         }
+     }
+
+     /* ---------------------------------------------------------------------------- */
+     /* writeEvent:                                                                  */
+     /* ---------------------------------------------------------------------------- */
+     private static void writeEvent(OutputStream out, StatusChange change) throws IOException
+     {
+         String event = "event: status\ndata: " + change.toJson() + "\n\n";
+         out.write(event.getBytes(StandardCharsets.UTF_8));
+         out.flush();
+     }
+
+     /* ---------------------------------------------------------------------------- */
+     /* writeComment:                                                                */
+     /* ---------------------------------------------------------------------------- */
+     private static void writeComment(OutputStream out, String comment) throws IOException
+     {
+         out.write((": " + comment + "\n\n").getBytes(StandardCharsets.UTF_8));
+         out.flush();
+     }
+
+     /* ---------------------------------------------------------------------------- */
+     /* sseResponse:                                                                 */
+     /* ---------------------------------------------------------------------------- */
+     private static Response sseResponse(StreamingOutput stream)
+     {
+         // Disable caching and proxy buffering so that events are delivered promptly.
+         return Response.ok(stream, SSE_MEDIA_TYPE).
+                    header("Cache-Control", "no-cache").
+                    header("X-Accel-Buffering", "no").build();
+     }
 }
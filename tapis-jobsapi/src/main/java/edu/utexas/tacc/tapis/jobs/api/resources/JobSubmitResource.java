@@ -2,6 +2,10 @@ package edu.utexas.tacc.tapis.jobs.api.resources;
 
 import java.io.InputStream;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 
 import javax.servlet.ServletContext;
 import javax.servlet.http.HttpServletRequest;
@@ -27,12 +31,18 @@ import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.gson.JsonArray;
+
 import edu.utexas.tacc.tapis.jobs.api.model.SubmitContext;
+import edu.utexas.tacc.tapis.jobs.api.model.SubmitDefinitionCache;
 import edu.utexas.tacc.tapis.jobs.api.requestBody.ReqSubmitJob;
 import edu.utexas.tacc.tapis.jobs.api.requestBody.ReqUserEvent;
 import edu.utexas.tacc.tapis.jobs.api.responses.RespGetResubmit;
 import edu.utexas.tacc.tapis.jobs.api.responses.RespSubmitJob;
+import edu.utexas.tacc.tapis.jobs.api.responses.RespSubmitJobs;
+import edu.utexas.tacc.tapis.jobs.api.responses.RespSubmitJobs.JobSubmitResult;
 import edu.utexas.tacc.tapis.jobs.api.utils.JobsApiUtils;
+import edu.utexas.tacc.tapis.jobs.api.utils.SubscriptionBatchPoster;
 import edu.utexas.tacc.tapis.jobs.config.RuntimeParameters;
 import edu.utexas.tacc.tapis.jobs.dao.JobResubmitDao;
 import edu.utexas.tacc.tapis.jobs.dao.JobsDao;
@@ -50,6 +60,7 @@ import edu.utexas.tacc.tapis.shared.providers.email.EmailClientFactory;
 import edu.utexas.tacc.tapis.shared.threadlocal.TapisThreadContext;
 import edu.utexas.tacc.tapis.shared.threadlocal.TapisThreadLocal;
 import edu.utexas.tacc.tapis.shared.utils.HTMLizer;
+import edu.utexas.tacc.tapis.shared.utils.TapisGsonUtils;
 import edu.utexas.tacc.tapis.sharedapi.responses.RespBasic;
 import edu.utexas.tacc.tapis.sharedapi.utils.TapisRestUtils;
 import io.swagger.v3.oas.annotations.Operation;
@@ -75,6 +86,9 @@ public class JobSubmitResource
     private static final String FILE_USER_EVENT_REQUEST = 
             "/edu/utexas/tacc/tapis/jobs/api/jsonschema/UserEventRequest.json";
     
+    // The maximum number of jobs in a bulk submission.
+    public static final int MAX_BULK_JOBS = 10000;
+    
     /* **************************************************************************** */
     /*                                    Fields                                    */
     /* **************************************************************************** */
@@ -193,6 +207,101 @@ public class JobSubmitResource
        return doSubmit(prettyPrint, payloadStream);
      }
      
+     /* ---------------------------------------------------------------------------- */
+     /* submitJobs:                                                                  */
+     /* ---------------------------------------------------------------------------- */
+     @POST
+     @Path("/submit/bulk")
+     @Consumes(MediaType.APPLICATION_JSON)
+     @Produces(MediaType.APPLICATION_JSON)
+     @Operation(
+             description = "Submit multiple jobs that use the same application in one request.  "
+                           + "The payload is an array of job submission requests, each of which "
+                           + "has the same format as the payload of a single job submission. All "
+                           + "requests must specify the same application ID and version.\n\n"
+                           + ""
+                           + "The application and system definitions are retrieved once and each "
+                           + "job is validated independently. Valid jobs are created in a single "
+                           + "database transaction and queued for execution. The result contains "
+                           + "an entry for each request in payload order with the new job's UUID "
+                           + "or the error that prevented the job from being created. The HTTP "
+                           + "status of each entry is the status the job would have received if "
+                           + "it had been submitted by itself.  At most " + MAX_BULK_JOBS 
+                           + " jobs can be submitted in one request."
+                           + "",
+             tags = "jobs",
+             security = {@SecurityRequirement(name = "TapisJWT")},
+             responses = 
+                 {
+                  @ApiResponse(responseCode = "200", description = "Jobs processed.",
+                      content = @Content(schema = @Schema(
+                         implementation = edu.utexas.tacc.tapis.jobs.api.responses.RespSubmitJobs.class))),
+                  @ApiResponse(responseCode = "400", description = "Input error.",
+                      content = @Content(schema = @Schema(
+                         implementation = edu.utexas.tacc.tapis.sharedapi.responses.RespBasic.class))),
+                  @ApiResponse(responseCode = "401", description = "Not authorized.",
+                      content = @Content(schema = @Schema(
+                         implementation = edu.utexas.tacc.tapis.sharedapi.responses.RespBasic.class))),
+                  @ApiResponse(responseCode = "403", description = "Forbidden.",
+                      content = @Content(schema = @Schema(
+                         implementation = edu.utexas.tacc.tapis.sharedapi.responses.RespBasic.class))),
+                  @ApiResponse(responseCode = "500", description = "Server error.",
+                      content = @Content(schema = @Schema(
+                         implementation = edu.utexas.tacc.tapis.sharedapi.responses.RespBasic.class)))}
+     )
+     public Response submitJobs(@DefaultValue("false") @QueryParam("pretty") boolean prettyPrint,
+                                InputStream payloadStream)
+     {
+       // Trace this request.
+       if (_log.isTraceEnabled()) {
+         String msg = MsgUtils.getMsg("TAPIS_TRACE_REQUEST", getClass().getSimpleName(), "submitJobs", 
+                                      "  " + _request.getRequestURL());
+         _log.trace(msg);
+       }
+       
+       // ------------------------- Validate Payload -------------------------
+       // Read the payload into a json array.
+       JsonArray jsonArray = null;
+       try {
+           String json = IOUtils.toString(payloadStream, Charset.forName("UTF-8"));
+           jsonArray = TapisGsonUtils.getGson().fromJson(json, JsonArray.class);
+           if (jsonArray == null) jsonArray = new JsonArray(); // empty payload
+       }
+       catch (Exception e) {
+           String msg = MsgUtils.getMsg("NET_INVALID_JSON_INPUT", "bulk job submission", e.getMessage());
+           _log.error(msg, e);
+           return Response.status(Status.BAD_REQUEST).
+                   entity(TapisRestUtils.createErrorResponse(msg, prettyPrint)).build();
+       }
+       
+       // Check the number of jobs.
+       if (jsonArray.size() < 1 || jsonArray.size() > MAX_BULK_JOBS) {
+           String msg = MsgUtils.getMsg("TAPIS_INVALID_PARAMETER", "submitJobs", "job count", 
+                                        jsonArray.size() + " (1 to " + MAX_BULK_JOBS + " jobs allowed)");
+           _log.error(msg);
+           return Response.status(Status.BAD_REQUEST).
+                   entity(TapisRestUtils.createErrorResponse(msg, prettyPrint)).build();
+       }
+       
+       // Validate the threadlocal content here so no subsequent code on this request needs to.
+       TapisThreadContext threadContext = TapisThreadLocal.tapisThreadContext.get();
+       if (!threadContext.validate()) {
+           var msg = MsgUtils.getMsg("TAPIS_INVALID_THREADLOCAL_VALUE", "validate");
+           _log.error(msg);
+           return Response.status(Status.INTERNAL_SERVER_ERROR).
+                   entity(TapisRestUtils.createErrorResponse(msg, prettyPrint)).build();
+       }
+       
+       // The bulk code takes it from here.
+       var results = doSubmitBulk(jsonArray);
+       int created = 0;
+       for (var result : results) if (result.uuid != null) created++;
+       RespSubmitJobs r = new RespSubmitJobs(results);
+       return Response.status(Status.OK).entity(TapisRestUtils.createSuccessResponse(
+               MsgUtils.getMsg("TAPIS_CREATED", "jobs", created + " of " + results.size()), 
+               prettyPrint, r)).build();
+     }
+     
      /* ---------------------------------------------------------------------------- */
      /* resubmitJob:                                                                 */
      /* ---------------------------------------------------------------------------- */
@@ -669,6 +778,145 @@ public class JobSubmitResource
                  MsgUtils.getMsg("JOBS_CREATED", job.getUuid()), prettyPrint, r)).build();
      }
      
+     /* ---------------------------------------------------------------------------- */
+     /* doSubmitBulk:                                                                */
+     /* ---------------------------------------------------------------------------- */
+     /** Validate, save and queue each job in a bulk submission.  Jobs are validated
+      * independently using a shared definition cache so that the application and
+      * systems are retrieved once.  Valid jobs are written in one transaction and 
+      * queued on one channel.  The result of each job is reported in payload order.
+      * 
+      * @param jsonArray the array of job submission requests
+      * @return the per-job results in request order
+      */
+     private List<JobSubmitResult> doSubmitBulk(JsonArray jsonArray)
+     {
+         // Each job has a result slot that's assigned as soon as its outcome is known.
+         int count = jsonArray.size();
+         var results = new JobSubmitResult[count];
+         var jsonList = new String[count];
+         
+         // ------------------------- Initialize Jobs --------------------------
+         // Parse and validate each job request in isolation.
+         var definitionCache = new SubmitDefinitionCache();
+         var contexts = new ArrayList<SubmitContext>(count);
+         var jobs     = new ArrayList<Job>(count);
+         var indexes  = new ArrayList<Integer>(count);
+         String appId = null, appVersion = null;
+         for (int i = 0; i < count; i++) {
+             // Parse and validate the json against the single job schema.
+             ReqSubmitJob payload = null;
+             jsonList[i] = jsonArray.get(i).toString();
+             try {payload = getPayload(jsonList[i], FILE_JOB_SUBMIT_REQUEST, ReqSubmitJob.class);} 
+             catch (Exception e) {
+                 String msg = MsgUtils.getMsg("NET_REQUEST_PAYLOAD_ERROR", "submitJobs", e.getMessage());
+                 results[i] = new JobSubmitResult(i, null, Status.BAD_REQUEST.getStatusCode(), msg);
+                 continue;
+             }
+             
+             // All jobs must use the same application.
+             if (appId == null) {appId = payload.getAppId(); appVersion = payload.getAppVersion();}
+             else if (!appId.equals(payload.getAppId()) || !appVersion.equals(payload.getAppVersion())) {
+                 String msg = MsgUtils.getMsg("TAPIS_INVALID_PARAMETER", "submitJobs", "appId", 
+                                  payload.getAppId() + "-" + payload.getAppVersion() + 
+                                  " (all jobs must use application " + appId + "-" + appVersion + ")");
+                 results[i] = new JobSubmitResult(i, null, Status.BAD_REQUEST.getStatusCode(), msg);
+                 continue;
+             }
+             
+             // Initialize the job with calculated effective parameters.
+             var reqCtx = new SubmitContext(payload, definitionCache);
+             try {jobs.add(reqCtx.initNewJob());}
+             catch (TapisImplException e) {
+                 results[i] = new JobSubmitResult(i, null, 
+                                  JobsApiUtils.toHttpStatus(e.condition).getStatusCode(), e.getMessage());
+                 continue;
+             }
+             catch (Exception e) {
+                 // This should never happen, but we defend against it. 
+                 _log.error(e.getMessage(), e);
+                 results[i] = new JobSubmitResult(i, null, 
+                                  Status.INTERNAL_SERVER_ERROR.getStatusCode(), e.getMessage());
+                 continue;
+             }
+             contexts.add(reqCtx);
+             indexes.add(i);
+         }
+         if (_log.isDebugEnabled())
+             _log.debug("Bulk submission validated " + jobs.size() + " of " + count + 
+                        " jobs with " + definitionCache.getMisses() + " definition retrievals.");
+         
+         // ------------------- Create User Subscriptions ----------------------
+         // Jobs whose subscriptions cannot be created are rejected.
+         var savedJobs = new ArrayList<Job>(jobs.size());
+         var savedContexts = new ArrayList<SubmitContext>(jobs.size());
+         var savedIndexes = new ArrayList<Integer>(jobs.size());
+         for (int j = 0; j < jobs.size(); j++) {
+             var job = jobs.get(j);
+             String msg = createSubscriptions(contexts.get(j), job);
+             if (msg != null) {
+                 int i = indexes.get(j);
+                 results[i] = new JobSubmitResult(i, null, Status.INTERNAL_SERVER_ERROR.getStatusCode(), msg);
+                 continue;
+             }
+             savedJobs.add(job);
+             savedContexts.add(contexts.get(j));
+             savedIndexes.add(indexes.get(j));
+         }
+         
+         // ------------------------- Save Jobs --------------------------------
+         // Write all the jobs and their initial events to the database at once.
+         try {new JobsDao().createJobs(savedJobs);}
+         catch (Exception e) {
+             _log.error(e.getMessage(), e);
+             for (int i : savedIndexes) 
+                 results[i] = new JobSubmitResult(i, null, Status.INTERNAL_SERVER_ERROR.getStatusCode(), 
+                                                  e.getMessage());
+             savedJobs.clear();
+         }
+         
+         // Save and sent any initial subscription events.
+         for (int j = 0; j < savedJobs.size(); j++)
+             createSubscriptionEvents(savedContexts.get(j), savedJobs.get(j));
+         
+         // -------------------------- Queue Requests --------------------------
+         // Submit the jobs to the worker queues and fail those that weren't queued.
+         var failures = savedJobs.isEmpty() ? Map.<String,String>of() : 
+                                              JobQueueManager.getInstance().queueJobs(savedJobs);
+         var resubmits = new ArrayList<JobResubmit>(savedJobs.size());
+         for (int j = 0; j < savedJobs.size(); j++) {
+             var job = savedJobs.get(j);
+             int i = savedIndexes.get(j);
+             String error = failures.get(job.getUuid());
+             if (error != null) {
+                 String msg = MsgUtils.getMsg("JOBS_SUBMIT_ERROR", job.getName(), job.getAppId(), error);
+                 failJob(job, msg);
+                 results[i] = new JobSubmitResult(i, null, Status.INTERNAL_SERVER_ERROR.getStatusCode(), error);
+                 continue;
+             }
+             
+             // Success.
+             results[i] = new JobSubmitResult(i, job.getUuid(), Status.OK.getStatusCode(), 
+                                              MsgUtils.getMsg("JOBS_CREATED", job.getUuid()));
+             
+             // Collect the valid job json definition for resubmission.
+             JobResubmit jobResubmit = new JobResubmit();
+             jobResubmit.setJobUuid(job.getUuid());
+             jobResubmit.setJobDefinition(jsonList[i]);
+             resubmits.add(jobResubmit);
+         }
+         
+         // ------------------------- Save Resubmit Info -----------------------
+         // Errors are logged but don't affect the submitted jobs.
+         try {new JobResubmitDao().createJobResubmits(resubmits);} 
+         catch (Exception e) {
+             String msg = MsgUtils.getMsg("JOBS_JOBRESUBMIT_FAILED_PERSIST", "resubmit", e.getMessage());
+             _log.error(msg);
+         }
+         
+         return Arrays.asList(results);
+     }
+     
      /* ---------------------------------------------------------------------------- */
      /* createSubscriptions:                                                         */
      /* ---------------------------------------------------------------------------- */
@@ -681,31 +929,50 @@ public class JobSubmitResource
       * @return null if ok, a response object on error
       */
      private Response createSubscriptions(SubmitContext reqCtx, Job job, boolean prettyPrint)
+     {
+         // Create the subscriptions.
+         String msg = createSubscriptions(reqCtx, job);
+         if (msg == null) return null;
+         return Response.status(Status.INTERNAL_SERVER_ERROR).
+                 entity(TapisRestUtils.createErrorResponse(msg, prettyPrint)).build();
+     }
+     
+     /* ---------------------------------------------------------------------------- */
+     /* createSubscriptions:                                                         */
+     /* ---------------------------------------------------------------------------- */
+     /** Post subscription create messages to Notifications.  Return null on success,
+      * the error message when a subscription could not be created.
+      * 
+      * @param reqCtx submit request context
+      * @param job the populated job object
+      * @return null if ok, an error message otherwise
+      */
+     private String createSubscriptions(SubmitContext reqCtx, Job job)
      {
          // Does the job have any subscriptions?
          if (reqCtx.getSubmitReq().getSubscriptions().isEmpty()) return null;
          
          // We assume the subscription requests are validated, so any failure create
          // a subscription in Notifications is a system problem that aborts the job.
-         for (var req : reqCtx.getSubmitReq().getSubscriptions()) {
-             String url = null;
-             try {url = JobsApiUtils.postSubscriptionRequest(req, job.getOwner(), job.getTenant(), job.getUuid());}
-             catch (Exception e) {
-                 String msg = MsgUtils.getMsg("JOBS_SUBSCRIPTION_ERROR", job.getUuid(), 
-                                              job.getOwner(), job.getTenant(), e.getMessage());
-                 _log.error(msg, e);
-                 return Response.status(Status.INTERNAL_SERVER_ERROR).
-                         entity(TapisRestUtils.createErrorResponse(msg, prettyPrint)).build();
-             }
+         // Requests are issued concurrently and any partially created subscriptions
+         // are deleted on failure.
+         var reqs = reqCtx.getSubmitReq().getSubscriptions();
+         try {SubscriptionBatchPoster.getInstance().postAll(reqs, job.getOwner(), job.getTenant(), job.getUuid());}
+         catch (Exception e) {
+             String msg = MsgUtils.getMsg("JOBS_SUBSCRIPTION_ERROR", job.getUuid(), 
+                                          job.getOwner(), job.getTenant(), e.getMessage());
+             _log.error(msg, e);
+             return msg;
+         }
                  
-             // Log subscriptions created.
-             if (_log.isDebugEnabled()) {
+         // Log subscriptions created.
+         if (_log.isDebugEnabled()) 
+             for (var req : reqs) {
                  var typeFilter = JobsApiUtils.getNotifTypeFilter(req.getEventCategoryFilter(), 
                                                                   JobsApiUtils.TYPE_FILTER_WILDCARD);
                  var msg = MsgUtils.getMsg("NOTIFICATIONS_SUBSCRIPTION_CREATED", job.getUuid(), typeFilter);
                  _log.debug(msg);
              }
-         }
          
          // Success.
          return null;
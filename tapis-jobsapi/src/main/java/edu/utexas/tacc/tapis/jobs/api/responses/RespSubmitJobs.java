@@ -0,0 +1,42 @@
+package edu.utexas.tacc.tapis.jobs.api.responses;
+
+import java.util.List;
+
+import edu.utexas.tacc.tapis.sharedapi.responses.RespAbstract;
+import edu.utexas.tacc.tapis.sharedapi.responses.results.ResultListMetadata;
+
+public final class RespSubmitJobs
+ extends RespAbstract
+{
+    public RespSubmitJobs(List<JobSubmitResult> results)
+    {
+        result = results;
+        ResultListMetadata meta = new ResultListMetadata();
+        meta.recordCount = results.size();
+        meta.totalCount = results.size();
+        metadata = meta;
+    }
+
+    public List<JobSubmitResult> result;
+
+    /** The outcome of one job in a bulk submission.  The index is the job's
+     * position in the request array and the status is the http status that
+     * the job would have received if it had been submitted by itself.  The
+     * uuid is assigned only to jobs that were created.
+     */
+    public static final class JobSubmitResult
+    {
+        public int    index;
+        public String uuid;
+        public int    status;
+        public String message;
+
+        public JobSubmitResult(int index, String uuid, int status, String message)
+        {
+            this.index = index;
+            this.uuid = uuid;
+            this.status = status;
+            this.message = message;
+        }
+    }
+}
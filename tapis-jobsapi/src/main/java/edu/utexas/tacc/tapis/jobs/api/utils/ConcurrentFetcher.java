@@ -0,0 +1,123 @@
+package edu.utexas.tacc.tapis.jobs.api.utils;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.ws.rs.core.Response.Status;
+
+import edu.utexas.tacc.tapis.shared.exceptions.TapisImplException;
+import edu.utexas.tacc.tapis.shared.i18n.MsgUtils;
+
+/** Run independent remote calls made while processing a request on a shared,
+ * bounded thread pool so that the request thread can overlap them.  When all
+ * pool threads are busy, the call runs on the submitting thread, so requests
+ * never wait in a queue behind other requests' calls.
+ *
+ * Calls are expected to throw TapisImplException with the message and status
+ * that should be returned to the user.  The join() method rethrows that same
+ * exception, so error reporting does not change when a call is moved off the
+ * request thread.
+ *
+ * @author rcardone
+ */
+public final class ConcurrentFetcher
+{
+    /* **************************************************************************** */
+    /*                                   Constants                                  */
+    /* **************************************************************************** */
+    // Default maximum number of pool threads.
+    public static final int DEFAULT_THREADS = 64;
+
+    // Thread naming.
+    private static final String THREAD_PREFIX = "JobsFetcher-";
+
+    /* **************************************************************************** */
+    /*                                    Fields                                    */
+    /* **************************************************************************** */
+    // Singleton instance of this class.
+    private static ConcurrentFetcher _instance;
+
+    // The pool.
+    private final ThreadPoolExecutor _executor;
+
+    /* **************************************************************************** */
+    /*                                 Constructors                                 */
+    /* **************************************************************************** */
+    /* ---------------------------------------------------------------------------- */
+    /* constructor:                                                                 */
+    /* ---------------------------------------------------------------------------- */
+    public ConcurrentFetcher(int maxThreads)
+    {
+        // Threads are created on demand and time out when idle.
+        var threadNum = new AtomicInteger();
+        _executor = new ThreadPoolExecutor(0, maxThreads, 60, TimeUnit.SECONDS,
+            new SynchronousQueue<Runnable>(), r -> {
+                var thread = new Thread(r, THREAD_PREFIX + threadNum.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /* **************************************************************************** */
+    /*                                Public Methods                                */
+    /* **************************************************************************** */
+    /* ---------------------------------------------------------------------------- */
+    /* getInstance:                                                                 */
+    /* ---------------------------------------------------------------------------- */
+    public static ConcurrentFetcher getInstance()
+    {
+        // Create the singleton instance if necessary.
+        if (_instance == null) {
+            synchronized (ConcurrentFetcher.class) {
+                if (_instance == null) _instance = new ConcurrentFetcher(DEFAULT_THREADS);
+            }
+        }
+        return _instance;
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* submit:                                                                      */
+    /* ---------------------------------------------------------------------------- */
+    /** Start a call.
+     *
+     * @param call the remote call
+     * @return the call's future
+     */
+    public <T> Future<T> submit(Callable<T> call)
+    {
+        return _executor.submit(call);
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* join:                                                                        */
+    /* ---------------------------------------------------------------------------- */
+    /** Wait for a call to complete and return its result.  TapisImplExceptions and
+     * runtime exceptions thrown by the call are rethrown unchanged.
+     *
+     * @param future a future returned by submit()
+     * @return the call's result
+     * @throws TapisImplException the call's exception or a wrapped exception
+     */
+    public static <T> T join(Future<T> future) throws TapisImplException
+    {
+        try {return future.get();}
+        catch (ExecutionException e) {
+            var cause = e.getCause();
+            if (cause instanceof TapisImplException) throw (TapisImplException) cause;
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            String msg = MsgUtils.getMsg("TAPIS_RUNTIME_EXCEPTION", cause.getMessage());
+            throw new TapisImplException(msg, cause, Status.INTERNAL_SERVER_ERROR.getStatusCode());
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            String msg = MsgUtils.getMsg("TAPIS_RUNTIME_EXCEPTION", e.getMessage());
+            throw new TapisImplException(msg, e, Status.INTERNAL_SERVER_ERROR.getStatusCode());
+        }
+    }
+}
@@ -5,6 +5,7 @@ import java.util.List;
 
 import edu.utexas.tacc.tapis.jobs.impl.JobsImpl;
 import edu.utexas.tacc.tapis.jobs.model.JobShared;
+import edu.utexas.tacc.tapis.jobs.model.dto.JobListPage;
 import edu.utexas.tacc.tapis.jobs.model.enumerations.JobListType;
 import edu.utexas.tacc.tapis.shared.exceptions.TapisImplException;
 import edu.utexas.tacc.tapis.shared.threadlocal.OrderBy;
@@ -84,4 +85,36 @@ public class JobListUtils {
 		 }
     	return diffSkip;
     }
+    
+    /* ---------------------------------------------------------------------------- */
+    /* computeSkip                                                                  */
+    /* ---------------------------------------------------------------------------- */
+    /** Compute the skip for the shared list when the owner's exact total is already
+     * known from the owner page query, which avoids another count query.
+     */
+    public static int computeSkip(String listType, int totalCountOwner, int skip) 
+    {
+    	if (listType.equals(JobListType.SHARED_JOBS.name())) return skip;
+    	return totalCountOwner <= skip ? skip - totalCountOwner : 0;
+    }
+    
+    /* ---------------------------------------------------------------------------- */
+    /* combineTotalCount                                                            */
+    /* ---------------------------------------------------------------------------- */
+    /** Combine the owner and shared totals according to the list type.  Totals that
+     * were not computed are negative and contribute nothing.  An estimated owner
+     * total is never reported as an exact count, so the combined total is -1 when
+     * the list type includes the owner's jobs and their total is an estimate.
+     */
+    public static int combineTotalCount(String listType, int totalCountOwner, 
+                                        boolean ownerEstimated, int totalCountShared)
+    {
+    	if (ownerEstimated && !listType.equals(JobListType.SHARED_JOBS.name()))
+    	    return JobListPage.NO_TOTAL_COUNT;
+    	int owner  = Math.max(totalCountOwner, 0);
+    	int shared = Math.max(totalCountShared, 0);
+    	if (listType.equals(JobListType.ALL_JOBS.name())) return owner + shared;
+    	if (listType.equals(JobListType.MY_JOBS.name())) return owner;
+    	return shared;
+    }
 }
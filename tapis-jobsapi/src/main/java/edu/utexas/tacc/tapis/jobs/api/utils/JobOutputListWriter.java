@@ -0,0 +1,118 @@
+package edu.utexas.tacc.tapis.jobs.api.utils;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonWriter;
+
+import edu.utexas.tacc.tapis.files.client.gen.model.FileInfo;
+import edu.utexas.tacc.tapis.jobs.utils.DataLocator.OutputPageWriter;
+import edu.utexas.tacc.tapis.shared.utils.TapisGsonUtils;
+
+/** Write a job output listing response incrementally.  The response has the same
+ * JSON envelope as RespGetJobOutputList, but its result array is written one page
+ * at a time as pages arrive from the Files service and its metadata, which reports
+ * the final record count, is written last.  Only the current page is held in memory.
+ *
+ * Callers first write the envelope by constructing this object, then write any
+ * number of pages and finally call finish().  If finish() is not called, the
+ * response is incomplete and clients will fail to parse it.
+ *
+ * @author rcardone
+ */
+public final class JobOutputListWriter
+ implements OutputPageWriter
+{
+    /* ********************************************************************** */
+    /*                               Constants                                */
+    /* ********************************************************************** */
+    // Envelope members written by this class.
+    private static final String RESULT   = "result";
+    private static final String METADATA = "metadata";
+    private static final String RECORD_COUNT = "recordCount";
+
+    /* ********************************************************************** */
+    /*                                Fields                                  */
+    /* ********************************************************************** */
+    private final Gson       _gson;
+    private final JsonWriter _writer;
+    private final JsonObject _metadata;
+    private long             _count;
+
+    /* ********************************************************************** */
+    /*                             Constructors                               */
+    /* ********************************************************************** */
+    /* ---------------------------------------------------------------------- */
+    /* constructor:                                                           */
+    /* ---------------------------------------------------------------------- */
+    /** Write the envelope up to the start of the result array.
+     *
+     * @param out the response stream
+     * @param envelopeJson a success response with an empty result list
+     * @param prettyPrint whether to indent the output
+     * @throws IOException on write errors
+     */
+    public JobOutputListWriter(OutputStream out, String envelopeJson, boolean prettyPrint)
+     throws IOException
+    {
+        _gson = TapisGsonUtils.getGson(prettyPrint);
+        _writer = new JsonWriter(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)));
+        if (prettyPrint) _writer.setIndent("  ");
+
+        // Copy all envelope members except those that we write.
+        JsonObject envelope = _gson.fromJson(envelopeJson, JsonObject.class);
+        JsonElement metadata = envelope.get(METADATA);
+        _metadata = metadata != null && metadata.isJsonObject() ? metadata.getAsJsonObject() : new JsonObject();
+        _writer.beginObject();
+        for (Map.Entry<String,JsonElement> entry : envelope.entrySet()) {
+            if (RESULT.equals(entry.getKey()) || METADATA.equals(entry.getKey())) continue;
+            _writer.name(entry.getKey());
+            _gson.toJson(entry.getValue(), _writer);
+        }
+        _writer.name(RESULT);
+        _writer.beginArray();
+        _writer.flush();
+    }
+
+    /* ********************************************************************** */
+    /*                             Public Methods                             */
+    /* ********************************************************************** */
+    /* ---------------------------------------------------------------------- */
+    /* write:                                                                 */
+    /* ---------------------------------------------------------------------- */
+    /** Append a page of entries to the result array and send it to the client. */
+    @Override
+    public void write(List<FileInfo> page) throws IOException
+    {
+        for (FileInfo fileInfo : page) _gson.toJson(fileInfo, FileInfo.class, _writer);
+        _count += page.size();
+        _writer.flush();
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* finish:                                                                */
+    /* ---------------------------------------------------------------------- */
+    /** Close the result array and write the metadata with the final count. */
+    public void finish() throws IOException
+    {
+        _writer.endArray();
+        _metadata.addProperty(RECORD_COUNT, _count);
+        _writer.name(METADATA);
+        _gson.toJson(_metadata, _writer);
+        _writer.endObject();
+        _writer.flush();
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* getCount:                                                              */
+    /* ---------------------------------------------------------------------- */
+    public long getCount() {return _count;}
+}
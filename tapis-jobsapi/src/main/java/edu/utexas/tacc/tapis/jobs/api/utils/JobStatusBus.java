@@ -0,0 +1,378 @@
+package edu.utexas.tacc.tapis.jobs.api.utils;
+
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import javax.ws.rs.core.Response.Status;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.JsonObject;
+
+import edu.utexas.tacc.tapis.jobs.model.JobEvent;
+import edu.utexas.tacc.tapis.jobs.model.enumerations.JobEventType;
+import edu.utexas.tacc.tapis.jobs.model.enumerations.JobStatusType;
+import edu.utexas.tacc.tapis.shared.exceptions.TapisImplException;
+import edu.utexas.tacc.tapis.shared.i18n.MsgUtils;
+import edu.utexas.tacc.tapis.shared.utils.TapisGsonUtils;
+
+/** In-process distribution of job status changes to the long-poll and streaming
+ * status requests being served by this Jobs API instance.  The JobStatusListener
+ * feeds the bus with the JOB_NEW_STATUS events that workers and the front-end
+ * publish to the event exchange; the bus hands each change to the waiters
+ * registered on the job or on the job's owner.
+ *
+ * Each waiter represents one held client connection and is subject to these
+ * limits:
+ *
+ *  - the total number of waiters on this instance,
+ *  - the number of streaming waiters on this instance,
+ *  - the number of waiters held by a single user, and
+ *  - the number of undelivered changes buffered for the waiter, beyond which
+ *    the oldest changes are dropped.
+ *
+ * Long-poll waiters register a listener and hold no thread while they wait.
+ * Streaming waiters are polled by the thread writing the stream, which is a
+ * container thread for the stream's lifetime, so they are limited to a small
+ * fraction of the container's thread pool.
+ *
+ * Waiters must be closed when their connection ends.
+ *
+ * @author rcardone
+ */
+public final class JobStatusBus
+{
+    /* **************************************************************************** */
+    /*                                   Constants                                  */
+    /* **************************************************************************** */
+    // Tracing.
+    private static final Logger _log = LoggerFactory.getLogger(JobStatusBus.class);
+
+    // Default limits.
+    public static final int DEFAULT_MAX_WAITERS          = 2000;
+    public static final int DEFAULT_MAX_STREAMS          = 32;
+    public static final int DEFAULT_MAX_WAITERS_PER_USER = 20;
+    public static final int DEFAULT_WAITER_CAPACITY      = 64;
+
+    /* **************************************************************************** */
+    /*                                    Fields                                    */
+    /* **************************************************************************** */
+    // Singleton instance of this class.
+    private static JobStatusBus _instance;
+
+    // Waiters keyed by tenant and job uuid or by tenant and job owner.
+    private final ConcurrentHashMap<String,Set<Waiter>> _jobWaiters   = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String,Set<Waiter>> _ownerWaiters = new ConcurrentHashMap<>();
+
+    // Waiter counts keyed by tenant and user and in total.
+    private final ConcurrentHashMap<String,AtomicInteger> _userCounts = new ConcurrentHashMap<>();
+    private final AtomicInteger _totalCount = new AtomicInteger();
+    private final AtomicInteger _streamCount = new AtomicInteger();
+
+    // Limits.
+    private final int _maxWaiters;
+    private final int _maxStreams;
+    private final int _maxWaitersPerUser;
+    private final int _waiterCapacity;
+
+    /* **************************************************************************** */
+    /*                                    Records                                   */
+    /* **************************************************************************** */
+    /** A job's transition to a new status.  The owner is null if it could not be
+     * determined from the event.
+     */
+    public record StatusChange(String tenant, String jobUuid, String owner,
+                               JobStatusType status)
+    {
+        /** Serialize the change for delivery to clients. */
+        public String toJson()
+        {
+            var json = new JsonObject();
+            json.addProperty("jobUuid", jobUuid);
+            json.addProperty("status", status.name());
+            json.addProperty("terminal", status.isTerminal());
+            return json.toString();
+        }
+    }
+
+    /* **************************************************************************** */
+    /*                                 Constructors                                 */
+    /* **************************************************************************** */
+    /* ---------------------------------------------------------------------------- */
+    /* constructor:                                                                 */
+    /* ---------------------------------------------------------------------------- */
+    public JobStatusBus(int maxWaiters, int maxStreams, int maxWaitersPerUser, 
+                        int waiterCapacity)
+    {
+        _maxWaiters = maxWaiters;
+        _maxStreams = maxStreams;
+        _maxWaitersPerUser = maxWaitersPerUser;
+        _waiterCapacity = waiterCapacity;
+    }
+
+    /* **************************************************************************** */
+    /*                                Public Methods                                */
+    /* **************************************************************************** */
+    /* ---------------------------------------------------------------------------- */
+    /* getInstance:                                                                 */
+    /* ---------------------------------------------------------------------------- */
+    public static JobStatusBus getInstance()
+    {
+        // Create the singleton instance if necessary.
+        if (_instance == null) {
+            synchronized (JobStatusBus.class) {
+                if (_instance == null)
+                    _instance = new JobStatusBus(DEFAULT_MAX_WAITERS, DEFAULT_MAX_STREAMS,
+                                                 DEFAULT_MAX_WAITERS_PER_USER, 
+                                                 DEFAULT_WAITER_CAPACITY);
+            }
+        }
+        return _instance;
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* subscribeJob:                                                                */
+    /* ---------------------------------------------------------------------------- */
+    /** Register a waiter for the status changes of a single job.  The caller is
+     * responsible for authorizing the user's access to the job.
+     *
+     * @param tenant the job tenant
+     * @param user the user holding the connection
+     * @param jobUuid the job to watch
+     * @param stream true if a thread will poll the waiter for its lifetime
+     * @return the open waiter
+     * @throws TapisImplException when a waiter limit would be exceeded
+     */
+    public Waiter subscribeJob(String tenant, String user, String jobUuid, boolean stream)
+     throws TapisImplException
+    {
+        return register(_jobWaiters, tenant + "|" + jobUuid, tenant + "|" + user, stream);
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* subscribeOwner:                                                              */
+    /* ---------------------------------------------------------------------------- */
+    /** Register a streaming waiter for the status changes of all jobs owned 
+     * by the user.
+     *
+     * @param tenant the user's tenant
+     * @param owner the user holding the connection and owning the jobs
+     * @return the open waiter
+     * @throws TapisImplException when a waiter limit would be exceeded
+     */
+    public Waiter subscribeOwner(String tenant, String owner)
+     throws TapisImplException
+    {
+        String key = tenant + "|" + owner;
+        return register(_ownerWaiters, key, key, true);
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* publish:                                                                     */
+    /* ---------------------------------------------------------------------------- */
+    /** Deliver a status change to all interested waiters.
+     *
+     * @param change the new status of a job
+     */
+    public void publish(StatusChange change)
+    {
+        var waiters = _jobWaiters.get(change.tenant() + "|" + change.jobUuid());
+        if (waiters != null) for (var waiter : waiters) waiter.offer(change);
+
+        if (change.owner() != null) {
+            waiters = _ownerWaiters.get(change.tenant() + "|" + change.owner());
+            if (waiters != null) for (var waiter : waiters) waiter.offer(change);
+        }
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* publish:                                                                     */
+    /* ---------------------------------------------------------------------------- */
+    /** Deliver the status change carried by a job event.  Events other than new
+     * status events are ignored.  The job owner is only extracted from the event
+     * description when some user is watching all of their jobs.
+     *
+     * @param event an event read from the event exchange
+     */
+    public void publish(JobEvent event)
+    {
+        // Only status changes are of interest.
+        if (event.getEvent() != JobEventType.JOB_NEW_STATUS) return;
+        if (_totalCount.get() == 0) return;
+
+        JobStatusType status;
+        try {status = JobStatusType.valueOf(event.getEventDetail());}
+            catch (Exception e) {
+                String msg = MsgUtils.getMsg("TAPIS_INVALID_PARAMETER", "publish",
+                                             "eventDetail", event.getEventDetail());
+                _log.warn(msg);
+                return;
+            }
+
+        // The owner is recorded in the event data.
+        String owner = null;
+        if (!_ownerWaiters.isEmpty() && event.getDescription() != null) {
+            try {
+                var data = TapisGsonUtils.getGson().fromJson(event.getDescription(), JsonObject.class);
+                var ownerElement = data == null ? null : data.get("jobOwner");
+                if (ownerElement != null && !ownerElement.isJsonNull())
+                    owner = ownerElement.getAsString();
+            }
+            catch (Exception e) {
+                if (_log.isDebugEnabled()) _log.debug(e.getMessage(), e);
+            }
+        }
+
+        publish(new StatusChange(event.getTenant(), event.getJobUuid(), owner, status));
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* accessors:                                                                   */
+    /* ---------------------------------------------------------------------------- */
+    public int getWaiterCount() {return _totalCount.get();}
+    public int getStreamCount() {return _streamCount.get();}
+
+    /* **************************************************************************** */
+    /*                               Private Methods                                */
+    /* **************************************************************************** */
+    /* ---------------------------------------------------------------------------- */
+    /* register:                                                                    */
+    /* ---------------------------------------------------------------------------- */
+    private Waiter register(ConcurrentHashMap<String,Set<Waiter>> waiterMap,
+                            String key, String userKey, boolean stream)
+     throws TapisImplException
+    {
+        // Reserve the user's slot and then the instance-wide slot.
+        var userCount = _userCounts.computeIfAbsent(userKey, k -> new AtomicInteger());
+        if (userCount.incrementAndGet() > _maxWaitersPerUser) {
+            userCount.decrementAndGet();
+            String msg = MsgUtils.getMsg("TAPIS_INVALID_PARAMETER", "subscribe",
+                                         "concurrent status requests for " + userKey,
+                                         _maxWaitersPerUser);
+            throw new TapisImplException(msg, Status.TOO_MANY_REQUESTS.getStatusCode());
+        }
+        if (_totalCount.incrementAndGet() > _maxWaiters) {
+            _totalCount.decrementAndGet();
+            userCount.decrementAndGet();
+            String msg = MsgUtils.getMsg("TAPIS_INVALID_PARAMETER", "subscribe",
+                                         "concurrent status requests", _maxWaiters);
+            throw new TapisImplException(msg, Status.SERVICE_UNAVAILABLE.getStatusCode());
+        }
+        if (stream && _streamCount.incrementAndGet() > _maxStreams) {
+            _streamCount.decrementAndGet();
+            _totalCount.decrementAndGet();
+            userCount.decrementAndGet();
+            String msg = MsgUtils.getMsg("TAPIS_INVALID_PARAMETER", "subscribe",
+                                         "concurrent status streams", _maxStreams);
+            throw new TapisImplException(msg, Status.SERVICE_UNAVAILABLE.getStatusCode());
+        }
+
+        // Make the waiter visible to publishers.
+        var waiter = new Waiter(waiterMap, key, userCount, stream);
+        waiterMap.compute(key, (k, set) -> {
+            if (set == null) set = ConcurrentHashMap.newKeySet();
+            set.add(waiter);
+            return set;
+        });
+        return waiter;
+    }
+
+    /* **************************************************************************** */
+    /*                                 Waiter Class                                 */
+    /* **************************************************************************** */
+    /** A registration for status changes held by one client connection. */
+    public final class Waiter
+     implements AutoCloseable
+    {
+        // Registration.
+        private final ConcurrentHashMap<String,Set<Waiter>> _waiterMap;
+        private final String        _key;
+        private final AtomicInteger _userCount;
+        private final boolean       _stream;
+
+        // Undelivered changes and bookkeeping.
+        private final ArrayBlockingQueue<StatusChange> _changes;
+        private final AtomicInteger _dropped = new AtomicInteger();
+        private volatile boolean    _closed;
+
+        // Receives changes instead of the queue once set.  Guarded by this.
+        private Consumer<StatusChange> _listener;
+
+        private Waiter(ConcurrentHashMap<String,Set<Waiter>> waiterMap, String key,
+                       AtomicInteger userCount, boolean stream)
+        {
+            _waiterMap = waiterMap;
+            _key = key;
+            _userCount = userCount;
+            _stream = stream;
+            _changes = new ArrayBlockingQueue<>(_waiterCapacity);
+        }
+
+        /** Deliver all buffered and future changes to the listener instead of
+         * queuing them.  The listener is called on the publishing thread and
+         * must not block.
+         *
+         * @param listener the change consumer
+         */
+        public synchronized void listen(Consumer<StatusChange> listener)
+        {
+            StatusChange change;
+            while ((change = _changes.poll()) != null) listener.accept(change);
+            _listener = listener;
+        }
+
+        /** Wait up to the timeout for the next change.
+         *
+         * @param timeoutMillis the maximum wait
+         * @return the next change or null on timeout
+         * @throws InterruptedException if interrupted while waiting
+         */
+        public StatusChange poll(long timeoutMillis) throws InterruptedException
+        {
+            return _changes.poll(timeoutMillis, TimeUnit.MILLISECONDS);
+        }
+
+        /** The number of changes discarded because the client fell behind. */
+        public int getDropped() {return _dropped.get();}
+
+        /** Unregister this waiter and release its slots.  Idempotent. */
+        @Override
+        public void close()
+        {
+            synchronized (this) {
+                if (_closed) return;
+                _closed = true;
+            }
+            _waiterMap.computeIfPresent(_key, (k, set) -> {
+                set.remove(this);
+                return set.isEmpty() ? null : set;
+            });
+            _userCount.decrementAndGet();
+            _totalCount.decrementAndGet();
+            if (_stream) _streamCount.decrementAndGet();
+        }
+
+        /** Pass a change to the listener or buffer it, discarding the oldest 
+         * buffered changes when full. 
+         */
+        private void offer(StatusChange change)
+        {
+            Consumer<StatusChange> listener;
+            synchronized (this) {
+                listener = _listener;
+                if (listener == null) {
+                    while (!_changes.offer(change)) {
+                        if (_changes.poll() != null) _dropped.incrementAndGet();
+                    }
+                    return;
+                }
+            }
+            listener.accept(change);
+        }
+    }
+}
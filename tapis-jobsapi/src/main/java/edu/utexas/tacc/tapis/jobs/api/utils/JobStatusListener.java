@@ -0,0 +1,169 @@
+package edu.utexas.tacc.tapis.jobs.api.utils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.DefaultConsumer;
+import com.rabbitmq.client.Envelope;
+
+import edu.utexas.tacc.tapis.jobs.model.JobEvent;
+import edu.utexas.tacc.tapis.jobs.queue.JobQueueManager;
+import edu.utexas.tacc.tapis.jobs.queue.JobQueueManagerNames;
+import edu.utexas.tacc.tapis.shared.i18n.MsgUtils;
+import edu.utexas.tacc.tapis.shared.utils.TapisGsonUtils;
+
+/** Feed the JobStatusBus from the job event exchange.  The event exchange is a
+ * fanout exchange, so this listener binds its own exclusive, server-named queue
+ * to it and receives a copy of every job event without competing with the
+ * EventReader for messages on the durable event queue.  The queue is deleted by
+ * the broker when this Jobs API instance disconnects.
+ *
+ * Messages are auto-acknowledged; a lost status change only delays a long-poll
+ * client until its timeout.  The channel is checked periodically and reopened if
+ * the broker closed it.
+ *
+ * @author rcardone
+ */
+public final class JobStatusListener
+{
+    /* **************************************************************************** */
+    /*                                   Constants                                  */
+    /* **************************************************************************** */
+    // Tracing.
+    private static final Logger _log = LoggerFactory.getLogger(JobStatusListener.class);
+
+    // Seconds between channel checks.
+    private static final long CHECK_INTERVAL_SECONDS = 30;
+
+    // Thread naming.
+    private static final String THREAD_NAME = "JobsStatusListener";
+
+    /* **************************************************************************** */
+    /*                                    Fields                                    */
+    /* **************************************************************************** */
+    // Singleton instance of this class.
+    private static JobStatusListener _instance;
+
+    // The bus being fed.
+    private final JobStatusBus _bus;
+
+    // The current consuming channel.
+    private volatile Channel _channel;
+
+    // Channel check thread.
+    private ScheduledExecutorService _checker;
+
+    /* **************************************************************************** */
+    /*                                 Constructors                                 */
+    /* **************************************************************************** */
+    /* ---------------------------------------------------------------------------- */
+    /* constructor:                                                                 */
+    /* ---------------------------------------------------------------------------- */
+    private JobStatusListener(JobStatusBus bus) {_bus = bus;}
+
+    /* **************************************************************************** */
+    /*                                Public Methods                                */
+    /* **************************************************************************** */
+    /* ---------------------------------------------------------------------------- */
+    /* getInstance:                                                                 */
+    /* ---------------------------------------------------------------------------- */
+    public static JobStatusListener getInstance()
+    {
+        // Create the singleton instance if necessary.
+        if (_instance == null) {
+            synchronized (JobStatusListener.class) {
+                if (_instance == null) _instance = new JobStatusListener(JobStatusBus.getInstance());
+            }
+        }
+        return _instance;
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* start:                                                                       */
+    /* ---------------------------------------------------------------------------- */
+    /** Begin consuming job events.  The JobQueueManager must already be initialized.
+     * A failure to connect is logged and retried by the channel checker, so status
+     * requests degrade to returning at their timeout rather than failing.
+     */
+    public synchronized void start()
+    {
+        if (_checker != null) return;
+        connect();
+        _checker = Executors.newSingleThreadScheduledExecutor(r -> {
+            var thread = new Thread(r, THREAD_NAME);
+            thread.setDaemon(true);
+            return thread;
+        });
+        _checker.scheduleWithFixedDelay(() -> {
+            var channel = _channel;
+            if (channel == null || !channel.isOpen()) connect();
+        }, CHECK_INTERVAL_SECONDS, CHECK_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /* **************************************************************************** */
+    /*                               Private Methods                                */
+    /* **************************************************************************** */
+    /* ---------------------------------------------------------------------------- */
+    /* connect:                                                                     */
+    /* ---------------------------------------------------------------------------- */
+    /** Open a channel, bind a private queue to the event exchange and consume it. */
+    private void connect()
+    {
+        var qmgr = JobQueueManager.getInstance();
+        String exchangeName = JobQueueManagerNames.getEventExchangeName();
+        Channel channel = null;
+        try {
+            channel = qmgr.getNewInChannel();
+            String queueName = channel.queueDeclare().getQueue();
+            channel.queueBind(queueName, exchangeName, JobQueueManagerNames.DEFAULT_BINDING_KEY);
+
+            final boolean autoack = true;
+            channel.basicConsume(queueName, autoack, new DefaultConsumer(channel) {
+                @Override
+                public void handleDelivery(String consumerTag, Envelope envelope,
+                                           AMQP.BasicProperties properties, byte[] body)
+                {
+                    deliver(body);
+                }
+            });
+            _channel = channel;
+        }
+        catch (Exception e) {
+            String msg = MsgUtils.getMsg("JOBS_QMGR_Q_BIND_ERROR", "queue", "status listener",
+                                         JobQueueManagerNames.DEFAULT_BINDING_KEY,
+                                         qmgr.getInConnectionName(),
+                                         channel == null ? -1 : channel.getChannelNumber(),
+                                         e.getMessage());
+            _log.error(msg, e);
+            if (channel != null)
+                try {channel.abort(AMQP.CHANNEL_ERROR, e.getMessage());}
+                    catch (IOException e1) {}
+        }
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* deliver:                                                                     */
+    /* ---------------------------------------------------------------------------- */
+    /** Decode a job event and hand it to the bus.  Never throws. */
+    private void deliver(byte[] body)
+    {
+        try {
+            String json = new String(body, StandardCharsets.UTF_8);
+            var event = TapisGsonUtils.getGson(true).fromJson(json, JobEvent.class);
+            if (event != null) _bus.publish(event);
+        }
+        catch (Exception e) {
+            String msg = MsgUtils.getMsg("ALOE_JSON_PARSE_ERROR", THREAD_NAME,
+                                         "job event", e.getMessage());
+            _log.warn(msg);
+        }
+    }
+}
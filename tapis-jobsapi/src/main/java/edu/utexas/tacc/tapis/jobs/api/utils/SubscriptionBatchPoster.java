@@ -0,0 +1,272 @@
+package edu.utexas.tacc.tapis.jobs.api.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import edu.utexas.tacc.tapis.jobs.api.requestBody.ReqSubscribe;
+import edu.utexas.tacc.tapis.jobs.exceptions.JobException;
+import edu.utexas.tacc.tapis.jobs.impl.JobsImpl;
+import edu.utexas.tacc.tapis.shared.i18n.MsgUtils;
+
+/** Create all the subscriptions of a job submission in Notifications.  When a
+ * job has more than one subscription, the requests are issued concurrently on
+ * a bounded thread pool and must all complete within a shared deadline.
+ *
+ * Subscriptions are created before the job is saved, so when any request
+ * fails or the deadline expires the job will be rejected.  In that case all
+ * subscriptions on the job are deleted so that none outlive the failed
+ * submission.  Since the job's uuid is the subject filter of each of its
+ * subscriptions, a single delete-by-subject call removes them all.
+ *
+ * @author rcardone
+ */
+public final class SubscriptionBatchPoster
+{
+    /* **************************************************************************** */
+    /*                                   Constants                                  */
+    /* **************************************************************************** */
+    // Tracing.
+    private static final Logger _log = LoggerFactory.getLogger(SubscriptionBatchPoster.class);
+
+    // Default configuration.
+    public static final int  DEFAULT_THREADS         = 16;
+    public static final long DEFAULT_DEADLINE_MILLIS = 20000;
+
+    // Thread naming.
+    private static final String THREAD_PREFIX = "JobsSubscriptionPoster-";
+
+    /* **************************************************************************** */
+    /*                                    Fields                                    */
+    /* **************************************************************************** */
+    // Singleton instance of this class.
+    private static SubscriptionBatchPoster _instance;
+
+    // The bounded pool on which Notifications is called and the batch deadline.
+    private final ExecutorService _executor;
+    private final long            _deadlineMillis;
+
+    /* **************************************************************************** */
+    /*                                  Interfaces                                  */
+    /* **************************************************************************** */
+    /** Create one subscription and return its url. Called concurrently. */
+    @FunctionalInterface
+    public interface SubscriptionPoster
+    {
+        String post(ReqSubscribe req) throws Exception;
+    }
+
+    /** Delete all subscriptions on the job and return the number deleted. */
+    @FunctionalInterface
+    public interface SubscriptionRemover
+    {
+        int deleteAll() throws Exception;
+    }
+
+    /* **************************************************************************** */
+    /*                                 Constructors                                 */
+    /* **************************************************************************** */
+    /* ---------------------------------------------------------------------------- */
+    /* constructor:                                                                 */
+    /* ---------------------------------------------------------------------------- */
+    public SubscriptionBatchPoster(int threads, long deadlineMillis)
+    {
+        _deadlineMillis = deadlineMillis;
+
+        // Daemon threads that time out when idle.
+        var threadNum = new AtomicInteger();
+        var executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<Runnable>(), r -> {
+                var thread = new Thread(r, THREAD_PREFIX + threadNum.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        executor.allowCoreThreadTimeOut(true);
+        _executor = executor;
+    }
+
+    /* **************************************************************************** */
+    /*                                Public Methods                                */
+    /* **************************************************************************** */
+    /* ---------------------------------------------------------------------------- */
+    /* getInstance:                                                                 */
+    /* ---------------------------------------------------------------------------- */
+    public static SubscriptionBatchPoster getInstance()
+    {
+        // Create the singleton instance if necessary.
+        if (_instance == null) {
+            synchronized (SubscriptionBatchPoster.class) {
+                if (_instance == null)
+                    _instance = new SubscriptionBatchPoster(DEFAULT_THREADS, DEFAULT_DEADLINE_MILLIS);
+            }
+        }
+        return _instance;
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* postAll:                                                                     */
+    /* ---------------------------------------------------------------------------- */
+    /** Create the job's subscriptions in Notifications on behalf of the user.
+     *
+     * @param reqs the validated subscription requests
+     * @param user the owner of the subscriptions
+     * @param tenant the owner's tenant
+     * @param jobUuid the target job's uuid
+     * @return the new subscriptions' urls in request order
+     * @throws JobException if any subscription could not be created
+     */
+    public List<String> postAll(List<ReqSubscribe> reqs, String user, String tenant, String jobUuid)
+     throws JobException
+    {
+        return postAll(reqs, jobUuid,
+            req -> JobsApiUtils.postSubscriptionRequest(req, user, tenant, jobUuid),
+            () -> JobsImpl.getInstance().deleteJobSubscriptions(jobUuid, user, tenant));
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* postAll:                                                                     */
+    /* ---------------------------------------------------------------------------- */
+    /** Create subscriptions using the poster and, on failure, delete any that may
+     * have been created using the remover.  The first failure in request order is
+     * reported.
+     *
+     * @param reqs the validated subscription requests
+     * @param jobUuid the target job's uuid
+     * @param poster creates one subscription
+     * @param remover deletes all of the job's subscriptions
+     * @return the new subscriptions' urls in request order
+     * @throws JobException if any subscription could not be created
+     */
+    public List<String> postAll(List<ReqSubscribe> reqs, String jobUuid,
+                                SubscriptionPoster poster, SubscriptionRemover remover)
+     throws JobException
+    {
+        // A single subscription is posted on the caller's thread.
+        var urls = new ArrayList<String>(reqs.size());
+        if (reqs.size() == 1) {
+            try {urls.add(poster.post(reqs.get(0)));}
+                catch (Exception e) {
+                    compensate(jobUuid, remover);
+                    throw new JobException(e.getMessage(), e);
+                }
+            return urls;
+        }
+
+        // Issue all requests.
+        var inFlight = new InFlight();
+        var futures = new ArrayList<Future<String>>(reqs.size());
+        for (var req : reqs) 
+            futures.add(_executor.submit(() -> {
+                if (!inFlight.enter()) return null;
+                try {return poster.post(req);} finally {inFlight.exit();}
+            }));
+
+        // Wait for all of them within the shared deadline.
+        long deadline = System.currentTimeMillis() + _deadlineMillis;
+        Exception failure = null;
+        for (var future : futures) {
+            try {
+                long remaining = Math.max(0, deadline - System.currentTimeMillis());
+                urls.add(future.get(remaining, TimeUnit.MILLISECONDS));
+            }
+            catch (ExecutionException e) {
+                failure = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                break;
+            }
+            catch (TimeoutException e) {
+                failure = new JobException(MsgUtils.getMsg("TAPIS_RUNTIME_EXCEPTION",
+                              "Subscription creation did not complete within " + 
+                              _deadlineMillis + " milliseconds."), e);
+                break;
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failure = e;
+                break;
+            }
+        }
+        if (failure == null) return urls;
+
+        // Keep queued requests from starting and wait for those already in flight
+        // so that none can complete after the compensating delete.
+        inFlight.abortAndAwait(_deadlineMillis);
+        for (var future : futures) future.cancel(false);
+        compensate(jobUuid, remover);
+        if (failure instanceof JobException) throw (JobException) failure;
+        throw new JobException(failure.getMessage(), failure);
+    }
+
+    /* **************************************************************************** */
+    /*                               Private Methods                                */
+    /* **************************************************************************** */
+    /* ---------------------------------------------------------------------------- */
+    /* compensate:                                                                  */
+    /* ---------------------------------------------------------------------------- */
+    /** Best effort deletion of the job's subscriptions.  Subscriptions that
+     * survive expire after their ttl.
+     */
+    private void compensate(String jobUuid, SubscriptionRemover remover)
+    {
+        try {
+            int deleted = remover.deleteAll();
+            if (_log.isDebugEnabled())
+                _log.debug("Deleted " + deleted + " subscriptions on failed job submission " +
+                           jobUuid + ".");
+        }
+        catch (Exception e) {
+            String msg = MsgUtils.getMsg("TAPIS_RUNTIME_EXCEPTION", "Unable to delete the " +
+                             "subscriptions of failed job submission " + jobUuid + ": " + e.getMessage());
+            _log.error(msg, e);
+        }
+    }
+
+    /* **************************************************************************** */
+    /*                                InFlight Class                                */
+    /* **************************************************************************** */
+    /** Track the requests of a batch that are executing. */
+    private static final class InFlight
+    {
+        private int     _count;
+        private boolean _aborted;
+
+        // Return false if the batch has been aborted.
+        private synchronized boolean enter()
+        {
+            if (_aborted) return false;
+            _count++;
+            return true;
+        }
+
+        private synchronized void exit()
+        {
+            _count--;
+            notifyAll();
+        }
+
+        // Prevent new requests and wait for executing ones to finish.
+        private synchronized void abortAndAwait(long millis)
+        {
+            _aborted = true;
+            long deadline = System.currentTimeMillis() + millis;
+            long remaining = millis;
+            while (_count > 0 && remaining > 0) {
+                try {wait(remaining);} 
+                    catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                remaining = deadline - System.currentTimeMillis();
+            }
+        }
+    }
+}
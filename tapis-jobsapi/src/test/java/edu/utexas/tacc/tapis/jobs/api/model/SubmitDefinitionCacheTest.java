@@ -0,0 +1,91 @@
+package edu.utexas.tacc.tapis.jobs.api.model;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import edu.utexas.tacc.tapis.apps.client.gen.model.TapisApp;
+import edu.utexas.tacc.tapis.shared.exceptions.TapisImplException;
+import edu.utexas.tacc.tapis.shared.exceptions.TapisImplException.Condition;
+import edu.utexas.tacc.tapis.systems.client.gen.model.TapisSystem;
+
+/** Verify that the definitions of a bulk submission are retrieved once.
+ *
+ * @author rcardone
+ */
+@Test(groups={"unit"})
+public class SubmitDefinitionCacheTest
+{
+    private static final String TENANT = "dev";
+    private static final String OWNER  = "testuser";
+
+    @Test
+    public void appRetrievedOnce() throws TapisImplException
+    {
+        var cache = new SubmitDefinitionCache();
+        var calls = new AtomicInteger();
+        var app = new TapisApp();
+        app.setId("sweep");
+
+        // A 1000 job sweep calls Apps once.
+        for (int i = 0; i < 1000; i++) {
+            var result = cache.getApp(TENANT, OWNER, "sweep", "1.0", () -> {
+                calls.incrementAndGet();
+                return app;
+            });
+            Assert.assertSame(result, app);
+        }
+        Assert.assertEquals(calls.get(), 1);
+        Assert.assertEquals(cache.getMisses(), 1);
+        Assert.assertEquals(cache.getHits(), 999);
+
+        // A different owner retrieves the app separately.
+        cache.getApp(TENANT, "other", "sweep", "1.0", () -> {calls.incrementAndGet(); return app;});
+        Assert.assertEquals(calls.get(), 2);
+    }
+
+    @Test
+    public void systemKeyedByAccess() throws TapisImplException
+    {
+        var cache = new SubmitDefinitionCache();
+        var calls = new AtomicInteger();
+        var system = new TapisSystem();
+
+        // Execution and archive retrievals of the same system are distinct.
+        for (int i = 0; i < 10; i++) {
+            cache.getSystem(TENANT, OWNER, "sys1", "execution", true, false,
+                            () -> {calls.incrementAndGet(); return system;});
+            cache.getSystem(TENANT, OWNER, "sys1", "archive", false, false,
+                            () -> {calls.incrementAndGet(); return system;});
+        }
+        Assert.assertEquals(calls.get(), 2);
+
+        // Sharing changes the authorization checks performed by Systems.
+        cache.getSystem(TENANT, OWNER, "sys1", "execution", true, true,
+                        () -> {calls.incrementAndGet(); return system;});
+        Assert.assertEquals(calls.get(), 3);
+    }
+
+    @Test
+    public void failureRecorded()
+    {
+        var cache = new SubmitDefinitionCache();
+        var calls = new AtomicInteger();
+
+        // Each job gets the same error but Apps is only called once.
+        for (int i = 0; i < 5; i++) {
+            try {
+                cache.getApp(TENANT, OWNER, "missing", "1.0", () -> {
+                    calls.incrementAndGet();
+                    throw new TapisImplException("app missing not found", 404);
+                });
+                Assert.fail("Expected the retrieval to fail.");
+            } catch (TapisImplException e) {
+                Assert.assertEquals(e.getMessage(), "app missing not found");
+                Assert.assertEquals(e.condition, Condition.NOT_FOUND);
+            }
+        }
+        Assert.assertEquals(calls.get(), 1);
+    }
+}
@@ -0,0 +1,113 @@
+package edu.utexas.tacc.tapis.jobs.api.utils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import edu.utexas.tacc.tapis.shared.exceptions.TapisImplException;
+import edu.utexas.tacc.tapis.shared.exceptions.TapisImplException.Condition;
+
+/** Compare serial and overlapped system definition loads as performed during
+ * job submission using stand-ins for the Systems client that take a fixed
+ * amount of time to answer each request.
+ *
+ * @author rcardone
+ */
+@Test(groups={"unit"})
+public class ConcurrentFetcherTest
+{
+    // Simulated Systems latency.
+    private static final long SYSTEMS_MILLIS = 100;
+
+    /** The archive system load overlaps the execution and dtn system loads. */
+    @Test
+    public void latencyBenchmark() throws TapisImplException
+    {
+        var systems = new StandInSystems(null);
+        var fetcher = new ConcurrentFetcher(4);
+
+        // Serial baseline: exec, dtn, archive.
+        long start = System.currentTimeMillis();
+        systems.getSystem("exec");
+        systems.getSystem("dtn");
+        systems.getSystem("archive");
+        long serial = System.currentTimeMillis() - start;
+
+        // Overlapped as in SubmitContext.resolveSystems().
+        start = System.currentTimeMillis();
+        var archive = fetcher.submit(() -> systems.getSystem("archive"));
+        var exec = systems.getSystem("exec");
+        var dtn  = systems.getSystem("dtn");
+        var arch = ConcurrentFetcher.join(archive);
+        long overlapped = System.currentTimeMillis() - start;
+        System.out.println("Loaded 3 systems serially in " + serial +
+                           " ms and overlapped in " + overlapped + " ms.");
+
+        Assert.assertEquals(exec, "exec");
+        Assert.assertEquals(dtn, "dtn");
+        Assert.assertEquals(arch, "archive");
+        Assert.assertEquals(systems.calls.get(), 6);
+        Assert.assertTrue(overlapped < serial - SYSTEMS_MILLIS / 2, "overlapped " + overlapped + " ms");
+    }
+
+    /** The exception thrown by a call is the one rethrown by join(). */
+    @Test
+    public void errorsUnchanged()
+    {
+        var systems = new StandInSystems("archive");
+        var fetcher = new ConcurrentFetcher(4);
+        var future = fetcher.submit(() -> systems.getSystem("archive"));
+        try {
+            ConcurrentFetcher.join(future);
+            Assert.fail("Expected a system load failure.");
+        } catch (TapisImplException e) {
+            Assert.assertEquals(e.getMessage(), "archive not found");
+            Assert.assertEquals(e.condition, Condition.NOT_FOUND);
+        }
+
+        // Runtime exceptions are also rethrown unchanged.
+        var broken = fetcher.submit(() -> {throw new IllegalStateException("broken");});
+        try {
+            ConcurrentFetcher.join(broken);
+            Assert.fail("Expected a runtime failure.");
+        }
+        catch (IllegalStateException e) {Assert.assertEquals(e.getMessage(), "broken");}
+        catch (TapisImplException e) {Assert.fail("Wrapped runtime exception.");}
+    }
+
+    /** Calls run on the caller's thread when all pool threads are busy. */
+    @Test
+    public void saturatedRunsInline() throws TapisImplException
+    {
+        var systems = new StandInSystems(null);
+        var fetcher = new ConcurrentFetcher(1);
+        var first  = fetcher.submit(() -> Thread.currentThread().getName());
+        var second = fetcher.submit(() -> {
+            systems.getSystem("busy");
+            return Thread.currentThread().getName();
+        });
+        ConcurrentFetcher.join(first);
+        Assert.assertNotNull(ConcurrentFetcher.join(second));
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* StandInSystems:                                                        */
+    /* ---------------------------------------------------------------------- */
+    /** Stand-in for SubmitContext.loadSystemDefinition() with fixed latency. */
+    private static final class StandInSystems
+    {
+        private final String        _missing;
+        private final AtomicInteger calls = new AtomicInteger();
+
+        private StandInSystems(String missing) {_missing = missing;}
+
+        private String getSystem(String systemId) throws TapisImplException
+        {
+            calls.incrementAndGet();
+            try {Thread.sleep(SYSTEMS_MILLIS);} catch (InterruptedException e) {return null;}
+            if (systemId.equals(_missing)) throw new TapisImplException(systemId + " not found", 404);
+            return systemId;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package edu.utexas.tacc.tapis.jobs.api.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.google.gson.JsonObject;
+
+import edu.utexas.tacc.tapis.client.shared.exceptions.TapisClientException;
+import edu.utexas.tacc.tapis.files.client.gen.model.FileInfo;
+import edu.utexas.tacc.tapis.jobs.model.Job;
+import edu.utexas.tacc.tapis.jobs.utils.DataLocator;
+import edu.utexas.tacc.tapis.jobs.utils.DataLocator.OutputPageReader;
+import edu.utexas.tacc.tapis.jobs.utils.JobOutputInfo;
+import edu.utexas.tacc.tapis.shared.exceptions.TapisImplException;
+import edu.utexas.tacc.tapis.shared.utils.TapisGsonUtils;
+
+/** Stream job output listings from a stand-in for the Files service.
+ *
+ * @author rcardone
+ */
+@Test(groups={"unit"})
+public class JobOutputListWriterTest
+{
+    private static final String ENVELOPE =
+        "{\"status\":\"success\",\"message\":\"retrieved\",\"result\":[],\"version\":\"1.0\"," +
+        "\"metadata\":{\"recordCount\":0,\"recordLimit\":-1,\"recordsSkipped\":0}}";
+    private static final JobOutputInfo OUTPUT_INFO =
+        new JobOutputInfo("archive", "archive", "/jobs/output", true);
+
+    /** A one million entry listing is streamed one bounded page at a time. */
+    @Test
+    public void millionEntries() throws IOException, TapisImplException
+    {
+        final int entries = 1000000, pageSize = 1000;
+        var files = new StandInFiles(entries);
+        var out = new CountingStream();
+        var writer = new JobOutputListWriter(out, ENVELOPE, false);
+
+        long start = System.currentTimeMillis();
+        long written = new DataLocator(new Job()).pageJobOutputListings(OUTPUT_INFO, files, -1, 0, pageSize, writer);
+        writer.finish();
+        long elapsed = System.currentTimeMillis() - start;
+        System.out.println("Streamed " + written + " output entries (" + out.bytes + " bytes) in " +
+                           files.reads + " pages in " + elapsed + " ms, largest page " +
+                           files.largestPage + ".");
+
+        Assert.assertEquals(written, entries);
+        Assert.assertEquals(writer.getCount(), entries);
+        Assert.assertEquals(files.largestPage, pageSize);
+        Assert.assertEquals(files.reads, entries / pageSize + 1);
+        Assert.assertTrue(out.tail().endsWith("\"recordCount\":" + entries + ",\"recordLimit\":-1,\"recordsSkipped\":0}}"),
+                          out.tail());
+    }
+
+    /** The streamed response parses to the same envelope with the requested entries. */
+    @Test
+    public void limitAndSkip() throws IOException, TapisImplException
+    {
+        var files = new StandInFiles(5000);
+        var out = new ByteArrayOutputStream();
+        var writer = new JobOutputListWriter(out, ENVELOPE, true);
+        long written = new DataLocator(new Job()).pageJobOutputListings(OUTPUT_INFO, files, 2500, 100, 1000, writer);
+        writer.finish();
+
+        var resp = TapisGsonUtils.getGson().fromJson(out.toString(StandardCharsets.UTF_8), JsonObject.class);
+        var result = resp.getAsJsonArray("result");
+        Assert.assertEquals(written, 2500);
+        Assert.assertEquals(result.size(), 2500);
+        Assert.assertEquals(result.get(0).getAsJsonObject().get("name").getAsString(), "file100");
+        Assert.assertEquals(result.get(2499).getAsJsonObject().get("name").getAsString(), "file2599");
+        Assert.assertEquals(resp.get("status").getAsString(), "success");
+        Assert.assertEquals(resp.get("version").getAsString(), "1.0");
+        Assert.assertEquals(resp.getAsJsonObject("metadata").get("recordCount").getAsInt(), 2500);
+        Assert.assertEquals(files.reads, 3);
+    }
+
+    /** Files errors on later pages are reported after the earlier pages are written. */
+    @Test
+    public void filesError() throws IOException
+    {
+        OutputPageReader failing = (limit, skip) -> {
+            if (skip > 0) throw new TapisClientException("unavailable");
+            return new StandInFiles(10).read(limit, skip);
+        };
+        var writer = new JobOutputListWriter(new ByteArrayOutputStream(), ENVELOPE, false);
+        try {
+            new DataLocator(new Job()).pageJobOutputListings(OUTPUT_INFO, failing, -1, 0, 5, writer);
+            Assert.fail("Expected the Files error.");
+        } catch (TapisImplException e) {
+            Assert.assertTrue(e.getCause() instanceof TapisClientException);
+        }
+        Assert.assertEquals(writer.getCount(), 5);
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* StandInFiles:                                                          */
+    /* ---------------------------------------------------------------------- */
+    /** Stand-in for FilesClient.listFiles that generates each page on request. */
+    private static final class StandInFiles implements OutputPageReader
+    {
+        private final int _entries;
+        private int reads;
+        private int largestPage;
+
+        private StandInFiles(int entries) {_entries = entries;}
+
+        @Override
+        public List<FileInfo> read(int limit, int skip)
+        {
+            reads++;
+            int end = Math.min(_entries, skip + limit);
+            var page = new ArrayList<FileInfo>(Math.max(end - skip, 0));
+            for (int i = skip; i < end; i++) {
+                var fileInfo = new FileInfo();
+                fileInfo.setName("file" + i);
+                fileInfo.setPath("/jobs/output/dir" + (i / 1000) + "/file" + i);
+                page.add(fileInfo);
+            }
+            largestPage = Math.max(largestPage, page.size());
+            return page;
+        }
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* CountingStream:                                                        */
+    /* ---------------------------------------------------------------------- */
+    /** Discard output but count it and keep its last bytes. */
+    private static final class CountingStream extends OutputStream
+    {
+        private final byte[] _tail = new byte[256];
+        private long bytes;
+
+        @Override
+        public void write(int b) {_tail[(int) (bytes++ % _tail.length)] = (byte) b;}
+
+        private String tail()
+        {
+            int len = (int) Math.min(bytes, _tail.length);
+            var buf = new byte[len];
+            for (int i = 0; i < len; i++) buf[i] = _tail[(int) ((bytes - len + i) % _tail.length)];
+            return new String(buf, StandardCharsets.UTF_8);
+        }
+    }
+}
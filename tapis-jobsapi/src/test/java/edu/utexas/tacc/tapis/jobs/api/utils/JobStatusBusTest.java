@@ -0,0 +1,172 @@
+package edu.utexas.tacc.tapis.jobs.api.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import edu.utexas.tacc.tapis.jobs.api.utils.JobStatusBus.StatusChange;
+import edu.utexas.tacc.tapis.jobs.model.JobEvent;
+import edu.utexas.tacc.tapis.jobs.model.enumerations.JobEventType;
+import edu.utexas.tacc.tapis.jobs.model.enumerations.JobStatusType;
+import edu.utexas.tacc.tapis.shared.exceptions.TapisImplException;
+
+/** Verify status change delivery and the waiter limits of the status bus.
+ *
+ * @author rcardone
+ */
+@Test(groups={"unit"})
+public class JobStatusBusTest
+{
+    private static final String TENANT = "dev";
+    private static final String USER   = "testuser";
+    private static final String JOB1   = "job-1";
+    private static final String JOB2   = "job-2";
+
+    /** A held waiter is released as soon as its job changes status. */
+    @Test
+    public void waiterWakesOnChange() throws Exception
+    {
+        var bus = new JobStatusBus(10, 10, 10, 8);
+        var executor = Executors.newSingleThreadScheduledExecutor();
+        try (var waiter = bus.subscribeJob(TENANT, USER, JOB1, false)) {
+            executor.schedule(() -> {
+                bus.publish(new StatusChange(TENANT, JOB2, USER, JobStatusType.RUNNING));
+                bus.publish(new StatusChange(TENANT, JOB1, USER, JobStatusType.RUNNING));
+            }, 100, TimeUnit.MILLISECONDS);
+
+            long start = System.currentTimeMillis();
+            var change = waiter.poll(10000);
+            long elapsed = System.currentTimeMillis() - start;
+            Assert.assertNotNull(change);
+            Assert.assertEquals(change.jobUuid(), JOB1);
+            Assert.assertEquals(change.status(), JobStatusType.RUNNING);
+            Assert.assertTrue(elapsed < 5000, "waited " + elapsed + " ms");
+
+            // Other jobs' changes are not delivered.
+            Assert.assertNull(waiter.poll(50));
+        }
+        finally {executor.shutdownNow();}
+        Assert.assertEquals(bus.getWaiterCount(), 0);
+    }
+
+    /** Owner waiters receive the changes of all their jobs from queue events. */
+    @Test
+    public void ownerWaiterFromEvents() throws Exception
+    {
+        var bus = new JobStatusBus(10, 10, 10, 8);
+        try (var waiter = bus.subscribeOwner(TENANT, USER)) {
+            bus.publish(makeEvent(JOB1, "other", JobStatusType.RUNNING));
+            bus.publish(makeEvent(JOB1, USER, JobStatusType.ARCHIVING));
+            bus.publish(makeEvent(JOB2, USER, JobStatusType.FINISHED));
+
+            var change = waiter.poll(1000);
+            Assert.assertEquals(change.jobUuid(), JOB1);
+            Assert.assertEquals(change.status(), JobStatusType.ARCHIVING);
+            change = waiter.poll(1000);
+            Assert.assertEquals(change.jobUuid(), JOB2);
+            Assert.assertTrue(change.status().isTerminal());
+            Assert.assertTrue(change.toJson().contains("\"terminal\":true"));
+            Assert.assertNull(waiter.poll(50));
+        }
+    }
+
+    /** Each user and the instance as a whole are limited. */
+    @Test
+    public void waiterLimits() throws TapisImplException
+    {
+        var bus = new JobStatusBus(3, 3, 2, 8);
+        var w1 = bus.subscribeJob(TENANT, USER, JOB1, false);
+        var w2 = bus.subscribeOwner(TENANT, USER);
+        try {
+            bus.subscribeJob(TENANT, USER, JOB2, false);
+            Assert.fail("Expected the per-user limit to be enforced.");
+        } catch (TapisImplException e) {}
+
+        var w3 = bus.subscribeJob(TENANT, "other", JOB2, false);
+        try {
+            bus.subscribeJob(TENANT, "third", JOB2, false);
+            Assert.fail("Expected the instance limit to be enforced.");
+        } catch (TapisImplException e) {}
+        Assert.assertEquals(bus.getWaiterCount(), 3);
+
+        // Closing releases the slots and is idempotent.
+        w1.close();
+        w1.close();
+        w2.close();
+        w3.close();
+        Assert.assertEquals(bus.getWaiterCount(), 0);
+        bus.subscribeJob(TENANT, USER, JOB2, false).close();
+    }
+
+    /** Streams have their own, smaller limit since each one holds a thread. */
+    @Test
+    public void streamLimit() throws TapisImplException
+    {
+        var bus = new JobStatusBus(10, 2, 10, 8);
+        var w1 = bus.subscribeJob(TENANT, USER, JOB1, true);
+        var w2 = bus.subscribeOwner(TENANT, USER);
+        try {
+            bus.subscribeJob(TENANT, USER, JOB2, true);
+            Assert.fail("Expected the stream limit to be enforced.");
+        } catch (TapisImplException e) {}
+
+        // Long-poll waiters are not streams.
+        var w3 = bus.subscribeJob(TENANT, USER, JOB2, false);
+        Assert.assertEquals(bus.getStreamCount(), 2);
+        Assert.assertEquals(bus.getWaiterCount(), 3);
+        w1.close();
+        w2.close();
+        w3.close();
+        Assert.assertEquals(bus.getStreamCount(), 0);
+        Assert.assertEquals(bus.getWaiterCount(), 0);
+    }
+
+    /** A listener receives the buffered changes and then each new change. */
+    @Test
+    public void listenerReceivesChanges() throws Exception
+    {
+        var bus = new JobStatusBus(10, 10, 10, 8);
+        var received = new ArrayList<JobStatusType>();
+        try (var waiter = bus.subscribeJob(TENANT, USER, JOB1, false)) {
+            bus.publish(new StatusChange(TENANT, JOB1, USER, JobStatusType.QUEUED));
+            waiter.listen(change -> received.add(change.status()));
+            bus.publish(new StatusChange(TENANT, JOB1, USER, JobStatusType.RUNNING));
+            Assert.assertEquals(received, List.of(JobStatusType.QUEUED, JobStatusType.RUNNING));
+            Assert.assertNull(waiter.poll(0));
+        }
+    }
+
+    /** A slow client keeps only the most recent changes. */
+    @Test
+    public void overflowDropsOldest() throws Exception
+    {
+        var bus = new JobStatusBus(10, 10, 10, 2);
+        try (var waiter = bus.subscribeJob(TENANT, USER, JOB1, false)) {
+            bus.publish(new StatusChange(TENANT, JOB1, USER, JobStatusType.QUEUED));
+            bus.publish(new StatusChange(TENANT, JOB1, USER, JobStatusType.RUNNING));
+            bus.publish(new StatusChange(TENANT, JOB1, USER, JobStatusType.FINISHED));
+            Assert.assertEquals(waiter.getDropped(), 1);
+            Assert.assertEquals(waiter.poll(0).status(), JobStatusType.RUNNING);
+            Assert.assertEquals(waiter.poll(0).status(), JobStatusType.FINISHED);
+        }
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* makeEvent:                                                             */
+    /* ---------------------------------------------------------------------- */
+    private JobEvent makeEvent(String jobUuid, String owner, JobStatusType status)
+    {
+        var event = new JobEvent();
+        event.setEvent(JobEventType.JOB_NEW_STATUS);
+        event.setTenant(TENANT);
+        event.setJobUuid(jobUuid);
+        event.setEventDetail(status.name());
+        event.setDescription("{\"jobUuid\":\"" + jobUuid + "\",\"jobOwner\":\"" + owner +
+                             "\",\"newJobStatus\":\"" + status.name() + "\"}");
+        return event;
+    }
+}
@@ -0,0 +1,130 @@
+package edu.utexas.tacc.tapis.jobs.api.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import edu.utexas.tacc.tapis.jobs.api.requestBody.ReqSubscribe;
+import edu.utexas.tacc.tapis.jobs.exceptions.JobException;
+
+/** Benchmark and verify concurrent subscription creation using a stand-in for
+ * the Notifications client that takes a fixed amount of time per request.
+ *
+ * @author rcardone
+ */
+@Test(groups={"unit"})
+public class SubscriptionBatchPosterTest
+{
+    // Simulated Notifications latency.
+    private static final long NOTIF_MILLIS = 100;
+    private static final String JOB = "job-uuid";
+
+    @Test
+    public void latencyBenchmark() throws JobException
+    {
+        var reqs = makeReqs(8);
+        var notif = new StandInNotifications(-1);
+        var poster = new SubscriptionBatchPoster(16, 5000);
+
+        // Serial baseline.
+        long start = System.currentTimeMillis();
+        for (var req : reqs)
+            try {notif.post(req);} catch (Exception e) {Assert.fail(e.getMessage());}
+        long serial = System.currentTimeMillis() - start;
+
+        // Concurrent.
+        start = System.currentTimeMillis();
+        var urls = poster.postAll(reqs, JOB, notif::post, notif::deleteAll);
+        long concurrent = System.currentTimeMillis() - start;
+        System.out.println("Created " + reqs.size() + " subscriptions serially in " + serial +
+                           " ms and concurrently in " + concurrent + " ms.");
+
+        Assert.assertEquals(urls.size(), reqs.size());
+        Assert.assertEquals(urls.get(3), "sub-req-3"); // request order
+        Assert.assertTrue(concurrent < serial / 2, "concurrent " + concurrent + " ms");
+        Assert.assertEquals(notif.deletes.get(), 0);
+    }
+
+    @Test
+    public void partialFailureCompensates()
+    {
+        // The 3rd request fails, the others succeed.
+        var notif = new StandInNotifications(2);
+        var poster = new SubscriptionBatchPoster(16, 5000);
+        try {
+            poster.postAll(makeReqs(6), JOB, notif::post, notif::deleteAll);
+            Assert.fail("Expected a subscription failure.");
+        } catch (JobException e) {
+            Assert.assertTrue(e.getMessage().contains("unavailable"));
+        }
+        Assert.assertEquals(notif.deletes.get(), 1);
+        Assert.assertTrue(notif.live.isEmpty(), "orphans: " + notif.live);
+    }
+
+    @Test
+    public void deadlineCompensates()
+    {
+        // Requests outlive the deadline but complete before the delete.
+        var notif = new StandInNotifications(-1);
+        var poster = new SubscriptionBatchPoster(2, NOTIF_MILLIS / 2);
+        try {
+            poster.postAll(makeReqs(6), JOB, notif::post, notif::deleteAll);
+            Assert.fail("Expected the deadline to expire.");
+        } catch (JobException e) {}
+        Assert.assertEquals(notif.deletes.get(), 1);
+        Assert.assertTrue(notif.live.isEmpty(), "orphans: " + notif.live);
+        Assert.assertTrue(notif.posts.get() < 6, "queued requests should not run");
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* makeReqs:                                                              */
+    /* ---------------------------------------------------------------------- */
+    private List<ReqSubscribe> makeReqs(int count)
+    {
+        var reqs = new ArrayList<ReqSubscribe>(count);
+        for (int i = 0; i < count; i++) {
+            var req = new ReqSubscribe();
+            req.setDescription("req-" + i);
+            reqs.add(req);
+        }
+        return reqs;
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* StandInNotifications:                                                  */
+    /* ---------------------------------------------------------------------- */
+    /** Creates subscriptions with fixed latency and tracks the live ones. */
+    private static final class StandInNotifications
+    {
+        private final int _failIndex;
+        private final AtomicInteger posts   = new AtomicInteger();
+        private final AtomicInteger deletes = new AtomicInteger();
+        private final Set<String>   live    = ConcurrentHashMap.newKeySet();
+
+        private StandInNotifications(int failIndex) {_failIndex = failIndex;}
+
+        private String post(ReqSubscribe req) throws Exception
+        {
+            posts.incrementAndGet();
+            Thread.sleep(NOTIF_MILLIS);
+            if (("req-" + _failIndex).equals(req.getDescription()))
+                throw new IllegalStateException("Notifications unavailable");
+            var url = "sub-" + req.getDescription();
+            live.add(url);
+            return url;
+        }
+
+        private int deleteAll()
+        {
+            deletes.incrementAndGet();
+            int n = live.size();
+            live.clear();
+            return n;
+        }
+    }
+}
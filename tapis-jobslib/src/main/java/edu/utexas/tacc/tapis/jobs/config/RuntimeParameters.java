@@ -58,6 +58,21 @@ public final class RuntimeParameters
     // Default database metering interval in minutes.
     private static final int DEFAULT_DB_METER_INTERVAL_MINUTES = 60 * 24;
     
+    // Job listings whose planner row estimate exceeds this threshold skip the
+    // exact count and report a total count of -1.  Zero or less always counts exactly.
+    private static final String LIST_COUNT_ESTIMATE_THRESHOLD = "tapis.jobs.list.count.estimate.threshold";
+    private static final int DEFAULT_LIST_COUNT_ESTIMATE_THRESHOLD = 0;
+    
+    // The number of entries requested from the Files service at a time when
+    // streaming large job output listings.
+    private static final String OUTPUT_LIST_PAGE_SIZE = "tapis.jobs.output.list.page.size";
+    private static final int DEFAULT_OUTPUT_LIST_PAGE_SIZE = 1000;
+    
+    // The number of recent runtimes of the same application on the same system
+    // used to schedule job monitoring.  Zero disables adaptive monitoring.
+    private static final String MONITOR_RUNTIME_HISTORY_SIZE = "tapis.jobs.monitor.runtime.history.size";
+    private static final int DEFAULT_MONITOR_RUNTIME_HISTORY_SIZE = 0;
+    
     // Email defaults.
     private static final String DEFAULT_EMAIL_PROVIDER = "LOG";
     private static final int    DEFAULT_EMAIL_PORT = 25;
@@ -98,6 +113,9 @@ public final class RuntimeParameters
 	private String  dbPassword;
 	private String  jdbcURL;
 	private int     dbMeterMinutes;
+	private int     listCountEstimateThreshold;
+	private int     outputListPageSize;
+	private int     monitorRuntimeHistorySize;
 	
     // RabbitMQ configuration.
     private String  queueAdminUser;
@@ -326,6 +344,62 @@ public final class RuntimeParameters
           }
       }
     
+    // Specify zero or less to always compute exact job listing counts.
+    parm = inputProperties.getProperty(LIST_COUNT_ESTIMATE_THRESHOLD);
+    if (StringUtils.isBlank(parm)) setListCountEstimateThreshold(DEFAULT_LIST_COUNT_ESTIMATE_THRESHOLD);
+      else {
+        try {setListCountEstimateThreshold(Integer.valueOf(parm));}
+          catch (Exception e) {
+            // Stop on bad input.
+            String msg = MsgUtils.getMsg("TAPIS_SERVICE_PARM_INITIALIZATION_FAILED",
+                                         TapisConstants.SERVICE_NAME_JOBS,
+                                         "listCountEstimateThreshold",
+                                         e.getMessage());
+            _log.error(msg, e);
+            throw new TapisRuntimeException(msg, e);
+          }
+      }
+    
+    // Page size used to retrieve output listings from Files, which must be positive.
+    parm = inputProperties.getProperty(OUTPUT_LIST_PAGE_SIZE);
+    if (StringUtils.isBlank(parm)) setOutputListPageSize(DEFAULT_OUTPUT_LIST_PAGE_SIZE);
+      else {
+        try {
+            int pageSize = Integer.valueOf(parm);
+            if (pageSize < 1) throw new IllegalArgumentException("Invalid page size: " + pageSize);
+            setOutputListPageSize(pageSize);
+        }
+          catch (Exception e) {
+            // Stop on bad input.
+            String msg = MsgUtils.getMsg("TAPIS_SERVICE_PARM_INITIALIZATION_FAILED",
+                                         TapisConstants.SERVICE_NAME_JOBS,
+                                         "outputListPageSize",
+                                         e.getMessage());
+            _log.error(msg, e);
+            throw new TapisRuntimeException(msg, e);
+          }
+      }
+    
+    // Number of historical runtimes used by adaptive monitoring, zero disables it.
+    parm = inputProperties.getProperty(MONITOR_RUNTIME_HISTORY_SIZE);
+    if (StringUtils.isBlank(parm)) setMonitorRuntimeHistorySize(DEFAULT_MONITOR_RUNTIME_HISTORY_SIZE);
+      else {
+        try {
+            int historySize = Integer.valueOf(parm);
+            if (historySize < 0) throw new IllegalArgumentException("Invalid history size: " + historySize);
+            setMonitorRuntimeHistorySize(historySize);
+        }
+          catch (Exception e) {
+            // Stop on bad input.
+            String msg = MsgUtils.getMsg("TAPIS_SERVICE_PARM_INITIALIZATION_FAILED",
+                                         TapisConstants.SERVICE_NAME_JOBS,
+                                         "monitorRuntimeHistorySize",
+                                         e.getMessage());
+            _log.error(msg, e);
+            throw new TapisRuntimeException(msg, e);
+          }
+      }
+    
     // --------------------- RabbitMQ Parameters ----------------------
     // The broker's administrator credentials used to set up vhost.
     parm = inputProperties.getProperty(EnvVar.TAPIS_QUEUE_ADMIN_USER.getEnvName());
@@ -594,6 +668,12 @@ public final class RuntimeParameters
 	    buf.append(this.getDbConnectionPoolSize());
 	    buf.append("\ntapis.db.meter.minutes: ");
 	    buf.append(this.getDbMeterMinutes());
+	    buf.append("\n" + LIST_COUNT_ESTIMATE_THRESHOLD + ": ");
+	    buf.append(this.getListCountEstimateThreshold());
+	    buf.append("\n" + OUTPUT_LIST_PAGE_SIZE + ": ");
+	    buf.append(this.getOutputListPageSize());
+	    buf.append("\n" + MONITOR_RUNTIME_HISTORY_SIZE + ": ");
+	    buf.append(this.getMonitorRuntimeHistorySize());
 	    
         buf.append("\n------- RabbitMQ Configuration --------------------");
         buf.append("\ntapis.queue.host: ");
@@ -853,6 +933,30 @@ public final class RuntimeParameters
 	    this.dbMeterMinutes = dbMeterMinutes;
 	}
 
+	public int getListCountEstimateThreshold() {
+	    return listCountEstimateThreshold;
+	}
+
+	private void setListCountEstimateThreshold(int listCountEstimateThreshold) {
+	    this.listCountEstimateThreshold = listCountEstimateThreshold;
+	}
+
+	public int getOutputListPageSize() {
+	    return outputListPageSize;
+	}
+
+	private void setOutputListPageSize(int outputListPageSize) {
+	    this.outputListPageSize = outputListPageSize;
+	}
+
+	public int getMonitorRuntimeHistorySize() {
+	    return monitorRuntimeHistorySize;
+	}
+
+	private void setMonitorRuntimeHistorySize(int monitorRuntimeHistorySize) {
+	    this.monitorRuntimeHistorySize = monitorRuntimeHistorySize;
+	}
+
     public String getQueueAdminUser() {
         return queueAdminUser;
     }
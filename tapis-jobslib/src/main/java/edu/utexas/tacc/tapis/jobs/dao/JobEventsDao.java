@@ -3,6 +3,7 @@ package edu.utexas.tacc.tapis.jobs.dao;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.time.Instant;
 import java.util.ArrayList;
@@ -193,33 +194,7 @@ public final class JobEventsDao
       if (jobEvent.getCreated() == null) jobEvent.setCreated(Instant.now());
       
       // ------------------------- Check Input -------------------------
-      if (StringUtils.isBlank(jobEvent.getJobUuid())) {
-          String msg = MsgUtils.getMsg("TAPIS_NULL_PARAMETER", "createEvent", "jobUuid");
-          throw new JobException(msg);
-      }
-      if (StringUtils.isBlank(jobEvent.getDescription())) {
-          String msg = MsgUtils.getMsg("TAPIS_NULL_PARAMETER", "createEvent", "description");
-          throw new JobException(msg);
-      }
-      if (StringUtils.isBlank(jobEvent.getTenant())) {
-          String msg = MsgUtils.getMsg("TAPIS_NULL_PARAMETER", "createEvent", "tenant");
-          throw new JobException(msg);
-      }
-      if (jobEvent.getEvent() == null) {
-          String msg = MsgUtils.getMsg("TAPIS_NULL_PARAMETER", "createEvent", "event");
-          throw new JobException(msg);
-      }
-      if (jobEvent.getEventDetail() == null) {
-          String msg = MsgUtils.getMsg("TAPIS_NULL_PARAMETER", "createEvent", "eventDetail");
-          throw new JobException(msg);
-      }
-      if (jobEvent.getEvent() == JobEventType.JOB_INPUT_TRANSACTION_ID ||
-          jobEvent.getEvent() == JobEventType.JOB_ARCHIVE_TRANSACTION_ID) {
-          if (StringUtils.isBlank(jobEvent.getOthUuid())) {
-              String msg = MsgUtils.getMsg("TAPIS_NULL_PARAMETER", "createEvent", "othUuid");
-              throw new JobException(msg);
-          }
-      }
+      validateNewEvent(jobEvent);
       
       // ------------------------- Call SQL ----------------------------
       boolean usingCallerConn = callerConn != null;
@@ -236,13 +211,7 @@ public final class JobEventsDao
         // Prepare the statement and fill in the placeholders.
         // The fields that the DB defaults are not set.
         PreparedStatement pstmt = conn.prepareStatement(sql);
-        pstmt.setString(1, jobEvent.getEvent().name());
-        pstmt.setTimestamp(2, Timestamp.from(jobEvent.getCreated()));
-        pstmt.setString(3, jobEvent.getJobUuid());
-        pstmt.setString(4, jobEvent.getEventDetail());
-        pstmt.setString(5, jobEvent.getOthUuid());  // can be null
-        pstmt.setString(6, jobEvent.getDescription());
-        pstmt.setString(7, jobEvent.getTenant());
+        setCreateEventParms(pstmt, jobEvent);
         
         // Issue the call and clean up statement.
         int rows = pstmt.executeUpdate();
@@ -276,9 +245,136 @@ public final class JobEventsDao
       }
   }
   
+  /* ---------------------------------------------------------------------- */
+  /* createEvents:                                                          */
+  /* ---------------------------------------------------------------------- */
+  /** Insert a batch of events using a single JDBC batch.  The connection 
+   * parameter can be null if the insertions are not to be part of an 
+   * in-progress transaction.
+   * 
+   * @param jobEvents the new events
+   * @param callerConn existing connection or null
+   * @throws TapisException on error
+   */
+  public void createEvents(List<JobEvent> jobEvents, Connection callerConn)
+    throws TapisException
+  {
+      // ------------------------- Complete Input ----------------------
+      // Nothing to do.
+      if (jobEvents.isEmpty()) return;
+      
+      // Fill in fields that we assure and check the input.
+      var now = Instant.now();
+      for (var jobEvent : jobEvents) {
+          if (jobEvent.getCreated() == null) jobEvent.setCreated(now);
+          validateNewEvent(jobEvent);
+      }
+      
+      // ------------------------- Call SQL ----------------------------
+      boolean usingCallerConn = callerConn != null;
+      Connection conn = callerConn;
+      try
+      {
+        // Get a database connection.
+        if (!usingCallerConn) conn = getConnection();
+
+        // Add each event to the batch.
+        String sql = SqlStatements.CREATE_JOB_EVENT;
+        PreparedStatement pstmt = conn.prepareStatement(sql);
+        for (var jobEvent : jobEvents) {
+            setCreateEventParms(pstmt, jobEvent);
+            pstmt.addBatch();
+        }
+        
+        // Issue the call and clean up statement.
+        int[] rows = pstmt.executeBatch();
+        if (rows.length != jobEvents.size()) 
+            _log.warn(MsgUtils.getMsg("DB_INSERT_UNEXPECTED_ROWS", "jobEvents", rows.length, jobEvents.size()));
+        pstmt.close();
+  
+        // Commit the transaction that may include changes to other tables.
+        if (!usingCallerConn) conn.commit();
+      }
+      catch (Exception e)
+      {
+          // Rollback transaction.
+          try {if (!usingCallerConn && conn != null) conn.rollback();}
+              catch (Exception e1){_log.error(MsgUtils.getMsg("DB_FAILED_ROLLBACK"), e1);}
+          
+          var first = jobEvents.get(0);
+          String msg = MsgUtils.getMsg("JOBS_CREATE_JOB_EVENT", first.getEvent().name(), 
+                                       first.getJobUuid(), e.getMessage());
+          throw new JobException(msg, e);
+      }
+      finally {
+          // Conditionally return the connection back to the connection pool.
+          if (!usingCallerConn && conn != null) 
+              try {conn.close();}
+                catch (Exception e) 
+                {
+                    // If commit worked, we can swallow the exception.  
+                    // If not, the commit exception will be thrown.
+                    String msg = MsgUtils.getMsg("DB_FAILED_CONNECTION_CLOSE");
+                    _log.error(msg, e);
+                }
+      }
+  }
+  
   /* ********************************************************************** */
   /*                             Private Methods                            */
   /* ********************************************************************** */
+  /* ---------------------------------------------------------------------- */
+  /* validateNewEvent:                                                      */
+  /* ---------------------------------------------------------------------- */
+  private void validateNewEvent(JobEvent jobEvent) throws JobException
+  {
+      if (StringUtils.isBlank(jobEvent.getJobUuid())) {
+          String msg = MsgUtils.getMsg("TAPIS_NULL_PARAMETER", "createEvent", "jobUuid");
+          throw new JobException(msg);
+      }
+      if (StringUtils.isBlank(jobEvent.getDescription())) {
+          String msg = MsgUtils.getMsg("TAPIS_NULL_PARAMETER", "createEvent", "description");
+          throw new JobException(msg);
+      }
+      if (StringUtils.isBlank(jobEvent.getTenant())) {
+          String msg = MsgUtils.getMsg("TAPIS_NULL_PARAMETER", "createEvent", "tenant");
+          throw new JobException(msg);
+      }
+      if (jobEvent.getEvent() == null) {
+          String msg = MsgUtils.getMsg("TAPIS_NULL_PARAMETER", "createEvent", "event");
+          throw new JobException(msg);
+      }
+      if (jobEvent.getEventDetail() == null) {
+          String msg = MsgUtils.getMsg("TAPIS_NULL_PARAMETER", "createEvent", "eventDetail");
+          throw new JobException(msg);
+      }
+      if (jobEvent.getEvent() == JobEventType.JOB_INPUT_TRANSACTION_ID ||
+          jobEvent.getEvent() == JobEventType.JOB_ARCHIVE_TRANSACTION_ID) {
+          if (StringUtils.isBlank(jobEvent.getOthUuid())) {
+              String msg = MsgUtils.getMsg("TAPIS_NULL_PARAMETER", "createEvent", "othUuid");
+              throw new JobException(msg);
+          }
+      }
+  }
+  
+  /* ---------------------------------------------------------------------- */
+  /* setCreateEventParms:                                                   */
+  /* ---------------------------------------------------------------------- */
+  /** Fill in the placeholders of the create event statement.  The fields that
+   * the DB defaults are not set.
+   */
+  private void setCreateEventParms(PreparedStatement pstmt, JobEvent jobEvent)
+    throws SQLException
+  {
+      pstmt.setString(1, jobEvent.getEvent().name());
+      pstmt.setTimestamp(2, Timestamp.from(jobEvent.getCreated()));
+      pstmt.setString(3, jobEvent.getJobUuid());
+      pstmt.setString(4, jobEvent.getEventDetail());
+      pstmt.setString(5, jobEvent.getOthUuid());  // can be null
+      pstmt.setString(6, jobEvent.getDescription());
+      pstmt.setString(7, jobEvent.getTenant());
+  }
+  
   /* ---------------------------------------------------------------------- */
   /* populateJobEvents:                                                  */
   /* ---------------------------------------------------------------------- */
@@ -492,6 +492,307 @@ public final class JobRecoveryDao
         }
     }
     
+    /* ---------------------------------------------------------------------- */
+    /* claimDueRecoveries:                                                    */
+    /* ---------------------------------------------------------------------- */
+    /** Claim up to limit recovery records whose next attempt time has arrived,
+     * earliest first.  Each claimed record is leased to the caller by moving
+     * its next attempt time to leaseExpiry, so other recovery readers won't
+     * claim it again unless the caller fails to reschedule or delete it before
+     * the lease expires.  Records being claimed or updated concurrently by
+     * other readers are skipped rather than waited on.
+     * 
+     * Each returned object contains all the job blocked objects associated 
+     * with the recovery record.  The returned list may be empty, but never null.
+     * 
+     * @param limit the maximum number of records to claim
+     * @param leaseExpiry the time at which unprocessed claims become due again
+     * @return the non-null list of claimed job recovery objects
+     * @throws JobException on error
+     */
+    public List<JobRecovery> claimDueRecoveries(int limit, Instant leaseExpiry) 
+     throws JobException
+    {
+        // ------------------------- Call SQL ----------------------------
+        ArrayList<JobRecovery> list = new ArrayList<>(limit);
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+        try
+        {
+          // Get a database connection.
+          conn = getConnection();
+          
+          // Create the command using table definition field order.
+          String sql = SqlStatements.CLAIM_DUE_RECOVERIES;
+  
+          // Prepare the statement and fill in the placeholders.
+          pstmt = conn.prepareStatement(sql);
+          pstmt.setTimestamp(1, Timestamp.from(Instant.now()));
+          pstmt.setInt(2, limit);
+          pstmt.setTimestamp(3, Timestamp.from(leaseExpiry));
+          
+          // Execute the update and collect the claimed records.
+          rs = pstmt.executeQuery();
+          populateRecoveryJobs(list, rs);
+          
+          // Populate each claimed record's blocked job list.
+          for (JobRecovery jobRecovery : list) 
+              jobRecovery.addBlockedJobs(selectBlockedJobs(conn, jobRecovery.getId()));
+          
+          // Commit the claims.
+          conn.commit();
+        }
+        catch (Exception e)
+        {
+            // Rollback transaction.
+            try {if (conn != null) conn.rollback();}
+                catch (Exception e1){_log.error(MsgUtils.getMsg("DB_FAILED_ROLLBACK"), e1);}
+            
+            String msg = MsgUtils.getMsg("JOBS_RECOVERY_SELECT_ALL_ERROR", e.getMessage());
+            throw new JobException(msg, e);
+        }
+        finally {
+            
+            // Clean up db resources.
+            if (rs != null) try {rs.close();} catch (Exception e) {}
+            if (pstmt != null) try {pstmt.close();} catch (Exception e) {}
+
+            // Always return the connection back to the connection pool.
+            if (conn != null) 
+                try {conn.close();}
+                  catch (Exception e) 
+                  {
+                      // If commit worked, we can swallow the exception.  
+                      // If not, the commit exception will be thrown.
+                      String msg = MsgUtils.getMsg("DB_FAILED_CONNECTION_CLOSE");
+                      _log.error(msg, e);
+                  }
+        }
+        
+        // Non-null result.
+        return list;
+    }
+    
+    /* ---------------------------------------------------------------------- */
+    /* getNextAttempt:                                                        */
+    /* ---------------------------------------------------------------------- */
+    /** Get the earliest next attempt time of all recovery records, including
+     * those leased by recovery readers.
+     * 
+     * @return the earliest next attempt time or null if there are no records
+     * @throws JobException on error
+     */
+    public Instant getNextAttempt() 
+     throws JobException
+    {
+        // ------------------------- Call SQL ----------------------------
+        Instant nextAttempt = null;
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+        try
+        {
+          // Get a database connection.
+          conn = getConnection();
+          
+          // Prepare the statement.
+          String sql = SqlStatements.SELECT_RECOVERY_NEXT_ATTEMPT;
+          pstmt = conn.prepareStatement(sql);
+          
+          // The aggregate returns a single row that's null when the table is empty.
+          rs = pstmt.executeQuery();
+          if (rs.next()) {
+              Timestamp ts = rs.getTimestamp(1);
+              if (ts != null) nextAttempt = ts.toInstant();
+          }
+          
+          // Commit the transaction.
+          conn.commit();
+        }
+        catch (Exception e)
+        {
+            // Rollback transaction.
+            try {if (conn != null) conn.rollback();}
+                catch (Exception e1){_log.error(MsgUtils.getMsg("DB_FAILED_ROLLBACK"), e1);}
+            
+            String msg = MsgUtils.getMsg("JOBS_RECOVERY_DB_QUERY_ERROR", "recovery", e.getMessage());
+            throw new JobException(msg, e);
+        }
+        finally {
+            
+            // Clean up db resources.
+            if (rs != null) try {rs.close();} catch (Exception e) {}
+            if (pstmt != null) try {pstmt.close();} catch (Exception e) {}
+
+            // Always return the connection back to the connection pool.
+            if (conn != null) 
+                try {conn.close();}
+                  catch (Exception e) 
+                  {
+                      // If commit worked, we can swallow the exception.  
+                      // If not, the commit exception will be thrown.
+                      String msg = MsgUtils.getMsg("DB_FAILED_CONNECTION_CLOSE");
+                      _log.error(msg, e);
+                  }
+        }
+        
+        return nextAttempt;
+    }
+    
+    /* ---------------------------------------------------------------------- */
+    /* getRecoveryByJobUuid:                                                  */
+    /* ---------------------------------------------------------------------- */
+    /** Get the recovery record in which a job is blocked, including all the 
+     * job blocked objects associated with the record.
+     * 
+     * @param jobUuid the blocked job's uuid
+     * @return the job's recovery object or null if the job is not blocked
+     * @throws JobException on error
+     */
+    public JobRecovery getRecoveryByJobUuid(String jobUuid) 
+     throws JobException
+    {
+        // ------------------------- Call SQL ----------------------------
+        JobRecovery jobRecovery = null;
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+        try
+        {
+          // Get a database connection.
+          conn = getConnection();
+          
+          // Create the command using table definition field order.
+          String sql = SqlStatements.SELECT_RECOVERY_BY_JOB_UUID;
+  
+          // Prepare the statement and fill in the placeholders.
+          pstmt = conn.prepareStatement(sql);
+          pstmt.setString(1, jobUuid);
+          
+          // Issue the call for the 0 or 1 row result set.
+          rs = pstmt.executeQuery();
+          jobRecovery = populateRecovery(rs);
+          if (jobRecovery != null)
+              jobRecovery.addBlockedJobs(selectBlockedJobs(conn, jobRecovery.getId()));
+          
+          // Commit the transaction.
+          conn.commit();
+        }
+        catch (Exception e)
+        {
+            // Rollback transaction.
+            try {if (conn != null) conn.rollback();}
+                catch (Exception e1){_log.error(MsgUtils.getMsg("DB_FAILED_ROLLBACK"), e1);}
+            
+            String msg = MsgUtils.getMsg("JOBS_RECOVERY_DB_QUERY_ERROR", "recovery", e.getMessage());
+            throw new JobException(msg, e);
+        }
+        finally {
+            
+            // Clean up db resources.
+            if (rs != null) try {rs.close();} catch (Exception e) {}
+            if (pstmt != null) try {pstmt.close();} catch (Exception e) {}
+
+            // Always return the connection back to the connection pool.
+            if (conn != null) 
+                try {conn.close();}
+                  catch (Exception e) 
+                  {
+                      // If commit worked, we can swallow the exception.  
+                      // If not, the commit exception will be thrown.
+                      String msg = MsgUtils.getMsg("DB_FAILED_CONNECTION_CLOSE");
+                      _log.error(msg, e);
+                  }
+        }
+        
+        return jobRecovery;
+    }
+    
+    /* ---------------------------------------------------------------------- */
+    /* deleteBlockedJobs:                                                     */
+    /* ---------------------------------------------------------------------- */
+    /** Delete the specified blocked jobs from a recovery record and then delete
+     * the recovery record if no blocked jobs remain.  Jobs blocked on the same 
+     * condition by other readers after the record was retrieved are preserved,
+     * as is the record that they're blocked in.
+     * 
+     * @param recoveryId the recovery record id
+     * @param tenantId the recovery record's tenant
+     * @param jobUuids the blocked jobs to delete
+     * @return true if the recovery record was deleted, false otherwise
+     * @throws JobException on error
+     */
+    public boolean deleteBlockedJobs(long recoveryId, String tenantId, List<String> jobUuids) 
+     throws JobException
+    {
+        // ------------------------- Tracing -----------------------------
+        if (_log.isDebugEnabled()) 
+            for (String jobUuid : jobUuids) {
+                String msg = MsgUtils.getMsg("JOBS_RECOVERY_DELETING_BLOCKED_JOB", jobUuid);
+                _log.debug(msg);
+            }
+
+        // ------------------------- Call SQL ----------------------------
+        boolean deleted = false;
+        Connection conn = null;
+        try
+        {
+          // Get a database connection.
+          conn = getConnection();
+
+          // Delete the blocked jobs.
+          if (!jobUuids.isEmpty()) {
+              String sql = SqlStatements.DELETE_BLOCKED_JOBS_BY_RECOVERY_ID;
+              PreparedStatement pstmt = conn.prepareStatement(sql);
+              pstmt.setLong(1, recoveryId);
+              pstmt.setArray(2, conn.createArrayOf("text", jobUuids.toArray()));
+              pstmt.executeUpdate();
+              pstmt.close();
+          }
+          
+          // Delete the recovery record if it's now empty.
+          String sql = SqlStatements.DELETE_RECOVERY_IF_EMPTY;
+          PreparedStatement pstmt = conn.prepareStatement(sql);
+          pstmt.setLong(1, recoveryId);
+          pstmt.setString(2, tenantId);
+          deleted = pstmt.executeUpdate() > 0;
+          pstmt.close();
+          
+          // Commit everything.
+          conn.commit();
+        }
+        catch (Exception e)
+        {
+            // Rollback transaction.
+            try {if (conn != null) conn.rollback();}
+                catch (Exception e1){_log.error(MsgUtils.getMsg("DB_FAILED_ROLLBACK"), e1);}
+            
+            String msg = MsgUtils.getMsg("JOBS_RECOVERY_DELETE_ERROR", recoveryId, tenantId, e.getMessage());
+            throw new JobException(msg, e);
+        }
+        finally {
+            // Always return the connection back to the connection pool.
+            if (conn != null) 
+                try {conn.close();}
+                  catch (Exception e) 
+                  {
+                      // If commit worked, we can swallow the exception.  
+                      // If not, the commit exception will be thrown.
+                      String msg = MsgUtils.getMsg("DB_FAILED_CONNECTION_CLOSE");
+                      _log.error(msg, e);
+                  }
+        }
+        
+        // Tracing.
+        if (deleted && _log.isDebugEnabled()) {
+            String msg = MsgUtils.getMsg("JOBS_RECOVERY_DELETING_RECOVERY_RECORD", recoveryId, tenantId);
+            _log.debug(msg);
+        }
+        
+        return deleted;
+    }
+    
     /* ********************************************************************** */
     /*                             Private Methods                            */
     /* ********************************************************************** */
@@ -650,6 +951,38 @@ public final class JobRecoveryDao
         }
     }
     
+    /* ---------------------------------------------------------------------- */
+    /* selectBlockedJobs:                                                     */
+    /* ---------------------------------------------------------------------- */
+    private List<JobBlocked> selectBlockedJobs(Connection conn, long recoveryId) 
+     throws SQLException, TapisJDBCException
+    {
+        ArrayList<JobBlocked> list = new ArrayList<>();
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+        try {
+            // Prepare the statement and fill in the placeholders.
+            String sql = SqlStatements.SELECT_BLOCKED_JOBS_BY_RECOVERY_ID;
+            pstmt = conn.prepareStatement(sql);
+            pstmt.setLong(1, recoveryId);
+            
+            // Execute the query.
+            rs = pstmt.executeQuery();
+            JobBlocked obj = populateJobBlocked(rs);
+            while (obj != null) {
+              list.add(obj);
+              obj = populateJobBlocked(rs);
+            }
+        }
+        finally {
+            // Clean up db resources.
+            if (rs != null) try {rs.close();} catch (Exception e) {}
+            if (pstmt != null) try {pstmt.close();} catch (Exception e) {}
+        }
+        
+        return list;
+    }
+    
     /* ---------------------------------------------------------------------- */
     /* populateRecovery:                                                      */
     /* ---------------------------------------------------------------------- */
@@ -227,6 +227,66 @@ public final class JobResubmitDao
       }
   }
 
+  /* ---------------------------------------------------------------------- */
+  /* createJobResubmits:                                                    */
+  /* ---------------------------------------------------------------------- */
+  /** Insert a batch of resubmit records using a single JDBC batch.  Like the
+   * single record version, failures are logged but not thrown.
+   * 
+   * @param jobResubmits the new resubmit records
+   */
+  public void createJobResubmits(List<JobResubmit> jobResubmits) 
+  {
+      // Nothing to do.
+      if (jobResubmits.isEmpty()) return;
+      
+      // ------------------------- Call SQL ----------------------------
+      Connection conn = null;
+      try {
+          // Get a database connection.
+          conn = getConnection();
+    
+          // Add each record to the batch.
+          String sql = SqlStatements.CREATE_JOBRESUBMIT;
+          PreparedStatement pstmt = conn.prepareStatement(sql);
+          for (var jobResubmit : jobResubmits) {
+              pstmt.setString(1, jobResubmit.getJobUuid());
+              pstmt.setString(2, jobResubmit.getJobDefinition());
+              pstmt.addBatch();
+          }
+      
+          // Issue the call and clean up statement.
+          int[] rows = pstmt.executeBatch();
+          if (rows.length != jobResubmits.size()) 
+              _log.warn(MsgUtils.getMsg("DB_INSERT_UNEXPECTED_ROWS", "job_resubmit", 
+                                        rows.length, jobResubmits.size()));
+          pstmt.close();
+          
+          // Commit the transaction.
+          conn.commit();
+      } 
+      catch (Exception e) {
+          // Rollback transaction.
+          try {if (conn != null) conn.rollback();}
+              catch (Exception e1){_log.error(MsgUtils.getMsg("DB_FAILED_ROLLBACK"), e1);}
+          String msg = MsgUtils.getMsg("JOBS_JOBRESUBMIT_INSERT_ERROR", 
+                                       jobResubmits.get(0).getJobUuid(), e.getMessage());
+          _log.error(msg, e);
+      }
+      finally {
+          // Always return the connection back to the connection pool.
+          if (conn != null)
+              try {conn.close();}
+                  catch (Exception e)
+                  {
+                      // If commit worked, we can swallow the exception.
+                      // If not, the commit exception will be thrown.
+                      String msg = MsgUtils.getMsg("DB_FAILED_CONNECTION_CLOSE");
+                      _log.error(msg, e);
+                  }
+      }
+  }
+
   /* ********************************************************************** */
   /*                             Private Methods                            */
   /* ********************************************************************** */
@@ -0,0 +1,158 @@
+package edu.utexas.tacc.tapis.jobs.dao;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.jooq.Field;
+
+import edu.utexas.tacc.tapis.jobs.gen.jooq.Tables;
+import edu.utexas.tacc.tapis.search.SearchUtils;
+import edu.utexas.tacc.tapis.search.SearchUtils.SearchOperator;
+
+/** Immutable description of the jobs table columns used by the search, order by
+ * and select processing of all job search endpoints.  The registry is built once
+ * from the generated jOOQ table definition, so no database access is needed and
+ * request processing never recomputes column names, types or allowed operators.
+ *
+ * Columns can be looked up by their database (snake case) name or by their
+ * camel case model name.
+ *
+ * @author rcardone
+ */
+public final class JobSearchSchema
+{
+    /* ********************************************************************** */
+    /*                                Fields                                  */
+    /* ********************************************************************** */
+    // The singleton instance, which has no external dependencies.
+    private static final JobSearchSchema _instance = new JobSearchSchema();
+
+    // Columns keyed by database name in table order.
+    private final Map<String,Column> _columns;
+
+    // Columns keyed by both database and camel case names.
+    private final Map<String,Column> _lookup;
+
+    // Database column name to sql type name.
+    private final Map<String,String> _columnTypes;
+
+    /* ********************************************************************** */
+    /*                                Records                                 */
+    /* ********************************************************************** */
+    /** A searchable column.
+     *
+     * @param name the database column name
+     * @param field the pre-built jOOQ field
+     * @param sqlType the java.sql.Types value
+     * @param sqlTypeName the database type name
+     * @param allowedOps the search operators allowed on the column's type
+     */
+    public record Column(String name, Field<?> field, int sqlType, String sqlTypeName,
+                         Set<SearchOperator> allowedOps)
+    {
+        public boolean isSearchable() {return !allowedOps.isEmpty();}
+        public boolean allows(SearchOperator op) {return allowedOps.contains(op);}
+    }
+
+    /* ********************************************************************** */
+    /*                             Constructors                               */
+    /* ********************************************************************** */
+    /* ---------------------------------------------------------------------- */
+    /* constructor:                                                           */
+    /* ---------------------------------------------------------------------- */
+    private JobSearchSchema()
+    {
+        var columns = new LinkedHashMap<String,Column>();
+        var lookup  = new HashMap<String,Column>();
+        var types   = new LinkedHashMap<String,String>();
+        for (Field<?> field : Tables.JOBS.fields()) {
+            var dataType = field.getDataType();
+            var allowedOps = EnumSet.noneOf(SearchOperator.class);
+            var ops = SearchUtils.ALLOWED_OPS_BY_TYPE.get(dataType.getSQLType());
+            if (ops != null) allowedOps.addAll(ops);
+
+            var column = new Column(field.getName(), field, dataType.getSQLType(),
+                                    dataType.getTypeName(), Collections.unmodifiableSet(allowedOps));
+            columns.put(column.name(), column);
+            types.put(column.name(), column.sqlTypeName());
+            lookup.put(column.name(), column);
+            lookup.putIfAbsent(toCamelCase(column.name()), column);
+        }
+        _columns = Collections.unmodifiableMap(columns);
+        _lookup  = Collections.unmodifiableMap(lookup);
+        _columnTypes = Collections.unmodifiableMap(types);
+    }
+
+    /* ********************************************************************** */
+    /*                             Public Methods                             */
+    /* ********************************************************************** */
+    /* ---------------------------------------------------------------------- */
+    /* getInstance:                                                           */
+    /* ---------------------------------------------------------------------- */
+    public static JobSearchSchema getInstance() {return _instance;}
+
+    /* ---------------------------------------------------------------------- */
+    /* getColumn:                                                             */
+    /* ---------------------------------------------------------------------- */
+    /** Look up a column by its database or camel case name.
+     *
+     * @param name the column name
+     * @return the column or null if there's no such column
+     */
+    public Column getColumn(String name)
+    {
+        if (name == null) return null;
+        var column = _lookup.get(name);
+        if (column == null) column = _lookup.get(SearchUtils.camelCaseToSnakeCase(name));
+        return column;
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* getField:                                                              */
+    /* ---------------------------------------------------------------------- */
+    /** Look up a column's jOOQ field by its database or camel case name.
+     *
+     * @param name the column name
+     * @return the field or null if there's no such column
+     */
+    public Field<?> getField(String name)
+    {
+        var column = getColumn(name);
+        return column == null ? null : column.field();
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* getColumnNames:                                                        */
+    /* ---------------------------------------------------------------------- */
+    /** The unmodifiable set of database column names. */
+    public Set<String> getColumnNames() {return _columns.keySet();}
+
+    /* ---------------------------------------------------------------------- */
+    /* getColumnTypes:                                                        */
+    /* ---------------------------------------------------------------------- */
+    /** The unmodifiable map of database column names to sql type names. */
+    public Map<String,String> getColumnTypes() {return _columnTypes;}
+
+    /* ********************************************************************** */
+    /*                            Private Methods                             */
+    /* ********************************************************************** */
+    /* ---------------------------------------------------------------------- */
+    /* toCamelCase:                                                           */
+    /* ---------------------------------------------------------------------- */
+    /** The inverse of SearchUtils.camelCaseToSnakeCase for database names. */
+    private static String toCamelCase(String snakeCase)
+    {
+        var buf = new StringBuilder(snakeCase.length());
+        boolean upper = false;
+        for (char c : snakeCase.toCharArray()) {
+            if (c == '_') {upper = true; continue;}
+            buf.append(upper ? Character.toUpperCase(c) : c);
+            upper = false;
+        }
+        return buf.toString();
+    }
+}
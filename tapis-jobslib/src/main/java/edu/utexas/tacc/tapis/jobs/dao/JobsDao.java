@@ -13,24 +13,29 @@ import java.sql.Types;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeSet;
 
-import javax.sql.DataSource;
-
 import org.apache.commons.lang3.StringUtils;
 import org.jooq.Condition;
 import org.jooq.DSLContext;
 import org.jooq.Field;
+import org.jooq.JSONB;
 import org.jooq.OrderField;
+import org.jooq.Record;
 import org.jooq.Result;
+import org.jooq.SelectFieldOrAsterisk;
+import org.jooq.SelectLimitStep;
 import org.jooq.TableField;
 import org.jooq.impl.DSL;
+import org.jooq.impl.SQLDataType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.gson.JsonArray;
+
+import edu.utexas.tacc.tapis.jobs.config.RuntimeParameters;
 import edu.utexas.tacc.tapis.jobs.dao.sql.SqlStatements;
 import edu.utexas.tacc.tapis.jobs.events.JobEventManager;
 import edu.utexas.tacc.tapis.jobs.exceptions.JobException;
@@ -39,7 +44,9 @@ import edu.utexas.tacc.tapis.jobs.gen.jooq.tables.records.JobsRecord;
 import edu.utexas.tacc.tapis.jobs.model.Job;
 import edu.utexas.tacc.tapis.jobs.model.JobEvent;
 import edu.utexas.tacc.tapis.jobs.model.dto.JobListDTO;
+import edu.utexas.tacc.tapis.jobs.model.dto.JobListPage;
 import edu.utexas.tacc.tapis.jobs.model.dto.JobStatusDTO;
+import edu.utexas.tacc.tapis.jobs.model.enumerations.JobListCountMode;
 import edu.utexas.tacc.tapis.jobs.model.enumerations.JobRemoteOutcome;
 import edu.utexas.tacc.tapis.jobs.model.enumerations.JobStatusType;
 import edu.utexas.tacc.tapis.jobs.model.enumerations.JobType;
@@ -57,6 +64,7 @@ import edu.utexas.tacc.tapis.shared.exceptions.TapisNotFoundException;
 import edu.utexas.tacc.tapis.shared.i18n.MsgUtils;
 import edu.utexas.tacc.tapis.shared.threadlocal.OrderBy;
 import edu.utexas.tacc.tapis.shared.utils.CallSiteToggle;
+import edu.utexas.tacc.tapis.shared.utils.TapisGsonUtils;
 
 
 /** A note about querying our JSON data types.  The jobs database schema currently defines these 
@@ -140,17 +148,25 @@ public final class JobsDao
     // Comma-separated string of terminal statuses ready for sql query.
     private final static String _terminalStatuses = JobStatusType.getTerminalSQLString();
     
+    // Summary listing columns and the total count window column.
+    private static final List<TableField<JobsRecord,?>> SUMMARY_FIELDS = 
+        List.of(Tables.JOBS.UUID, Tables.JOBS.TENANT, Tables.JOBS.NAME, Tables.JOBS.OWNER,
+                Tables.JOBS.STATUS, Tables.JOBS.CREATED, Tables.JOBS.ENDED, Tables.JOBS.LAST_UPDATED,
+                Tables.JOBS.APP_ID, Tables.JOBS.APP_VERSION, Tables.JOBS.EXEC_SYSTEM_ID,
+                Tables.JOBS.ARCHIVE_SYSTEM_ID, Tables.JOBS.REMOTE_STARTED);
+    private static final Field<Integer> TOTAL_COUNT_FIELD = DSL.count().over().as("total_count");
+    
     // comma space string to be appended during ORDER BY SQL clause statement preparation
     private static final String SUFFIX_COMMA_SPACE = ", ";
     
-    // Table name from which columns names are retrieved
-    private static final String JOBS_TABLENAME = "jobs";
-    
     // Default orderBy field value
     private static final String DEFAULT_ORDER_BY = "lastUpdated";
     
-    // Initialize Jobs Table Map with column name and type;
-    public static final Map<String, String> JOB_REQ_DB_MAP = initializeJobFieldMap();
+    // Search metadata for the jobs table columns, built once.
+    private static final JobSearchSchema _searchSchema = JobSearchSchema.getInstance();
+    
+    // Jobs Table Map with column name and type;
+    public static final Map<String, String> JOB_REQ_DB_MAP = _searchSchema.getColumnTypes();
     
     /* ********************************************************************** */
     /*                                 Enums                                  */
@@ -376,7 +392,7 @@ public final class JobsDao
 	    
         for(int i = 0;i < listsize; i++) {
         	String attr = SearchUtils.camelCaseToSnakeCase(orderByList.get(i).getOrderByAttr());
-        	Field<?> colOrderBy = Tables.JOBS.field(DSL.name(attr));
+        	Field<?> colOrderBy = _searchSchema.getField(attr);
         	if(orderByList.get(i)!=null && colOrderBy == null) {
         		String msg = MsgUtils.getMsg("SEARCH_ORDERBY_DB_NO_COLUMN", DSL.name(attr));
         		throw new TapisException(msg);
@@ -395,7 +411,7 @@ public final class JobsDao
       	if(orderByList != null) {
       		for(int i = 0;i < listsize; i++) {
             	String attr = SearchUtils.camelCaseToSnakeCase(orderByList.get(i).getOrderByAttr());
-            	Field<?> colOrderBy = Tables.JOBS.field(DSL.name(attr));
+            	Field<?> colOrderBy = _searchSchema.getField(attr);
             	if(orderByList.get(i)!=null && colOrderBy == null) {
             		String msg = MsgUtils.getMsg("SEARCH_ORDERBY_DB_NO_COLUMN", DSL.name(attr));
             		throw new TapisException(msg);
@@ -464,7 +480,7 @@ public final class JobsDao
 	    
         for(int i = 0;i < listsize; i++) {
         	String attr = SearchUtils.camelCaseToSnakeCase(orderByList.get(i).getOrderByAttr());
-        	Field<?> colOrderBy = Tables.JOBS.field(DSL.name(attr));
+        	Field<?> colOrderBy = _searchSchema.getField(attr);
         	if(orderByList.get(i)!=null && colOrderBy == null) {
         		String msg = MsgUtils.getMsg("SEARCH_ORDERBY_DB_NO_COLUMN", DSL.name(attr));
         		throw new TapisException(msg);
@@ -492,7 +508,7 @@ public final class JobsDao
       	if(orderByList != null) {
       		for(int i = 0;i < listsize; i++) {
             	String attr = SearchUtils.camelCaseToSnakeCase(orderByList.get(i).getOrderByAttr());
-            	Field<?> colOrderBy = Tables.JOBS.field(DSL.name(attr));
+            	Field<?> colOrderBy = _searchSchema.getField(attr);
             	if(orderByList.get(i)!=null && colOrderBy == null) {
             		String msg = MsgUtils.getMsg("SEARCH_ORDERBY_DB_NO_COLUMN", DSL.name(attr));
             		throw new TapisException(msg);
@@ -569,7 +585,7 @@ public final class JobsDao
 	    
         for(int i = 0;i < listsize; i++) {
         	String attr = SearchUtils.camelCaseToSnakeCase(orderByList.get(i).getOrderByAttr());
-        	Field<?> colOrderBy = Tables.JOBS.field(DSL.name(attr));
+        	Field<?> colOrderBy = _searchSchema.getField(attr);
         	if(orderByList.get(i)!=null && colOrderBy == null) {
         		String msg = MsgUtils.getMsg("SEARCH_ORDERBY_DB_NO_COLUMN", DSL.name(attr));
         		throw new TapisException(msg);
@@ -589,7 +605,7 @@ public final class JobsDao
       	if(orderByList != null) {
       		for(int i = 0;i < listsize; i++) {
             	String attr = SearchUtils.camelCaseToSnakeCase(orderByList.get(i).getOrderByAttr());
-            	Field<?> colOrderBy = Tables.JOBS.field(DSL.name(attr));
+            	Field<?> colOrderBy = _searchSchema.getField(attr);
             	if(orderByList.get(i)!=null && colOrderBy == null) {
             		String msg = MsgUtils.getMsg("SEARCH_ORDERBY_DB_NO_COLUMN", DSL.name(attr));
             		throw new TapisException(msg);
@@ -710,7 +726,7 @@ public final class JobsDao
 	    
         for(int i = 0;i < listsize; i++) {
         	String attr = SearchUtils.camelCaseToSnakeCase(orderByList.get(i).getOrderByAttr());
-        	Field<?> colOrderBy = Tables.JOBS.field(DSL.name(attr));
+        	Field<?> colOrderBy = _searchSchema.getField(attr);
         	if(orderByList.get(i)!=null && colOrderBy == null) {
         		String msg = MsgUtils.getMsg("SEARCH_ORDERBY_DB_NO_COLUMN", DSL.name(attr));
         		throw new TapisException(msg);
@@ -733,7 +749,7 @@ public final class JobsDao
       	if(orderByList != null) {
       		for(int i = 0;i < listsize; i++) {
             	String attr = SearchUtils.camelCaseToSnakeCase(orderByList.get(i).getOrderByAttr());
-            	Field<?> colOrderBy = Tables.JOBS.field(DSL.name(attr));
+            	Field<?> colOrderBy = _searchSchema.getField(attr);
             	if(orderByList.get(i)!=null && colOrderBy == null) {
             		String msg = MsgUtils.getMsg("SEARCH_ORDERBY_DB_NO_COLUMN", DSL.name(attr));
             		throw new TapisException(msg);
@@ -830,245 +846,98 @@ public final class JobsDao
 	}
 	
 	/* ---------------------------------------------------------------------- */
-	/* getJobSearchAllAttributesByUsername:                                   */
-	/*  all attributes                                                        */
+	/* getJobsSearchPageByUsername:                                           */
+	/*  summary attributes with total count                                   */
 	/* ---------------------------------------------------------------------- */
-	@SuppressWarnings({ "rawtypes", "unchecked" })
-	public List<Job> getJobSearchAllAttributesByUsername(String username, String tenant, List<String>searchList, 
-			List<OrderBy> orderByList,Integer limit, Integer skip, boolean shared) 
+	/** Retrieve a page of job summaries and, depending on the count mode, the
+	 * total number of matching jobs using a single query.  The total is computed
+	 * with a count(*) window over the filtered rows before limit and offset are
+	 * applied, which replaces a separate count query with the same where clause.
+	 * 
+	 * @param username the requesting user
+	 * @param tenant the user's tenant
+	 * @param searchList search conditions or null
+	 * @param orderByList non-null order by list
+	 * @param limit maximum number of jobs to return, -1 for unlimited
+	 * @param skip number of jobs to skip
+	 * @param sharedWithMe true when the owner is not restricted to the user
+	 * @param countMode how the total count is computed
+	 * @return the page of jobs and its total count
+	 * @throws TapisException on error
+	 */
+	public JobListPage<JobListDTO> getJobsSearchPageByUsername(String username, String tenant, 
+	                                  List<String> searchList, List<OrderBy> orderByList, 
+	                                  Integer limit, Integer skip, boolean sharedWithMe,
+	                                  JobListCountMode countMode) 
 	  throws TapisException
 	{
-	    // Initialize result.
-	    ArrayList<Job> jobs = new ArrayList<>();
-       
-	    // Negative skip indicates no skip
-	    if (skip < 0) skip = 0;
-	    
-	   
-	    
-	    int listsize = orderByList.size();
-	    _log.debug("listsize: " + listsize);
-	    
-	    
-        for(int i = 0;i < listsize; i++) {
-        	String attr = SearchUtils.camelCaseToSnakeCase(orderByList.get(i).getOrderByAttr());
-        	Field<?> colOrderBy = Tables.JOBS.field(DSL.name(attr));
-        	if(orderByList.get(i)!=null && colOrderBy == null) {
-        		String msg = MsgUtils.getMsg("SEARCH_ORDERBY_DB_NO_COLUMN", DSL.name(attr));
-        		throw new TapisException(msg);
-        	}
-        	
-        }
-        Condition whereCondition;
-      	if(shared) {
-      		whereCondition = (Tables.JOBS.TENANT.eq(tenant)).and(Tables.JOBS.VISIBLE.eq(true));
-      	} else {
-      		whereCondition = (Tables.JOBS.TENANT.eq(tenant)).and(Tables.JOBS.OWNER.eq(username)).and(Tables.JOBS.VISIBLE.eq(true));
-        }
-      	if(searchList != null) {
-      		whereCondition = addSearchListToWhere(whereCondition, searchList);
-      	}
-      	List<OrderField> orderList = new ArrayList<OrderField>();
-      	if(orderByList != null) {
-      		for(int i = 0;i < listsize; i++) {
-            	String attr = SearchUtils.camelCaseToSnakeCase(orderByList.get(i).getOrderByAttr());
-            	Field<?> colOrderBy = Tables.JOBS.field(DSL.name(attr));
-            	if(orderByList.get(i)!=null && colOrderBy == null) {
-            		String msg = MsgUtils.getMsg("SEARCH_ORDERBY_DB_NO_COLUMN", DSL.name(attr));
-            		throw new TapisException(msg);
-            	}
-            	if(orderByList.get(i).getOrderByDir().name().equals("ASC")) {
-            		orderList.add(colOrderBy.asc());
-            	}else {
-            		orderList.add(colOrderBy.desc());
-            	}
-          	}
-            	
-       }
-   
-	    // ------------------------- Build and execute SQL ----------------------------
-	    Connection conn = null;
-	    try
-	      {
-	          // Get a database connection.
-	          conn = getConnection();
-	          
-	          DSLContext db = DSL.using(conn);
-
-	          // Execute the select including limit, orderByAttrList, skip and startAfter
-	          // NOTE: LIMIT + OFFSET is not standard among DBs and often very difficult to get right.
-	          //       Jooq claims to handle it well.
-	          Result<JobsRecord> results;
-	          org.jooq.SelectConditionStep condStep = db.select(DSL.asterisk()).from(Tables.JOBS).where(whereCondition);
-	          if(orderByList != null && limit >= 0) {
-	        	  results = condStep.orderBy(orderList).limit(limit).offset(skip).fetchInto(Tables.JOBS);  
-	          } else if (limit >= 0) {
-	            // We are limiting but not ordering
-	            results = condStep.limit(limit).offset(skip).fetchInto(Tables.JOBS);
-	          }
-	          else
-	          {
-	            // We are not limiting and not ordering
-	            results = condStep.fetchInto(Tables.JOBS);
-	          }
-	          if (results == null || results.isEmpty()) return jobs;
-
-	          // Create Job object from Job objects.
-	          for (JobsRecord r : results)
-	          {
-	        	Job job = r.into(Job.class);
-	            jobs.add(job);
-	          }
-
-	          // Close out and commit
-	          if ((conn !=null)) conn.commit();
-	        }
-	        catch (Exception e)
-	        {
-	        	 // Rollback transaction.
-		          try {if (conn != null) conn.rollback();}
-		              catch (Exception e1){_log.error(MsgUtils.getMsg("DB_FAILED_ROLLBACK"), e1);}
-		          
-		          String msg = MsgUtils.getMsg("DB_SELECT_UUID_ERROR", "Jobs", "allUUIDs", e.getMessage());
-		          throw new JobException(msg, e);
-	        }
-	        finally
-	        {
-	          // Always return the connection back to the connection pool.
-	        	 // Always return the connection back to the connection pool.
-		          try {if (conn != null) conn.close();}
-		            catch (Exception e) 
-		            {
-		              // If commit worked, we can swallow the exception.  
-		              // If not, the commit exception will be thrown.
-		              String msg = MsgUtils.getMsg("DB_FAILED_CONNECTION_CLOSE");
-		              _log.error(msg, e);
-		            }
-	        }
-	        return jobs;
+	    Condition whereCondition = makeSearchWhereCondition(username, tenant, sharedWithMe);
+	    if (searchList != null) whereCondition = addSearchListToWhere(whereCondition, searchList);
+	    return getJobPage(whereCondition, makeSearchOrderList(orderByList), SUMMARY_FIELDS,
+	                      JobListDTO.class, limit, skip, countMode);
 	}
 	
 	/* ---------------------------------------------------------------------- */
-	/* getJobSearchAllAttributesByUsernameUsingSqlSearchStr:                  */
-	/*  all attributes                                                        */
+	/* getJobSearchPageByUsernameUsingSqlSearchStr:                           */
+	/*  summary attributes with total count, post end-point                   */
 	/* ---------------------------------------------------------------------- */
-	@SuppressWarnings({ "rawtypes", "unchecked" })
-	public List<Job> getJobSearchAllAttributesByUsernameUsingSqlSearchStr(String username, String tenant, ASTNode searchAST, 
-			List<OrderBy> orderByList,Integer limit, Integer skip, boolean shared) 
+	public JobListPage<JobListDTO> getJobSearchPageByUsernameUsingSqlSearchStr(
+	                                  String username, String tenant, ASTNode searchAST, 
+	                                  List<OrderBy> orderByList, Integer limit, Integer skip, 
+	                                  boolean sharedWithMe, JobListCountMode countMode) 
 	  throws TapisException
 	{
-	    // Initialize result.
-	    ArrayList<Job> jobs = new ArrayList<>();
-       
-	    // Negative skip indicates no skip
-	    if (skip < 0) skip = 0;
-	    
-	   
-	    
-	    int listsize = orderByList.size();
-	    _log.debug("listsize: " + listsize);
-	    
-	    
-        for(int i = 0;i < listsize; i++) {
-        	String attr = SearchUtils.camelCaseToSnakeCase(orderByList.get(i).getOrderByAttr());
-        	Field<?> colOrderBy = Tables.JOBS.field(DSL.name(attr));
-        	if(orderByList.get(i)!=null && colOrderBy == null) {
-        		String msg = MsgUtils.getMsg("SEARCH_ORDERBY_DB_NO_COLUMN", DSL.name(attr));
-        		throw new TapisException(msg);
-        	}
-        	
-        }
-        Condition whereCondition = null;
-      	 
-        if(shared) {
-      		whereCondition = (Tables.JOBS.TENANT.eq(tenant)).and(Tables.JOBS.VISIBLE.eq(true));
-      	} else {
-      		whereCondition = (Tables.JOBS.TENANT.eq(tenant)).and(Tables.JOBS.OWNER.eq(username)).and(Tables.JOBS.VISIBLE.eq(true));
-        }
-      	
-       	if(searchAST != null) {
-      		Condition astCondition = createConditionFromAst(searchAST);
-            if (astCondition != null) whereCondition = whereCondition.and(astCondition);
-            
-      	}
-      	List<OrderField> orderList = new ArrayList<OrderField>();
-      	if(orderByList != null) {
-      		for(int i = 0;i < listsize; i++) {
-            	String attr = SearchUtils.camelCaseToSnakeCase(orderByList.get(i).getOrderByAttr());
-            	Field<?> colOrderBy = Tables.JOBS.field(DSL.name(attr));
-            	if(orderByList.get(i)!=null && colOrderBy == null) {
-            		String msg = MsgUtils.getMsg("SEARCH_ORDERBY_DB_NO_COLUMN", DSL.name(attr));
-            		throw new TapisException(msg);
-            	}
-            	if(orderByList.get(i).getOrderByDir().name().equals("ASC")) {
-            		orderList.add(colOrderBy.asc());
-            	}else {
-            		orderList.add(colOrderBy.desc());
-            	}
-          	}
-            	
-          }
-   
-	    // ------------------------- Build and execute SQL ----------------------------
-	    Connection conn = null;
-	    try
-	      {
-	          // Get a database connection.
-	          conn = getConnection();
-	          
-	          DSLContext db = DSL.using(conn);
-
-	          // Execute the select including limit, orderByAttrList, skip and startAfter
-	          // NOTE: LIMIT + OFFSET is not standard among DBs and often very difficult to get right.
-	          //       Jooq claims to handle it well.
-	          Result<JobsRecord> results;
-	          org.jooq.SelectConditionStep condStep = db.select(DSL.asterisk()).from(Tables.JOBS).where(whereCondition);
-	          if(orderByList != null && limit >= 0) {
-	        	  results = condStep.orderBy(orderList).limit(limit).offset(skip).fetchInto(Tables.JOBS);  
-	          } else if (limit >= 0) {
-	            // We are limiting but not ordering
-	            results = condStep.limit(limit).offset(skip).fetchInto(Tables.JOBS);
-	          }
-	          else
-	          {
-	            // We are not limiting and not ordering
-	            results = condStep.fetchInto(Tables.JOBS);
-	          }
-	          if (results == null || results.isEmpty()) return jobs;
-
-	          // Create Job object from Job objects.
-	          for (JobsRecord r : results)
-	          {
-	        	Job job = r.into(Job.class);
-	            jobs.add(job);
-	          }
-	          // Close out and commit
-	          if ((conn !=null)) conn.commit();
-	        }
-	        catch (Exception e)
-	        {
-	        	 // Rollback transaction.
-		          try {if (conn != null) conn.rollback();}
-		              catch (Exception e1){_log.error(MsgUtils.getMsg("DB_FAILED_ROLLBACK"), e1);}
-		          
-		          String msg = MsgUtils.getMsg("DB_SELECT_UUID_ERROR", "Jobs", "allUUIDs", e.getMessage());
-		          throw new JobException(msg, e);
-	        }
-	        finally
-	        {
-	          // Always return the connection back to the connection pool.
-	        	 // Always return the connection back to the connection pool.
-		          try {if (conn != null) conn.close();}
-		            catch (Exception e) 
-		            {
-		              // If commit worked, we can swallow the exception.  
-		              // If not, the commit exception will be thrown.
-		              String msg = MsgUtils.getMsg("DB_FAILED_CONNECTION_CLOSE");
-		              _log.error(msg, e);
-		            }
-	        }
-	        return jobs;
-	}	
+	    Condition whereCondition = makeSearchWhereCondition(username, tenant, sharedWithMe);
+	    if (searchAST != null) {
+	        Condition astCondition = createConditionFromAst(searchAST);
+	        if (astCondition != null) whereCondition = whereCondition.and(astCondition);
+	    }
+	    return getJobPage(whereCondition, makeSearchOrderList(orderByList), SUMMARY_FIELDS,
+	                      JobListDTO.class, limit, skip, countMode);
+	}
+	
+	/* ---------------------------------------------------------------------- */
+	/* getJobSearchAllAttributesPageByUsername:                               */
+	/*  all or selected attributes with total count                           */
+	/* ---------------------------------------------------------------------- */
+	/** Retrieve a page of jobs reading only the columns named in the select 
+	 * list.  The uuid is always read.  A null or empty select list, or one that
+	 * contains allAttributes, reads all columns.  Unselected job fields retain 
+	 * their default values.
+	 */
+	public JobListPage<Job> getJobSearchAllAttributesPageByUsername(String username, String tenant, 
+	                                  List<String> searchList, List<OrderBy> orderByList, 
+	                                  Integer limit, Integer skip, boolean sharedWithMe,
+	                                  List<String> selectList, JobListCountMode countMode) 
+	  throws TapisException
+	{
+	    Condition whereCondition = makeSearchWhereCondition(username, tenant, sharedWithMe);
+	    if (searchList != null) whereCondition = addSearchListToWhere(whereCondition, searchList);
+	    var projection = makeSelectProjection(selectList);
+	    return getJobPage(whereCondition, makeSearchOrderList(orderByList), projection,
+	                      Job.class, limit, skip, countMode);
+	}
+	
+	/* ---------------------------------------------------------------------- */
+	/* getJobSearchAllAttributesPageByUsernameUsingSqlSearchStr:              */
+	/*  all or selected attributes with total count, post end-point           */
+	/* ---------------------------------------------------------------------- */
+	public JobListPage<Job> getJobSearchAllAttributesPageByUsernameUsingSqlSearchStr(
+	                                  String username, String tenant, ASTNode searchAST, 
+	                                  List<OrderBy> orderByList, Integer limit, Integer skip, 
+	                                  boolean sharedWithMe, List<String> selectList,
+	                                  JobListCountMode countMode) 
+	  throws TapisException
+	{
+	    Condition whereCondition = makeSearchWhereCondition(username, tenant, sharedWithMe);
+	    if (searchAST != null) {
+	        Condition astCondition = createConditionFromAst(searchAST);
+	        if (astCondition != null) whereCondition = whereCondition.and(astCondition);
+	    }
+	    var projection = makeSelectProjection(selectList);
+	    return getJobPage(whereCondition, makeSearchOrderList(orderByList), projection,
+	                      Job.class, limit, skip, countMode);
+	}
 
 	/* ---------------------------------------------------------------------- */  
     /* getJobByUUID:                                                          */
@@ -1293,95 +1162,99 @@ public final class JobsDao
           // Prepare the statement and fill in the placeholders.
           // The fields that the DB defaults are not set.
           PreparedStatement pstmt = conn.prepareStatement(sql);
-          pstmt.setString(1, job.getName());
-          pstmt.setString(2, job.getOwner());
-          pstmt.setString(3, job.getTenant());
-          pstmt.setString(4, job.getDescription());
-              
-          pstmt.setString(5, job.getStatus().name());
-              
-          pstmt.setString(6, job.getLastMessage());
-          pstmt.setTimestamp(7, Timestamp.from(job.getCreated()));
-          pstmt.setTimestamp(8, Timestamp.from(job.getLastUpdated()));
-              
-          pstmt.setString(9, job.getUuid());
-            
-          pstmt.setString(10, job.getAppId().trim());
-          pstmt.setString(11, job.getAppVersion().trim());
-          pstmt.setBoolean(12, job.isArchiveOnAppError());
-          pstmt.setBoolean(13, job.isDynamicExecSystem());
-              
-          pstmt.setString(14, job.getExecSystemId());           
-          pstmt.setString(15, job.getExecSystemExecDir());      // could be null
-          pstmt.setString(16, job.getExecSystemInputDir());     // could be null
-          pstmt.setString(17, job.getExecSystemOutputDir());    // could be null
-          pstmt.setString(18, job.getExecSystemLogicalQueue()); // could be null
-          
-          pstmt.setString(19, job.getArchiveSystemId());        // could be null
-          pstmt.setString(20, job.getArchiveSystemDir());       // could be null
-              
-          pstmt.setString(21, job.getDtnSystemId());            // could be null       
-          pstmt.setString(22, job.getDtnMountSourcePath());     // could be null
-          pstmt.setString(23, job.getDtnMountPoint());          // could be null
-          
-          pstmt.setInt(24, job.getNodeCount());
-          pstmt.setInt(25, job.getCoresPerNode());
-          pstmt.setInt(26, job.getMemoryMB());
-          pstmt.setInt(27, job.getMaxMinutes());
-              
-          pstmt.setString(28, job.getFileInputs());                 
-          pstmt.setString(29, job.getParameterSet());             
-          pstmt.setString(30, job.getExecSystemConstraints());                 
-          pstmt.setString(31, job.getSubscriptions());             
-
-          pstmt.setString(32, job.getTapisQueue());
-          pstmt.setString(33, job.getCreatedby());
-          pstmt.setString(34, job.getCreatedbyTenant());
-          
-          var tags = job.getTags();
-          Array tagsArray;
-          if (tags == null || tags.isEmpty()) 
-              tagsArray = conn.createArrayOf("text", new String[0]);
-            else {
-                String[] sarray = tags.toArray(new String[tags.size()]);
-                tagsArray = conn.createArrayOf("text", sarray);
-            }
-          pstmt.setArray(35, tagsArray);
-          pstmt.setString(36, job.getJobType().name());
+          setCreateJobParms(conn, pstmt, job);
           
-          // MPI and command prefix.
-          pstmt.setBoolean(37, job.isMpi());
-          pstmt.setString(38,  job.getMpiCmd());                // could be null
-          pstmt.setString(39,  job.getCmdPrefix());             // could be null
-          
-          // Shared application context.
-          pstmt.setBoolean(40, job.isSharedAppCtx());
+          // Issue the call and clean up statement.
+          int rows = pstmt.executeUpdate();
+          if (rows != 1) _log.warn(MsgUtils.getMsg("DB_INSERT_UNEXPECTED_ROWS", "jobs", rows, 1));
+          pstmt.close();
           
-          // Shared application context attributes.
-          var attribs = job.getSharedAppCtxAttribs();
-          Array attribsArray;
-          if (attribs == null || attribs.isEmpty()) 
-              attribsArray = conn.createArrayOf("text", new String[0]);
-            else {
-                String[] sarray = new String[attribs.size()];
-                for (int i = 0; i < attribs.size(); i++) sarray[i] = attribs.get(i).name();
-                attribsArray = conn.createArrayOf("text", sarray);
+          // Write the event table and issue the notification.
+          var eventMgr = JobEventManager.getInstance();
+          eventMgr.recordStatusEvent(job, job.getStatus(), null, conn);
+    
+          // Commit the transaction that may include changes to both tables.
+          conn.commit();
+        }
+        catch (Exception e)
+        {
+            // Rollback transaction.
+            try {if (conn != null) conn.rollback();}
+                catch (Exception e1){_log.error(MsgUtils.getMsg("DB_FAILED_ROLLBACK"), e1);}
+            
+            String msg = MsgUtils.getMsg("JOBS_JOB_CREATE_ERROR", job.getName(), 
+                                         job.getTenant(), job.getOwner(), e.getMessage());
+            throw new JobException(msg, e);
+        }
+        finally {
+            // Always return the connection back to the connection pool.
+            if (conn != null) 
+                try {conn.close();}
+                  catch (Exception e) 
+                  {
+                      // If commit worked, we can swallow the exception.  
+                      // If not, the commit exception will be thrown.
+                      String msg = MsgUtils.getMsg("DB_FAILED_CONNECTION_CLOSE");
+                      _log.error(msg, e);
+                  }
+        }
+	}
+
+    /* ---------------------------------------------------------------------- */
+    /* createJobs:                                                            */
+    /* ---------------------------------------------------------------------- */
+    /** Create a batch of new jobs in a single transaction.  The jobs and their
+     * initial status events are each written with a single JDBC batch, so
+     * either all jobs are created or none are.
+     * 
+     * @param jobs the validated new jobs
+     * @throws TapisException if any job is invalid or the transaction fails
+     */
+    public void createJobs(List<Job> jobs)
+      throws TapisException
+    {
+        // ------------------------- Complete Input ----------------------
+        // Nothing to do.
+        if (jobs.isEmpty()) return;
+        
+        // Fill in Job fields that we assure and check the input.
+        Instant now = Instant.now();
+        for (var job : jobs) {
+            if (StringUtils.isBlank(job.getLastMessage())) job.setLastMessage(JOB_CREATE_MSG);
+            if (job.getCreated() == null) {
+                job.setCreated(now);
+                job.setLastUpdated(now);
             }
-          pstmt.setArray(41, attribsArray);
-              
-          // Notes is non-null json.
-          pstmt.setString(42, job.getNotes());
+            validateNewJob(job);
+        }
+    
+        // ------------------------- Call SQL ----------------------------
+        Connection conn = null;
+        try
+        {
+          // Get a database connection.
+          conn = getConnection();
+
+          // Add each job to the batch.
+          String sql = SqlStatements.CREATE_JOB;
+          PreparedStatement pstmt = conn.prepareStatement(sql);
+          for (var job : jobs) {
+              setCreateJobParms(conn, pstmt, job);
+              pstmt.addBatch();
+          }
           
           // Issue the call and clean up statement.
-          int rows = pstmt.executeUpdate();
-          if (rows != 1) _log.warn(MsgUtils.getMsg("DB_INSERT_UNEXPECTED_ROWS", "jobs", rows, 1));
+          int[] rows = pstmt.executeBatch();
+          if (rows.length != jobs.size()) 
+              _log.warn(MsgUtils.getMsg("DB_INSERT_UNEXPECTED_ROWS", "jobs", rows.length, jobs.size()));
           pstmt.close();
           
-          // Write the event table and issue the notification.
+          // Write the event table and issue the notifications.  All new jobs
+          // start in the same status.
           var eventMgr = JobEventManager.getInstance();
-          eventMgr.recordStatusEvent(job, job.getStatus(), null, conn);
+          eventMgr.recordStatusEvents(jobs, jobs.get(0).getStatus(), conn);
     
-          // Commit the transaction that may include changes to both tables.
+          // Commit the transaction that includes changes to both tables.
           conn.commit();
         }
         catch (Exception e)
@@ -1390,6 +1263,7 @@ public final class JobsDao
             try {if (conn != null) conn.rollback();}
                 catch (Exception e1){_log.error(MsgUtils.getMsg("DB_FAILED_ROLLBACK"), e1);}
             
+            var job = jobs.get(0);
             String msg = MsgUtils.getMsg("JOBS_JOB_CREATE_ERROR", job.getName(), 
                                          job.getTenant(), job.getOwner(), e.getMessage());
             throw new JobException(msg, e);
@@ -1406,7 +1280,7 @@ public final class JobsDao
                       _log.error(msg, e);
                   }
         }
-	}
+    }
 		   
     /* ---------------------------------------------------------------------- */
     /* getStatusByUUID:                                                       */
@@ -2462,6 +2336,104 @@ public final class JobsDao
         }
     }
 
+    /* ---------------------------------------------------------------------- */
+    /* getRecentRemoteRuntimes:                                               */
+    /* ---------------------------------------------------------------------- */
+    /** Retrieve the remote runtimes of the most recently completed jobs that
+     * ran the application version on the execution system.  The runtime of a
+     * job is the time between its remote start and end, both as observed by 
+     * the monitor.  
+     * 
+     * @param tenantId the non-null job tenant
+     * @param systemId the non-null execution system id
+     * @param appId the non-null application id
+     * @param appVersion the non-null application version
+     * @param limit the maximum number of runtimes to return
+     * @return the runtimes in seconds, most recent first
+     * @throws JobException on error
+     */
+    public List<Long> getRecentRemoteRuntimes(String tenantId, String systemId, 
+                                              String appId, String appVersion,
+                                              int limit)
+     throws JobException
+    {
+        // ------------------------- Check Input -------------------------
+        if (StringUtils.isBlank(tenantId)) {
+            String msg = MsgUtils.getMsg("TAPIS_NULL_PARAMETER", "getRecentRemoteRuntimes", "tenantId");
+            _log.error(msg);
+            throw new JobException(msg);
+        }
+        if (StringUtils.isBlank(systemId)) {
+            String msg = MsgUtils.getMsg("TAPIS_NULL_PARAMETER", "getRecentRemoteRuntimes", "systemId");
+            _log.error(msg);
+            throw new JobException(msg);
+        }
+        if (StringUtils.isBlank(appId)) {
+            String msg = MsgUtils.getMsg("TAPIS_NULL_PARAMETER", "getRecentRemoteRuntimes", "appId");
+            _log.error(msg);
+            throw new JobException(msg);
+        }
+        if (StringUtils.isBlank(appVersion)) {
+            String msg = MsgUtils.getMsg("TAPIS_NULL_PARAMETER", "getRecentRemoteRuntimes", "appVersion");
+            _log.error(msg);
+            throw new JobException(msg);
+        }
+        
+        // The result.
+        var runtimes = new ArrayList<Long>(Math.max(limit, 0));
+        if (limit <= 0) return runtimes;
+        
+        // ------------------------- Call SQL ----------------------------
+        Connection conn = null;
+        try
+        {
+            // Get a database connection.
+            conn = getConnection();
+            
+            // Prepare the statement and fill in the placeholders.
+            PreparedStatement pstmt = conn.prepareStatement(SqlStatements.SELECT_RECENT_REMOTE_RUNTIMES);
+            pstmt.setString(1, tenantId);
+            pstmt.setString(2, systemId);
+            pstmt.setString(3, appId);
+            pstmt.setString(4, appVersion);
+            pstmt.setInt(5, limit);
+                        
+            // Issue the call for the multi-row result set.
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) runtimes.add(rs.getLong(1));
+            
+            // Close the result and statement.
+            rs.close();
+            pstmt.close();
+      
+            // Commit the transaction.
+            conn.commit();
+        }
+        catch (Exception e)
+        {
+            // Rollback transaction.
+            try {if (conn != null) conn.rollback();}
+                catch (Exception e1){_log.error(MsgUtils.getMsg("DB_FAILED_ROLLBACK"), e1);}
+            
+            String msg = MsgUtils.getMsg("DB_QUERY_ERROR", "jobs", e.getMessage());
+            throw new JobException(msg, e);
+        }
+        finally {
+            // Always return the connection back to the connection pool.
+            if (conn != null) 
+                try {conn.close();}
+                  catch (Exception e) 
+                  {
+                      // If commit worked, we can swallow the exception.  
+                      // If not, the commit exception will be thrown.
+                      String msg = MsgUtils.getMsg("DB_FAILED_CONNECTION_CLOSE");
+                      _log.error(msg, e);
+                  }
+        }
+        
+        return runtimes;
+    }
+
     /* ********************************************************************** */
     /*                             Private Methods                            */
     /* ********************************************************************** */
@@ -2895,6 +2867,95 @@ public final class JobsDao
         }
     }
 
+    /* ---------------------------------------------------------------------- */
+    /* setCreateJobParms:                                                     */
+    /* ---------------------------------------------------------------------- */
+    /** Fill in the placeholders of the create job statement using table 
+     * definition field order.  The fields that the DB defaults are not set.
+     */
+    private void setCreateJobParms(Connection conn, PreparedStatement pstmt, Job job)
+     throws SQLException
+    {
+        pstmt.setString(1, job.getName());
+        pstmt.setString(2, job.getOwner());
+        pstmt.setString(3, job.getTenant());
+        pstmt.setString(4, job.getDescription());
+          
+        pstmt.setString(5, job.getStatus().name());
+          
+        pstmt.setString(6, job.getLastMessage());
+        pstmt.setTimestamp(7, Timestamp.from(job.getCreated()));
+        pstmt.setTimestamp(8, Timestamp.from(job.getLastUpdated()));
+          
+        pstmt.setString(9, job.getUuid());
+        
+        pstmt.setString(10, job.getAppId().trim());
+        pstmt.setString(11, job.getAppVersion().trim());
+        pstmt.setBoolean(12, job.isArchiveOnAppError());
+        pstmt.setBoolean(13, job.isDynamicExecSystem());
+          
+        pstmt.setString(14, job.getExecSystemId());           
+        pstmt.setString(15, job.getExecSystemExecDir());      // could be null
+        pstmt.setString(16, job.getExecSystemInputDir());     // could be null
+        pstmt.setString(17, job.getExecSystemOutputDir());    // could be null
+        pstmt.setString(18, job.getExecSystemLogicalQueue()); // could be null
+      
+        pstmt.setString(19, job.getArchiveSystemId());        // could be null
+        pstmt.setString(20, job.getArchiveSystemDir());       // could be null
+          
+        pstmt.setString(21, job.getDtnSystemId());            // could be null       
+        pstmt.setString(22, job.getDtnMountSourcePath());     // could be null
+        pstmt.setString(23, job.getDtnMountPoint());          // could be null
+      
+        pstmt.setInt(24, job.getNodeCount());
+        pstmt.setInt(25, job.getCoresPerNode());
+        pstmt.setInt(26, job.getMemoryMB());
+        pstmt.setInt(27, job.getMaxMinutes());
+          
+        pstmt.setString(28, job.getFileInputs());                 
+        pstmt.setString(29, job.getParameterSet());             
+        pstmt.setString(30, job.getExecSystemConstraints());                 
+        pstmt.setString(31, job.getSubscriptions());             
+
+        pstmt.setString(32, job.getTapisQueue());
+        pstmt.setString(33, job.getCreatedby());
+        pstmt.setString(34, job.getCreatedbyTenant());
+      
+        var tags = job.getTags();
+        Array tagsArray;
+        if (tags == null || tags.isEmpty()) 
+            tagsArray = conn.createArrayOf("text", new String[0]);
+          else {
+              String[] sarray = tags.toArray(new String[tags.size()]);
+              tagsArray = conn.createArrayOf("text", sarray);
+          }
+        pstmt.setArray(35, tagsArray);
+        pstmt.setString(36, job.getJobType().name());
+      
+        // MPI and command prefix.
+        pstmt.setBoolean(37, job.isMpi());
+        pstmt.setString(38,  job.getMpiCmd());                // could be null
+        pstmt.setString(39,  job.getCmdPrefix());             // could be null
+      
+        // Shared application context.
+        pstmt.setBoolean(40, job.isSharedAppCtx());
+      
+        // Shared application context attributes.
+        var attribs = job.getSharedAppCtxAttribs();
+        Array attribsArray;
+        if (attribs == null || attribs.isEmpty()) 
+            attribsArray = conn.createArrayOf("text", new String[0]);
+          else {
+              String[] sarray = new String[attribs.size()];
+              for (int i = 0; i < attribs.size(); i++) sarray[i] = attribs.get(i).name();
+              attribsArray = conn.createArrayOf("text", sarray);
+          }
+        pstmt.setArray(41, attribsArray);
+          
+        // Notes is non-null json.
+        pstmt.setString(42, job.getNotes());
+    }
+    
 	/* ---------------------------------------------------------------------- */
 	/* validateNewJob:                                                        */
 	/* ---------------------------------------------------------------------- */
@@ -3162,6 +3223,214 @@ public final class JobsDao
 	    return obj;
 	}
 	
+	/* -------------------------------------------------- */
+	/*              Page private methods                  */
+	/* -------------------------------------------------- */
+	/* ---------------------------------------------------------------------- */
+	/* makeSearchWhereCondition:                                              */
+	/* ---------------------------------------------------------------------- */
+	/** The base where clause of all job listings and searches.  The owner is 
+	 * not restricted when listing jobs shared with the user.
+	 */
+	private Condition makeSearchWhereCondition(String username, String tenant, boolean sharedWithMe)
+	{
+	    Condition whereCondition = Tables.JOBS.TENANT.eq(tenant).and(Tables.JOBS.VISIBLE.eq(true));
+	    if (!sharedWithMe) whereCondition = whereCondition.and(Tables.JOBS.OWNER.eq(username));
+	    return whereCondition;
+	}
+	
+	/* ---------------------------------------------------------------------- */
+	/* makeSearchOrderList:                                                   */
+	/* ---------------------------------------------------------------------- */
+	private List<OrderField<?>> makeSearchOrderList(List<OrderBy> orderByList) 
+	 throws TapisException
+	{
+	    var orderList = new ArrayList<OrderField<?>>();
+	    if (orderByList == null) return orderList;
+	    for (var orderBy : orderByList) {
+	        if (orderBy == null) continue;
+	        String attr = SearchUtils.camelCaseToSnakeCase(orderBy.getOrderByAttr());
+	        Field<?> colOrderBy = _searchSchema.getField(attr);
+	        if (colOrderBy == null) {
+	            String msg = MsgUtils.getMsg("SEARCH_ORDERBY_DB_NO_COLUMN", DSL.name(attr));
+	            throw new TapisException(msg);
+	        }
+	        if (orderBy.getOrderByDir().name().equals("ASC")) orderList.add(colOrderBy.asc());
+	          else orderList.add(colOrderBy.desc());
+	    }
+	    return orderList;
+	}
+	
+	/* ---------------------------------------------------------------------- */
+	/* makeSelectProjection:                                                  */
+	/* ---------------------------------------------------------------------- */
+	/** Convert a search select list into the columns to read, or null to read 
+	 * all columns.  Json columns are read as text so that they are only parsed
+	 * if and when the job model's accessors need them.  Names that don't map
+	 * to a column cause all columns to be read, which preserves the behavior
+	 * of filtering the full job in the response.
+	 */
+	private SelectProjection makeSelectProjection(List<String> selectList)
+	{
+	    // Empty or all attributes select lists read everything.
+	    if (selectList == null || selectList.isEmpty() || 
+	        selectList.contains("allAttributes") || selectList.contains("summaryAttributes")) 
+	        return null;
+	    
+	    // The uuid is always included in responses.
+	    var projection = new SelectProjection();
+	    var names = new TreeSet<String>();
+	    projection.add(Tables.JOBS.UUID);
+	    names.add(Tables.JOBS.UUID.getName());
+	    for (String key : selectList) {
+	        Field<?> field = _searchSchema.getField(key);
+	        if (field == null) return null;
+	        if (!names.add(field.getName())) continue;
+	        if (field.getDataType().getSQLDataType().getType() == JSONB.class) 
+	            projection.add(DSL.field(field.getQualifiedName(), SQLDataType.CLOB));
+	          else projection.add(field);
+	    }
+	    return projection;
+	}
+	
+	/* ---------------------------------------------------------------------- */
+	/* getJobPage:                                                            */
+	/* ---------------------------------------------------------------------- */
+	/** Select a page of jobs and its total count in one query.  When counting,
+	 * a count(*) over () column is added to the select list so that each row 
+	 * carries the number of rows that satisfied the where clause.  When the 
+	 * requested page is past the end of the results no row carries the count,
+	 * so the count is issued separately in that uncommon case.
+	 * 
+	 * In ESTIMATE mode the planner's row estimate is obtained first; if it
+	 * exceeds the configured threshold, it is returned as the total and no rows 
+	 * are counted.  
+	 * 
+	 * @param whereCondition the complete where clause
+	 * @param orderList the possibly empty order by list
+	 * @param fields the selected table columns, a projection or null for all columns
+	 * @param cls the class into which each row is mapped
+	 * @param limit maximum number of jobs to return, negative for unlimited
+	 * @param skip number of jobs to skip, negative for none
+	 * @param countMode how the total is computed
+	 * @return the non-null page
+	 * @throws JobException on error
+	 */
+	private <T> JobListPage<T> getJobPage(Condition whereCondition, List<OrderField<?>> orderList,
+	                                      List<? extends Field<?>> fields, Class<T> cls, 
+	                                      Integer limit, Integer skip, JobListCountMode countMode)
+	 throws JobException
+	{
+	    // Normalize inputs.
+	    int lim = limit == null ? -1 : limit;
+	    int off = (skip == null || skip < 0) ? 0 : skip;
+	    if (countMode == null) countMode = JobListCountMode.NONE;
+	    
+	    // Initialize result.
+	    var jobs = new ArrayList<T>();
+	    int totalCount = JobListPage.NO_TOTAL_COUNT;
+	    boolean estimated = false;
+	    
+	    // ------------------------- Build and execute SQL ----------------------------
+	    Connection conn = null;
+	    try
+	      {
+	          // Get a database connection.
+	          conn = getConnection();
+	          DSLContext db = DSL.using(conn);
+	          
+	          // Use the planner estimate for large results if so configured.
+	          if (countMode == JobListCountMode.ESTIMATE) {
+	              int threshold = RuntimeParameters.getInstance().getListCountEstimateThreshold();
+	              if (threshold > 0) {
+	                  long estimate = estimateRowCount(db, whereCondition);
+	                  if (estimate > threshold) {
+	                      totalCount = estimate > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) estimate;
+	                      estimated = true;
+	                  }
+	              }
+	          }
+	          boolean countRows = countMode != JobListCountMode.NONE && !estimated;
+	          
+	          // Assemble the select list.
+	          var selectList = new ArrayList<SelectFieldOrAsterisk>();
+	          if (fields == null) selectList.add(Tables.JOBS.asterisk());
+	            else selectList.addAll(fields);
+	          if (countRows) selectList.add(TOTAL_COUNT_FIELD);
+	          
+	          // Execute the select including orderByAttrList, limit and skip.
+	          SelectLimitStep<Record> orderStep = db.select(selectList).from(Tables.JOBS)
+	                                                .where(whereCondition).orderBy(orderList);
+	          Result<Record> results = lim >= 0 ? orderStep.limit(lim).offset(off).fetch() 
+	                                            : orderStep.offset(off).fetch();
+	          
+	          // Map each row to the requested type.  Projections are mapped directly
+	          // so that unselected fields keep their defaults and json text is not
+	          // parsed by the jsonb column binding.
+	          boolean projected = fields instanceof SelectProjection;
+	          for (Record r : results) 
+	              jobs.add(projected ? r.into(cls) : r.into(Tables.JOBS).into(cls));
+	          
+	          // Assign the total count.
+	          if (countRows) {
+	              if (!results.isEmpty()) totalCount = results.get(0).get(TOTAL_COUNT_FIELD);
+	                else if (off == 0) totalCount = 0;
+	                else totalCount = db.selectCount().from(Tables.JOBS).where(whereCondition)
+	                                    .fetchOne(0, int.class);
+	          }
+	          
+	          // Close out and commit
+	          conn.commit();
+	      }
+	      catch (Exception e)
+	      {
+	          // Rollback transaction.
+	          try {if (conn != null) conn.rollback();}
+	              catch (Exception e1){_log.error(MsgUtils.getMsg("DB_FAILED_ROLLBACK"), e1);}
+	          
+	          String msg = MsgUtils.getMsg("DB_SELECT_UUID_ERROR", "Jobs", "allUUIDs", e.getMessage());
+	          throw new JobException(msg, e);
+	      }
+	      finally
+	      {
+	          // Always return the connection back to the connection pool.
+	          try {if (conn != null) conn.close();}
+	            catch (Exception e) 
+	            {
+	              // If commit worked, we can swallow the exception.  
+	              // If not, the commit exception will be thrown.
+	              String msg = MsgUtils.getMsg("DB_FAILED_CONNECTION_CLOSE");
+	              _log.error(msg, e);
+	            }
+	      }
+	    
+	    return new JobListPage<T>(jobs, totalCount, estimated);
+	}
+	
+	/* ---------------------------------------------------------------------- */
+	/* estimateRowCount:                                                      */
+	/* ---------------------------------------------------------------------- */
+	/** Return the planner's estimate of the number of rows that satisfy the 
+	 * where clause or -1 if the estimate could not be obtained.  Nothing is 
+	 * executed, so the cost is that of planning the query.
+	 */
+	private long estimateRowCount(DSLContext db, Condition whereCondition)
+	{
+	    try {
+	        String sql = "EXPLAIN (FORMAT JSON) " + 
+	                     db.renderInlined(db.selectOne().from(Tables.JOBS).where(whereCondition));
+	        Object plan = db.fetchValue(sql);
+	        if (plan == null) return -1;
+	        var array = TapisGsonUtils.getGson().fromJson(plan.toString(), JsonArray.class);
+	        return array.get(0).getAsJsonObject().getAsJsonObject("Plan").get("Plan Rows").getAsLong();
+	    }
+	    catch (Exception e) {
+	        // Fall back to counting.
+	        _log.warn(MsgUtils.getMsg("DB_SELECT_UUID_ERROR", "Jobs", "planRows", e.getMessage()));
+	        return -1;
+	    }
+	}
+	
 	/* -------------------------------------------------- */
 	/*              Search private methods                */
 	/* -------------------------------------------------- */
@@ -3190,20 +3459,16 @@ public final class JobsDao
 		    // Parse search value into column name, operator and value
 		    // Format must be column_name.op.value
 		    String[] parsedStrArray = searchStr.split("\\.", 3);
-		    // Validate column name
+		    // Validate column name, which can be passed in as camelcase
 		    String column = parsedStrArray[0];
-		    Field<?> col = Tables.JOBS.field(DSL.name(column));
-		    // Check for column name passed in as camelcase
-		    if (col == null)
-		    {
-		      col = Tables.JOBS.field(DSL.name(SearchUtils.camelCaseToSnakeCase(column)));
-		    }
+		    var searchColumn = _searchSchema.getColumn(column);
 		    // If column not found then it is an error
-		    if (col == null)
+		    if (searchColumn == null)
 		    {
 		      String msg = MsgUtils.getMsg("SEARCH_DB_NO_COLUMN", DSL.name(column));
 		      throw new TapisException(msg);
 		    }
+		    Field<?> col = searchColumn.field();
 		    // Validate and convert operator string
 		    String opStr = parsedStrArray[1].toUpperCase();
 		    SearchOperator op = SearchUtils.getSearchOperator(opStr);
@@ -3215,11 +3480,11 @@ public final class JobsDao
 
 		    // Check that column value is compatible for column type and search operator
 		    String val = parsedStrArray[2];
-		    checkConditionValidity(col, op, val);
+		    checkConditionValidity(searchColumn, op, val);
 
 		     // If val is a timestamp then convert the string(s) to a form suitable for SQL
 		    // Use a utility method since val may be a single item or a list of items, e.g. for the BETWEEN operator
-		    if (col.getDataType().getSQLType() == Types.TIMESTAMP)
+		    if (searchColumn.sqlType() == Types.TIMESTAMP)
 		    {
 		      val = SearchUtils.convertValuesToTimestamps(op, val);
 		    }
@@ -3289,20 +3554,20 @@ public final class JobsDao
 	    
 	  }
 	  
-	private void checkConditionValidity(Field<?> col, SearchOperator op, String valStr) 
+	private void checkConditionValidity(JobSearchSchema.Column column, SearchOperator op, String valStr) 
 	throws TapisException {
-			var dataType = col.getDataType();
-		    int sqlType = dataType.getSQLType();
-		    String sqlTypeName = dataType.getTypeName();
+			Field<?> col = column.field();
+		    int sqlType = column.sqlType();
+		    String sqlTypeName = column.sqlTypeName();
 
 		    // Make sure we support the sqlType
-		    if (SearchUtils.ALLOWED_OPS_BY_TYPE.get(sqlType) == null)
+		    if (!column.isSearchable())
 		    {
 		      String msg = MsgUtils.getMsg("SEARCH_DB_UNSUPPORTED_SQLTYPE", Tables.JOBS.getName(), col.getName(), op.name(), sqlTypeName);
 		      throw new TapisException(msg);
 		    }
 		    // Check that operation is allowed for column data type
-		    if (!SearchUtils.ALLOWED_OPS_BY_TYPE.get(sqlType).contains(op))
+		    if (!column.allows(op))
 		    {
 		      String msg = MsgUtils.getMsg("SEARCH_DB_INVALID_SEARCH_TYPE", Tables.JOBS.getName(), col.getName(), op.name(), sqlTypeName);
 		      throw new TapisException(msg);
@@ -3427,96 +3692,15 @@ public final class JobsDao
 		    }
 		  }
 		  
-    /* ---------------------------------------------------------------------- */
-    /* getDBJobColumnAndType:                                                 */
-    /* ---------------------------------------------------------------------- */
-    /**
-     * getDBJobColumnAndType: Get resource model's DB table columns
-     * @param tableName
-     * @return
-     */
-    public static  Map<String, String> getDBJobColumnAndType(String tableName) {
-        
-    	Map<String,String> jmap = new HashMap<String,String>(80);
-     
-        // ------------------------- Call SQL ----------------------------
-        Connection conn = null;
-        try
-        {
-            // Get a database connection.
-        	DataSource ds = getDataSource();
-	        conn = ds.getConnection();
-            
-            // Get the select command.
-	        // it queries column name and type
-            String sql = SqlStatements.SELECT_COLUMN_DATA_TYPE_BY_TABLENAME;
-            sql = sql.replace(":tablename", tableName);
-            // Prepare the statement and fill in the placeholders.
-            PreparedStatement pstmt = conn.prepareStatement(sql);
-            _log.debug("prepared stmt: " + pstmt);
-                        
-            // Issue the call for the 1 row result set.
-            ResultSet rs = pstmt.executeQuery();
-            if (!rs.next()) {
-                String msg = MsgUtils.getMsg("SEARCH_ABORT_UNABLE_TO_GET_DB_FIELD_AND_TYPE", tableName);
-                _log.error(msg);
-                throw new JobException(msg);
-            }
-            
-            // Extract the field name and type from the result set.
-            do {
-                jmap.put(rs.getString(1), rs.getString(2));
-                
-                // This can be uncommented to check if it is returning all column names and type
-                //_log.debug("key = " + rs.getString(1) + "  type= "+ rs.getString(2) );
-            } while(rs.next()) ; 
-           
-                     
-            // Close the result and statement.
-            rs.close();
-            pstmt.close();
-      
-            // Commit the transaction.
-            conn.commit();
-        }
-        catch (Exception e)
-        {
-            // Rollback transaction.
-            try {if (conn != null) conn.rollback();}
-                catch (Exception e1){_log.error(MsgUtils.getMsg("DB_FAILED_ROLLBACK"), e1);}
-            
-            //AloeThreadContext threadContext = AloeThreadLocal.aloeThreadContext.get();
-            String msg = MsgUtils.getMsg("DB_TABLE_INFORMATION_SCHEMA_ERROR");
-            _log.error(msg, e);
-           
-        }
-        finally {
-            // Always return the connection back to the connection pool.
-            if (conn != null) 
-                try {conn.close();}
-                  catch (Exception e) 
-                  {
-                      // If commit worked, we can swallow the exception.  
-                      // If not, the commit exception will be thrown.
-                      String msg = MsgUtils.getMsg("DB_FAILED_CONNECTION_CLOSE");
-                      _log.error(msg, e);
-                  }
-        }
-        return jmap;
-        
-    }
-    
-    /* ************************************* */
-    /*            Initialize Jobs Map        */
-    /* ************************************* */ 
-    public static Map<String,String> initializeJobFieldMap(){
-        // Map<String,String> jmap = new HashMap<String,String>(80);
-        Map<String, String> jmap;
-        jmap = getDBJobColumnAndType(JOBS_TABLENAME);
-                
-        return Collections.unmodifiableMap(jmap);
+    /* ********************************************************************** */
+    /*                          SelectProjection class                        */
+    /* ********************************************************************** */
+    // The columns read to satisfy a search select list.
+    private static final class SelectProjection extends ArrayList<Field<?>>
+    {
+        private static final long serialVersionUID = 1L;
     }
-    
+
     /* ********************************************************************** */
     /*                          JobTransferInfo class                         */
     /* ********************************************************************** */
@@ -182,6 +182,13 @@ public class SqlStatements
         "UPDATE jobs SET remote_outcome = ?::job_remote_outcome_enum, remote_result_info = ?, last_updated = ?, remote_ended = ?"
         + " WHERE id = ?";
 
+    // Most recent remote runtimes in seconds of an application on a system.
+    public static final String SELECT_RECENT_REMOTE_RUNTIMES =
+        "SELECT CAST(EXTRACT(EPOCH FROM (remote_ended - remote_started)) AS bigint) FROM jobs"
+        + " WHERE tenant = ? AND exec_system_id = ? AND app_id = ? AND app_version = ?"
+        + " AND remote_started IS NOT NULL AND remote_ended > remote_started"
+        + " ORDER BY remote_ended DESC LIMIT ?";
+
     //-------------------- Job Actions  ----------------------
     public static final String SET_JOB_VISIBLE =
         "UPDATE jobs SET visible = ?, last_updated = ? WHERE uuid = ?";
@@ -208,10 +215,15 @@ public class SqlStatements
     public static final String CREATE_RECOVERY =
             "INSERT INTO job_recovery (tenant_id, condition_code, tester_type, tester_parms, policy_type, policy_parms, "  
             + "num_attempts, next_attempt, created, last_updated, tester_hash) "
-            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) "
+            + "ON CONFLICT (tenant_id, tester_hash) DO UPDATE SET last_updated = EXCLUDED.last_updated";
     
     public static final String DELETE_RECOVERY = "DELETE FROM job_recovery WHERE id = ? AND tenant_id = ?";
     
+    public static final String DELETE_RECOVERY_IF_EMPTY = 
+            "DELETE FROM job_recovery r WHERE r.id = ? AND r.tenant_id = ?"
+            + " AND NOT EXISTS (SELECT 1 FROM job_blocked b WHERE b.recovery_id = r.id)";
+    
     public static final String SELECT_RECOVERY_DESC =
             "SELECT id, tenant_id, condition_code, tester_type, tester_parms, policy_type, policy_parms, "
             + "num_attempts, next_attempt, created, last_updated, tester_hash "
@@ -221,7 +233,30 @@ public class SqlStatements
     public static final String SELECT_RECOVERY_BY_HASH_FOR_UPDATE =
             "SELECT id, tenant_id, condition_code, tester_type, tester_parms, policy_type, policy_parms, "
             + "num_attempts, next_attempt, created, last_updated, tester_hash "
-            + "FROM job_recovery WHERE tenant_id = ? AND tester_hash = ?";
+            + "FROM job_recovery WHERE tenant_id = ? AND tester_hash = ? FOR UPDATE";
+            
+    // Due records are leased by moving their next attempt past the time it
+    // takes to process them.  Records locked by other readers are skipped.
+    // RETURNING rows are unordered, so the claimed records are sorted by the
+    // next attempt time they had before they were leased.
+    public static final String CLAIM_DUE_RECOVERIES =
+            "WITH due AS (SELECT id, next_attempt FROM job_recovery WHERE next_attempt <= ? "
+            + "ORDER BY next_attempt, tester_hash LIMIT ? FOR UPDATE SKIP LOCKED), "
+            + "claimed AS (UPDATE job_recovery r SET next_attempt = ? FROM due WHERE r.id = due.id "
+            + "RETURNING r.id, r.tenant_id, r.condition_code, r.tester_type, r.tester_parms, r.policy_type, "
+            + "r.policy_parms, r.num_attempts, r.next_attempt, r.created, r.last_updated, r.tester_hash, "
+            + "due.next_attempt AS due_attempt) "
+            + "SELECT id, tenant_id, condition_code, tester_type, tester_parms, policy_type, policy_parms, "
+            + "num_attempts, next_attempt, created, last_updated, tester_hash "
+            + "FROM claimed ORDER BY due_attempt, tester_hash";
+    
+    public static final String SELECT_RECOVERY_BY_JOB_UUID =
+            "SELECT r.id, r.tenant_id, r.condition_code, r.tester_type, r.tester_parms, r.policy_type, "
+            + "r.policy_parms, r.num_attempts, r.next_attempt, r.created, r.last_updated, r.tester_hash "
+            + "FROM job_recovery r JOIN job_blocked b ON b.recovery_id = r.id WHERE b.job_uuid = ?";
+    
+    public static final String SELECT_RECOVERY_NEXT_ATTEMPT = 
+            "SELECT MIN(next_attempt) FROM job_recovery";
             
     public static final String UPDATE_RECOVERY_TIMESTAMP = 
             "UPDATE job_recovery SET last_updated = ? WHERE id = ? AND tenant_id = ? ";
@@ -239,6 +274,9 @@ public class SqlStatements
 
     public static final String DELETE_BLOCKED_JOB = "DELETE FROM job_blocked WHERE job_uuid = ?";
     
+    public static final String DELETE_BLOCKED_JOBS_BY_RECOVERY_ID = 
+            "DELETE FROM job_blocked WHERE recovery_id = ? AND job_uuid = ANY(?)";
+    
     public static final String SELECT_BLOCKED_JOBS_BY_RECOVERY_ID =
             "SELECT id, recovery_id, created, success_status, job_uuid, status_message "
             + "FROM job_blocked "
@@ -1,6 +1,7 @@
 package edu.utexas.tacc.tapis.jobs.events;
 
 import java.sql.Connection;
+import java.util.ArrayList;
 import java.util.List;
 
 import org.apache.commons.lang3.StringUtils;
@@ -134,6 +135,45 @@ public final class JobEventManager
         return jobEvent;
     }
 
+    /* ---------------------------------------------------------------------- */
+    /* recordStatusEvents:                                                    */
+    /* ---------------------------------------------------------------------- */
+    /** Write the same status change event for a batch of jobs to the database
+     * in a single JDBC batch and post them to the notifications service on a
+     * single channel.
+     * 
+     * The connection parameter can be null if the event insertions are not to 
+     * be part of an in-progress transaction. 
+     * 
+     * @param jobs the jobs that generated the events
+     * @param newStatus required new status
+     * @param conn existing connection or null
+     * @return the events in job order
+     * @throws TapisException on error
+     */
+    public List<JobEvent> recordStatusEvents(List<Job> jobs, JobStatusType newStatus, 
+                                             Connection conn)
+     throws TapisException
+    {
+        // Create the Job events.
+        var jobEvents = new ArrayList<JobEvent>(jobs.size());
+        var msg = JobEventType.JOB_NEW_STATUS.getDescription() + newStatus.name() + ".";
+        for (var job : jobs) {
+            var jobEvent = new JobEvent();
+            jobEvent.setEvent(JobEventType.JOB_NEW_STATUS);
+            jobEvent.setJobUuid(job.getUuid());
+            jobEvent.setTenant(job.getTenant());
+            jobEvent.setEventDetail(newStatus.name());
+            jobEvent.setDescription(JobEventData.getNewStatusEventData(job, msg, newStatus, null));
+            jobEvents.add(jobEvent);
+        }
+        
+        // Save in db and send to notifications service asynchronously.
+        _jobEventsDao.createEvents(jobEvents, conn);
+        postEventsToNotificationService(jobEvents);
+        return jobEvents;
+    }
+
     /* ---------------------------------------------------------------------- */
     /* recordStagingInputsEvent:                                              */
     /* ---------------------------------------------------------------------- */
@@ -540,4 +580,14 @@ public final class JobEventManager
         try {JobQueueManager.getInstance().postEventQueue(jobEvent);}
             catch (Exception e) {}
     }
+
+    /* ---------------------------------------------------------------------- */
+    /* postEventsToNotificationService:                                       */
+    /* ---------------------------------------------------------------------- */
+    private void postEventsToNotificationService(List<JobEvent> jobEvents)
+    {
+        // Error already logged.
+        try {JobQueueManager.getInstance().postEventQueue(jobEvents);}
+            catch (Exception e) {}
+    }
 }
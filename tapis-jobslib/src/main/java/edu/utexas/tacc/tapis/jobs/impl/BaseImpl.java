@@ -5,6 +5,7 @@ import org.slf4j.LoggerFactory;
 
 import edu.utexas.tacc.tapis.jobs.dao.JobEventsDao;
 import edu.utexas.tacc.tapis.jobs.dao.JobsDao;
+import edu.utexas.tacc.tapis.jobs.utils.AuthzDecisionCache;
 import edu.utexas.tacc.tapis.security.client.SKClient;
 import edu.utexas.tacc.tapis.shared.exceptions.TapisException;
 import edu.utexas.tacc.tapis.shared.i18n.MsgUtils;
@@ -90,6 +91,7 @@ abstract class BaseImpl
     /* isAdmin:                                                                     */
     /* ---------------------------------------------------------------------------- */
     /** Check for admin role and throw an exception if the check cannot be performed.
+     * Recent decisions are cached.
      * 
      * @param user the user whose authorization is being checked
      * @param tenant the user's tenant
@@ -97,6 +99,22 @@ abstract class BaseImpl
      * @throws TapisException if the check cannot be performed
      */
     protected boolean isAdmin(String user, String tenant) throws TapisException
+    {
+        return AuthzDecisionCache.getInstance().isAdmin(tenant, user, 
+                                                        () -> isAdminRemote(user, tenant));
+    }
+    
+    /* ---------------------------------------------------------------------------- */
+    /* isAdminRemote:                                                               */
+    /* ---------------------------------------------------------------------------- */
+    /** Call SK to check for admin role.
+     * 
+     * @param user the user whose authorization is being checked
+     * @param tenant the user's tenant
+     * @return true if the user is an administrator, false otherwise
+     * @throws TapisException if the check cannot be performed
+     */
+    private boolean isAdminRemote(String user, String tenant) throws TapisException
     {
         // Get the application client for this user@tenant.
         SKClient skClient = null;
@@ -1,7 +1,10 @@
 package edu.utexas.tacc.tapis.jobs.impl;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
 
@@ -10,9 +13,14 @@ import org.apache.commons.lang3.tuple.Pair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.gson.JsonObject;
+
 import edu.utexas.tacc.tapis.client.shared.exceptions.TapisClientException;
+import edu.utexas.tacc.tapis.files.client.FilesClient;
 import edu.utexas.tacc.tapis.files.client.gen.model.FileInfo;
+import edu.utexas.tacc.tapis.jobs.config.RuntimeParameters;
 import edu.utexas.tacc.tapis.jobs.dao.JobQueuesDao;
+import edu.utexas.tacc.tapis.jobs.dao.JobSearchSchema;
 import edu.utexas.tacc.tapis.jobs.dao.JobsDao;
 import edu.utexas.tacc.tapis.jobs.events.JobEventManager;
 import edu.utexas.tacc.tapis.jobs.exceptions.JobException;
@@ -22,8 +30,10 @@ import edu.utexas.tacc.tapis.jobs.model.JobQueue;
 import edu.utexas.tacc.tapis.jobs.model.JobShared;
 import edu.utexas.tacc.tapis.jobs.model.dto.JobHistoryDisplayDTO;
 import edu.utexas.tacc.tapis.jobs.model.dto.JobListDTO;
+import edu.utexas.tacc.tapis.jobs.model.dto.JobListPage;
 import edu.utexas.tacc.tapis.jobs.model.dto.JobShareListDTO;
 import edu.utexas.tacc.tapis.jobs.model.dto.JobStatusDTO;
+import edu.utexas.tacc.tapis.jobs.model.enumerations.JobListCountMode;
 import edu.utexas.tacc.tapis.jobs.model.enumerations.JobResourceShare;
 import edu.utexas.tacc.tapis.jobs.model.enumerations.JobTapisPermission;
 import edu.utexas.tacc.tapis.jobs.model.submit.JobSharedAppCtx.JobSharedAppCtxEnum;
@@ -31,9 +41,12 @@ import edu.utexas.tacc.tapis.jobs.queue.JobQueueManager;
 import edu.utexas.tacc.tapis.jobs.queue.JobQueueManagerNames;
 import edu.utexas.tacc.tapis.jobs.queue.messages.cmd.JobCancelMsg;
 import edu.utexas.tacc.tapis.jobs.queue.messages.recover.JobCancelRecoverMsg;
+import edu.utexas.tacc.tapis.jobs.utils.AuthzDecisionCache;
 import edu.utexas.tacc.tapis.jobs.utils.DataLocator;
+import edu.utexas.tacc.tapis.jobs.utils.DataLocator.OutputPageWriter;
 import edu.utexas.tacc.tapis.jobs.utils.JobOutputInfo;
 import edu.utexas.tacc.tapis.jobs.utils.SelectTuple;
+import edu.utexas.tacc.tapis.jobs.utils.TransferSummaryResolver;
 import edu.utexas.tacc.tapis.notifications.client.NotificationsClient;
 import edu.utexas.tacc.tapis.notifications.client.gen.model.ReqPostSubscription;
 import edu.utexas.tacc.tapis.notifications.client.gen.model.RespSubscriptions;
@@ -323,65 +336,14 @@ public final class JobsImpl
     }
     
     
-    /* ---------------------------------------------------------------------- */
-    /* getJobSearchAllAttributesByUsername:                                   */
-    /* ---------------------------------------------------------------------- */
-    public List<Job>  getJobSearchAllAttributesByUsername(String user, String tenant, List<String>searchList,
-    		List<OrderBy> orderByList, Integer limit,Integer skip, boolean shared) 
-     throws TapisImplException
-    {
-        // ----- Check input.
-        
-        if (StringUtils.isBlank(user)) {
-            String msg = MsgUtils.getMsg("TAPIS_NULL_PARAMETER", "getJobSearchListByUsername", "user");
-            throw new TapisImplException(msg, Condition.BAD_REQUEST);
-        }
-        if (StringUtils.isBlank(tenant)) {
-            String msg = MsgUtils.getMsg("TAPIS_NULL_PARAMETER", "getJobSearchListByUsername", "tenant");
-            throw new TapisImplException(msg, Condition.BAD_REQUEST);
-        }
-        
-        // Build verified list of search conditions
-        var verifiedSearchList = new ArrayList<String>();
-        if (searchList != null && !searchList.isEmpty())
-        {
-          try
-          {
-            for (String cond : searchList)
-            {
-              // Use SearchUtils to validate condition
-              String verifiedCondStr = SearchUtils.validateAndProcessSearchCondition(cond);
-              verifiedSearchList.add(verifiedCondStr);
-            }
-          }
-          catch (Exception e)
-          {
-            String msg = MsgUtils.getMsg("JOBS_SEARCH_ERROR", "", user, tenant, e);
-            _log.error(msg, e);
-            throw new IllegalArgumentException(msg);
-          }
-        }
-        // ----- Get the job list.
-        List<Job> jobList = null;
-       
-        try {jobList = getJobsDao().getJobSearchAllAttributesByUsername(user, tenant, verifiedSearchList,orderByList,limit,skip,shared);}
-        catch (Exception e) {
-            String msg = MsgUtils.getMsg("JOBS_SEARCHLIST_ERROR", user, tenant, e);
-            throw new TapisImplException(msg, e, Condition.INTERNAL_SERVER_ERROR);
-        }
-        // Could be null if not found.
-        return jobList;
-    }
-     
     /* ---------------------------------------------------------------------- */
     /* getJobKeyList:                                                         */
     /* ---------------------------------------------------------------------- */
     /*
-     * Get the jobs table field name
+     * Get the jobs table field names from the search schema built at startup.
      */
     public Set<String> getJobKeyList(){
-    	Set<String> jobKeySet = JobsDao.JOB_REQ_DB_MAP.keySet();
-    	return jobKeySet;
+    	return JobSearchSchema.getInstance().getColumnNames();
     }
     
     /* ---------------------------------------------------------------------- */
@@ -395,12 +357,10 @@ public final class JobsImpl
     public SelectTuple checkSelectListValidity(List<String> selectList) {
     	
     	SelectTuple inValidTuple = new SelectTuple(true,"str");;
-    	Set<String>jobKeyList = getJobKeyList();
-    	//_log.debug("getJobKeyList: " +jobKeyList.toString() );
+    	var searchSchema = JobSearchSchema.getInstance();
     	
     	for(String key : selectList) {
-    		//_log.debug("contains: " + jobKeyList.contains(SearchUtils.camelCaseToSnakeCase(key)));
-    		if (!jobKeyList.contains(SearchUtils.camelCaseToSnakeCase(key)) && !key.equals("allAttributes") && !key.equals("summaryAttributes")) {
+    		if (searchSchema.getColumn(key) == null && !key.equals("allAttributes") && !key.equals("summaryAttributes")) {
     			//_log.debug("select camel case to snake case key:"+ SearchUtils.camelCaseToSnakeCase(key));
     			inValidTuple = new SelectTuple(false,key);
     			break;
@@ -410,41 +370,91 @@ public final class JobsImpl
     	return inValidTuple;
     }
     /* ---------------------------------------------------------------------- */
-    /* getJobSearchAllAttributesByUsernameUsingSqlSearchStr:                  */
+    /* getJobSearchPageByUsername:                                            */
     /* ---------------------------------------------------------------------- */
-    public List<Job>  getJobSearchAllAttributesByUsernameUsingSqlSearchStr(String user, String tenant,
-    		String sqlSearchStr , List<OrderBy> orderByList, Integer limit,Integer skip, boolean sharedWithMe) 
+    /** Get a page of job summaries and, depending on the count mode, the total
+     * number of matching jobs from a single query.
+     */
+    public JobListPage<JobListDTO> getJobSearchPageByUsername(String user, String tenant, 
+            List<String> searchList, List<OrderBy> orderByList, Integer limit, Integer skip, 
+            boolean sharedWithMe, JobListCountMode countMode) 
      throws TapisImplException
     {
         // ----- Check input.
+        checkSearchUser("getJobSearchPageByUsername", user, tenant);
+        var verifiedSearchList = verifySearchList(searchList, user, tenant);
         
-        if (StringUtils.isBlank(user)) {
-            String msg = MsgUtils.getMsg("TAPIS_NULL_PARAMETER", "getJobSearchListByUsername", "user");
-            throw new TapisImplException(msg, Condition.BAD_REQUEST);
+        // ----- Get the job page.
+        try {return getJobsDao().getJobsSearchPageByUsername(user, tenant, verifiedSearchList, 
+                                         orderByList, limit, skip, sharedWithMe, countMode);}
+        catch (Exception e) {
+            String msg = MsgUtils.getMsg("JOBS_SEARCHLIST_ERROR", user, tenant, e);
+            throw new TapisImplException(msg, e, Condition.INTERNAL_SERVER_ERROR);
         }
-        if (StringUtils.isBlank(tenant)) {
-            String msg = MsgUtils.getMsg("TAPIS_NULL_PARAMETER", "getJobSearchListByUsername", "tenant");
-            throw new TapisImplException(msg, Condition.BAD_REQUEST);
+    }
+    
+    /* ---------------------------------------------------------------------- */
+    /* getJobSearchPageByUsernameUsingSqlSearchStr:                           */
+    /* ---------------------------------------------------------------------- */
+    public JobListPage<JobListDTO> getJobSearchPageByUsernameUsingSqlSearchStr(String user, 
+            String tenant, String sqlSearchStr, List<OrderBy> orderByList, Integer limit, 
+            Integer skip, boolean sharedWithMe, JobListCountMode countMode) 
+     throws TapisImplException
+    {
+        // ----- Check input.
+        checkSearchUser("getJobSearchPageByUsernameUsingSqlSearchStr", user, tenant);
+        ASTNode searchAST = parseSqlSearchStr(sqlSearchStr, user, tenant);
+        
+        // ----- Get the job page.
+        try {return getJobsDao().getJobSearchPageByUsernameUsingSqlSearchStr(user, tenant, searchAST, 
+                                         orderByList, limit, skip, sharedWithMe, countMode);}
+        catch (Exception e) {
+            String msg = MsgUtils.getMsg("JOBS_SEARCHLIST_ERROR", user, tenant, e);
+            throw new TapisImplException(msg, e, Condition.INTERNAL_SERVER_ERROR);
         }
+    }
+    
+    /* ---------------------------------------------------------------------- */
+    /* getJobSearchAllAttributesPageByUsername:                               */
+    /* ---------------------------------------------------------------------- */
+    /** Get a page of jobs reading only the columns named in the select list. */
+    public JobListPage<Job> getJobSearchAllAttributesPageByUsername(String user, String tenant, 
+            List<String> searchList, List<OrderBy> orderByList, Integer limit, Integer skip, 
+            boolean sharedWithMe, List<String> selectList, JobListCountMode countMode) 
+     throws TapisImplException
+    {
+        // ----- Check input.
+        checkSearchUser("getJobSearchAllAttributesPageByUsername", user, tenant);
+        var verifiedSearchList = verifySearchList(searchList, user, tenant);
         
-        ASTNode searchAST;
-        try { searchAST = ASTParser.parse(sqlSearchStr); }
-        catch (Exception e)
-        {
-          String msg =  MsgUtils.getMsg("JOBS_SEARCH_ERROR", sqlSearchStr, user, tenant, e);
-          _log.error(msg, e);
-          throw new IllegalArgumentException(msg);
+        // ----- Get the job page.
+        try {return getJobsDao().getJobSearchAllAttributesPageByUsername(user, tenant, verifiedSearchList, 
+                                         orderByList, limit, skip, sharedWithMe, selectList, countMode);}
+        catch (Exception e) {
+            String msg = MsgUtils.getMsg("JOBS_SEARCHLIST_ERROR", user, tenant, e);
+            throw new TapisImplException(msg, e, Condition.INTERNAL_SERVER_ERROR);
         }
-     
-        // ----- Get the job list.
-        List<Job> jobList = null;
-        try {jobList = getJobsDao().getJobSearchAllAttributesByUsernameUsingSqlSearchStr(user, tenant, searchAST,orderByList,limit,skip, sharedWithMe);}
+    }
+    
+    /* ---------------------------------------------------------------------- */
+    /* getJobSearchAllAttributesPageByUsernameUsingSqlSearchStr:              */
+    /* ---------------------------------------------------------------------- */
+    public JobListPage<Job> getJobSearchAllAttributesPageByUsernameUsingSqlSearchStr(String user, 
+            String tenant, String sqlSearchStr, List<OrderBy> orderByList, Integer limit, 
+            Integer skip, boolean sharedWithMe, List<String> selectList, JobListCountMode countMode) 
+     throws TapisImplException
+    {
+        // ----- Check input.
+        checkSearchUser("getJobSearchAllAttributesPageByUsernameUsingSqlSearchStr", user, tenant);
+        ASTNode searchAST = parseSqlSearchStr(sqlSearchStr, user, tenant);
+        
+        // ----- Get the job page.
+        try {return getJobsDao().getJobSearchAllAttributesPageByUsernameUsingSqlSearchStr(user, tenant, 
+                                         searchAST, orderByList, limit, skip, sharedWithMe, selectList, countMode);}
         catch (Exception e) {
             String msg = MsgUtils.getMsg("JOBS_SEARCHLIST_ERROR", user, tenant, e);
             throw new TapisImplException(msg, e, Condition.INTERNAL_SERVER_ERROR);
         }
-        // Could be null if not found.
-        return jobList;
     }
     
     /* ---------------------------------------------------------------------- */
@@ -667,6 +677,19 @@ public final class JobsImpl
     		String jobResourceShareType, String privilege ) 
     		throws TapisImplException 
     {
+        // Recent decisions are cached.
+        return AuthzDecisionCache.getInstance().hasSharePrivilege(tenant, user, jobUuid, 
+                   jobResourceShareType, privilege, 
+                   () -> isJobSharedRemote(jobUuid, user, tenant, jobResourceShareType, privilege));
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* isJobSharedRemote:                                                     */
+    /* ---------------------------------------------------------------------- */
+    private boolean isJobSharedRemote(String jobUuid, String user, String tenant, 
+    		String jobResourceShareType, String privilege ) 
+    		throws TapisImplException 
+    {
     	 
     	boolean shareFlag = false;
     	SKClient skClient = getSKClient();
@@ -706,18 +729,57 @@ public final class JobsImpl
         // We checked if the job is shared within the method getJobByUuid(). We never return the value of the check. 
         // So, we need to check it again here if the job is shared and accordingly set the impersonationId
         boolean isSharedAppCtx = checkSharedAppCtx(job, jobOutputFilesinfo);
-        
-        boolean skipTapisAuthorization = isJobShared(job.getUuid(), user, tenant, jobResourceShareType, privilege) || isSharedAppCtx;
-        String impersonationId =  null;
-        if(skipTapisAuthorization == true) {
-        	impersonationId = job.getOwner();
-        }
+        String impersonationId = getOutputImpersonationId(job, tenant, user, isSharedAppCtx,
+                                                          jobResourceShareType, privilege);
         List<FileInfo> outputList = dataLocator.getJobOutputListings(
                 jobOutputFilesinfo, tenant, user, limit, skip, impersonationId, isSharedAppCtx);
                
         return outputList;
     }
     
+    /* ---------------------------------------------------------------------- */
+    /* streamJobOutputList:                                                   */
+    /* ---------------------------------------------------------------------- */
+    /** Retrieve the job output files list one page at a time, passing each page
+     * to the writer as soon as it's received from Files.  The authorization is
+     * the same as getJobOutputList.
+     * 
+     * @return the number of entries written
+     */
+    public long streamJobOutputList(Job job, String tenant, String user, 
+                                    String pathName, int limit, int skip, 
+                                    String jobResourceShareType, String privilege,
+                                    OutputPageWriter writer) 
+     throws TapisImplException, IOException
+    {
+        // ----- Stream the job output files list.
+        DataLocator dataLocator = new DataLocator(job);
+        JobOutputInfo jobOutputFilesinfo = dataLocator.getJobOutputSystemInfo(pathName);
+        boolean isSharedAppCtx = checkSharedAppCtx(job, jobOutputFilesinfo);
+        String impersonationId = getOutputImpersonationId(job, tenant, user, isSharedAppCtx,
+                                                          jobResourceShareType, privilege);
+        int pageSize = RuntimeParameters.getInstance().getOutputListPageSize();
+        return dataLocator.streamJobOutputListings(jobOutputFilesinfo, tenant, user, limit, skip, 
+                                                   pageSize, impersonationId, isSharedAppCtx, writer);
+    }
+    
+    /* ---------------------------------------------------------------------- */
+    /* getOutputImpersonationId:                                              */
+    /* ---------------------------------------------------------------------- */
+    /** Impersonate the job owner when the job is shared with the user or ran in 
+     * a shared application context.
+     * 
+     * @return the job owner when Tapis authorization is skipped, otherwise null
+     */
+    private String getOutputImpersonationId(Job job, String tenant, String user, 
+                                            boolean isSharedAppCtx,
+                                            String jobResourceShareType, String privilege)
+     throws TapisImplException
+    {
+        boolean skipTapisAuthorization = isJobShared(job.getUuid(), user, tenant, jobResourceShareType, privilege) || isSharedAppCtx;
+        return skipTapisAuthorization ? job.getOwner() : null;
+    }
+    
     /* ---------------------------------------------------------------------- */
     /* checkSharedAppCtx:                                                     */
     /* ---------------------------------------------------------------------- */
@@ -816,9 +878,24 @@ public final class JobsImpl
         	impersonationId = jobstatus.getOwner();
         }
     	
+        // Retrieve the transfer summaries of all events concurrently.
+        var transferIds = new ArrayList<String>(jobEvents.size());
+        for (JobEvent jobEvent : jobEvents) 
+            if (jobEvent.getOthUuid() != null) transferIds.add(jobEvent.getOthUuid());
+        Map<String,JsonObject> transferSummaries = Collections.emptyMap();
+        if (!transferIds.isEmpty()) {
+            final FilesClient filesClient = getServiceClient(FilesClient.class, user, tenant);
+            final String impersonation = impersonationId;
+            transferSummaries = TransferSummaryResolver.getInstance().resolve(transferIds, 
+                transferId -> filesClient.getTransferTaskHistory(transferId, impersonation),
+                jobstatus.getJobUuid(), user, tenant);
+        }
+    	
 		ArrayList<JobHistoryDisplayDTO> eventsSummary = new ArrayList<JobHistoryDisplayDTO>();
         for(JobEvent jobEvent: jobEvents ) {
-        	JobHistoryDisplayDTO historyObj = new JobHistoryDisplayDTO(jobEvent, user, tenant, impersonationId);
+            JsonObject transferSummary = jobEvent.getOthUuid() == null ? null : 
+                                            transferSummaries.get(jobEvent.getOthUuid());
+        	JobHistoryDisplayDTO historyObj = new JobHistoryDisplayDTO(jobEvent, transferSummary);
         	eventsSummary.add(historyObj);
         }
               
@@ -934,6 +1011,8 @@ public final class JobsImpl
          try {
 			url = skClient.shareResource(resourceShared);
 			_log.debug("Resource is sucessfully shared: " + url);
+			AuthzDecisionCache.getInstance().invalidateShare(jobShared.getTenant(), 
+			                       jobShared.getGrantee(), jobShared.getJobUuid());
 		 } catch (TapisClientException e) {
 			 String msg = MsgUtils.getMsg("JOBS_JOB_SHARE_SK_CLIENT_INSERT_ERROR", jobShared.getJobUuid(), jobShared.getCreatedby(),
 	            		jobShared.getJobResource(),e);
@@ -961,6 +1040,7 @@ public final class JobsImpl
          try {
 			int i = skClient.deleteShare(param);
 			_log.debug("Resource share is sucessfully revoked: " + i);
+			AuthzDecisionCache.getInstance().invalidateShare(tenant, js.getGrantee(), js.getJobUuid());
 		 } catch (TapisClientException e) {
 			 String msg = MsgUtils.getMsg("JOBS_JOB_SHARE_SK_CLIENT_DELETE_ERROR", js.getJobUuid(), js.getGrantee(),
 					 grantor, tenant,e);
@@ -1307,6 +1387,58 @@ public final class JobsImpl
     	return skClient;
     }
 
+    /* ---------------------------------------------------------------------- */
+    /* checkSearchUser:                                                       */
+    /* ---------------------------------------------------------------------- */
+    private void checkSearchUser(String method, String user, String tenant) 
+     throws TapisImplException
+    {
+        if (StringUtils.isBlank(user)) {
+            String msg = MsgUtils.getMsg("TAPIS_NULL_PARAMETER", method, "user");
+            throw new TapisImplException(msg, Condition.BAD_REQUEST);
+        }
+        if (StringUtils.isBlank(tenant)) {
+            String msg = MsgUtils.getMsg("TAPIS_NULL_PARAMETER", method, "tenant");
+            throw new TapisImplException(msg, Condition.BAD_REQUEST);
+        }
+    }
+    
+    /* ---------------------------------------------------------------------- */
+    /* verifySearchList:                                                      */
+    /* ---------------------------------------------------------------------- */
+    /** Build verified list of search conditions. */
+    private List<String> verifySearchList(List<String> searchList, String user, String tenant)
+    {
+        var verifiedSearchList = new ArrayList<String>();
+        if (searchList == null || searchList.isEmpty()) return verifiedSearchList;
+        try {
+            // Use SearchUtils to validate each condition.
+            for (String cond : searchList)
+                verifiedSearchList.add(SearchUtils.validateAndProcessSearchCondition(cond));
+        }
+        catch (Exception e) {
+            String msg = MsgUtils.getMsg("JOBS_SEARCH_ERROR", "", user, tenant, e);
+            _log.error(msg, e);
+            throw new IllegalArgumentException(msg);
+        }
+        return verifiedSearchList;
+    }
+    
+    /* ---------------------------------------------------------------------- */
+    /* parseSqlSearchStr:                                                     */
+    /* ---------------------------------------------------------------------- */
+    /** Return the parsed search string or null if the string is blank. */
+    private ASTNode parseSqlSearchStr(String sqlSearchStr, String user, String tenant)
+    {
+        if (StringUtils.isBlank(sqlSearchStr)) return null;
+        try {return ASTParser.parse(sqlSearchStr);}
+        catch (Exception e) {
+            String msg = MsgUtils.getMsg("JOBS_SEARCH_ERROR", sqlSearchStr, user, tenant, e);
+            _log.error(msg, e);
+            throw new IllegalArgumentException(msg);
+        }
+    }
+    
     /* -----------------------------------------------------------------------------*/
     /* getServiceClient:                                                            */
     /* ---------------------------------------------------------------------------- */
@@ -1,13 +1,12 @@
 package edu.utexas.tacc.tapis.jobs.launchers;
 
 import java.nio.file.Paths;
-import java.util.concurrent.ThreadLocalRandom;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import edu.utexas.tacc.tapis.jobs.model.Job;
-import edu.utexas.tacc.tapis.jobs.utils.ThrottleMap;
+import edu.utexas.tacc.tapis.jobs.utils.LaunchAdmissionController;
 import edu.utexas.tacc.tapis.jobs.worker.execjob.JobExecutionContext;
 import edu.utexas.tacc.tapis.jobs.worker.execjob.JobExecutionUtils;
 import edu.utexas.tacc.tapis.shared.exceptions.TapisException;
@@ -26,17 +25,13 @@ abstract class AbstractJobLauncher
     protected static final String UNKNOWN_CONTAINER_ID = "<Unknown-Container-ID>";
     protected static final String UNKNOWN_PROCESS_ID   = "<Unknown-Process-ID>";
     
-    // Thread group name used in ThrottleMap, throttle parameters and launch 
-    // delay parameters.  The duration of the throttle window and the limit on
-    // the number of launches within that window are chosen to avoid overwhelming
-    // a host with ssh connections and commands.  The delay is specified as a 
-    // minimum and a maximum skew.  The actual delay is the minimum plus a 
-    // randomized number of milliseconds up to the skew.
-    private static final String THROTTLEMAP_NAME = "LauncherThrottleMap";
+    // Launch admission controller name and throttle parameters.  The duration
+    // of the throttle window and the limit on the number of launches within 
+    // that window are chosen to avoid overwhelming a host with ssh connections
+    // and commands.
+    private static final String ADMISSION_NAME   = "LauncherAdmission";
     private static final int    THROTTLE_SECONDS = 2;
     private static final int    THROTTLE_LIMIT   = 8;
-    private static final int    JOB_LAUNCH_DELAY_MS    = 3000;
-    private static final int    JOB_LAUNCH_MAX_SKEW_MS = 60000;
     
     /* ********************************************************************** */
     /*                                 Fields                                 */
@@ -44,9 +39,9 @@ abstract class AbstractJobLauncher
     protected final JobExecutionContext _jobCtx;
     protected final Job                 _job;
     
-    // Map of host name to throttle entries used to control the number of launch 
-    // issued to a host within a time window.
-    private static final ThrottleMap    _hostThrottles = initHostThrottles();
+    // Controls the number of launches issued to each host within a time window,
+    // sharing each host's launches fairly among tenants.
+    private static final LaunchAdmissionController _admission = initAdmission();
 
     /* ********************************************************************** */
     /*                              Constructors                              */
@@ -81,45 +76,62 @@ abstract class AbstractJobLauncher
     /* ---------------------------------------------------------------------- */
     /* throttleLaunch:                                                        */
     /* ---------------------------------------------------------------------- */
-    /** Delay launches when too many have recently taken place on a host.
+    /** Wait for admission when too many launches have recently taken place on
+     * a host.  Waiting launches are admitted as the host's throttle window 
+     * frees up, in arrival order within a tenant and round-robin among tenants.
      */
     protected void throttleLaunch()
     {
         // Get the host on which the job will be launched.
         String host = null;
-        try {
-            // Return from here if there's room in the throttle's sliding
-            // window for this host.
-            host = _jobCtx.getExecutionSystem().getHost();
-            if (_hostThrottles.record(host)) return;
-        } catch (Exception e) {
+        try {host = _jobCtx.getExecutionSystem().getHost();}
+        catch (Exception e) {
             // Abort throttling if we hit an error.
+            String msg = MsgUtils.getMsg("JOB_HOST_RETRIEVAL_ERROR", _job.getUuid());
+            _log.error(msg, e);
+            return;
+        }
+        
+        // Abort throttling if the system has no host.
+        if (host == null) {
             String msg = MsgUtils.getMsg("JOB_HOST_RETRIEVAL_ERROR", _job.getUuid());
             _log.error(msg);
             return;
         }
         
-        // This host needs to be throttled.
-        // Calculate a randomized but short delay in milliseconds.
-        var skewMs = ThreadLocalRandom.current().nextInt(JOB_LAUNCH_MAX_SKEW_MS);
-        skewMs += JOB_LAUNCH_DELAY_MS;
+        // Wait until the launch is admitted.  If interrupted, we launch anyway
+        // and leave the interrupt for the caller to handle.
+        long waitMs;
+        try {waitMs = _admission.acquire(host, _job.getTenant());}
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
         
         // Log the delay.
-        if (_log.isDebugEnabled())
-            _log.debug(MsgUtils.getMsg("JOBS_DELAYED_LAUNCH", _job.getUuid(), skewMs, host));
-        
-        // Delay for the randomized period.
-        try {Thread.sleep(skewMs);} catch (InterruptedException e) {}
+        if (waitMs > 0 && _log.isDebugEnabled())
+            _log.debug(MsgUtils.getMsg("JOBS_DELAYED_LAUNCH", _job.getUuid(), waitMs, host));
     }
     
+    /* ********************************************************************** */
+    /*                             Package Methods                            */
+    /* ********************************************************************** */
+    /* ---------------------------------------------------------------------- */
+    /* getAdmission:                                                          */
+    /* ---------------------------------------------------------------------- */
+    /** The launch admission controller shared by all launchers, whose queue
+     * depth and wait time metrics are available by host.
+     */
+    static LaunchAdmissionController getAdmission() {return _admission;}
+    
     /* ********************************************************************** */
     /*                            Private Methods                             */
     /* ********************************************************************** */
     /* ---------------------------------------------------------------------- */
-    /* initHostThrottles:                                                     */
+    /* initAdmission:                                                         */
     /* ---------------------------------------------------------------------- */
-    private static ThrottleMap initHostThrottles()
+    private static LaunchAdmissionController initAdmission()
     {
-        return new ThrottleMap(THROTTLEMAP_NAME, THROTTLE_SECONDS, THROTTLE_LIMIT);
+        return new LaunchAdmissionController(ADMISSION_NAME, THROTTLE_SECONDS, THROTTLE_LIMIT);
     }
 }    
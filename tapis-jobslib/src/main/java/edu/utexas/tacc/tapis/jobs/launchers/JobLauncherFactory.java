@@ -4,6 +4,7 @@ import edu.utexas.tacc.tapis.apps.client.gen.model.RuntimeOptionEnum;
 import edu.utexas.tacc.tapis.apps.client.gen.model.TapisApp;
 import edu.utexas.tacc.tapis.jobs.exceptions.JobException;
 import edu.utexas.tacc.tapis.jobs.model.enumerations.JobType;
+import edu.utexas.tacc.tapis.jobs.utils.LaunchAdmissionController;
 import edu.utexas.tacc.tapis.jobs.worker.execjob.JobExecutionContext;
 import edu.utexas.tacc.tapis.shared.exceptions.TapisException;
 import edu.utexas.tacc.tapis.shared.i18n.MsgUtils;
@@ -79,6 +80,19 @@ public class JobLauncherFactory
         return launcher;
     }
     
+    /* ---------------------------------------------------------------------- */
+    /* getLaunchAdmission:                                                    */
+    /* ---------------------------------------------------------------------- */
+    /** Get the controller that admits launches on each host, which reports
+     * launch queue depths and wait times by host.
+     * 
+     * @return the launch admission controller shared by all launchers
+     */
+    public static LaunchAdmissionController getLaunchAdmission()
+    {
+        return AbstractJobLauncher.getAdmission();
+    }
+    
     /* ---------------------------------------------------------------------- */
     /* getSingularityOption:                                                  */
     /* ---------------------------------------------------------------------- */
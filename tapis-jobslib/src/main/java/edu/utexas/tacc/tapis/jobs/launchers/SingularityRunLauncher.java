@@ -45,7 +45,7 @@ public final class SingularityRunLauncher
     @Override
     public void launch() throws TapisException
     {
-        // Throttling adds a randomized delay on heavily used hosts.
+        // Throttling waits for admission on heavily used hosts.
         throttleLaunch();
         
         // -------------------- Launch Container --------------------
@@ -55,7 +55,7 @@ public final class SingularityRunSlurmLauncher
     @Override
     public void launch() throws TapisException
     {
-        // Throttling adds a randomized delay on heavily used hosts.
+        // Throttling waits for admission on heavily used hosts.
         throttleLaunch();
         
         // -------------------- Launch Container --------------------
@@ -0,0 +1,29 @@
+package edu.utexas.tacc.tapis.jobs.model.dto;
+
+import java.util.List;
+
+/** A page of jobs and, optionally, the total number of jobs that match the
+ * query.  The total is -1 when it was not computed.  An estimated total comes
+ * from planner statistics rather than from counting the matching rows.
+ */
+public final class JobListPage<T>
+{
+    // The value of totalCount when no total was computed.
+    public static final int NO_TOTAL_COUNT = -1;
+    
+    private final List<T> jobs;
+    private final int     totalCount;
+    private final boolean estimated;
+    
+    public JobListPage(List<T> jobs, int totalCount, boolean estimated)
+    {
+        this.jobs = jobs;
+        this.totalCount = totalCount;
+        this.estimated = estimated;
+    }
+    
+    public List<T> getJobs() {return jobs;}
+    public int getTotalCount() {return totalCount;}
+    public boolean isEstimated() {return estimated;}
+    public boolean hasTotalCount() {return totalCount != NO_TOTAL_COUNT;}
+}
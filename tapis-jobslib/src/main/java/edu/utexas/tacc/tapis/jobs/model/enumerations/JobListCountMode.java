@@ -0,0 +1,14 @@
+package edu.utexas.tacc.tapis.jobs.model.enumerations;
+
+/** How the total number of jobs matching a listing or search is computed
+ * along with a page of results.
+ * 
+ *  NONE     - no total is computed
+ *  EXACT    - the total is computed in the page query using count(*) over ()
+ *  ESTIMATE - the planner's row estimate is used when it exceeds the configured
+ *             threshold, otherwise the total is computed as with EXACT
+ */
+public enum JobListCountMode
+{
+    NONE, EXACT, ESTIMATE
+}
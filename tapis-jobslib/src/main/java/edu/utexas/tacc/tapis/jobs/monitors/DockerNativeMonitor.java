@@ -4,6 +4,8 @@ import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import edu.utexas.tacc.tapis.jobs.monitors.DockerStatusCollector.CommandResult;
+import edu.utexas.tacc.tapis.jobs.monitors.DockerStatusCollector.StatusBatch;
 import edu.utexas.tacc.tapis.jobs.monitors.parsers.JobRemoteStatus;
 import edu.utexas.tacc.tapis.jobs.monitors.policies.MonitorPolicy;
 import edu.utexas.tacc.tapis.jobs.worker.execjob.JobExecutionContext;
@@ -81,18 +83,20 @@ public class DockerNativeMonitor
         
         // Get the command object.
         var runCmd = _jobCtx.getExecSystemTapisSSH().getRunCommand();
+        var execSys = _jobCtx.getExecutionSystem();
+        var collector = DockerStatusCollector.getInstance();
         
-        // Get the command text for this job's container.
-        String cmd = JobExecutionUtils.getDockerStatusCommand(_job.getUuid());
-        
-        // Query the container.
-        String result = null;
-        int rc;
+        // Query the container as part of the batch of containers being monitored 
+        // on this host.  The batch command is issued on this job's connection if 
+        // no current result includes this job's container.
+        StatusBatch batch;
         try {
-            // Issue the command and get the result.
-            rc = runCmd.execute(cmd);
-            runCmd.logNonZeroExitCode();
-            result = runCmd.getOutAsString();
+            batch = collector.getStatus(execSys.getHost(), execSys.getEffectiveUserId(), 
+                                        _job.getUuid(), cmd -> {
+                                            int rc = runCmd.execute(cmd);
+                                            runCmd.logNonZeroExitCode();
+                                            return new CommandResult(rc, runCmd.getOutAsString());
+                                        });
         }
         catch (Exception e) {
             _log.error(e.getMessage(), e);
@@ -100,47 +104,49 @@ public class DockerNativeMonitor
         }
         
         // Determine if there's no point in going on.
-        detectFatalCondition(rc, result);
+        detectFatalCondition(batch.getRc(), batch.getErrorOutput());
         
         // We should have gotten something.
-        if (StringUtils.isBlank(result)) return JobRemoteStatus.EMPTY;
+        var containerStatus = batch.getStatus(_job.getUuid());
+        if (containerStatus == null) return JobRemoteStatus.EMPTY;
         
         // Is the container in a non-terminal state?
-        if (result.startsWith(JobExecutionUtils.DOCKER_ACTIVE_STATUS_PREFIX))
-            return JobRemoteStatus.ACTIVE;
+        if (containerStatus.isActive()) return JobRemoteStatus.ACTIVE;
         
         // Has the container terminated?  If so, we always set the application
         // exit code and return the status from within this block.  We also
         // remove the container from the execution system.
-        if (result.startsWith(JobExecutionUtils.DOCKER_INACTIVE_STATUS_PREFIX)) 
+        if (containerStatus.isExited()) 
         {
             // The status that will be returned.
             JobRemoteStatus status;
             
-            // We expect a status string that looks like "Exited (0) 41 seconds ago".
-            // Group 1 in the regex match isolates the parenthesized return code.
-            var m = JobExecutionUtils.DOCKER_RC_PATTERN.matcher(result);
-            if (m.matches()) {
-                _exitCode = m.group(1);
+            // We expect a status string that looks like "Exited (0) 41 seconds ago",
+            // from which the collector has already extracted the return code.
+            collector.untrack(execSys.getHost(), execSys.getEffectiveUserId(), _job.getUuid());
+            if (containerStatus.exitCode() != null) {
+                _exitCode = containerStatus.exitCode();
                 if (SUCCESS_RC.equals(_exitCode)) status = JobRemoteStatus.DONE;
                   else status = JobRemoteStatus.FAILED;
             } else {
                 String msg = MsgUtils.getMsg("JOBS_DOCKER_STATUS_PARSE_ERROR", 
-                                             _job.getUuid(), result, cmd);
+                                             _job.getUuid(), containerStatus.status(), 
+                                             JobExecutionUtils.getDockerStatusCommand(_job.getUuid()));
                 _log.warn(msg);
                 _exitCode = SUCCESS_RC;
                 status = JobRemoteStatus.DONE;
             }
             
             // Remove the container from the execution system.
-            removeContainer(_jobCtx.getExecutionSystem(), runCmd);
+            removeContainer(execSys, runCmd);
             
             return status;
         }
         
         // This should not happen.
         String msg = MsgUtils.getMsg("JOBS_DOCKER_STATUS_PARSE_ERROR", 
-                                     _job.getUuid(), result, cmd);
+                                     _job.getUuid(), containerStatus.status(), 
+                                     JobExecutionUtils.getDockerStatusCommand(_job.getUuid()));
         _log.error(msg);
         return JobRemoteStatus.EMPTY;
     }
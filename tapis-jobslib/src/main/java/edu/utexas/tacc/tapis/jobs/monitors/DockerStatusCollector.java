@@ -0,0 +1,315 @@
+package edu.utexas.tacc.tapis.jobs.monitors;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import edu.utexas.tacc.tapis.jobs.worker.execjob.JobExecutionUtils;
+
+/** Collect the status of all docker containers being monitored on a host with
+ * a single command.  Without batching, each monitored job issues its own docker
+ * status command on every poll.  With batching, the first monitor to poll in a
+ * collection window issues one filtered "docker ps -a" command covering every
+ * container tracked on the same host and effective user, and the other monitors
+ * polling in the same window read their container's status and exit code from
+ * that result.
+ *
+ * Containers are tracked when their monitor first asks for their status and
+ * are untracked when they terminate or when no monitor has asked for them in
+ * a long time.  A monitor whose container is not covered by the current result
+ * collects the status of just the uncovered containers and adds them to the
+ * current result, so registering a new container does not re-collect every
+ * tracked container.  Failed collections are shared for the remainder of their
+ * window.
+ *
+ * @author rcardone
+ */
+public final class DockerStatusCollector
+{
+    /* ********************************************************************** */
+    /*                               Constants                                */
+    /* ********************************************************************** */
+    // Tracing.
+    private static final Logger _log = LoggerFactory.getLogger(DockerStatusCollector.class);
+
+    // The maximum age of a collection.
+    public static final long DEFAULT_WINDOW_MILLIS = 5000;
+
+    // Limit the length of each command line.
+    public static final int DEFAULT_MAX_NAMES_PER_COMMAND = 100;
+
+    // Containers not requested for this many windows are untracked.
+    private static final int STALE_WINDOWS = 60;
+
+    /* ********************************************************************** */
+    /*                                Fields                                  */
+    /* ********************************************************************** */
+    // Singleton instance of this class.
+    private static DockerStatusCollector _instance;
+
+    // Configuration.
+    private final long _windowMillis;
+    private final int  _maxNamesPerCommand;
+
+    // Holders keyed by host and effective user.
+    private final ConcurrentHashMap<String,Holder> _holders = new ConcurrentHashMap<>();
+
+    /* ********************************************************************** */
+    /*                                Records                                 */
+    /* ********************************************************************** */
+    /** A container's docker status and, if it has exited, its exit code. */
+    public record ContainerStatus(String status, String exitCode)
+    {
+        public boolean isActive() {return status.startsWith(JobExecutionUtils.DOCKER_ACTIVE_STATUS_PREFIX);}
+        public boolean isExited() {return status.startsWith(JobExecutionUtils.DOCKER_INACTIVE_STATUS_PREFIX);}
+    }
+
+    /** The outcome of a remote command. */
+    public record CommandResult(int rc, String output) {}
+
+    /* ********************************************************************** */
+    /*                               Interfaces                               */
+    /* ********************************************************************** */
+    /** Issue a command on the host. */
+    @FunctionalInterface
+    public interface DockerCommandRunner
+    {
+        CommandResult run(String command) throws Exception;
+    }
+
+    /* ********************************************************************** */
+    /*                              Constructors                              */
+    /* ********************************************************************** */
+    /* ---------------------------------------------------------------------- */
+    /* constructor:                                                           */
+    /* ---------------------------------------------------------------------- */
+    public DockerStatusCollector(long windowMillis, int maxNamesPerCommand)
+    {
+        _windowMillis = windowMillis;
+        _maxNamesPerCommand = maxNamesPerCommand;
+    }
+
+    /* ********************************************************************** */
+    /*                             Public Methods                             */
+    /* ********************************************************************** */
+    /* ---------------------------------------------------------------------- */
+    /* getInstance:                                                           */
+    /* ---------------------------------------------------------------------- */
+    public static DockerStatusCollector getInstance()
+    {
+        // Create the singleton instance if necessary.
+        if (_instance == null) {
+            synchronized (DockerStatusCollector.class) {
+                if (_instance == null)
+                    _instance = new DockerStatusCollector(DEFAULT_WINDOW_MILLIS, DEFAULT_MAX_NAMES_PER_COMMAND);
+            }
+        }
+        return _instance;
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* getStatus:                                                             */
+    /* ---------------------------------------------------------------------- */
+    /** Track the container and return a collection that covers it, issuing the
+     * batch status command only if no current collection covers the container.
+     *
+     * @param host the execution system host
+     * @param effectiveUser the user under which docker is invoked
+     * @param containerName the container's name
+     * @param runner issues commands on the host
+     * @return the shared collection
+     * @throws Exception the runner's exception, possibly from another monitor's call
+     */
+    public StatusBatch getStatus(String host, String effectiveUser, String containerName,
+                                 DockerCommandRunner runner)
+     throws Exception
+    {
+        var holder = _holders.computeIfAbsent(host + "|" + effectiveUser, k -> new Holder());
+
+        // Monitors of the same host serialize here, so only one collects.
+        synchronized (holder) {
+            long now = System.currentTimeMillis();
+            holder.tracked.put(containerName, now);
+            if (holder.taken + _windowMillis <= now) {
+                holder.batch = null;
+                holder.failure = null;
+                holder.taken = now;
+                holder.tracked.values().removeIf(t -> t < now - STALE_WINDOWS * _windowMillis);
+                holder.covered = new HashSet<>(holder.tracked.keySet());
+                try {holder.batch = collect(holder.covered, runner);}
+                catch (Exception e) {holder.failure = e;}
+                holder.loads++;
+            }
+            if (holder.failure != null) throw holder.failure;
+
+            // Add newly tracked containers to the current collection.  A failure
+            // here is only reported to this caller and leaves the collection as is.
+            if (!holder.covered.contains(containerName)) {
+                var uncovered = new HashSet<>(holder.tracked.keySet());
+                uncovered.removeAll(holder.covered);
+                holder.loads++;
+                holder.batch = holder.batch.merge(collect(uncovered, runner));
+                holder.covered.addAll(uncovered);
+            }
+            return holder.batch;
+        }
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* untrack:                                                               */
+    /* ---------------------------------------------------------------------- */
+    /** Stop collecting the status of a container that has terminated. */
+    public void untrack(String host, String effectiveUser, String containerName)
+    {
+        String key = host + "|" + effectiveUser;
+        var holder = _holders.get(key);
+        if (holder == null) return;
+        synchronized (holder) {
+            holder.tracked.remove(containerName);
+            if (holder.tracked.isEmpty()) _holders.remove(key, holder);
+        }
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* getLoadCount:                                                          */
+    /* ---------------------------------------------------------------------- */
+    /** The number of collections for the host and user. */
+    public long getLoadCount(String host, String effectiveUser)
+    {
+        var holder = _holders.get(host + "|" + effectiveUser);
+        if (holder == null) return 0;
+        synchronized (holder) {return holder.loads;}
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* parse:                                                                 */
+    /* ---------------------------------------------------------------------- */
+    /** Parse the output of the batch status command for the named containers.
+     * Each line contains comma separated container names and the status.
+     *
+     * @param output the command output
+     * @param names the containers of interest
+     * @param statuses the map to which each container's status is added
+     */
+    public static void parse(String output, Set<String> names, Map<String,ContainerStatus> statuses)
+    {
+        if (StringUtils.isBlank(output)) return;
+        for (var line : AbstractSingularityMonitor._newLinePattern.split(output)) {
+            int sep = line.indexOf(JobExecutionUtils.DOCKER_BATCH_STATUS_SEPARATOR);
+            if (sep < 0) continue;
+            String status = line.substring(sep + 1).strip();
+            ContainerStatus containerStatus = null;
+            for (var name : line.substring(0, sep).split(",")) {
+                name = name.strip();
+                if (!names.contains(name)) continue;
+                if (containerStatus == null) containerStatus = new ContainerStatus(status, getExitCode(status));
+                statuses.put(name, containerStatus);
+            }
+        }
+    }
+
+    /* ********************************************************************** */
+    /*                            Private Methods                             */
+    /* ********************************************************************** */
+    /* ---------------------------------------------------------------------- */
+    /* collect:                                                               */
+    /* ---------------------------------------------------------------------- */
+    /** Issue the batch status command for the names, splitting them into
+     * multiple commands if necessary.  The first failing command's return code
+     * and output are recorded in the result.
+     */
+    private StatusBatch collect(Set<String> names, DockerCommandRunner runner)
+     throws Exception
+    {
+        var statuses = new HashMap<String,ContainerStatus>(names.size() * 2);
+        int rc = 0;
+        String errorOutput = null;
+        var nameList = new ArrayList<>(names);
+        for (int i = 0; i < nameList.size(); i += _maxNamesPerCommand) {
+            List<String> chunk = nameList.subList(i, Math.min(i + _maxNamesPerCommand, nameList.size()));
+            var result = runner.run(JobExecutionUtils.getDockerBatchStatusCommand(chunk));
+            if (result.rc() != 0 && rc == 0) {
+                rc = result.rc();
+                errorOutput = result.output();
+            }
+            parse(result.output(), names, statuses);
+        }
+
+        if (_log.isDebugEnabled())
+            _log.debug("Collected docker status of " + statuses.size() + " of " + names.size() + " containers.");
+        return new StatusBatch(Collections.unmodifiableMap(statuses), rc, errorOutput);
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* getExitCode:                                                           */
+    /* ---------------------------------------------------------------------- */
+    /** Extract the exit code from a status like "Exited (0) 41 seconds ago".
+     * Null is returned if the container hasn't exited or the code can't be parsed.
+     */
+    private static String getExitCode(String status)
+    {
+        if (!status.startsWith(JobExecutionUtils.DOCKER_INACTIVE_STATUS_PREFIX)) return null;
+        var m = JobExecutionUtils.DOCKER_RC_PATTERN.matcher(status);
+        return m.matches() ? m.group(1) : null;
+    }
+
+    /* ********************************************************************** */
+    /*                              Holder Class                              */
+    /* ********************************************************************** */
+    /** The tracked containers and latest collection for a host, guarded by its monitor. */
+    private static final class Holder
+    {
+        private final HashMap<String,Long> tracked = new HashMap<>();
+        private Set<String> covered = Collections.emptySet();
+        private long        taken;
+        private long        loads;
+        private StatusBatch batch;
+        private Exception   failure;
+    }
+
+    /* ********************************************************************** */
+    /*                            StatusBatch Class                           */
+    /* ********************************************************************** */
+    /** The immutable result of one collection. */
+    public static final class StatusBatch
+    {
+        private final Map<String,ContainerStatus> _statuses;
+        private final int    _rc;
+        private final String _errorOutput;
+
+        private StatusBatch(Map<String,ContainerStatus> statuses, int rc, String errorOutput)
+        {_statuses = statuses; _rc = rc; _errorOutput = errorOutput;}
+
+        /** The container's status or null if docker didn't report it. */
+        public ContainerStatus getStatus(String containerName) {return _statuses.get(containerName);}
+
+        /** The first non-zero command return code or zero. */
+        public int getRc() {return _rc;}
+
+        /** The output of the command that failed or null. */
+        public String getErrorOutput() {return _errorOutput;}
+
+        /** The number of containers reported. */
+        public int size() {return _statuses.size();}
+
+        /** A collection containing this collection's and the added collection's
+         * statuses.  This collection's error, if any, takes precedence.
+         */
+        private StatusBatch merge(StatusBatch added)
+        {
+            var statuses = new HashMap<String,ContainerStatus>(_statuses);
+            statuses.putAll(added._statuses);
+            return _rc != 0 ? new StatusBatch(Collections.unmodifiableMap(statuses), _rc, _errorOutput)
+                            : new StatusBatch(Collections.unmodifiableMap(statuses), added._rc, added._errorOutput);
+        }
+    }
+}
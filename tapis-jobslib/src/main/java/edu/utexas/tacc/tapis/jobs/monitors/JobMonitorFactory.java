@@ -1,9 +1,17 @@
 package edu.utexas.tacc.tapis.jobs.monitors;
 
+import java.util.Collections;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import edu.utexas.tacc.tapis.apps.client.gen.model.RuntimeOptionEnum;
 import edu.utexas.tacc.tapis.apps.client.gen.model.TapisApp;
+import edu.utexas.tacc.tapis.jobs.config.RuntimeParameters;
 import edu.utexas.tacc.tapis.jobs.exceptions.JobException;
 import edu.utexas.tacc.tapis.jobs.model.enumerations.JobType;
+import edu.utexas.tacc.tapis.jobs.monitors.policies.AdaptiveRuntimePolicy;
 import edu.utexas.tacc.tapis.jobs.monitors.policies.MonitorPolicy;
 import edu.utexas.tacc.tapis.jobs.monitors.policies.MonitorPolicyParameters;
 import edu.utexas.tacc.tapis.jobs.monitors.policies.StepwiseBackoffPolicy;
@@ -15,6 +23,12 @@ import edu.utexas.tacc.tapis.systems.client.gen.model.SchedulerTypeEnum;
 /** All supported monitors are instantiated using this class. */
 public class JobMonitorFactory 
 {
+    /* ********************************************************************** */
+    /*                               Constants                                */
+    /* ********************************************************************** */
+    // Tracing.
+    private static final Logger _log = LoggerFactory.getLogger(JobMonitorFactory.class);
+    
     /* ---------------------------------------------------------------------- */
     /* getInstance:                                                           */
     /* ---------------------------------------------------------------------- */
@@ -32,7 +46,15 @@ public class JobMonitorFactory
         // Use the default policy with the default parameters to create a monitor.
         var parms  = new MonitorPolicyParameters();
         parms.setDefaultMaxElapsedSecond(jobCtx.getJob());
-        var policy = new StepwiseBackoffPolicy(jobCtx.getJob(), parms);
+        
+        // Use adaptive monitoring when configured.
+        MonitorPolicy policy;
+        int historySize = RuntimeParameters.getInstance().getMonitorRuntimeHistorySize();
+        if (historySize > 0) {
+            parms.runtimeHistorySeconds = getRuntimeHistory(jobCtx, historySize);
+            policy = new AdaptiveRuntimePolicy(jobCtx.getJob(), parms);
+        }
+        else policy = new StepwiseBackoffPolicy(jobCtx.getJob(), parms);
         return getInstance(jobCtx, policy);
     }
     
@@ -101,6 +123,27 @@ public class JobMonitorFactory
         return monitor;
     }
     
+    /* ---------------------------------------------------------------------- */
+    /* getRuntimeHistory:                                                     */
+    /* ---------------------------------------------------------------------- */
+    /** Retrieve the runtimes of recent jobs that ran the same application on
+     * the same execution system.  Without history, the adaptive policy backs
+     * off in proportion to elapsed time, so errors are logged but not thrown.
+     */
+    private static List<Long> getRuntimeHistory(JobExecutionContext jobCtx, int historySize)
+    {
+        var job = jobCtx.getJob();
+        try {
+            return jobCtx.getJobsDao().getRecentRemoteRuntimes(job.getTenant(), job.getExecSystemId(),
+                                                               job.getAppId(), job.getAppVersion(),
+                                                               historySize);
+        }
+        catch (Exception e) {
+            _log.error(e.getMessage(), e);
+            return Collections.emptyList();
+        }
+    }
+    
     /* ---------------------------------------------------------------------- */
     /* getSingularityOption:                                                  */
     /* ---------------------------------------------------------------------- */
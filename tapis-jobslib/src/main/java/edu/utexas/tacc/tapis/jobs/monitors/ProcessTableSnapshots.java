@@ -0,0 +1,275 @@
+package edu.utexas.tacc.tapis.jobs.monitors;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import edu.utexas.tacc.tapis.jobs.monitors.AbstractSingularityMonitor.PsRecord;
+
+/** Share process table snapshots among all monitors of jobs running on the same
+ * host under the same effective user.  Without sharing, each monitored job
+ * retrieves and parses the host's entire process table on every poll.  With
+ * sharing, the first monitor to poll in a snapshot window retrieves the table
+ * and parses it once into indexed maps, and all other monitors polling in the
+ * same window use that snapshot.  Monitors that poll while a snapshot is being
+ * retrieved wait for it rather than issuing their own command.
+ *
+ * Failed retrievals are also shared for the remainder of their window so that
+ * an unreachable host isn't queried once per job.
+ *
+ * @author rcardone
+ */
+public final class ProcessTableSnapshots
+{
+    /* ********************************************************************** */
+    /*                               Constants                                */
+    /* ********************************************************************** */
+    // Tracing.
+    private static final Logger _log = LoggerFactory.getLogger(ProcessTableSnapshots.class);
+
+    // The maximum age of a snapshot.  The shortest monitoring interval is one
+    // second, but intervals quickly increase as jobs run longer.
+    public static final long DEFAULT_WINDOW_MILLIS = 5000;
+
+    // Hosts not polled for this many windows are forgotten.
+    private static final int STALE_WINDOWS = 60;
+
+    // Singularity instance records end with the instance name in brackets:
+    //   "Ssl  rcardone Singularity instance: rcardone [XXX]"
+    private static final String INSTANCE_MARKER = "Singularity instance:";
+
+    /* ********************************************************************** */
+    /*                                Fields                                  */
+    /* ********************************************************************** */
+    // Singleton instance of this class.
+    private static ProcessTableSnapshots _instance;
+
+    // Snapshot window for all hosts.
+    private final long _windowMillis;
+
+    // Snapshot holders keyed by host and effective user.
+    private final ConcurrentHashMap<String,Holder> _holders = new ConcurrentHashMap<>();
+
+    /* ********************************************************************** */
+    /*                               Interfaces                               */
+    /* ********************************************************************** */
+    /** Issue the process table command on the host and return its raw output. */
+    @FunctionalInterface
+    public interface ProcessTableLoader
+    {
+        String load() throws Exception;
+    }
+
+    /* ********************************************************************** */
+    /*                              Constructors                              */
+    /* ********************************************************************** */
+    /* ---------------------------------------------------------------------- */
+    /* constructor:                                                           */
+    /* ---------------------------------------------------------------------- */
+    public ProcessTableSnapshots(long windowMillis) {_windowMillis = windowMillis;}
+
+    /* ********************************************************************** */
+    /*                             Public Methods                             */
+    /* ********************************************************************** */
+    /* ---------------------------------------------------------------------- */
+    /* getInstance:                                                           */
+    /* ---------------------------------------------------------------------- */
+    public static ProcessTableSnapshots getInstance()
+    {
+        // Create the singleton instance if necessary.
+        if (_instance == null) {
+            synchronized (ProcessTableSnapshots.class) {
+                if (_instance == null) _instance = new ProcessTableSnapshots(DEFAULT_WINDOW_MILLIS);
+            }
+        }
+        return _instance;
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* getSnapshot:                                                           */
+    /* ---------------------------------------------------------------------- */
+    /** Return the current snapshot for the host and effective user, calling the
+     * loader only if no snapshot was taken in the current window.
+     *
+     * @param host the execution system host
+     * @param effectiveUser the user under which the process table is read
+     * @param loader retrieves the raw process table on the host
+     * @return the shared snapshot
+     * @throws Exception the loader's exception, possibly from another monitor's call
+     */
+    public ProcessTable getSnapshot(String host, String effectiveUser, ProcessTableLoader loader)
+     throws Exception
+    {
+        return getSnapshot(host, effectiveUser, 0, loader);
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* getSnapshot:                                                           */
+    /* ---------------------------------------------------------------------- */
+    /** Return a snapshot for the host and effective user that was taken no
+     * earlier than the specified time.  Monitors use this method when a process
+     * they expect is missing from a shared snapshot that might predate it.
+     *
+     * @param host the execution system host
+     * @param effectiveUser the user under which the process table is read
+     * @param notBefore the earliest acceptable snapshot time in epoch milliseconds
+     * @param loader retrieves the raw process table on the host
+     * @return the shared snapshot
+     * @throws Exception the loader's exception, possibly from another monitor's call
+     */
+    public ProcessTable getSnapshot(String host, String effectiveUser, long notBefore,
+                                    ProcessTableLoader loader)
+     throws Exception
+    {
+        String key = host + "|" + effectiveUser;
+        var holder = _holders.computeIfAbsent(key, k -> new Holder());
+
+        // Monitors of the same host serialize here, so only one loads.
+        synchronized (holder) {
+            long now = System.currentTimeMillis();
+            if (holder.taken + _windowMillis <= now || holder.taken < notBefore) {
+                // The snapshot's time is when its command was issued.
+                holder.table = null;
+                holder.failure = null;
+                holder.taken = now;
+                try {holder.table = ProcessTable.parse(loader.load(), key);}
+                catch (Exception e) {holder.failure = e;}
+                if (++holder.loads == 1) pruneHolders(now);
+            }
+            if (holder.failure != null) throw holder.failure;
+            return holder.table;
+        }
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* getLoadCount:                                                          */
+    /* ---------------------------------------------------------------------- */
+    /** The number of process table retrievals for the host and user. */
+    public long getLoadCount(String host, String effectiveUser)
+    {
+        var holder = _holders.get(host + "|" + effectiveUser);
+        if (holder == null) return 0;
+        synchronized (holder) {return holder.loads;}
+    }
+
+    /* ********************************************************************** */
+    /*                            Private Methods                             */
+    /* ********************************************************************** */
+    /* ---------------------------------------------------------------------- */
+    /* pruneHolders:                                                          */
+    /* ---------------------------------------------------------------------- */
+    /** Remove the holders of hosts that are no longer being monitored.  Called
+     * whenever a new host is first loaded.
+     */
+    private void pruneHolders(long now)
+    {
+        long cutoff = now - STALE_WINDOWS * _windowMillis;
+        _holders.values().removeIf(h -> h.loads > 0 && h.taken < cutoff);
+    }
+
+    /* ********************************************************************** */
+    /*                              Holder Class                              */
+    /* ********************************************************************** */
+    /** The most recent snapshot or failure for a host, guarded by its monitor. */
+    private static final class Holder
+    {
+        private long         taken;
+        private long         loads;
+        private ProcessTable table;
+        private Exception    failure;
+    }
+
+    /* ********************************************************************** */
+    /*                           ProcessTable Class                           */
+    /* ********************************************************************** */
+    /** An immutable, parsed process table produced by:
+     *
+     *   ps --no-headers --sort=pid -eo pid,ppid,stat,euser,cmd
+     *
+     * Records are indexed by pid, by parent pid and, for singularity instance
+     * processes, by instance name.  Children are kept in ascending pid order.
+     */
+    public static final class ProcessTable
+    {
+        private final Map<String,PsRecord>       _byPid;
+        private final Map<String,List<PsRecord>> _byPpid;
+        private final Map<String,PsRecord>       _byInstance;
+        private final int                        _size;
+
+        private ProcessTable(Map<String,PsRecord> byPid, Map<String,List<PsRecord>> byPpid,
+                             Map<String,PsRecord> byInstance)
+        {
+            _byPid = byPid; _byPpid = byPpid; _byInstance = byInstance; _size = byPid.size();
+        }
+
+        /* ------------------------------------------------------------------ */
+        /* parse:                                                             */
+        /* ------------------------------------------------------------------ */
+        /** Parse raw ps output.  Unparsable records are skipped.
+         *
+         * @param results the raw ps output
+         * @param source the host and user for logging
+         * @return the indexed table
+         */
+        public static ProcessTable parse(String results, String source)
+        {
+            var byPid      = new HashMap<String,PsRecord>();
+            var byPpid     = new HashMap<String,List<PsRecord>>();
+            var byInstance = new HashMap<String,PsRecord>();
+            if (results == null) results = "";
+
+            for (var r : AbstractSingularityMonitor._newLinePattern.split(results)) {
+                if (r.isBlank()) continue;
+                var m = AbstractSingularityMonitor._psPattern.matcher(r);
+                if (!m.matches()) {
+                    _log.warn("Unable to parse process record from " + source + ": " + r);
+                    continue;
+                }
+
+                // Index the record.
+                var rec = new PsRecord(m.group(1), m.group(2), m.group(3));
+                byPid.put(rec.pid, rec);
+                byPpid.computeIfAbsent(rec.ppid, k -> new ArrayList<>(2)).add(rec);
+
+                // Index singularity instance processes by name.
+                int marker = rec.rest.indexOf(INSTANCE_MARKER);
+                if (marker >= 0 && rec.rest.endsWith("]")) {
+                    int open = rec.rest.lastIndexOf('[');
+                    if (open > marker) byInstance.putIfAbsent(rec.rest.substring(open + 1, rec.rest.length() - 1), rec);
+                }
+            }
+
+            return new ProcessTable(Collections.unmodifiableMap(byPid),
+                                    Collections.unmodifiableMap(byPpid),
+                                    Collections.unmodifiableMap(byInstance));
+        }
+
+        /* ------------------------------------------------------------------ */
+        /* accessors:                                                         */
+        /* ------------------------------------------------------------------ */
+        /** The process with the pid or null. */
+        public PsRecord getProcess(String pid) {return _byPid.get(pid);}
+
+        /** The lowest numbered child of the process or null. */
+        public PsRecord getFirstChild(String ppid)
+        {
+            var children = _byPpid.get(ppid);
+            return children == null ? null : children.get(0);
+        }
+
+        /** The singularity instance process with the instance name or null. */
+        public PsRecord getInstance(String instanceName) {return _byInstance.get(instanceName);}
+
+        /** The number of processes. */
+        public int size() {return _size;}
+
+        /** Whether the snapshot has any processes. */
+        public boolean isEmpty() {return _size == 0;}
+    }
+}
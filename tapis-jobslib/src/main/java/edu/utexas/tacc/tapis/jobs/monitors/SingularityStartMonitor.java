@@ -5,6 +5,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import edu.utexas.tacc.tapis.jobs.exceptions.JobException;
+import edu.utexas.tacc.tapis.jobs.monitors.ProcessTableSnapshots.ProcessTable;
+import edu.utexas.tacc.tapis.jobs.monitors.ProcessTableSnapshots.ProcessTableLoader;
 import edu.utexas.tacc.tapis.jobs.monitors.parsers.JobRemoteStatus;
 import edu.utexas.tacc.tapis.jobs.monitors.policies.MonitorPolicy;
 import edu.utexas.tacc.tapis.jobs.worker.execjob.JobExecutionContext;
@@ -79,27 +81,39 @@ public class SingularityStartMonitor
         // Get the command object.
         var runCmd = _jobCtx.getExecSystemTapisSSH().getRunCommand();
         
-        // Get the command text for this job's container.
-        String cmd = JobExecutionUtils.SINGULARITY_START_MONITOR;
-        
-        // Query the container.
-        String result = null;
+        // Get the process table snapshot shared by all jobs on this host. The
+        // snapshot is retrieved on this job's connection if it has expired.
+        final long queryTime = System.currentTimeMillis();
+        PsStartInfo psInfo = null;
         try {
-            int rc = runCmd.execute(cmd);
-            runCmd.logNonZeroExitCode();
-            result = runCmd.getOutAsString();
+            var execSys = _jobCtx.getExecutionSystem();
+            ProcessTableLoader loader = () -> {
+                runCmd.execute(JobExecutionUtils.SINGULARITY_START_MONITOR);
+                runCmd.logNonZeroExitCode();
+                return runCmd.getOutAsString();
+            };
+            var snapshots = ProcessTableSnapshots.getInstance();
+            var table = snapshots.getSnapshot(execSys.getHost(), execSys.getEffectiveUserId(), loader);
+            
+            // We should have gotten something.
+            if (table.isEmpty()) return JobRemoteStatus.EMPTY;
+            
+            // Extract records of interest from the snapshot.  A shared snapshot 
+            // can predate the job's launch, so we insist on a current one before
+            // concluding that the sinit process is missing.
+            psInfo = extractInstanceInfo(table);
+            if (psInfo.sinit == null) {
+                table = snapshots.getSnapshot(execSys.getHost(), execSys.getEffectiveUserId(), 
+                                              queryTime, loader);
+                if (table.isEmpty()) return JobRemoteStatus.EMPTY;
+                psInfo = extractInstanceInfo(table);
+            }
         }
         catch (Exception e) {
             _log.error(e.getMessage(), e);
             return JobRemoteStatus.NULL;
         }
         
-        // We should have gotten something.
-        if (StringUtils.isBlank(result)) return JobRemoteStatus.EMPTY;
-        
-        // Extract records of interest from the results.
-        PsStartInfo psInfo = extractInstanceInfo(result);
-        
         // We should always have found the sinit record, which represents the 
         // process the singularity instance start command spawned.
         if (psInfo.sinit == null) {
@@ -177,10 +191,10 @@ public class SingularityStartMonitor
      * job.  The job's remoteJobId is the PID returned by "singularity instance start"
      * command and should always be present in the monitoring results.  
      * 
-     * @param results raw results from remote ps command
+     * @param table the shared snapshot of the host's process table
      * @return the parsed records of interest for this job
      */
-    private PsStartInfo extractInstanceInfo(String results)
+    private PsStartInfo extractInstanceInfo(ProcessTable table)
     {
         // Example list call:
         //  singularity instance list XXX
@@ -197,48 +211,14 @@ public class SingularityStartMonitor
         //  624807  624785 S    rcardone /bin/sh /.singularity.d/startscript
         //  624810  624807 Sl   rcardone java -cp /usr/local/bin/testapps.jar edu.utexas.tacc.testapps.tapis.SleepSeconds 120
         
-        // Result object.
+        // Look up each process by its relationship to sinit.  Children are 
+        // indexed in ascending pid order, so the first child is the one that  
+        // the sequential search of the ps output used to find.
         var info = new PsStartInfo();
-        final String instanceSearch = "[" + _job.getUuid() + "]";
-        String startscriptPid = null;
-        
-        // Split on newlines.
-        String[] records = _newLinePattern.split(results);
-      
-        // Process each record.
-        for (var r : records) {
-            var m = _psPattern.matcher(r);
-            var b = m.matches();
-            if (!b) {
-                String msg = MsgUtils.getMsg("JOBS_SINGULARITY_PS_PARSE_WARN", _job.getUuid(), r);
-                _log.warn(msg);
-                continue;
-            }
-            
-            // Unpack the parsed results.
-            var pid  = m.group(1);
-            var ppid = m.group(2); // never missing
-            var rest = m.group(3);
-            
-            // Try to fill in each of the info fields. Note that the ps monitoring command
-            // returns records in ascending pid order.  This causes records to be returned 
-            // in the order shown above.  This code below doesn't depend on this ordering,
-            // but does test records in the same order.
-            if (info.instance == null && rest.endsWith(instanceSearch)) {
-                info.instance = new PsRecord(pid, ppid, rest);
-            } else if (info.sinit == null && pid.equals(_job.getRemoteJobId())) {
-                info.sinit = new PsRecord(pid, ppid, rest);
-            } else if (info.startscript == null && ppid.equals(_job.getRemoteJobId())) {
-                info.startscript = new PsRecord(pid, ppid, rest);
-                startscriptPid = pid;  // the process whose absence indicates app termination
-            } else if (startscriptPid != null && info.app == null && ppid.equals(startscriptPid)) {
-                info.app = new PsRecord(pid, ppid, rest);
-            }
-        
-            // Terminate search early if possible.
-            if (info.isComplete()) return info;
-        }
-        
+        info.instance = table.getInstance(_job.getUuid());
+        info.sinit = table.getProcess(_job.getRemoteJobId());
+        info.startscript = table.getFirstChild(_job.getRemoteJobId());
+        if (info.startscript != null) info.app = table.getFirstChild(info.startscript.pid);
         return info;
     }
     
@@ -0,0 +1,441 @@
+package edu.utexas.tacc.tapis.jobs.monitors.policies;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import edu.utexas.tacc.tapis.jobs.exceptions.JobException;
+import edu.utexas.tacc.tapis.jobs.model.Job;
+import edu.utexas.tacc.tapis.jobs.model.enumerations.JobStatusType;
+import edu.utexas.tacc.tapis.jobs.model.enumerations.JobType;
+import edu.utexas.tacc.tapis.shared.i18n.MsgUtils;
+
+/** A monitor policy that schedules status checks according to when a job is
+ * likely to terminate.  While a job runs, the time until the next check is the
+ * time in which, according to the runtimes of recent jobs that ran the same
+ * application on the same system, the job terminates with the configured
+ * probability.  Checks are therefore dense when many recent jobs terminated
+ * at the job's current elapsed time and sparse otherwise.  A check is also
+ * scheduled shortly after the job's maximum runtime, when a scheduler would
+ * terminate the job.
+ *
+ * Queued jobs, running jobs without sufficient runtime history and running
+ * jobs that have outlived their history are checked at intervals proportional
+ * to their elapsed time.  The first check on a newly monitored job is always
+ * made after FIRST_POLL_MILLIS, as with the stepwise policy, to accommodate
+ * jobs that fail immediately.
+ *
+ * All intervals after the first are bounded by the configured minimum and
+ * maximum, so the maximum is a hard bound on the latency with which job
+ * termination is detected.  Time limits and failure handling are the same as those of
+ * StepwiseBackoffPolicy.
+ *
+ * @author rcardone
+ */
+public final class AdaptiveRuntimePolicy
+ implements MonitorPolicy
+{
+    /* ********************************************************************** */
+    /*                               Constants                                */
+    /* ********************************************************************** */
+    private static final Logger _log = LoggerFactory.getLogger(AdaptiveRuntimePolicy.class);
+
+    // Extend the monitor timeout so that the remote scheduler times out first.
+    private static final int MONITOR_TIMEOUT_EXTENSION_SECS = 600; // 10 minutes
+
+    // The wait before the first check of a newly monitored job, which is
+    // deliberately not subject to the minimum poll interval.
+    private static final long FIRST_POLL_MILLIS = 1000;
+
+    // The fraction of elapsed time to wait when runtime history isn't used.
+    private static final double BACKOFF_FRACTION = 0.25;
+
+    /* ********************************************************************** */
+    /*                                Fields                                  */
+    /* ********************************************************************** */
+    private final Job   _job;
+    private final Clock _clock;
+
+    // Sorted runtime history in milliseconds and scheduling parameters.
+    private long[]                   _runtimeMillis;
+    private int                      _minRuntimeHistory;
+    private long                     _minPollMillis;
+    private long                     _maxPollMillis;
+    private double                   _pollCompletionProbability;
+    private long                     _maxElapsedSeconds;
+    private long                     _maxConsecutiveFailureMinutes;
+    private long                     _stepConnectionCloseMillis;
+
+    // Flags that record policy initialization status.
+    private boolean                  _fieldsInitialized;
+    private boolean                  _runningTimeInitialized;
+
+    // The time of the first try and last allowed try.
+    private Instant                  _monitorStart;
+    private Instant                  _runStartTime;
+    private Instant                  _runEndTime;
+    private Instant                  _firstFailureInSeries;
+
+    // Attempt tracking.
+    private boolean                  _firstPollPending;
+    private int                      _attempts;
+    private Long                     _lastWaitMillis;
+
+    // The reason why the last call to millisToWait returned null.
+    private ReasonCode               _reasonCode;
+
+    // For now we limit the initial queuing race condition
+    // retries by accepting the default maximum.
+    private int                      _initialQueuingRetries = MAX_INITIAL_QUEUED_RETRIES;
+
+    /* ********************************************************************** */
+    /*                              Constructors                              */
+    /* ********************************************************************** */
+    /* ---------------------------------------------------------------------- */
+    /* constructor:                                                           */
+    /* ---------------------------------------------------------------------- */
+    public AdaptiveRuntimePolicy(Job job, MonitorPolicyParameters policyParameters)
+     throws JobException
+    {
+        this(job, policyParameters, Clock.systemUTC());
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* constructor:                                                           */
+    /* ---------------------------------------------------------------------- */
+    /** Create a policy that reads the time from the clock, which allows job
+     * traces to be replayed without waiting.
+     */
+    public AdaptiveRuntimePolicy(Job job, MonitorPolicyParameters policyParameters,
+                                 Clock clock)
+     throws JobException
+    {
+        // Check input.
+        if (job == null) {
+            String msg = MsgUtils.getMsg("ALOE_NULL_PARAMETER", "AdaptiveRuntime", "job");
+            _log.error(msg);
+            throw new JobException(msg);
+        }
+        if (policyParameters == null) {
+            String msg = MsgUtils.getMsg("ALOE_NULL_PARAMETER", "AdaptiveRuntime", "policyParameters");
+            _log.error(msg);
+            throw new JobException(msg);
+        }
+        if (clock == null) {
+            String msg = MsgUtils.getMsg("ALOE_NULL_PARAMETER", "AdaptiveRuntime", "clock");
+            _log.error(msg);
+            throw new JobException(msg);
+        }
+
+        _job = job;
+        _clock = clock;
+        setParameters(policyParameters);
+    }
+
+    /* ********************************************************************** */
+    /*                             Public Methods                             */
+    /* ********************************************************************** */
+    /* ---------------------------------------------------------------------- */
+    /* millisToWait:                                                          */
+    /* ---------------------------------------------------------------------- */
+    @Override
+    public Long millisToWait(boolean lastAttemptFailed)
+    {
+        // Set the maximum elapsed time the first time this method is called.
+        if (!_fieldsInitialized) initFields();
+
+        // Determine if we've had too many failed attempts.
+        Instant now = _clock.instant();
+        if (tooManyFailures(lastAttemptFailed, now)) {
+            _reasonCode = ReasonCode.TOO_MANY_FAILURES;
+            return null;
+        }
+
+        // Start the execution timer when the job is first seen running.
+        if (!_runningTimeInitialized && _job.getStatus() == JobStatusType.RUNNING)
+            initRunningTimeSettings(now);
+
+        // See if the maximum elapsed time has been exceeded.
+        if (_runningTimeInitialized && _runEndTime.isBefore(now)) {
+            _reasonCode = ReasonCode.TIME_EXPIRED;
+            return null;
+        }
+
+        // Calculate the wait time.
+        long waitMillis;
+        if (_firstPollPending) {
+            waitMillis = FIRST_POLL_MILLIS;
+            _firstPollPending = false;
+        }
+        else if (_runningTimeInitialized)
+            waitMillis = getRunningWait(now.toEpochMilli() - _runStartTime.toEpochMilli());
+        else waitMillis = bound(getBackoffWait(now.toEpochMilli() - _monitorStart.toEpochMilli()));
+
+        // Record the attempt.
+        _attempts++;
+        _lastWaitMillis = waitMillis;
+        return waitMillis;
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* keepConnection:                                                        */
+    /* ---------------------------------------------------------------------- */
+    /** Keep the connection open if the next status check is less than the
+     * configured connection close cutoff away.
+     *
+     * @return true if the policy recommends keeping the connection open,
+     *         false otherwise
+     */
+    @Override
+    public boolean keepConnection()
+    {
+        // This call should not be made before the first millisToWait call,
+        // but if it is we're protected.
+        if (_lastWaitMillis == null) return false;
+        return _lastWaitMillis < _stepConnectionCloseMillis;
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* retryForInitialQueuing:                                                */
+    /* ---------------------------------------------------------------------- */
+    /** This method should only be called when the first remote query returns
+     * a null or empty response.  See the interface definition for details.
+     */
+    @Override
+    public boolean retryForInitialQueuing()
+    {
+        // This only applies if the job was just queued.
+        if (_job.getStatus() != JobStatusType.QUEUED) return false;
+
+        // This method should not be called before initialization,
+        // i.e., before millisToWait has been called at least once.
+        if (_attempts != 1) return false;
+
+        // We only retry for the initial queuing problem a finite number of times.
+        if (_initialQueuingRetries <= 0) return false;
+
+        // Sleep for the configured initial queue condition time.
+        try {Thread.sleep(INITIAL_QUEUED_MILLIS);}
+            catch (InterruptedException e) {
+                if (_log.isDebugEnabled()) {
+                    String msg = MsgUtils.getMsg("JOBS_MONITOR_INTERRUPTED", _job.getUuid(),
+                                                 getClass().getSimpleName());
+                    _log.debug(msg);
+                }
+            }
+        _initialQueuingRetries--; // decrement the retry counter.
+
+        // Let's start over.
+        _attempts = 0;
+        _firstPollPending = true;
+
+        // Tell the caller that they should retry the remote query.
+        return true;
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* getReasonCode:                                                         */
+    /* ---------------------------------------------------------------------- */
+    /** The reason code is null until the no more monitoring attempts should
+     * be made (i.e., millisToWait returns null).
+     *
+     * @return the reason code for canceling monitoring or null if monitoring
+     *         is not cancelled
+     */
+    @Override
+    public ReasonCode getReasonCode() {return _reasonCode;}
+
+    /* ---------------------------------------------------------------------- */
+    /* startJobExecutionTimer:                                                */
+    /* ---------------------------------------------------------------------- */
+    /** Allow callers to start the execution timer when a job transition from
+     * QUEUED to RUNNING.  The timer is also started automatically the first
+     * time millisToWait is called on a RUNNING job.
+     */
+    @Override
+    public void startJobExecutionTimer()
+    {
+        // Only initialize the running time clock once.
+        if (!_runningTimeInitialized) initRunningTimeSettings(_clock.instant());
+    }
+
+    /* ********************************************************************** */
+    /*                            Private Methods                             */
+    /* ********************************************************************** */
+    /* ---------------------------------------------------------------------- */
+    /* getRunningWait:                                                        */
+    /* ---------------------------------------------------------------------- */
+    /** Calculate the wait for a running job.
+     *
+     * @param elapsedMillis the time since the job started running
+     * @return the bounded wait in milliseconds
+     */
+    private long getRunningWait(long elapsedMillis)
+    {
+        // Find the recent runtimes longer than the elapsed time.  If there are
+        // enough, wait until the configured fraction of them would have ended.
+        long waitMillis;
+        int next = getFirstRuntimeAfter(elapsedMillis);
+        int remaining = _runtimeMillis.length - next;
+        if (_runtimeMillis.length >= _minRuntimeHistory && remaining > 0) {
+            int count = Math.max(1, (int) Math.ceil(_pollCompletionProbability * remaining));
+            waitMillis = _runtimeMillis[next + count - 1] - elapsedMillis;
+        }
+        else waitMillis = getBackoffWait(elapsedMillis);
+
+        // Check shortly after the job's maximum runtime has been reached.
+        long maxRuntimeMillis = _job.getMaxMinutes() * 60000L;
+        if (maxRuntimeMillis > elapsedMillis)
+            waitMillis = Math.min(waitMillis, maxRuntimeMillis - elapsedMillis + _minPollMillis);
+
+        return bound(waitMillis);
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* getBackoffWait:                                                        */
+    /* ---------------------------------------------------------------------- */
+    private long getBackoffWait(long elapsedMillis)
+    {
+        return (long) (Math.max(0, elapsedMillis) * BACKOFF_FRACTION);
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* bound:                                                                 */
+    /* ---------------------------------------------------------------------- */
+    private long bound(long waitMillis)
+    {
+        return Math.min(_maxPollMillis, Math.max(_minPollMillis, waitMillis));
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* getFirstRuntimeAfter:                                                  */
+    /* ---------------------------------------------------------------------- */
+    /** Return the index of the first sorted runtime greater than the elapsed
+     * time or the number of runtimes if there is none.
+     */
+    private int getFirstRuntimeAfter(long elapsedMillis)
+    {
+        int low = 0, high = _runtimeMillis.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (_runtimeMillis[mid] <= elapsedMillis) low = mid + 1;
+              else high = mid;
+        }
+        return low;
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* tooManyFailures:                                                       */
+    /* ---------------------------------------------------------------------- */
+    /** Determine if we've had a run of failed monitoring attempts that
+     * exceed the configured allowed maximum.
+     *
+     * @param lastAttemptFailed true if the last attempt failed
+     * @param now the current time
+     * @return true if we've experienced failures for too long, false otherwise
+     */
+    private boolean tooManyFailures(boolean lastAttemptFailed, Instant now)
+    {
+        // Maybe there's nothing to worry about.
+        if (!lastAttemptFailed) {
+            _firstFailureInSeries = null;
+            return false;
+        }
+
+        // Is this failure the beginning of a new failure series?
+        if (_firstFailureInSeries == null) _firstFailureInSeries = now;
+
+        // Determine if the duration of a series of consecutive
+        // failures has exceeded its time limit.
+        return _firstFailureInSeries.plus(_maxConsecutiveFailureMinutes, ChronoUnit.MINUTES).isBefore(now);
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* setParameters:                                                         */
+    /* ---------------------------------------------------------------------- */
+    private void setParameters(MonitorPolicyParameters policyParameters)
+    {
+        // Sort the runtime history, ignoring invalid values.
+        var history = policyParameters.runtimeHistorySeconds;
+        if (history == null) _runtimeMillis = new long[0];
+          else _runtimeMillis = history.stream().filter(s -> s != null && s > 0)
+                                       .mapToLong(s -> s * 1000).sorted().toArray();
+        _minRuntimeHistory = Math.max(1, policyParameters.minRuntimeHistory);
+
+        // Set the wait bounds, the maximum can't be less than the minimum.
+        _minPollMillis = Math.max(0, policyParameters.minPollMillis);
+        _maxPollMillis = Math.max(_minPollMillis, policyParameters.maxPollMillis);
+        _pollCompletionProbability = policyParameters.pollCompletionProbability;
+        if (!(_pollCompletionProbability > 0 && _pollCompletionProbability <= 1))
+            _pollCompletionProbability = DEFAULT_POLL_COMPLETION_PROBABILITY;
+
+        // Set the maximum elapsed time.
+        if (policyParameters.maxElapsedSeconds <= 0)
+            _maxElapsedSeconds = getDefaultMaxElapsedSeconds();
+         else _maxElapsedSeconds = policyParameters.maxElapsedSeconds;
+
+        // Connection and failure settings.
+        _stepConnectionCloseMillis = policyParameters.stepConnectionCloseMillis;
+        _maxConsecutiveFailureMinutes = policyParameters.maxConsecutiveFailureMinutes;
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* getDefaultMaxElapsedSeconds:                                           */
+    /* ---------------------------------------------------------------------- */
+    /** Get the maximum runtime from the job, extended for batch jobs so that
+     * the remote scheduler times out first.
+     *
+     * @return the default maximum runtime in seconds
+     */
+    private long getDefaultMaxElapsedSeconds()
+    {
+        long maxSeconds = _job.getMaxMinutes() * 60L;
+        if (maxSeconds <= 0) maxSeconds = (long) (Job.DEFAULT_MAX_MINUTES * 60);
+        if (_job.getJobType() == JobType.BATCH) maxSeconds += MONITOR_TIMEOUT_EXTENSION_SECS;
+        return maxSeconds;
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* initFields:                                                            */
+    /* ---------------------------------------------------------------------- */
+    /** One time initialization when on first millisToWait call.
+     */
+    private void initFields()
+    {
+        // Set the start time of monitoring.
+        _monitorStart = _clock.instant();
+
+        // Only newly monitored jobs get a quick first check.
+        _firstPollPending = _job.getRemoteChecksSuccess() + _job.getRemoteChecksFailed() == 0;
+
+        // Indicate field initialization complete.
+        _fieldsInitialized = true;
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* initRunningTimeSettings:                                               */
+    /* ---------------------------------------------------------------------- */
+    /** Perform the one time initialization of the execution timer parameters.
+     * The job's recorded remote start time is used when available so that
+     * elapsed time is measured correctly when monitoring resumes.
+     *
+     * @param now the current time
+     */
+    private void initRunningTimeSettings(Instant now)
+    {
+        // Set the elapsed time fields.
+        var remoteStarted = _job.getRemoteStarted();
+        _runStartTime = remoteStarted != null && remoteStarted.isBefore(now) ? remoteStarted : now;
+        _runEndTime   = _runStartTime.plusSeconds(_maxElapsedSeconds);
+
+        // Mark execution times as initialized.
+        _runningTimeInitialized = true;
+
+        if (_log.isDebugEnabled())
+            _log.debug("Adaptive monitoring of running job " + _job.getUuid() + " uses " +
+                       _runtimeMillis.length + " historical runtimes.");
+    }
+}
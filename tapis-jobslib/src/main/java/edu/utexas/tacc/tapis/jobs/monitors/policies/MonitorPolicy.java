@@ -23,6 +23,18 @@ public interface MonitorPolicy
     // The default number of seconds we will keep a batch job queued.
     public static final long DEFAULT_QUEUE_SECS = 259200; // 3 days
     
+    // The default bounds on the time between adaptive monitoring attempts.
+    // The maximum bounds the latency with which job termination is detected.
+    static final long DEFAULT_MIN_POLL_MS = 10000;  // 10 seconds
+    static final long DEFAULT_MAX_POLL_MS = 600000; // 10 minutes
+    
+    // The default probability, based on runtime history, that a running job 
+    // terminates between consecutive adaptive monitoring attempts.
+    static final double DEFAULT_POLL_COMPLETION_PROBABILITY = 0.1;
+    
+    // The default minimum number of runtimes needed to use runtime history.
+    static final int DEFAULT_MIN_RUNTIME_HISTORY = 5;
+    
     /* ********************************************************************** */
     /*                                 Enums                                  */
     /* ********************************************************************** */
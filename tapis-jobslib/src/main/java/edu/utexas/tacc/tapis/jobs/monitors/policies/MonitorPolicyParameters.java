@@ -47,6 +47,27 @@ public final class MonitorPolicyParameters
     // monitoring attempts failures causes a timeout.
     public long maxConsecutiveFailureMinutes = MonitorPolicy.DEFAULT_CONSECUTIVE_FAILURE_MINUTES; 
     
+    // ----------------- AdaptiveRuntime parameters -----------------
+    // The runtimes in seconds of recently completed jobs that ran the 
+    // same application on the same execution system.  Null or short
+    // lists cause the policy to back off in proportion to elapsed time. 
+    public List<Long> runtimeHistorySeconds;
+    
+    // The minimum number of runtimes needed to use the runtime history.
+    public int minRuntimeHistory = MonitorPolicy.DEFAULT_MIN_RUNTIME_HISTORY;
+    
+    // The minimum and maximum number of milliseconds between attempts after
+    // the first.
+    // The maximum is a hard bound on the latency with which a terminated
+    // job is detected.
+    public long minPollMillis = MonitorPolicy.DEFAULT_MIN_POLL_MS;
+    public long maxPollMillis = MonitorPolicy.DEFAULT_MAX_POLL_MS;
+    
+    // The probability, according to the runtime history, that a running
+    // job terminates between consecutive attempts.  Smaller values cause
+    // more frequent attempts.
+    public double pollCompletionProbability = MonitorPolicy.DEFAULT_POLL_COMPLETION_PROBABILITY;
+    
     /* ********************************************************************** */
     /*                             Public Methods                             */
     /* ********************************************************************** */
@@ -1,6 +1,9 @@
 package edu.utexas.tacc.tapis.jobs.queue;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.slf4j.Logger;
@@ -17,13 +20,13 @@ import edu.utexas.tacc.tapis.jobs.exceptions.JobQueueException;
 import edu.utexas.tacc.tapis.jobs.model.Job;
 import edu.utexas.tacc.tapis.jobs.model.JobEvent;
 import edu.utexas.tacc.tapis.jobs.queue.messages.JobSubmitMsg;
+import edu.utexas.tacc.tapis.jobs.queue.messages.QueueMsgCodec;
 import edu.utexas.tacc.tapis.jobs.queue.messages.cmd.CmdMsg;
 import edu.utexas.tacc.tapis.jobs.queue.messages.recover.RecoverMsg;
 import edu.utexas.tacc.tapis.shared.TapisConstants;
 import edu.utexas.tacc.tapis.shared.exceptions.TapisException;
 import edu.utexas.tacc.tapis.shared.exceptions.runtime.TapisRuntimeException;
 import edu.utexas.tacc.tapis.shared.i18n.MsgUtils;
-import edu.utexas.tacc.tapis.shared.utils.TapisGsonUtils;
 import edu.utexas.tacc.tapis.sharedq.AbstractQueueManager;
 import edu.utexas.tacc.tapis.sharedq.VHostManager;
 import edu.utexas.tacc.tapis.sharedq.VHostParms;
@@ -212,12 +215,45 @@ public final class JobQueueManager
       var message = new JobSubmitMsg();
       message.setCreated(job.getCreated().toString());
       message.setUuid(job.getUuid());
-      var jsonMessage = TapisGsonUtils.getGson().toJson(message);
+      var jsonMessage = QueueMsgCodec.encode(message);
       var queueName    = job.getTapisQueue();
       var exchangeName = JobQueueManagerNames.getSubmitExchangeName();
       postToQueue(queueName, exchangeName, jsonMessage, queueName);
   }
 
+  /* ---------------------------------------------------------------------------- */
+  /* queueJobs:                                                                   */
+  /* ---------------------------------------------------------------------------- */
+  /** Submit a batch of jobs to their worker queues on a single channel.  Jobs are
+   * published in list order.  Once publication fails the channel is unusable, so
+   * the failed job and all jobs after it are reported as not queued.
+   * 
+   * @param jobs the jobs to queue
+   * @return the uuids of jobs that were not queued mapped to the failure message,
+   *         empty if all jobs were queued
+   */
+  public Map<String,String> queueJobs(List<Job> jobs)
+  {
+      // Create the messages.
+      var messages    = new ArrayList<String>(jobs.size());
+      var routingKeys = new ArrayList<String>(jobs.size());
+      for (var job : jobs) {
+          var message = new JobSubmitMsg();
+          message.setCreated(job.getCreated().toString());
+          message.setUuid(job.getUuid());
+          messages.add(QueueMsgCodec.encode(message));
+          routingKeys.add(job.getTapisQueue());
+      }
+      
+      // Publish them all and record the ones that weren't.
+      var exchangeName = JobQueueManagerNames.getSubmitExchangeName();
+      var result = postAllToQueue(exchangeName, messages, routingKeys);
+      var failures = new LinkedHashMap<String,String>();
+      for (int i = result.posted(); i < jobs.size(); i++) 
+          failures.put(jobs.get(i).getUuid(), result.error());
+      return failures;
+  }
+
   /* ---------------------------------------------------------------------- */
   /* doRefreshQueueInfo:                                                    */
   /* ---------------------------------------------------------------------- */
@@ -338,7 +374,7 @@ public final class JobQueueManager
     throws JobException
   {
       // Convert command object to a json string.
-      String json = TapisGsonUtils.getGson().toJson(cmdMsg);
+      String json = QueueMsgCodec.encode(cmdMsg);
       
       // Get the tenant id, command topic name and all worker routing key.
       String exchangeName  = JobQueueManagerNames.getCmdExchangeName();  
@@ -360,7 +396,7 @@ public final class JobQueueManager
     throws JobException
   {
       // Convert command object to a json string.
-      String json = TapisGsonUtils.getGson().toJson(cmdMsg);
+      String json = QueueMsgCodec.encode(cmdMsg);
       
       // Get the tenant id, command topic name and specific worker routing key.
       String exchangeName  = JobQueueManagerNames.getCmdExchangeName();
@@ -383,7 +419,7 @@ public final class JobQueueManager
     throws JobException
   {
       // Convert command object to a json string.
-      String json = TapisGsonUtils.getGson().toJson(cmdMsg);
+      String json = QueueMsgCodec.encode(cmdMsg);
       
       // Get the tenant id, command topic name and specific job routing key.
       String exchangeName  = JobQueueManagerNames.getCmdExchangeName();
@@ -405,7 +441,7 @@ public final class JobQueueManager
     throws JobException
   {
       // Convert command object to a json string.
-      String json = TapisGsonUtils.getGson().toJson(recoverMsg);
+      String json = QueueMsgCodec.encode(recoverMsg);
       
       // Call the actual post routine.
       String queueName    = JobQueueManagerNames.getRecoveryQueueName();
@@ -425,7 +461,7 @@ public final class JobQueueManager
     throws JobException
   {
       // Convert command object to a json string.
-      String json = TapisGsonUtils.getGson().toJson(jobEvent);
+      String json = QueueMsgCodec.encode(jobEvent);
       
       // Call the actual post routine.
       String queueName    = JobQueueManagerNames.getEventQueueName();
@@ -433,6 +469,31 @@ public final class JobQueueManager
       postToQueue(queueName, exchangeName, json, DEFAULT_BINDING_KEY);
   }
   
+  /* ---------------------------------------------------------------------- */
+  /* postEventQueue:                                                        */
+  /* ---------------------------------------------------------------------- */
+  /** Post a batch of job events to the event queue on a single channel.
+   * 
+   * @param jobEvents the events
+   * @throws JobException if any event was not posted
+   */
+  public void postEventQueue(List<JobEvent> jobEvents)
+    throws JobException
+  {
+      // Convert event objects to json strings.
+      var messages    = new ArrayList<String>(jobEvents.size());
+      var routingKeys = new ArrayList<String>(jobEvents.size());
+      for (var jobEvent : jobEvents) {
+          messages.add(QueueMsgCodec.encode(jobEvent));
+          routingKeys.add(DEFAULT_BINDING_KEY);
+      }
+      
+      // Call the actual post routine.
+      String exchangeName = JobQueueManagerNames.getEventExchangeName(); 
+      var result = postAllToQueue(exchangeName, messages, routingKeys);
+      if (result.error() != null) throw new JobException(result.error());
+  }
+  
   /* ---------------------------------------------------------------------- */
   /* unbindWorkerSpecificCmdTopic:                                          */
   /* ---------------------------------------------------------------------- */
@@ -703,4 +764,79 @@ public final class JobQueueManager
     }
   }
   
+  /* ---------------------------------------------------------------------- */
+  /* postAllToQueue:                                                        */
+  /* ---------------------------------------------------------------------- */
+  /** Write json messages to an exchange in list order using one channel.  
+   * Publishing stops at the first failure, which is logged and returned with
+   * the number of messages published before it.
+   * 
+   * @param exchangeName the target exchange
+   * @param messages the json strings
+   * @param routingKeys the routing key of each message
+   * @return the number of messages published and the error message, if any
+   */
+  private PostBatchResult postAllToQueue(String exchangeName, List<String> messages,
+                                         List<String> routingKeys)
+  {
+    // Nothing to do.
+    if (messages.isEmpty()) return new PostBatchResult(0, null);
+    
+    // Create a temporary channel for the whole batch.
+    Channel channel = null;
+    boolean abortChannel = false;
+    int posted = 0;
+    try {
+      try {channel = getNewOutChannel();}
+        catch (Exception e) {
+          String msg = MsgUtils.getMsg("JOBS_QMGR_OUT_CHANNEL_ERROR");
+          _log.error(msg, e);
+          abortChannel = true;
+          return new PostBatchResult(0, msg);
+        }
+    
+      // Publish each message.
+      for (; posted < messages.size(); posted++) 
+        channel.basicPublish(exchangeName, routingKeys.get(posted), 
+                             JobQueueManagerNames.PERSISTENT_JSON, 
+                             messages.get(posted).getBytes("UTF-8"));
+      
+      // Tracing.
+      if (_log.isDebugEnabled()) {
+          String msg = MsgUtils.getMsg("JOBS_QMGR_POST", exchangeName, posted + " messages");
+          _log.debug(msg);
+      }
+      return new PostBatchResult(posted, null);
+    } 
+    catch (Exception e) {
+      // Affect the way we close the channel.
+      abortChannel = true;
+      String msg = MsgUtils.getMsg("JOBS_QMGR_PUBLISH_ERROR", exchangeName, 
+                                   getOutConnectionName(), channel.getChannelNumber(), 
+                                   e.getMessage());
+      _log.error(msg, e);
+      return new PostBatchResult(posted, msg);
+    }
+    finally {
+      // Channel clean up
+      if (channel != null) {
+        try {
+          // Close the channel one way or the other.
+          if (abortChannel) channel.abort();
+            else channel.close();
+        } 
+          catch (Exception e) {
+            String msg = MsgUtils.getMsg("JOBS_QMGR_CHANNEL_CLOSE_ERROR", channel.getChannelNumber(), 
+                                         e.getMessage());
+            _log.error(msg, e);
+          }
+      }
+    }
+  }
+  
+  /* ---------------------------------------------------------------------- */
+  /* PostBatchResult:                                                       */
+  /* ---------------------------------------------------------------------- */
+  // The number of messages published in a batch and the error that stopped it.
+  private record PostBatchResult(int posted, String error) {}
 } 
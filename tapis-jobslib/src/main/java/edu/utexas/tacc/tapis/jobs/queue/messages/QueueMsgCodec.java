@@ -0,0 +1,198 @@
+package edu.utexas.tacc.tapis.jobs.queue.messages;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import edu.utexas.tacc.tapis.jobs.model.JobEvent;
+import edu.utexas.tacc.tapis.jobs.queue.messages.cmd.CmdMsg;
+import edu.utexas.tacc.tapis.jobs.queue.messages.cmd.CmdMsg.CmdType;
+import edu.utexas.tacc.tapis.jobs.queue.messages.cmd.JobCancelMsg;
+import edu.utexas.tacc.tapis.jobs.queue.messages.cmd.JobPauseMsg;
+import edu.utexas.tacc.tapis.jobs.queue.messages.cmd.JobStatusMsg;
+import edu.utexas.tacc.tapis.jobs.queue.messages.cmd.WkrResumeMsg;
+import edu.utexas.tacc.tapis.jobs.queue.messages.cmd.WkrShutdownMsg;
+import edu.utexas.tacc.tapis.jobs.queue.messages.cmd.WkrStatusMsg;
+import edu.utexas.tacc.tapis.jobs.queue.messages.cmd.WkrSuspendMsg;
+import edu.utexas.tacc.tapis.jobs.queue.messages.recover.JobCancelRecoverMsg;
+import edu.utexas.tacc.tapis.jobs.queue.messages.recover.JobRecoverMsg;
+import edu.utexas.tacc.tapis.jobs.queue.messages.recover.RecoverMsg;
+import edu.utexas.tacc.tapis.jobs.queue.messages.recover.RecoverMsg.RecoverMsgType;
+import edu.utexas.tacc.tapis.jobs.queue.messages.recover.RecoverShutdownMsg;
+import edu.utexas.tacc.tapis.shared.utils.TapisGsonUtils;
+
+/** Encode and decode the json bodies of queue messages.  Gson instances are
+ * thread-safe, so the ones used here are configured once and shared by all
+ * readers and senders rather than being created for each message.
+ *
+ * Command and recovery messages are polymorphic.  Their msgType field is read
+ * by streaming through the body's top-level fields without binding them, and
+ * the body is then bound once to the class for that type.  Bodies with a
+ * missing or unknown msgType are bound to the base class, whose msgType will
+ * be null.
+ *
+ * @author rcardone
+ */
+public final class QueueMsgCodec
+{
+    /* ********************************************************************** */
+    /*                               Constants                                */
+    /* ********************************************************************** */
+    // The type discriminator field of polymorphic messages.
+    public static final String MSG_TYPE_FIELD = "msgType";
+
+    // The shared, preconfigured encoder and decoder.
+    private static final Gson _encoder = TapisGsonUtils.getGson();
+    private static final Gson _decoder = TapisGsonUtils.getGson(true);
+
+    /* ********************************************************************** */
+    /*                              Constructors                              */
+    /* ********************************************************************** */
+    private QueueMsgCodec() {}
+
+    /* ********************************************************************** */
+    /*                             Public Methods                             */
+    /* ********************************************************************** */
+    /* ---------------------------------------------------------------------- */
+    /* encode:                                                                */
+    /* ---------------------------------------------------------------------- */
+    /** Convert a message to its json body.
+     *
+     * @param msg any queue message
+     * @return the json body
+     */
+    public static String encode(Object msg)
+    {
+        return _encoder.toJson(msg);
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* decodeCmdMsg:                                                          */
+    /* ---------------------------------------------------------------------- */
+    /** Decode a command message into the class designated by its type.
+     *
+     * @param body the json message body
+     * @return the message, never null
+     * @throws JsonParseException if the body is not a json object or can't be
+     *                            bound to the message class
+     */
+    public static CmdMsg decodeCmdMsg(String body)
+     throws JsonParseException
+    {
+        var type = toEnum(CmdType.class, readMsgType(body));
+        Class<? extends CmdMsg> msgClass = type == null ? CmdMsg.class : switch (type) {
+            case WKR_STATUS   -> WkrStatusMsg.class;
+            case WKR_SHUTDOWN -> WkrShutdownMsg.class;
+            case WKR_SUSPEND  -> WkrSuspendMsg.class;
+            case WKR_RESUME   -> WkrResumeMsg.class;
+            case JOB_STATUS   -> JobStatusMsg.class;
+            case JOB_CANCEL   -> JobCancelMsg.class;
+            case JOB_PAUSE    -> JobPauseMsg.class;
+            default           -> CmdMsg.class;
+        };
+        return decode(body, msgClass);
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* decodeRecoverMsg:                                                      */
+    /* ---------------------------------------------------------------------- */
+    /** Decode a recovery message into the class designated by its type.
+     *
+     * @param body the json message body
+     * @return the message, never null
+     * @throws JsonParseException if the body is not a json object or can't be
+     *                            bound to the message class
+     */
+    public static RecoverMsg decodeRecoverMsg(String body)
+     throws JsonParseException
+    {
+        var type = toEnum(RecoverMsgType.class, readMsgType(body));
+        Class<? extends RecoverMsg> msgClass = type == null ? RecoverMsg.class : switch (type) {
+            case RECOVER          -> JobRecoverMsg.class;
+            case CANCEL_RECOVER   -> JobCancelRecoverMsg.class;
+            case RECOVER_SHUTDOWN -> RecoverShutdownMsg.class;
+        };
+        return decode(body, msgClass);
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* decodeJobSubmitMsg:                                                    */
+    /* ---------------------------------------------------------------------- */
+    public static JobSubmitMsg decodeJobSubmitMsg(String body)
+     throws JsonParseException
+    {
+        return decode(body, JobSubmitMsg.class);
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* decodeJobEvent:                                                        */
+    /* ---------------------------------------------------------------------- */
+    public static JobEvent decodeJobEvent(String body)
+     throws JsonParseException
+    {
+        return decode(body, JobEvent.class);
+    }
+
+    /* ********************************************************************** */
+    /*                            Package Methods                             */
+    /* ********************************************************************** */
+    /* ---------------------------------------------------------------------- */
+    /* readMsgType:                                                           */
+    /* ---------------------------------------------------------------------- */
+    /** Stream through the top-level fields of a json object until the message
+     * type field is found.  The values of other fields are skipped.
+     *
+     * @param body the json message body
+     * @return the message type or null if it's missing or null
+     * @throws JsonParseException if the body is not a json object
+     */
+    static String readMsgType(String body)
+     throws JsonParseException
+    {
+        try (var reader = new JsonReader(new StringReader(body))) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if (!MSG_TYPE_FIELD.equals(reader.nextName())) {
+                    reader.skipValue();
+                    continue;
+                }
+                if (reader.peek() != JsonToken.STRING) return null;
+                return reader.nextString();
+            }
+            return null;
+        }
+        catch (IOException | IllegalStateException e) {
+            throw new JsonSyntaxException(e);
+        }
+    }
+
+    /* ********************************************************************** */
+    /*                            Private Methods                             */
+    /* ********************************************************************** */
+    /* ---------------------------------------------------------------------- */
+    /* decode:                                                                */
+    /* ---------------------------------------------------------------------- */
+    private static <T> T decode(String body, Class<T> msgClass)
+     throws JsonParseException
+    {
+        T msg = _decoder.fromJson(body, msgClass);
+        if (msg == null) throw new JsonSyntaxException("Empty message body.");
+        return msg;
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* toEnum:                                                                */
+    /* ---------------------------------------------------------------------- */
+    /** Gson binds unknown enum names to null, so we do the same here. */
+    private static <E extends Enum<E>> E toEnum(Class<E> enumClass, String name)
+    {
+        if (name == null) return null;
+        try {return Enum.valueOf(enumClass, name);}
+            catch (IllegalArgumentException e) {return null;}
+    }
+}
@@ -1,5 +1,8 @@
 package edu.utexas.tacc.tapis.jobs.queue.messages.event;
 
+import java.util.TreeMap;
+
+import edu.utexas.tacc.tapis.jobs.utils.LaunchAdmissionController.HostMetrics;
 import edu.utexas.tacc.tapis.jobs.worker.JobWorkerParameters;
 
 //import edu.utexas.tacc.aloe.jobs.worker.JobWorkerParameters;
@@ -30,6 +33,13 @@ public final class WkrStatusResp
     public int                 throttleLimit;
     public int                 throttleQueueLength;
     
+    // The launch admission controller limits the launches on each host
+    // within a time window and queues the launches that exceed the limit.
+    public int                 launchWindowSeconds;
+    public int                 launchLimit;
+    public int                 launchQueueDepth;
+    public TreeMap<String,HostMetrics> launchHostMetrics;
+    
     // The thread group for all explicitly spawned worker threads in this program.
     public String              workerThreadGroupName;
     public int                 workerThreadGroupNumThreads;
@@ -1,6 +1,9 @@
 package edu.utexas.tacc.tapis.jobs.reader;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.ArrayBlockingQueue;
 
 import org.apache.commons.codec.binary.Hex;
@@ -33,6 +36,9 @@ public abstract class AbstractQueueReader
     // Limits.
     protected static final int JSON_DUMP_LEN = 64;
     protected static final int MAX_BODY_PREFIX_LEN = 4096;
+    
+    // The prefetch count of readers that don't override getMaxPrefetchCount().
+    protected static final int DEFAULT_MAX_PREFETCH_COUNT = 1;
 
     /* **************************************************************************** */
     /*                                    Fields                                    */
@@ -43,8 +49,13 @@ public abstract class AbstractQueueReader
     // The local queue this thread waits on for elements read
     // from the remote queue by the RabbitMQ consumer.  This
     // approach allows this thread to perform the actual job
-    // processing (as opposed to the RabbitMQ thread).
-    private final ArrayBlockingQueue<DeliveryResponse> _deliveryQueue;
+    // processing (as opposed to the RabbitMQ thread).  Its
+    // capacity is the channel's prefetch count.
+    private ArrayBlockingQueue<DeliveryResponse> _deliveryQueue;
+    
+    // The maximum number of unacknowledged messages on the channel,
+    // which is also the maximum number of messages processed as a batch.
+    private int             _prefetchCount;
     
     // The private channel for this thread to the queue broker.
     private Channel         _channel;
@@ -67,10 +78,6 @@ public abstract class AbstractQueueReader
         // Make parms accessible.
         _parms = parms;
         
-        // Create a queue with fixed capacity of 1 since
-        // our channel will have a prefetch limit of 1.
-        _deliveryQueue = new ArrayBlockingQueue<>(1);
-        
         // Establish our connection to the queue broker.
         // and initialize queues and topics.  There is 
         // some redundancy here since each front-end and
@@ -125,14 +132,65 @@ public abstract class AbstractQueueReader
     /* **************************************************************************** */
     /*                               Protected Methods                              */
     /* **************************************************************************** */
+    /* ---------------------------------------------------------------------------- */
+    /* getMaxPrefetchCount:                                                         */
+    /* ---------------------------------------------------------------------------- */
+    /** The maximum number of unacknowledged messages this reader allows on its 
+     * channel, which the prefetch parameter can lower.  Messages are always
+     * processed in delivery order, but a reader with a prefetch count greater
+     * than 1 holds several messages at once, which are redelivered if the 
+     * reader fails before they are acknowledged.  Readers opt in by overriding 
+     * this method.
+     * 
+     * @return the maximum prefetch count
+     */
+    protected int getMaxPrefetchCount() {return DEFAULT_MAX_PREFETCH_COUNT;}
+    
+    /* ---------------------------------------------------------------------------- */
+    /* processBatch:                                                                */
+    /* ---------------------------------------------------------------------------- */
+    /** Process the messages that have been delivered, up to the prefetch count,
+     * and return an ack (true) or nack (false) decision for each one.  The 
+     * decisions are applied in delivery order using cumulative acks and nacks
+     * where consecutive decisions are the same.  
+     * 
+     * Fewer decisions than deliveries can be returned, in which case each of
+     * the remaining deliveries is individually rejected with requeue so that 
+     * it's redelivered.  Deliveries are never left unsettled, so a later 
+     * cumulative ack or nack cannot settle them by mistake.
+     * 
+     * This implementation calls process() on each message in delivery order
+     * and stops early if this thread is interrupted.  If process() throws an 
+     * exception, the decisions for the messages already processed are applied
+     * before the exception is rethrown.  Subclasses that override this method
+     * must make sure that any messages whose effects should not be repeated 
+     * are acknowledged in that case. 
+     * 
+     * @param deliveries the messages in delivery order
+     * @return the decisions in delivery order
+     */
+    protected boolean[] processBatch(List<DeliveryResponse> deliveries)
+    {
+        var acks = new boolean[deliveries.size()];
+        for (int i = 0; i < acks.length; i++) {
+            try {acks[i] = process(deliveries.get(i));}
+            catch (RuntimeException e) {
+                settle(deliveries, Arrays.copyOf(acks, i));
+                throw e;
+            }
+            if (Thread.currentThread().isInterrupted()) return Arrays.copyOf(acks, i + 1);
+        }
+        return acks;
+    }
+    
     /* ---------------------------------------------------------------------- */
     /* readQueue:                                                             */
     /* ---------------------------------------------------------------------- */
     /** Infinite read loop that can throw runtime exceptions.  This method
      * starts reading the remote queue with auto-ack turned off. It calls the 
-     * subclass's process method to handle the input, which then sends an
-     * ack or nack back to the broker depending the dispatch method's return 
-     * code.
+     * subclass's processBatch method to handle the messages that have been
+     * delivered, which then sends an ack or nack back to the broker for each
+     * message depending the processing method's return code.
      * 
      * This is a blocking read call.  The infinite loop is broken if the thread 
      * is interrupted or if a fatal runtime error occurs.
@@ -150,64 +208,24 @@ public abstract class AbstractQueueReader
       _consumerTag = startConsumer();
       
       // The queue read/job processing loop.
+      var batch = new ArrayList<DeliveryResponse>(_prefetchCount);
       while (!Thread.currentThread().isInterrupted())
       {
-        // Wait for a message to be delivered.
-        DeliveryResponse delivery = null;
-        try {delivery = _deliveryQueue.take();}
+        // Wait for a message to be delivered and then take
+        // any others that have already been delivered.
+        batch.clear();
+        try {batch.add(_deliveryQueue.take());}
           catch (InterruptedException e) {
             // Set the interrupt bit for this thread
             // before breaking from the main loop.
             Thread.currentThread().interrupt();
             break;
           }
+        _deliveryQueue.drainTo(batch, _prefetchCount - 1);
       
-        // Let the subclass perform the actual message processing.
-        boolean ack = process(delivery);
-        
-        // Acknowledge or reject the message.
-        // Determine whether to ack or nack the request.
-        if (ack) {
-          // Don't forget to send the ack!
-          boolean multipleAck = false;
-          try {_channel.basicAck(delivery.envelope.getDeliveryTag(), multipleAck);}
-            catch (IOException e) {
-              String msg = MsgUtils.getMsg("JOBS_THREAD_ACK_ERROR",
-                                           Thread.currentThread().getName(),
-                                           Thread.currentThread().getId(),
-                                           getName(),
-                                           getQueueName(), 
-                                           e.getMessage());
-              _log.error(msg, e);
-            
-              // Failures here are fatal.
-              String msg2 = MsgUtils.getMsg("JOBS_READER_FATAL_BROKER_ERROR", getName(),
-                                            getQueueName(), e.getMessage());
-              _log.error(msg2, e);
-              throw new TapisRuntimeException(msg2, e);
-            }
-        }
-        else {
-          // Reject this unreadable message so that
-          // it gets discarded or dead-lettered.
-          boolean requeue = false;
-          try {_channel.basicReject(delivery.envelope.getDeliveryTag(), requeue);} 
-            catch (IOException e) {
-              String msg = MsgUtils.getMsg("JOBS_THREAD_REJECT_ERROR",
-                                           Thread.currentThread().getName(),
-                                           Thread.currentThread().getId(),
-                                           getName(),
-                                           getQueueName(), 
-                                           e.getMessage());
-              _log.error(msg, e);
-              
-              // Failures here are fatal.
-              String msg2 = MsgUtils.getMsg("JOBS_READER_FATAL_BROKER_ERROR", getName(),
-                                            getQueueName(), e.getMessage());
-              _log.error(msg2, e);
-              throw new TapisRuntimeException(msg2, e);
-            }
-        }
+        // Let the subclass perform the actual message processing
+        // and then acknowledge or reject the messages.
+        settle(batch, processBatch(batch));
       }
     }
     
@@ -309,6 +327,77 @@ public abstract class AbstractQueueReader
     /* **************************************************************************** */
     /*                                 Private Methods                              */
     /* **************************************************************************** */
+    /* ---------------------------------------------------------------------------- */
+    /* settle:                                                                      */
+    /* ---------------------------------------------------------------------------- */
+    /** Acknowledge or reject each delivery according to its decision and 
+     * requeue the deliveries without a decision.
+     * 
+     * @param deliveries the processed messages in delivery order
+     * @param acks the ack (true) or nack (false) decision for each delivery
+     * @throws TapisRuntimeException on broker errors
+     */
+    private void settle(List<DeliveryResponse> deliveries, boolean[] acks)
+     throws TapisRuntimeException
+    {
+      for (var settlement : getSettlements(deliveries, acks)) {
+        try {settlement.apply(_channel);}
+          catch (IOException e) {
+            String msg = MsgUtils.getMsg(settlement.ack() ? "JOBS_THREAD_ACK_ERROR" :
+                                                            "JOBS_THREAD_REJECT_ERROR",
+                                         Thread.currentThread().getName(),
+                                         Thread.currentThread().getId(),
+                                         getName(),
+                                         getQueueName(), 
+                                         e.getMessage());
+            _log.error(msg, e);
+          
+            // Failures here are fatal.
+            String msg2 = MsgUtils.getMsg("JOBS_READER_FATAL_BROKER_ERROR", getName(),
+                                          getQueueName(), e.getMessage());
+            _log.error(msg2, e);
+            throw new TapisRuntimeException(msg2, e);
+          }
+      }
+    }
+    
+    /* ---------------------------------------------------------------------------- */
+    /* getSettlements:                                                              */
+    /* ---------------------------------------------------------------------------- */
+    /** Determine the broker calls that settle a batch of deliveries.  Deliveries
+     * are settled in order, so each run of consecutive deliveries with the same
+     * decision is settled with a single cumulative call using the run's last
+     * delivery tag.  Acked messages are done and nacked messages are unreadable,
+     * so they're discarded or dead-lettered.  Deliveries without a decision are
+     * requeued one at a time since a cumulative call would also settle any 
+     * earlier unsettled tags.
+     * 
+     * @param deliveries the processed messages in delivery order
+     * @param acks the ack (true) or nack (false) decision for each delivery
+     * @return the settlements in the order they are applied
+     */
+    static List<Settlement> getSettlements(List<DeliveryResponse> deliveries, boolean[] acks)
+    {
+      var settlements = new ArrayList<Settlement>();
+      int count = Math.min(deliveries.size(), acks.length);
+      int runStart = 0;
+      for (int i = 0; i < count; i++) {
+        // Find the end of the current run.
+        if (i + 1 < count && acks[i + 1] == acks[i]) continue;
+        
+        // Settle this delivery and all earlier unsettled ones.
+        settlements.add(new Settlement(deliveries.get(i).envelope.getDeliveryTag(), 
+                                       i > runStart, acks[i], false));
+        runStart = i + 1;
+      }
+      
+      // Return the rest to the queue.
+      for (int i = count; i < deliveries.size(); i++)
+        settlements.add(new Settlement(deliveries.get(i).envelope.getDeliveryTag(), 
+                                       false, false, true));
+      return settlements;
+    }
+    
     /* ---------------------------------------------------------------------------- */
     /* getChannel:                                                                  */
     /* ---------------------------------------------------------------------------- */
@@ -336,9 +425,10 @@ public abstract class AbstractQueueReader
             }
         
           // Set the prefetch count so that the consumer using this 
-          // channel only receives the next request after the previous
-          // request has been acknowledged.
-          int prefetchCount = 1;
+          // channel receives the next request only after one of the
+          // outstanding requests has been acknowledged.  The local
+          // queue holds all outstanding requests.
+          int prefetchCount = getPrefetchCount();
           try {channel.basicQos(prefetchCount);}
               catch (IOException e) {
                   String msg = MsgUtils.getMsg("JOBS_WORKER_CHANNEL_PREFETCH_ERROR", 
@@ -346,6 +436,8 @@ public abstract class AbstractQueueReader
                   _log.error(msg, e);
                   throw new JobQueueException(msg, e);
               }
+          _prefetchCount = prefetchCount;
+          _deliveryQueue = new ArrayBlockingQueue<>(prefetchCount);
           
           // Get the tenant exchange name. 
           String exchangeName = getExchangeName();
@@ -408,6 +500,16 @@ public abstract class AbstractQueueReader
         return channel;
     }
 
+    /* ---------------------------------------------------------------------- */
+    /* getPrefetchCount:                                                      */
+    /* ---------------------------------------------------------------------- */
+    /** The prefetch parameter can lower, but not raise, the reader's maximum. */
+    private int getPrefetchCount()
+    {
+        int max = Math.max(1, getMaxPrefetchCount());
+        return _parms.prefetch > 0 ? Math.min(_parms.prefetch, max) : max;
+    }
+    
     /* ---------------------------------------------------------------------- */
     /* createConsumer:                                                        */
     /* ---------------------------------------------------------------------- */
@@ -484,4 +586,18 @@ public abstract class AbstractQueueReader
       
       return consumerTag;
     }
+    
+    /* **************************************************************************** */
+    /*                               Settlement Class                               */
+    /* **************************************************************************** */
+    /** A single ack, nack or reject call on the channel. */
+    record Settlement(long deliveryTag, boolean multiple, boolean ack, boolean requeue)
+    {
+        void apply(Channel channel) throws IOException
+        {
+            if (ack) channel.basicAck(deliveryTag, multiple);
+              else if (multiple || requeue) channel.basicNack(deliveryTag, multiple, requeue);
+              else channel.basicReject(deliveryTag, requeue);
+        }
+    }
 }
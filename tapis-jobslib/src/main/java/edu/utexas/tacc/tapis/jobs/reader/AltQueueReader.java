@@ -41,6 +41,9 @@ public final class AltQueueReader
     /* ********************************************************************** */
     // Tracing.
     private static final Logger _log = LoggerFactory.getLogger(AltQueueReader.class);
+    
+    // Alerts don't depend on message order.
+    private static final int MAX_PREFETCH_COUNT = 32;
 
     /* ********************************************************************** */
     /*                                 Fields                                 */
@@ -200,4 +203,10 @@ public final class AltQueueReader
     /* ---------------------------------------------------------------------- */
     @Override
     protected String getBindingKey() {return _parms.bindingKey;}
+
+    /* ---------------------------------------------------------------------- */
+    /* getMaxPrefetchCount:                                                   */
+    /* ---------------------------------------------------------------------- */
+    @Override
+    protected int getMaxPrefetchCount() {return MAX_PREFETCH_COUNT;}
 }
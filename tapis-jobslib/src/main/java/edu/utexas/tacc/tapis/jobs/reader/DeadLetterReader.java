@@ -46,6 +46,9 @@ public final class DeadLetterReader
     // Tracing.
     private static final Logger _log = LoggerFactory.getLogger(DeadLetterReader.class);
     
+    // Alerts don't depend on message order.
+    private static final int MAX_PREFETCH_COUNT = 32;
+    
     /* ********************************************************************** */
     /*                                 Fields                                 */
     /* ********************************************************************** */
@@ -203,4 +206,10 @@ public final class DeadLetterReader
     /* ---------------------------------------------------------------------- */
     @Override
     protected String getBindingKey() {return _parms.bindingKey;}
+
+    /* ---------------------------------------------------------------------- */
+    /* getMaxPrefetchCount:                                                   */
+    /* ---------------------------------------------------------------------- */
+    @Override
+    protected int getMaxPrefetchCount() {return MAX_PREFETCH_COUNT;}
 }
@@ -18,6 +18,7 @@ import edu.utexas.tacc.tapis.jobs.queue.DeliveryResponse;
 import edu.utexas.tacc.tapis.jobs.queue.JobQueueManager;
 import edu.utexas.tacc.tapis.jobs.queue.JobQueueManager.ExchangeUse;
 import edu.utexas.tacc.tapis.jobs.queue.JobQueueManagerNames;
+import edu.utexas.tacc.tapis.jobs.queue.messages.QueueMsgCodec;
 import edu.utexas.tacc.tapis.jobs.utils.JobUtils;
 import edu.utexas.tacc.tapis.notifications.client.NotificationsClient;
 import edu.utexas.tacc.tapis.notifications.client.gen.model.Event;
@@ -25,7 +26,6 @@ import edu.utexas.tacc.tapis.shared.TapisConstants;
 import edu.utexas.tacc.tapis.shared.i18n.MsgUtils;
 import edu.utexas.tacc.tapis.shared.security.ServiceContext;
 import edu.utexas.tacc.tapis.shared.security.TenantManager;
-import edu.utexas.tacc.tapis.shared.utils.TapisGsonUtils;
 import edu.utexas.tacc.tapis.tenants.client.gen.model.Tenant;
 
 /** This class reads serialized JobEvents placed on the event queue by the 
@@ -43,6 +43,14 @@ public final class EventReader
     // Tracing.
     private static final Logger _log = LoggerFactory.getLogger(EventReader.class);
     
+    // Events are still processed one at a time in delivery order, so 
+    // prefetching only saves a broker round trip per event.  A batch is 
+    // acknowledged after all its events are posted, so if this reader dies
+    // mid-batch up to MAX_PREFETCH_COUNT - 1 events that were already posted
+    // are redelivered and posted to Notifications again.  Set the reader's 
+    // prefetch parameter to 1 if duplicate notifications are not acceptable.
+    private static final int MAX_PREFETCH_COUNT = 32;
+    
     /* ********************************************************************** */
     /*                                 Fields                                 */
     /* ********************************************************************** */
@@ -158,7 +166,7 @@ public final class EventReader
         
         // Decode the input.
         JobEvent jobEvent = null;
-        try {jobEvent = TapisGsonUtils.getGson(true).fromJson(body, JobEvent.class);}
+        try {jobEvent = QueueMsgCodec.decodeJobEvent(body);}
             catch (Exception e) {
                 if (body.length() > JSON_DUMP_LEN) body = body.substring(0, JSON_DUMP_LEN - 1);
                 String msg = MsgUtils.getMsg("ALOE_JSON_PARSE_ERROR", getName(), body, e.getMessage());
@@ -242,6 +250,12 @@ public final class EventReader
     @Override
     protected String getBindingKey() {return _parms.bindingKey;}
 
+    /* ---------------------------------------------------------------------- */
+    /* getMaxPrefetchCount:                                                   */
+    /* ---------------------------------------------------------------------- */
+    @Override
+    protected int getMaxPrefetchCount() {return MAX_PREFETCH_COUNT;}
+
     /* ********************************************************************** */
     /*                             Private Methods                            */
     /* ********************************************************************** */
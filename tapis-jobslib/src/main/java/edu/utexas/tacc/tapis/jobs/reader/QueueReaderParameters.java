@@ -38,6 +38,11 @@ final class QueueReaderParameters
             metaVar = "<binding key>", usage = "Key to bind queue or topic to exchange")
     public String bindingKey = JobQueueManagerNames.DEFAULT_BINDING_KEY;;
     
+    // Zero means use the reader's maximum.
+    @Option(name = "-p", required = false, aliases = {"-prefetch"}, 
+            metaVar = "<count>", usage = "Maximum unacknowledged messages, limited by the reader")
+    public int prefetch;
+    
     @Option(name = "-help", aliases = {"--help"}, 
             usage = "display help information")
     public boolean help;
@@ -133,5 +138,12 @@ final class QueueReaderParameters
           _log.error(msg);
           throw new JobInputException(msg);
       }
+      
+      // Negative prefetch counts are not allowed.
+      if (prefetch < 0) {
+          String msg = MsgUtils.getMsg("TAPIS_INVALID_PARAMETER", "validateParms", "prefetch", prefetch);
+          _log.error(msg);
+          throw new JobInputException(msg);
+      }
     }
 }
\ No newline at end of file
@@ -22,6 +22,7 @@ import edu.utexas.tacc.tapis.jobs.queue.DeliveryResponse;
 import edu.utexas.tacc.tapis.jobs.queue.JobQueueManager;
 import edu.utexas.tacc.tapis.jobs.queue.JobQueueManagerNames;
 import edu.utexas.tacc.tapis.jobs.queue.JobQueueManager.ExchangeUse;
+import edu.utexas.tacc.tapis.jobs.queue.messages.QueueMsgCodec;
 import edu.utexas.tacc.tapis.jobs.queue.messages.recover.JobCancelRecoverMsg;
 import edu.utexas.tacc.tapis.jobs.queue.messages.recover.JobRecoverMsg;
 import edu.utexas.tacc.tapis.jobs.queue.messages.recover.RecoverMsg;
@@ -38,7 +39,6 @@ import edu.utexas.tacc.tapis.shared.security.ServiceContext;
 import edu.utexas.tacc.tapis.shared.security.TenantManager;
 import edu.utexas.tacc.tapis.shared.ssh.apache.SSHConnection;
 import edu.utexas.tacc.tapis.shared.utils.HTMLizer;
-import edu.utexas.tacc.tapis.shared.utils.TapisGsonUtils;
 import edu.utexas.tacc.tapis.tenants.client.gen.model.Tenant;
 
 /** This class drives all job recovery by servicing messages placed on the 
@@ -247,9 +247,9 @@ public final class RecoveryReader
               return false;
           }
       
-      // Decode the input.
+      // Decode the input into the class designated by its type.
       RecoverMsg recoverMsg = null;
-      try {recoverMsg = TapisGsonUtils.getGson(true).fromJson(body, RecoverMsg.class);}
+      try {recoverMsg = QueueMsgCodec.decodeRecoverMsg(body);}
           catch (Exception e) {
               if (body.length() > JSON_DUMP_LEN) body = body.substring(0, JSON_DUMP_LEN - 1);
               String msg = MsgUtils.getMsg("ALOE_JSON_PARSE_ERROR", getName(), body, e.getMessage());
@@ -264,8 +264,7 @@ public final class RecoveryReader
           return false;
       }
       
-      // Determine the precise command type, populate an object of that type
-      // and then call the command-specific processor.
+      // Call the message-specific processor.
       boolean ack = true;
       try {
           // Any work done by this thread is done with exclusive access to the database.
@@ -273,13 +272,13 @@ public final class RecoveryReader
           {
               switch (recoverMsg.getMsgType()) {
                   case RECOVER:  
-                      ack = processMsg(TapisGsonUtils.getGson(true).fromJson(body, JobRecoverMsg.class));
+                      ack = processMsg((JobRecoverMsg) recoverMsg);
                       break;
                   case CANCEL_RECOVER: 
-                      ack = processMsg(TapisGsonUtils.getGson(true).fromJson(body, JobCancelRecoverMsg.class));
+                      ack = processMsg((JobCancelRecoverMsg) recoverMsg);
                       break;
                   case RECOVER_SHUTDOWN: 
-                      ack = processMsg(TapisGsonUtils.getGson(true).fromJson(body, RecoverShutdownMsg.class));
+                      ack = processMsg((RecoverShutdownMsg) recoverMsg);
                       break;
                   default:
                       ack = processMsg(recoverMsg); // This should not happen.
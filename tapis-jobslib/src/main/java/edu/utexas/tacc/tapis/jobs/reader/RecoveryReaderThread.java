@@ -96,8 +96,8 @@ public final class RecoveryReaderThread
                 break;
             }
             
-            // Let the recovery manager incorporate the new recovery message
-            // if one is returned and process all recovery actions that are due.
+            // A new recovery record has already been persisted, so its arrival
+            // just wakes us to process all recovery actions that are due.
             // This thread executes its recovery task with exclusive database
             // access.
             synchronized (_reader.getDBLock()) {mgr.recover(jobRecovery);}
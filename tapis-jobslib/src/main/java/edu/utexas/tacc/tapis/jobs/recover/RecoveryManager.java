@@ -2,11 +2,7 @@ package edu.utexas.tacc.tapis.jobs.recover;
 
 import java.time.Instant;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
-import java.util.ListIterator;
-import java.util.TreeSet;
 import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.StringUtils;
@@ -21,7 +17,6 @@ import edu.utexas.tacc.tapis.jobs.exceptions.JobRecoveryExpiredException;
 import edu.utexas.tacc.tapis.jobs.model.Job;
 import edu.utexas.tacc.tapis.jobs.model.JobBlocked;
 import edu.utexas.tacc.tapis.jobs.model.JobRecovery;
-import edu.utexas.tacc.tapis.jobs.model.JobRecovery.NextAttemptComparator;
 import edu.utexas.tacc.tapis.jobs.model.enumerations.JobStatusType;
 import edu.utexas.tacc.tapis.jobs.queue.JobQueueManager;
 import edu.utexas.tacc.tapis.jobs.queue.messages.recover.JobCancelRecoverMsg;
@@ -35,13 +30,18 @@ import edu.utexas.tacc.tapis.shared.i18n.MsgUtils;
  * tester assigned in those objects.  It also handles job recovery cancellation
  * requests. 
  * 
- * The public methods of this class are synchronized, ensuring that only a single thread 
- * of execution will be running this class's code at a time.  Since this class is a 
- * singleton, only one recovery test at a time will run no matter how many threads
- * the calling class uses.  Though not expected, if recovery tests take a long time 
- * and JobRecovery messages regularly backup, an implementation of this class allowing 
- * greater concurrency might become necessary.  For now, the simple thread-safe 
- * approach using synchronized methods should suffice. 
+ * Recovery state lives only in the job_recovery and job_blocked tables, which
+ * serve as a work queue ordered by next attempt time.  Recovery records are
+ * claimed when their next attempt time arrives by leasing them, which pushes 
+ * their next attempt time into the future until they're rescheduled or deleted.
+ * Claims skip records that other readers have locked, so any number of recovery
+ * readers can share the work, and a reader that dies with claimed records only
+ * delays their recovery until the lease expires.  Nothing is loaded or cached
+ * when this class is created.
+ * 
+ * Within a reader, recovery and cancellation are serialized by the reader's 
+ * database lock, so only one recovery test at a time will run no matter how 
+ * many threads the calling class uses. 
  * 
  * @author rcardone
  */
@@ -56,6 +56,16 @@ public final class RecoveryManager
     // Wake up interval when there are no recovery records.
     private static final long DEFAULT_SLEEP_MILLIS = 3600000;  // 1 hour
     
+    // Wake up interval after a failed database query.
+    private static final long ERROR_SLEEP_MILLIS = 60000;      // 1 minute
+    
+    // The maximum number of due recovery records claimed at once.
+    private static final int CLAIM_LIMIT = 4;
+    
+    // How long claimed records are leased before other readers can claim
+    // them, which should exceed the time it takes to process a claim.
+    private static final long LEASE_MILLIS = 900000;           // 15 minutes
+    
     /* ********************************************************************** */
     /*                                 Fields                                 */
     /* ********************************************************************** */
@@ -65,18 +75,6 @@ public final class RecoveryManager
     // Reference to the reader that ultimately spawned this instance.
     private final RecoveryReader _recoveryReader;
     
-    // The set of recovery jobs in next attempt order 
-    // (from soonest to latest next attempt time).
-    private final TreeSet<JobRecovery> _recoveryJobs;
-    
-    // Index into the _recoveryJob set for lookup by testerHash.
-    // Key = testerHash, value = job recovery object.
-    private final HashMap<String,JobRecovery> _testerHashIndex;
-    
-    // Index into the _recoveryJob set for lookup by job uuid.
-    // Key = job uuid, value = job recovery object.
-    private final HashMap<String,JobRecovery> _jobUuidIndex;
-    
     // Reuse the dao's.
     private final JobsDao        _jobsDao;
     private final JobRecoveryDao _recoveryDao;
@@ -93,19 +91,9 @@ public final class RecoveryManager
         // Save the reference to the reader that created us.
         _recoveryReader = rdr;
         
-        // Create the ordered set of recovery jobs. 
-        _recoveryJobs = new TreeSet<>(new NextAttemptComparator());
-        
-        // Create the indices into the recovery jobs set.
-        _testerHashIndex = new HashMap<>();
-        _jobUuidIndex    = new HashMap<>();
-        
         // Get the dao object.
         _jobsDao = new JobsDao();
         _recoveryDao = new JobRecoveryDao();
-        
-        // Initialize this object from the database.
-        initialize();
     }
     
     /* ********************************************************************** */
@@ -139,18 +127,20 @@ public final class RecoveryManager
     /* getMillisToWakeUp:                                                     */
     /* ---------------------------------------------------------------------- */
     /** This method returns the number of milliseconds until the earliest next
-     * attempt should be tried for any recovery record.
-     * 
-     * When this method runs, it must be the only thread accessing the recovery
-     * data structures.
+     * attempt should be tried for any recovery record, including records 
+     * leased by any reader.  
      * 
      * @return the milliseconds to wait before the next recovery test should be performed
      */
-    public synchronized long getMillisToWakeUp()
+    public long getMillisToWakeUp()
     {
         // Get the earliest wake up time.
-        JobRecovery first = null;
-        if (!_recoveryJobs.isEmpty()) first = _recoveryJobs.first();
+        Instant first = null;
+        try {first = _recoveryDao.getNextAttempt();}
+            catch (Exception e) {
+                _log.error(e.getMessage(), e);
+                return ERROR_SLEEP_MILLIS;
+            }
         
         // Calculate wake up time.
         long millisToWakeUp;
@@ -158,8 +148,7 @@ public final class RecoveryManager
          else {
             // Get the future wake up time in millis given the current time.
             long nowMillis = Instant.now().toEpochMilli();
-            long firstMillis = first.getNextAttempt().toEpochMilli();
-            millisToWakeUp = Math.max(0, firstMillis - nowMillis);
+            millisToWakeUp = Math.max(0, first.toEpochMilli() - nowMillis);
          }
         
         // Return the number of milliseconds to sleep.
@@ -170,46 +159,38 @@ public final class RecoveryManager
     /* recover:                                                               */
     /* ---------------------------------------------------------------------- */
     /** The manager tries to recover all jobs whose recovery records have a 
-     * next attempt time that has already past.  If the recoveryMsg parameter is
-     * not null, then the message is used to insert a new job recovery record into
-     * the recovery set before processing ready records.
+     * next attempt time that has already past.  If the newJobRecovery parameter
+     * is not null, it's a record that has just been persisted by the reader and
+     * it's processed when its next attempt time arrives like any other record.
      * 
-     * When this method runs, it must be the only thread accessing the recovery
-     * data structures.
+     * Due records are claimed from the database in small batches until none 
+     * remain.  Records whose blocking condition hasn't cleared are rescheduled
+     * and the rest are deleted, so every claimed record leaves the due set. 
      * 
-     * @param recoverMsg a new recovery record or null if this is just a wake up call.
+     * @param newJobRecovery a new recovery record or null if this is just a wake up call.
      */
-    public synchronized void recover(JobRecovery newJobRecovery)
+    public void recover(JobRecovery newJobRecovery)
     {
-        // Add the new job recovery object to set of
-        // recoverable jobs if one was passed in.
-        addRecoveryJob(newJobRecovery);
-        
-        // Get the recovery job with the earliest next attempt time,
-        // removing the record from the set.
-        JobRecovery curJobRecovery = _recoveryJobs.pollFirst();
-        if (curJobRecovery == null) return;  // quick return
-        
         // Execute all tests whose next attempt time has arrived.
-        while (curJobRecovery != null &&
-               curJobRecovery.getNextAttempt().isBefore(Instant.now()))
-        {
-            // Recover one or more jobs if the failure condition cleared.
-            doRecover(curJobRecovery);
-            
-            // Re-insert the current recovery job into the set if it 
-            // still contains blocked jobs. This occurs when the some
-            // of the jobs were resubmitted, but not all.
-            if (!curJobRecovery.getBlockedJobs().isEmpty())
-                _recoveryJobs.add(curJobRecovery);
+        while (true) {
+            // Claim the next batch of due records.
+            List<JobRecovery> claimed;
+            try {
+                Instant leaseExpiry = Instant.now().plusMillis(LEASE_MILLIS);
+                claimed = _recoveryDao.claimDueRecoveries(CLAIM_LIMIT, leaseExpiry);
+            }
+            catch (Exception e) {
+                _log.error(e.getMessage(), e);
+                return;
+            }
+            if (claimed.isEmpty()) return;
             
-            // Set up for the next iteration.
-            curJobRecovery = _recoveryJobs.pollFirst();
+            // Recover one or more jobs if the failure condition cleared.
+            // Records left without blocked jobs are simply deleted.
+            for (JobRecovery jobRecovery : claimed) 
+                if (jobRecovery.getBlockedJobs().isEmpty()) deleteJobRecovery(jobRecovery);
+                  else doRecover(jobRecovery);
         }
-        
-        // Put the last recovery job back in the set since
-        // we got here because its attempt time has not arrived.
-        if (curJobRecovery != null) _recoveryJobs.add(curJobRecovery);
     }
     
     /* ---------------------------------------------------------------------- */
@@ -219,12 +200,12 @@ public final class RecoveryManager
      * job's recovery is cancelled, return true, otherwise return false.
      * 
      * This method runs on a short-lived thread and runs concurrent to the
-     * main recovery thread.  Since cancellation requires reading and 
-     * writing the recovery data structures, this method run a in mutually
-     * exclusive way to all other recovery threads.
+     * main recovery thread.  The caller holds the reader's database lock, so
+     * cancellation is mutually exclusive with the reader's other recovery 
+     * threads. 
      * 
      * NOTE: We don't try to kill the actual job on the remote system, we
-     *       just clean up our persistent and in-memory data structures.
+     *       just clean up our persistent data structures.
      *       Jobs that are queued or running on the remote system probably
      *       won't get blocked, so there's no point in trying to kill them.
      *       If this approach becomes undesirable, see AbstractJobKiller
@@ -233,11 +214,16 @@ public final class RecoveryManager
      * @param cancelMsg asynchronous message to cancel a job's recovery 
      * @return true if recovery is cancelled, false otherwise
      */
-    public synchronized boolean cancelRecovery(JobCancelRecoverMsg cancelMsg)
+    public boolean cancelRecovery(JobCancelRecoverMsg cancelMsg)
     {
         // Check that the job is in recovery.
         if (cancelMsg == null) return false;
-        JobRecovery jobRecovery = _jobUuidIndex.get(cancelMsg.jobUuid);
+        JobRecovery jobRecovery = null;
+        try {jobRecovery = _recoveryDao.getRecoveryByJobUuid(cancelMsg.jobUuid);}
+            catch (Exception e) {
+                _log.error(e.getMessage(), e);
+                return false;
+            }
         if (jobRecovery == null) {
             // The job is not in recovery
             String msg = MsgUtils.getMsg("JOBS_RECOVERY_JOB_NOT_FOUND", cancelMsg.jobUuid);
@@ -255,9 +241,9 @@ public final class RecoveryManager
         
         // Is the job in recovery?
         if (blockedJob == null) {
-            // The job is not in recovery even though its indexed. This should never happen.
+            // The job was unblocked between queries.
             String msg = MsgUtils.getMsg("JOBS_RECOVERY_JOB_NOT_FOUND", cancelMsg.jobUuid);
-            _log.error(msg);
+            _log.info(msg);
             return false;
         }
         
@@ -279,9 +265,8 @@ public final class RecoveryManager
             result = false;
         } 
 
-        // Always remove the blocked job from our data structures.
-        // Note that the recovery record is not null at this point.
-        deleteBlockedJob(blockedJob.getJobUuid(), jobRecovery);
+        // Always remove the blocked job from recovery.
+        deleteBlockedJobs(jobRecovery, List.of(blockedJob.getJobUuid()));
         
         // The job was in recovery and is not now.
         return result;
@@ -290,58 +275,6 @@ public final class RecoveryManager
     /* ********************************************************************** */
     /*                            Private Methods                             */
     /* ********************************************************************** */
-    /* ---------------------------------------------------------------------- */
-    /* initialize:                                                            */
-    /* ---------------------------------------------------------------------- */
-    /** Initialize data structures that contain all the blocked jobs and 
-     * recovery information needed to unblock those jobs.
-     * 
-     * @throws JobException if initialization fails
-     */
-    private void initialize() 
-     throws JobException
-    {
-        // Read all recovery wait records from the database.
-        // This should not be a memory problem since we don't
-        // expect an inordinate number of jobs to be in the 
-        // wait state at any moment.  If this assumption turns
-        // out not to be true, we'll have to come up with 
-        // something more sophisticated.
-        List<JobRecovery> list = null;
-        try {list = _recoveryDao.getRecoveryJobs();}
-            catch (Exception e) {
-                String msg = MsgUtils.getMsg("JOBS_RECOVERY_DB_QUERY_ERROR", "recovery", 
-                                             e.getMessage());
-                _log.error(msg, e);
-                throw new JobException(msg, e);
-            }
-        
-        // Fill in the specific blocked job information in each recovery object 
-        // and then add the recovery object to our recovery set and indices. If
-        // there's a failure on any specific recovery record, that record's skipped
-        // and processing continues.
-        long curRecoveryId = 0;
-        for (JobRecovery jobRecovery : list) 
-        {
-            // Squirrel away the id for use in error message.
-            curRecoveryId = jobRecovery.getId();
-            try {
-                // Populate the blocked job list for the recovery job. An index on
-                // jobs_blocked prevents a job from appearing more than once in the table.
-                List<JobBlocked> blockedJobs = _recoveryDao.getBlockedJobs(curRecoveryId);
-                jobRecovery.addBlockedJobs(blockedJobs);
-                
-                // Record this recovery job in the manager's fields.
-                addRecoveryJob(jobRecovery);
-            }
-            catch (Exception e) {
-                String msg = MsgUtils.getMsg("JOBS_RECOVERY_SELECT_BLOCKED_ERROR", curRecoveryId, 
-                                             e.getMessage());
-                _log.error(msg, e);
-            }
-        }
-    }
-    
     /* ---------------------------------------------------------------------- */
     /* doRecover:                                                             */
     /* ---------------------------------------------------------------------- */
@@ -361,8 +294,7 @@ public final class RecoveryManager
             // Log the error.
             _log.error(makeInvalidJobMsg(jobRecovery, e), e);
             
-            // Fail all blocked jobs in this recovery record. By not placing
-            // the record back in the recovery set it is discarded.
+            // Fail all blocked jobs in this recovery record and delete it.
             failAllBlockedJobs(jobRecovery, e.getMessage());
             return;
         }
@@ -374,8 +306,7 @@ public final class RecoveryManager
                 // Log the error.
                 _log.error(makeInvalidJobMsg(jobRecovery, e), e);
                 
-                // Fail all blocked jobs in this recovery record. By not placing
-                // the record back in the recovery set it is discarded.
+                // Fail all blocked jobs in this recovery record and delete it.
                 failAllBlockedJobs(jobRecovery, e.getMessage());
                 return;
             }
@@ -388,195 +319,63 @@ public final class RecoveryManager
     }
     
     /* ---------------------------------------------------------------------- */
-    /* addRecoveryJob:                                                        */
+    /* deleteBlockedJobs:                                                     */
     /* ---------------------------------------------------------------------- */
-    /** Add the recovery job to our next-attempt-time sorted set.  We want to
-     * make sure that (1) jobs are coalesced with others blocked on the same
-     * condition and (2) no job appears more than once in the set.  We also
-     * guarentee that no new job can be added unless it has a valid id.  
+    /** Delete blocked jobs from their recovery record in the database and in
+     * the recovery object.  The recovery record is deleted once it contains no
+     * more blocked jobs, including jobs blocked on the same condition since the
+     * record was claimed.
      * 
-     * @param jobRecovery
+     * @param jobRecovery the recovery record of the jobs that are no longer recovering
+     * @param jobUuids the jobs that are no longer recovering
      */
-    private void addRecoveryJob(JobRecovery jobRecovery)
+    private void deleteBlockedJobs(JobRecovery jobRecovery, List<String> jobUuids)
     {
-        // Is there any thing to add?
-        if (jobRecovery == null) return;
-        
-        // Firewall against incomplete recovery objects.  We make sure there is NO WAY that
-        // a recovery job object can be placed in the internal set without a valid id.
-        if (jobRecovery.getId() <= 0) {
-            String msg = MsgUtils.getMsg("JOBS_BAD_RECOVERY_ID", jobRecovery.getTenantId(), 
-                                         jobRecovery.getConditionCode().name(), 
-                                         jobRecovery.getTesterHash(), jobRecovery.getId());
-            _log.error(msg);
-            return;
-        }
-        
-        // Ignore any job that is already referenced by some recovery job. This
-        // shouldn't happen since once a job is blocked it does not have any
-        // opportunity to be blocked again.  We make note and move on if this
-        // invariant is violated.
-        HashSet<String> newJobUuids = new HashSet<>();
-        List<JobBlocked> blockedJobs = jobRecovery.getBlockedJobs();
-        ListIterator<JobBlocked> it = blockedJobs.listIterator();
-        while (it.hasNext()) {
-            // Remove any job that's already recovering.
-            JobBlocked blockedJob = it.next();
-            if (_jobUuidIndex.containsKey(blockedJob.getJobUuid()) || 
-                newJobUuids.contains(blockedJob.getJobUuid())) 
-            {
-                it.remove();
-                String msg = MsgUtils.getMsg("JOBS_RECOVERY_DUPLICATE_JOB", 
-                                             blockedJob.getJobUuid(), 
-                                             jobRecovery.getId(),
-                                             jobRecovery.getConditionCode().name());
-                _log.warn(msg);
-            } else {
-                // Add the ones we are going to keep in our local set
-                // as a guard against duplicate in the input recovery job.
-                newJobUuids.add(blockedJob.getJobUuid());
-            }
-        }
-        
-        // Is there anything to recover?
-        if (blockedJobs.isEmpty()) return;
-        
-        // Determine if other jobs are already blocked on the same condition.
-        JobRecovery existingJobRecovery = _testerHashIndex.get(jobRecovery.getTesterHash());
-        if (existingJobRecovery == null) {
-            // Add the new job recovery object to the set.
-            _recoveryJobs.add(jobRecovery);
-            
-            // Update the indices for the new recovery record and each of its blocked jobs.
-            _testerHashIndex.put(jobRecovery.getTesterHash(), jobRecovery);
-            for (JobBlocked blockedJob : jobRecovery.getBlockedJobs())
-                _jobUuidIndex.put(blockedJob.getJobUuid(), jobRecovery);
-        }
-        else {
-            // Add the jobs to the existing recovery object's blocked list.
-            // Note that duplicates have already been removed, so it's safe
-            // to just add the jobs to the existing recovery record's list.
-            for (JobBlocked blockedJob : jobRecovery.getBlockedJobs()) {
-                existingJobRecovery.addBlockedJob(blockedJob);
-                
-                // Add the blocked job to the index.
-                _jobUuidIndex.put(blockedJob.getJobUuid(), existingJobRecovery);
-            }
-        }
-    }
-    
-    /* ---------------------------------------------------------------------- */
-    /* deleteBlockedJob:                                                      */
-    /* ---------------------------------------------------------------------- */
-    /** Delete a blocked job from its recovery job records.  If the record
-     * contains no more blocked jobs, delete it.  All indices associated with 
-     * the blocked job and, if necessary, the recovery job record are also
-     * cleaned up.
-     * 
-     * @param jobUuid the job that is no longer recovering
-     */
-    private void deleteBlockedJob(String jobUuid, JobRecovery jobRecovery)
-    {
-        // Tracing.
-        if (_log.isDebugEnabled()) {
-            String msg = MsgUtils.getMsg("JOBS_RECOVERY_DELETING_BLOCKED_JOB", jobUuid);
-            _log.debug(msg);
-        }
-        
-        // The recovery record should not be null.
-        if (jobRecovery == null) {
-            String msg = MsgUtils.getMsg("JOBS_RECOVERY_NULL_RECOVERY_RECORD", jobUuid);
-            _log.error(msg);
-            return;
-        }
-        
-        // Delete the blocked job record.
-        List<JobBlocked> blockedJobs = jobRecovery.getBlockedJobs();
-        ListIterator<JobBlocked> it = blockedJobs.listIterator();
-        while (it.hasNext()) {
-            JobBlocked blockedJob = it.next();
-            if (jobUuid.equals(blockedJob.getJobUuid())) {
-                it.remove();
-                break;
-            }
+        // Delete the persistent blocked job records and, if it's empty, the recovery record.
+        try {_recoveryDao.deleteBlockedJobs(jobRecovery.getId(), jobRecovery.getTenantId(), jobUuids);}
+        catch (Exception e) {
+            String s = StringUtils.join(jobUuids, ", ");
+            String msg = MsgUtils.getMsg("JOBS_RECOVERY_INVALID_JOB", jobRecovery.getId(),
+                                         jobRecovery.getTenantId(), s, e.getMessage());
+            _log.error(msg, e);
         }
         
-        // Delete the job uuid index.
-        _jobUuidIndex.remove(jobUuid);
-        
-        // Delete the persistent blocked job record.
-        try {_recoveryDao.deleteBlockedJob(jobUuid);}
-        catch (Exception e) {} // already logged
-        
-        // Remove the whole recovery record if no jobs are associated with it.
-        if (blockedJobs.isEmpty()) deleteJobRecovery(jobRecovery);
+        // Remove the jobs from the recovery object.
+        jobRecovery.getBlockedJobs().removeIf(blockedJob -> jobUuids.contains(blockedJob.getJobUuid()));
     }
     
     /* ---------------------------------------------------------------------- */
     /* deleteJobRecovery:                                                     */
     /* ---------------------------------------------------------------------- */
-    /** Delete all references to a recovery record other than this method's 
-     * parameter reference.  Basically, this means deleting all references to
-     * to the record from the _jobUuidIndex map and all such references in the
-     * _testerHashIndex.  
-     * 
-     * We assume that the jobRecovery object is not in the _recoveryJobs set
-     * when this method is called. This assumption means the record will be 
-     * garbage collected after this method completes and no other references
-     * to it are left on the call stack.
-     * 
-     * It's imperative to clear any blocked jobs from the blocked jobs array
-     * so that the recovery record is not retained by high-level recover()
-     * method.
+    /** Delete all blocked jobs in a claimed recovery record and the record 
+     * itself.  Jobs blocked on the same condition since the record was claimed 
+     * are not deleted and neither is the record that contains them; they are 
+     * processed when the record's lease expires.
      * 
      * @param jobRecovery the record to delete
      */
     private void deleteJobRecovery(JobRecovery jobRecovery)
     {
-        // Tracing.
-        if (_log.isDebugEnabled()) {
-            String msg = MsgUtils.getMsg("JOBS_RECOVERY_DELETING_RECOVERY_RECORD", jobRecovery.getId(), jobRecovery.getTenantId());
-            _log.debug(msg);
-        }
-        
-        // Delete all index mappings from jobUuid to recovery record.
-        for (JobBlocked blockedJob : jobRecovery.getBlockedJobs())
-            _jobUuidIndex.remove(blockedJob.getJobUuid());
-        
-        // Delete the index mapping from tester hash to recovery record.
-        _testerHashIndex.remove(jobRecovery.getTesterHash());
-        
-        // Delete the persistent recovery records and its blocked job records.
-        try {_recoveryDao.deleteJobRecovery(jobRecovery.getId(), jobRecovery.getTenantId());}
-        catch (Exception e) {
-            List<String> blockedUuids = 
-                jobRecovery.getBlockedJobs().stream().map(JobBlocked::getJobUuid).collect(Collectors.toList());
-            String s = StringUtils.join(blockedUuids, ", ");
-            String msg = MsgUtils.getMsg("JOBS_RECOVERY_INVALID_JOB", jobRecovery.getId(),
-                                         jobRecovery.getTenantId(), s, e.getMessage());
-            _log.error(msg, e);
-        }
-        
-        // Clear all block jobs so the record cannot be resurrected
-        // in the top-level recover() method.
-        jobRecovery.getBlockedJobs().clear();
+        List<String> blockedUuids = 
+            jobRecovery.getBlockedJobs().stream().map(JobBlocked::getJobUuid).collect(Collectors.toList());
+        deleteBlockedJobs(jobRecovery, blockedUuids);
     }
     
     /* ---------------------------------------------------------------------- */
     /* reblockUserJobs:                                                       */
     /* ---------------------------------------------------------------------- */
     /** This method is called when the blocking condition has not cleared up
-     * and the job recovery record needs to be re-inserted in the recovery set.
-     * We first need to calculate the next attempt time.  If that calculation
-     * fails, the job recovery process has expired and all jobs blocked on the
-     * condition are put in the failed state.
+     * and the job recovery record needs to be rescheduled.  We first need to 
+     * calculate the next attempt time.  If that calculation fails, the job 
+     * recovery process has expired and all jobs blocked on the condition are 
+     * put in the failed state.
      * 
-     * The updated attempt information is saved to the recovery table so that
-     * recovery can pick up where it left off if a restart occurs.  If the 
-     * database record cannot be updated, recovery continues with the idea that
-     * future updates will resynchronize the persistent and in-memory data.
+     * The updated attempt information is saved to the recovery table, which
+     * replaces the claim's lease with the next attempt time.  If the database
+     * record cannot be updated, the record is tried again when its lease
+     * expires.
      * 
-     * @param jobRecovery the recovery record to be re-inserted in the recovery set
+     * @param jobRecovery the claimed recovery record to be rescheduled
      */
     private void reblockUserJobs(JobRecovery jobRecovery)
     {
@@ -597,19 +396,16 @@ public final class RecoveryManager
                                              jobRecovery.getId(), jobRecovery.getTenantId());
                 _log.warn(msg, e);
             } 
-        
-        // Add the updated recovery record to the next-attempt-time sorted set.
-        _recoveryJobs.add(jobRecovery);
     }
     
     /* ---------------------------------------------------------------------- */
     /* resubmitUserJobs:                                                      */
     /* ---------------------------------------------------------------------- */
-    /** An attempt is made to resubmit each job in the blocked job list of the 
-     * recovery record. Whether resubmission succeeds or not, all blocked jobs
-     * exit recovery processing after this method completes.  In fact, the job
-     * recovery record itself is available for garbage collection after this 
-     * method executes.
+    /** An attempt is made to resubmit up to unblockCount jobs in the blocked 
+     * job list of the recovery record. Whether resubmission succeeds or not, 
+     * those jobs exit recovery processing after this method completes.  The
+     * recovery record is deleted if no blocked jobs remain, otherwise it's 
+     * made due again immediately.
      * 
      * Zombie Warning
      * --------------
@@ -709,14 +505,21 @@ public final class RecoveryManager
         }
         
         // ---------------------- Clean Up ---------------------------
-        // Remove the resubmitted jobs from our data structures and the database.
-        // As an optimization, we can delete the whole recovery record if the all
-        // blocked jobs were processed (resubmitted or failed).
-        if (resubmitCount == totalBlockedJobs) deleteJobRecovery(jobRecovery);
-          else {
-             // Delete each individual blocked job that was processed.
-             for (String jobUuid : processedList) deleteBlockedJob(jobUuid, jobRecovery);
-          }
+        // Remove the processed jobs (resubmitted or failed) from the database,
+        // which also deletes the recovery record if no blocked jobs remain.
+        deleteBlockedJobs(jobRecovery, processedList);
+        
+        // Make the jobs that are still blocked due again right away by replacing 
+        // the claim's lease.  If the update fails, they're due when it expires.
+        if (!jobRecovery.getBlockedJobs().isEmpty()) {
+            jobRecovery.setNextAttempt(Instant.now());
+            try {_recoveryDao.updateAttempts(jobRecovery);}
+                catch (Exception e) {
+                    String msg = MsgUtils.getMsg("JOBS_RECOVERY_INGORE_UPDATE_ERROR",
+                                                 jobRecovery.getId(), jobRecovery.getTenantId());
+                    _log.warn(msg, e);
+                } 
+        }
     }
     
     /* ---------------------------------------------------------------------- */
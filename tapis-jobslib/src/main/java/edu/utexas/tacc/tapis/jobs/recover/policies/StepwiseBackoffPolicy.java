@@ -30,8 +30,10 @@ public final class StepwiseBackoffPolicy
     // The steps to try represented as <numTries, millisecond delay> tuples.
     private final List<Pair<Integer,Long>>        _steps;
     
-    // The time of the first try and last allowed try.  
-    // Initialized by initFields() on first millisToWait call.
+    // The time of the first try and last allowed try.  The first try is
+    // when the recovery record was created, since a new policy object is
+    // created each time the record is claimed.  Initialized by initFields() 
+    // on first millisToWait call.
     private Instant                               _firstTry;
     private Instant                               _lastTry;
     private Pair<Integer,Long>                    _curStep;
@@ -121,8 +123,8 @@ public final class StepwiseBackoffPolicy
      */
     private void initFields(Instant now)
     {
-        // Set the elapsed time fields.
-        _firstTry = now;
+        // Set the elapsed time fields from the persisted creation time.
+        _firstTry = _jobRecovery.getCreated() == null ? now : _jobRecovery.getCreated();
         if (_parms.getMaxElapsedSeconds() <= 0) _lastTry = Instant.MAX;
          else _lastTry  = _firstTry.plusSeconds(_parms.getMaxElapsedSeconds()); 
         
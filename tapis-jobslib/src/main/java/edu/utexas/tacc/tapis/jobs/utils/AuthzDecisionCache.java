@@ -0,0 +1,218 @@
+package edu.utexas.tacc.tapis.jobs.utils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/** Short-lived cache of the authorization decisions that the Jobs API obtains
+ * from SK when users read jobs they don't own:  whether a user is a tenant
+ * administrator and whether a job has been shared with a user.  A dashboard
+ * that refreshes many jobs otherwise makes the same SK calls over and over.
+ *
+ * Both positive and negative decisions are cached, each with its own time to
+ * live.  Failed SK calls are never cached.  When this process shares or
+ * unshares a job, it invalidates the grantee's decisions on that job so that
+ * the change takes effect immediately.  Changes made through other processes
+ * or directly in SK take effect when the cached decision expires.
+ *
+ * @author rcardone
+ */
+public final class AuthzDecisionCache
+{
+    /* ********************************************************************** */
+    /*                               Constants                                */
+    /* ********************************************************************** */
+    // Default times to live.
+    public static final long DEFAULT_ADMIN_TTL_MILLIS    = 60000;
+    public static final long DEFAULT_SHARE_TTL_MILLIS    = 30000;
+    public static final long DEFAULT_NEGATIVE_TTL_MILLIS = 15000;
+    public static final int  DEFAULT_CACHE_ENTRIES       = 20000;
+
+    // Key prefixes.
+    private static final String ADMIN_PREFIX = "admin|";
+    private static final String SHARE_PREFIX = "share|";
+
+    /* ********************************************************************** */
+    /*                                Fields                                  */
+    /* ********************************************************************** */
+    // Singleton instance of this class.
+    private static AuthzDecisionCache _instance;
+
+    // Configuration.
+    private final long _adminTtlMillis;
+    private final long _shareTtlMillis;
+    private final long _negativeTtlMillis;
+    private final int  _maxCacheEntries;
+
+    // Decisions keyed by type, tenant, user and resource, LRU order.
+    private final LinkedHashMap<String,Decision> _cache;
+
+    // Incremented on each invalidation so that decisions retrieved before
+    // an invalidation are not recorded after it.
+    private long _generation;
+
+    // Statistics.
+    private long _hits;
+    private long _misses;
+
+    /* ********************************************************************** */
+    /*                                Records                                 */
+    /* ********************************************************************** */
+    private record Decision(boolean allowed, long expires) {}
+
+    /* ********************************************************************** */
+    /*                                Interfaces                              */
+    /* ********************************************************************** */
+    /** Make the remote authorization call on a cache miss. */
+    @FunctionalInterface
+    public interface DecisionLoader<E extends Exception>
+    {
+        boolean load() throws E;
+    }
+
+    /* ********************************************************************** */
+    /*                             Constructors                               */
+    /* ********************************************************************** */
+    /* ---------------------------------------------------------------------- */
+    /* constructor:                                                           */
+    /* ---------------------------------------------------------------------- */
+    public AuthzDecisionCache(long adminTtlMillis, long shareTtlMillis,
+                              long negativeTtlMillis, int maxCacheEntries)
+    {
+        _adminTtlMillis    = adminTtlMillis;
+        _shareTtlMillis    = shareTtlMillis;
+        _negativeTtlMillis = negativeTtlMillis;
+        _maxCacheEntries   = maxCacheEntries;
+        _cache = new LinkedHashMap<>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String,Decision> eldest)
+            {return size() > _maxCacheEntries;}
+        };
+    }
+
+    /* ********************************************************************** */
+    /*                             Public Methods                             */
+    /* ********************************************************************** */
+    /* ---------------------------------------------------------------------- */
+    /* getInstance:                                                           */
+    /* ---------------------------------------------------------------------- */
+    public static AuthzDecisionCache getInstance()
+    {
+        // Create the singleton instance if necessary.
+        if (_instance == null) {
+            synchronized (AuthzDecisionCache.class) {
+                if (_instance == null)
+                    _instance = new AuthzDecisionCache(DEFAULT_ADMIN_TTL_MILLIS, DEFAULT_SHARE_TTL_MILLIS,
+                                                       DEFAULT_NEGATIVE_TTL_MILLIS, DEFAULT_CACHE_ENTRIES);
+            }
+        }
+        return _instance;
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* isAdmin:                                                               */
+    /* ---------------------------------------------------------------------- */
+    /** Determine whether the user is a tenant administrator.
+     *
+     * @param tenant the user's tenant
+     * @param user the user
+     * @param loader calls SK on a cache miss
+     * @return the cached or retrieved decision
+     * @throws E the loader's exception, which is not cached
+     */
+    public <E extends Exception> boolean isAdmin(String tenant, String user,
+                                                 DecisionLoader<E> loader)
+     throws E
+    {
+        return get(ADMIN_PREFIX + tenant + "|" + user, _adminTtlMillis, loader);
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* hasSharePrivilege:                                                     */
+    /* ---------------------------------------------------------------------- */
+    /** Determine whether the job has been shared with the user.
+     *
+     * @param tenant the job's tenant
+     * @param user the grantee
+     * @param jobUuid the job
+     * @param resourceType the shared job resource
+     * @param privilege the shared privilege
+     * @param loader calls SK on a cache miss
+     * @return the cached or retrieved decision
+     * @throws E the loader's exception, which is not cached
+     */
+    public <E extends Exception> boolean hasSharePrivilege(String tenant, String user,
+                                                           String jobUuid, String resourceType,
+                                                           String privilege, DecisionLoader<E> loader)
+     throws E
+    {
+        String key = makeSharePrefix(tenant, user, jobUuid) + resourceType + "|" + privilege;
+        return get(key, _shareTtlMillis, loader);
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* invalidateShare:                                                       */
+    /* ---------------------------------------------------------------------- */
+    /** Discard all of the grantee's share decisions on the job.
+     *
+     * @param tenant the job's tenant
+     * @param user the grantee
+     * @param jobUuid the job
+     */
+    public synchronized void invalidateShare(String tenant, String user, String jobUuid)
+    {
+        String prefix = makeSharePrefix(tenant, user, jobUuid);
+        _generation++;
+        _cache.keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* accessors:                                                             */
+    /* ---------------------------------------------------------------------- */
+    public synchronized long getHits() {return _hits;}
+    public synchronized long getMisses() {return _misses;}
+    public synchronized int size() {return _cache.size();}
+
+    /* ********************************************************************** */
+    /*                            Private Methods                             */
+    /* ********************************************************************** */
+    /* ---------------------------------------------------------------------- */
+    /* get:                                                                   */
+    /* ---------------------------------------------------------------------- */
+    /** Return an unexpired decision or call the loader without holding the
+     * lock and record its decision unless an invalidation occurred meanwhile.
+     */
+    private <E extends Exception> boolean get(String key, long ttlMillis,
+                                              DecisionLoader<E> loader)
+     throws E
+    {
+        // Check the cache.
+        long generation;
+        synchronized (this) {
+            var decision = _cache.get(key);
+            if (decision != null && decision.expires() > System.currentTimeMillis()) {
+                _hits++;
+                return decision.allowed();
+            }
+            _misses++;
+            generation = _generation;
+        }
+
+        // Make the remote call and record its decision.
+        boolean allowed = loader.load();
+        long ttl = allowed ? ttlMillis : Math.min(ttlMillis, _negativeTtlMillis);
+        synchronized (this) {
+            if (generation == _generation)
+                _cache.put(key, new Decision(allowed, System.currentTimeMillis() + ttl));
+        }
+        return allowed;
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* makeSharePrefix:                                                       */
+    /* ---------------------------------------------------------------------- */
+    private String makeSharePrefix(String tenant, String user, String jobUuid)
+    {
+        return SHARE_PREFIX + tenant + "|" + user + "|" + jobUuid + "|";
+    }
+}
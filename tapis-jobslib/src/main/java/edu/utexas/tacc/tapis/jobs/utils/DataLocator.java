@@ -1,5 +1,6 @@
 package edu.utexas.tacc.tapis.jobs.utils;
 
+import java.io.IOException;
 import java.util.List;
 
 import org.apache.commons.lang3.StringUtils;
@@ -32,6 +33,23 @@ public class DataLocator {
     /* ********************************************************************** */
     private final Job _job;
    
+    /* ********************************************************************** */
+    /*                               Interfaces                               */
+    /* ********************************************************************** */
+    /** Retrieve one page of a recursive output listing from the Files service. */
+    @FunctionalInterface
+    public interface OutputPageReader
+    {
+        List<FileInfo> read(int limit, int skip) throws TapisClientException;
+    }
+    
+    /** Receive each page of an output listing as soon as it's retrieved. */
+    @FunctionalInterface
+    public interface OutputPageWriter
+    {
+        void write(List<FileInfo> page) throws IOException;
+    }
+    
     /* ********************************************************************** */
     /*                              Constructors                              */
     /* ********************************************************************** */
@@ -108,6 +126,81 @@ public class DataLocator {
     	return outputList;
      }
      
+     /* ---------------------------------------------------------------------- */
+     /* streamJobOutputListings:                                               */
+     /* ---------------------------------------------------------------------- */
+     /** Retrieve a recursive output listing from Files one page at a time and 
+      * pass each page to the writer before the next page is requested.  At most
+      * one page of entries is held in memory no matter how large the listing.
+      * 
+      * @param jobOutputInfo the output system and path
+      * @param tenant the caller's tenant
+      * @param user the caller
+      * @param limit the maximum number of entries, negative for no limit
+      * @param skip the number of entries to skip
+      * @param pageSize the maximum number of entries requested from Files at a time
+      * @param impersonationId the user Files should impersonate or null
+      * @param isSharedAppCtx whether the job ran in a shared application context
+      * @param writer receives each non-empty page
+      * @return the number of entries written
+      * @throws TapisImplException on Files errors
+      * @throws IOException on writer errors
+      */
+     public long streamJobOutputListings(JobOutputInfo jobOutputInfo, String tenant, 
+                                         String user, int limit, int skip, int pageSize,
+                                         String impersonationId, boolean isSharedAppCtx,
+                                         OutputPageWriter writer) 
+      throws TapisImplException, IOException
+     {
+         // Get the File Service client.
+         final boolean recursiveFlag = true;
+         FilesClient filesClient = getServiceClient(FilesClient.class, user, tenant);
+         OutputPageReader reader = (pageLimit, pageSkip) -> 
+             filesClient.listFiles(jobOutputInfo.getSystemId(), jobOutputInfo.getSystemUrl(), 
+                                   pageLimit, pageSkip, recursiveFlag, impersonationId, isSharedAppCtx);
+         return pageJobOutputListings(jobOutputInfo, reader, limit, skip, pageSize, writer);
+     }
+     
+     /* ---------------------------------------------------------------------- */
+     /* pageJobOutputListings:                                                 */
+     /* ---------------------------------------------------------------------- */
+     /** Page through a listing using the reader and pass each page to the writer.
+      * Paging stops when the limit is reached or Files returns a short page.
+      * 
+      * @return the number of entries written
+      */
+     public long pageJobOutputListings(JobOutputInfo jobOutputInfo, OutputPageReader reader,
+                                       int limit, int skip, int pageSize, 
+                                       OutputPageWriter writer)
+      throws TapisImplException, IOException
+     {
+         long written = 0;
+         long remaining = limit < 0 ? Long.MAX_VALUE : limit;
+         int  offset = Math.max(skip, 0);
+         while (remaining > 0) {
+             int pageLimit = (int) Math.min(pageSize, remaining);
+             List<FileInfo> page;
+             try {page = reader.read(pageLimit, offset);}
+             catch (TapisClientException e) {
+                 String msg = MsgUtils.getMsg("FILES_REMOTE_FILESLIST_ERROR", 
+                         jobOutputInfo.getSystemId(),  jobOutputInfo.getSystemUrl(), 
+                         pageLimit, offset, _job.getOwner(), _job.getTenant(), e.getCode());
+                 throw new TapisImplException(msg, e, e.getCode());
+             }
+             if (page == null || page.isEmpty()) break;
+             
+             // Hand off the page so that it can be released before the next read.
+             writer.write(page);
+             written   += page.size();
+             remaining -= page.size();
+             offset    += page.size();
+             if (page.size() < pageLimit) break;
+         }
+         
+         _log.debug("Number of Job output files streamed: " + written);
+         return written;
+     }
+     
      /* ---------------------------------------------------------------------- */
      /* getJobOutputDownload:                                                  */
      /* ---------------------------------------------------------------------- */
@@ -0,0 +1,319 @@
+package edu.utexas.tacc.tapis.jobs.utils;
+
+import java.util.ArrayDeque;
+import java.util.LinkedHashMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/** This class admits launch requests to hosts at no more than a configured
+ * rate per host.  Each host allows "limit" launches in any sliding window of
+ * "seconds" duration, the same policy that a Throttle enforces.  Instead of
+ * rejecting requests that exceed the rate, callers are parked until a launch
+ * permit frees up in the window, so no caller needs to sleep and retry.
+ *
+ * Parked requests wait in a FIFO queue per tenant, and each host grants its
+ * permits to its tenants in round-robin order.  A tenant that submits a large
+ * batch of jobs to a host therefore receives its fair share of the host's
+ * launch rate without delaying other tenants' launches behind the whole batch.
+ *
+ * Design Note
+ * -----------
+ * Each host has its own lock.  Only the request at the head of the host's
+ * round-robin order waits for the window to free up; it takes the permit and
+ * then signals the request that has become the head.  All other requests wait
+ * to be signaled, so a grant wakes exactly one thread.  Requests that arrive
+ * when no one is waiting and a permit is available are admitted immediately.
+ *
+ * The launch times of a host are kept in a ring of "limit" slots since only
+ * the most recent "limit" launches can delay the next one.  Hosts are never
+ * removed, which is fine for the small number of execution hosts a worker
+ * launches on and keeps their metrics available.
+ *
+ * @author rcardone
+ */
+public final class LaunchAdmissionController
+{
+    /* ********************************************************************** */
+    /*                                Records                                 */
+    /* ********************************************************************** */
+    /** A snapshot of a host's queue depth and cumulative wait times.
+     *
+     * @param queued the number of requests currently waiting
+     * @param admitted the number of requests admitted
+     * @param delayed the number of admitted requests that had to wait
+     * @param totalWaitMillis the total time admitted requests waited
+     * @param maxWaitMillis the longest time an admitted request waited
+     */
+    public record HostMetrics(int queued, long admitted, long delayed,
+                              long totalWaitMillis, long maxWaitMillis) {}
+
+    /* ********************************************************************** */
+    /*                                 Fields                                 */
+    /* ********************************************************************** */
+    // The name of this controller.
+    private final String _name;
+
+    // The sliding time window duration in seconds.
+    private final int    _seconds;
+
+    // The maximum number of launches allowed on a host in the time window.
+    private final int    _limit;
+
+    // The admission state of each host.
+    private final ConcurrentHashMap<String,HostQueue> _hosts = new ConcurrentHashMap<>();
+
+    /* ********************************************************************** */
+    /*                              Constructors                              */
+    /* ********************************************************************** */
+    /* ---------------------------------------------------------------------- */
+    /* constructor:                                                           */
+    /* ---------------------------------------------------------------------- */
+    /** Construct a controller that admits at most limit launches per host in
+     * any window of the given number of seconds.
+     *
+     * @param name of this controller
+     * @param seconds the number of seconds in the sliding window
+     * @param limit the maximum number of launches on a host in the window
+     */
+    public LaunchAdmissionController(String name, int seconds, int limit)
+    {
+        _name    = name;
+        _seconds = seconds;
+        _limit   = Math.max(limit, 1);
+    }
+
+    /* ********************************************************************** */
+    /*                               Accessors                                */
+    /* ********************************************************************** */
+    public String getName(){return _name;}
+    public int getSeconds(){return _seconds;}
+    public int getLimit(){return _limit;}
+    public Set<String> getHosts(){return _hosts.keySet();}
+
+    /* ********************************************************************** */
+    /*                             Public Methods                             */
+    /* ********************************************************************** */
+    /* ---------------------------------------------------------------------- */
+    /* acquire:                                                               */
+    /* ---------------------------------------------------------------------- */
+    /** Wait until a launch on the host is admitted.  Requests from the same
+     * tenant are admitted in arrival order, and each host admits its waiting
+     * tenants' requests in round-robin order.
+     *
+     * @param host the host on which the launch will take place
+     * @param tenant the tenant that owns the launch
+     * @return the number of milliseconds the request waited
+     * @throws InterruptedException if interrupted while waiting, in which case
+     *                              the request is withdrawn
+     */
+    public long acquire(String host, String tenant)
+     throws InterruptedException
+    {
+        var queue = _hosts.computeIfAbsent(host, k -> new HostQueue());
+        return queue.acquire(tenant);
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* getQueueDepth:                                                         */
+    /* ---------------------------------------------------------------------- */
+    /** Get the number of requests waiting to launch on a host. */
+    public int getQueueDepth(String host)
+    {
+        var queue = _hosts.get(host);
+        return queue == null ? 0 : queue.getQueued();
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* getQueueDepth:                                                         */
+    /* ---------------------------------------------------------------------- */
+    /** Get the number of requests waiting to launch on all hosts. */
+    public int getQueueDepth()
+    {
+        int depth = 0;
+        for (var queue : _hosts.values()) depth += queue.getQueued();
+        return depth;
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* getMetrics:                                                            */
+    /* ---------------------------------------------------------------------- */
+    /** Get a host's queue depth and wait time metrics.
+     *
+     * @param host the launch host
+     * @return the host's metrics or null if nothing has launched on the host
+     */
+    public HostMetrics getMetrics(String host)
+    {
+        var queue = _hosts.get(host);
+        return queue == null ? null : queue.getMetrics();
+    }
+
+    /* ********************************************************************** */
+    /*                            HostQueue Class                             */
+    /* ********************************************************************** */
+    /** The launch times and waiting requests of a single host. */
+    private final class HostQueue
+    {
+        // Guards all fields.
+        private final ReentrantLock _lock = new ReentrantLock();
+
+        // The ring of launch times in nanoseconds and the number of launches.
+        private final long[] _times = new long[_limit];
+        private long         _launches;
+
+        // The waiting requests of each tenant in round-robin order.  The
+        // first tenant's first request is the head.
+        private final LinkedHashMap<String,ArrayDeque<Waiter>> _tenants = new LinkedHashMap<>();
+        private int          _queued;
+
+        // Metrics.
+        private long         _admitted;
+        private long         _delayed;
+        private long         _totalWaitNanos;
+        private long         _maxWaitNanos;
+
+        /* ---------------------------------------------------------------------- */
+        /* acquire:                                                               */
+        /* ---------------------------------------------------------------------- */
+        private long acquire(String tenant)
+         throws InterruptedException
+        {
+            final long start = System.nanoTime();
+            _lock.lock();
+            try {
+                // Admit immediately if no one's ahead of us.
+                if (_queued == 0 && nanosUntilPermit(start) <= 0) {
+                    admit(start, start);
+                    return 0;
+                }
+
+                // Wait in our tenant's queue.
+                var waiter = new Waiter(tenant, _lock.newCondition());
+                _tenants.computeIfAbsent(tenant, k -> new ArrayDeque<>()).addLast(waiter);
+                _queued++;
+                try {
+                    while (true) {
+                        // Only the head waits for the window to free up.
+                        if (waiter != head()) {waiter.ready.await(); continue;}
+                        long now = System.nanoTime();
+                        long delay = nanosUntilPermit(now);
+                        if (delay <= 0) break;
+                        waiter.ready.awaitNanos(delay);
+                    }
+                }
+                catch (InterruptedException e) {
+                    // Withdraw and pass the head position on if we held it.
+                    boolean wasHead = waiter == head();
+                    remove(waiter, false);
+                    if (wasHead) signalHead();
+                    throw e;
+                }
+
+                // Take the permit and let the next request become the head.
+                long now = System.nanoTime();
+                remove(waiter, true);
+                admit(start, now);
+                signalHead();
+                return TimeUnit.NANOSECONDS.toMillis(now - start);
+            }
+            finally {
+                _lock.unlock();
+            }
+        }
+
+        /* ---------------------------------------------------------------------- */
+        /* nanosUntilPermit:                                                      */
+        /* ---------------------------------------------------------------------- */
+        /** The launch whose slot the next launch overwrites must have left the
+         * window before a permit is available.
+         */
+        private long nanosUntilPermit(long now)
+        {
+            if (_launches < _limit) return 0;
+            long oldest = _times[(int) (_launches % _limit)];
+            return oldest + TimeUnit.SECONDS.toNanos(_seconds) - now;
+        }
+
+        /* ---------------------------------------------------------------------- */
+        /* admit:                                                                 */
+        /* ---------------------------------------------------------------------- */
+        private void admit(long start, long now)
+        {
+            _times[(int) (_launches++ % _limit)] = now;
+            _admitted++;
+            long waitNanos = now - start;
+            if (waitNanos > 0) {
+                _delayed++;
+                _totalWaitNanos += waitNanos;
+                _maxWaitNanos = Math.max(_maxWaitNanos, waitNanos);
+            }
+        }
+
+        /* ---------------------------------------------------------------------- */
+        /* head:                                                                  */
+        /* ---------------------------------------------------------------------- */
+        private Waiter head()
+        {
+            var it = _tenants.values().iterator();
+            return it.hasNext() ? it.next().peekFirst() : null;
+        }
+
+        /* ---------------------------------------------------------------------- */
+        /* remove:                                                                */
+        /* ---------------------------------------------------------------------- */
+        /** Remove a waiter from its tenant's queue.  When rotate is true and
+         * the tenant still has waiting requests, the tenant moves to the end of
+         * the round-robin order.
+         */
+        private void remove(Waiter waiter, boolean rotate)
+        {
+            var queue = _tenants.get(waiter.tenant());
+            queue.remove(waiter);
+            if (queue.isEmpty() || rotate) _tenants.remove(waiter.tenant());
+            if (!queue.isEmpty() && rotate) _tenants.put(waiter.tenant(), queue);
+            _queued--;
+        }
+
+        /* ---------------------------------------------------------------------- */
+        /* signalHead:                                                            */
+        /* ---------------------------------------------------------------------- */
+        private void signalHead()
+        {
+            var head = head();
+            if (head != null) head.ready.signal();
+        }
+
+        /* ---------------------------------------------------------------------- */
+        /* getQueued:                                                             */
+        /* ---------------------------------------------------------------------- */
+        private int getQueued()
+        {
+            _lock.lock();
+            try {return _queued;}
+            finally {_lock.unlock();}
+        }
+
+        /* ---------------------------------------------------------------------- */
+        /* getMetrics:                                                            */
+        /* ---------------------------------------------------------------------- */
+        private HostMetrics getMetrics()
+        {
+            _lock.lock();
+            try {
+                return new HostMetrics(_queued, _admitted, _delayed,
+                                       TimeUnit.NANOSECONDS.toMillis(_totalWaitNanos),
+                                       TimeUnit.NANOSECONDS.toMillis(_maxWaitNanos));
+            }
+            finally {_lock.unlock();}
+        }
+    }
+
+    /* ********************************************************************** */
+    /*                              Waiter Class                              */
+    /* ********************************************************************** */
+    /** A parked request and the condition it waits on. */
+    private record Waiter(String tenant, Condition ready) {}
+}
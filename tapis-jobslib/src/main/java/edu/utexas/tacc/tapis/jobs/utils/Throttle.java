@@ -1,34 +1,36 @@
 package edu.utexas.tacc.tapis.jobs.utils;
 
-import java.time.Instant;
-import java.util.Iterator;
-import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 /** This class maintains a history of insertion times that can signify any event
- * that a caller wants to limit within a specified time period.  For example, 
- * each time a thread is restarted, a call to insert a timestamp can be made on 
- * this class.  The insert will succeed if the maximum number of inserts would 
+ * that a caller wants to limit within a specified time period.  For example,
+ * each time a thread is restarted, a call to insert a timestamp can be made on
+ * this class.  The insert will succeed if the maximum number of inserts would
  * not be exceeded within the configured, sliding time period.
- * 
+ *
  * This class is constructed with a duration in seconds that defines the sliding
  * window period and a limit of the number of times record() can be called
  * within that window.
- * 
+ *
  * Design Note
  * -----------
- * The use of a concurrent double ended queue (dequeue) without further 
- * synchronization does not guarantee that the sequence of timestamps are in perfect
- * descending order from head to tail.  The removeExpiredElements() assumes that
- * timestamps later in time appear closer to the head, but this may not be true
- * when multiple threads call record() at nearly the same time.  
- * 
- * The actual consequence of out of order timestamps should not be significant since
- * race conditions would place temporally close timestamps near each other in the
- * dequeue.  removeExpiredElements() might not remove all possible timestamps
- * on a given call, but would with all likelihood make up for it on its next
- * invocation.  The use of an ordered set such as a ConcurrentSkipListSet would 
- * avoid this phenomenon but incur a higher insertion cost.      
- * 
+ * Only the most recent "limit" insertion times can affect whether the next
+ * insertion is allowed, so the times are kept in a fixed size ring indexed by
+ * insertion sequence number.  Insertion n is allowed if insertion n - limit,
+ * whose time occupies the slot that insertion n will overwrite, fell outside
+ * the window.  The sequence number is claimed with a compare-and-set, so no
+ * locks are taken and exactly "limit" insertions are allowed in any window no
+ * matter how many threads call record() at the same time.  Memory use is fixed
+ * at construction and expired times are simply overwritten, so there's nothing
+ * to clean up.
+ *
+ * A slot's time is written after its sequence number is claimed.  Each slot
+ * also records the sequence number of the insertion whose time it holds so
+ * that a reader never mistakes a stale time for the time of an insertion still
+ * in progress.  An insertion in progress is treated as occurring now.
+ *
  * @author rcardone
  */
 public final class Throttle
@@ -38,13 +40,21 @@ public final class Throttle
     /* ********************************************************************** */
     // The sliding time window duration that we track in seconds.
     private final int _seconds;
-    
+
     // The maximum number of insertions allowed in the time window.
     private final int _limit;
-    
-    // The repository of insertion times in descending order (latest to earliest).
-    private final ConcurrentLinkedDeque<Instant> _times;
-    
+
+    // The window duration in nanoseconds.
+    private final long _windowNanos;
+
+    // The number of insertions so far, which is the next sequence number.
+    private final AtomicLong _count;
+
+    // The ring of insertion times in nanoseconds, indexed by sequence number
+    // modulo the ring size, and the sequence number each slot's time belongs to.
+    private final AtomicLongArray _times;
+    private final AtomicLongArray _seqs;
+
     /* ********************************************************************** */
     /*                              Constructors                              */
     /* ********************************************************************** */
@@ -52,9 +62,9 @@ public final class Throttle
     /* constructor:                                                           */
     /* ---------------------------------------------------------------------- */
     /** Construct a throttle that indicates whether a limit has been exceeded
-     * in the most recent time period start now and extending "seconds" into 
+     * in the most recent time period start now and extending "seconds" into
      * the past.
-     * 
+     *
      * @param seconds the number of seconds in the sliding window
      * @param limit the maximum number of times record() can be called in the window
      */
@@ -62,7 +72,14 @@ public final class Throttle
     {
         _seconds = seconds;
         _limit = limit;
-        _times = new ConcurrentLinkedDeque<Instant>();
+        _windowNanos = TimeUnit.SECONDS.toNanos(seconds);
+        _count = new AtomicLong();
+
+        // No slot has been written.
+        int slots = Math.max(limit, 1);
+        _times = new AtomicLongArray(slots);
+        _seqs  = new AtomicLongArray(slots);
+        for (int i = 0; i < slots; i++) _seqs.set(i, -1);
     }
 
     /* ********************************************************************** */
@@ -70,60 +87,70 @@ public final class Throttle
     /* ********************************************************************** */
     public int getSeconds(){return _seconds;}
     public int getLimit(){return _limit;}
-    public int getQueueLength() {return _times.size();} // Beware of overhead 
-    public boolean isEmpty() {return _times.isEmpty();}
-    
+    public int getQueueLength() {return countInWindow(System.nanoTime());} // Beware of overhead
+    public boolean isEmpty() {return getQueueLength() == 0;}
+
     /* ********************************************************************** */
     /*                             Public Methods                             */
     /* ********************************************************************** */
     /* ---------------------------------------------------------------------- */
     /* record:                                                                */
     /* ---------------------------------------------------------------------- */
-    /** Add a new time record to the list if the limit hasn't been exceeded.
-     * 
+    /** Add a new time record if the limit hasn't been exceeded.
+     *
      * @return true if a record was added, false if the limit was exceeded and
      *         no record was added
      */
     public boolean record()
     {
-        // Remove all timestamps that fall outside the time window.
-        removeExpiredElements();
-        
-        // Determine if there's room on the dequeue for another timestamp.
-        if (_times.size() >= _limit) return false;
-        
-        // Insert an new timestamp.
-        _times.addFirst(Instant.now());
-        return true;
+        if (_limit <= 0) return false;
+
+        while (true) {
+            // Check the insertion whose slot we'd overwrite.
+            long seq = _count.get();
+            long now = System.nanoTime();
+            if (seq >= _limit && !isExpired(seq - _limit, now)) return false;
+
+            // Claim the sequence number, then record the time.
+            if (_count.compareAndSet(seq, seq + 1)) {
+                int slot = (int) (seq % _times.length());
+                _times.set(slot, now);
+                _seqs.set(slot, seq);
+                return true;
+            }
+        }
     }
-    
+
     /* ********************************************************************** */
-    /*                            Package Methods                             */
+    /*                            Private Methods                             */
     /* ********************************************************************** */
     /* ---------------------------------------------------------------------- */
-    /* removeExpiredElements:                                                 */
+    /* isExpired:                                                             */
     /* ---------------------------------------------------------------------- */
-    /** Remove time records that fall outside the sliding window. Package access
-     * for testing.
+    /** Determine whether an insertion fell outside the window.  An insertion
+     * whose time hasn't been written yet is in progress and so is not expired.
      */
-    void removeExpiredElements()
+    private boolean isExpired(long seq, long now)
     {
-        // Maybe there's nothing to check.
-        if (_times.isEmpty()) return;
-        
-        // Get the current time.
-        Instant oldest = Instant.now().minusSeconds(_seconds); 
-        
-        // Remove elements from the end of the queue (the oldest) 
-        // until one is found within the configured window.  Given
-        // that we insert at the head of the queue, once we find
-        // an element within the window, all previous ones can be
-        // assumed to be within the window, too.
-        Iterator<Instant> it = _times.descendingIterator();
-        while (it.hasNext()) {
-            Instant curElement = it.next();
-            if (curElement.isBefore(oldest)) it.remove();
-             else break; // no need to check earlier timestamps.
-        }
+        int slot = (int) (seq % _times.length());
+        if (_seqs.get(slot) != seq) return false;
+        return now - _times.get(slot) >= _windowNanos;
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* countInWindow:                                                         */
+    /* ---------------------------------------------------------------------- */
+    /** Count the insertions within the window, which can only be the most
+     * recent "limit" insertions.
+     */
+    private int countInWindow(long now)
+    {
+        long seq = _count.get();
+        if (_limit <= 0) return 0;
+
+        int count = 0;
+        for (long s = Math.max(0, seq - _limit); s < seq; s++)
+            if (!isExpired(s, now)) count++;
+        return count;
     }
 }
@@ -0,0 +1,287 @@
+package edu.utexas.tacc.tapis.jobs.utils;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.JsonObject;
+
+import edu.utexas.tacc.tapis.client.shared.exceptions.TapisClientException;
+import edu.utexas.tacc.tapis.files.client.gen.model.TransferStatusEnum;
+import edu.utexas.tacc.tapis.files.client.gen.model.TransferTask;
+import edu.utexas.tacc.tapis.shared.exceptions.TapisImplException;
+import edu.utexas.tacc.tapis.shared.i18n.MsgUtils;
+
+/** Resolve the Files transfer task summaries displayed in job history.  A
+ * history page can reference many transfer tasks, so rather than retrieving
+ * them one at a time, this class de-duplicates the transfer ids and retrieves
+ * them concurrently on a bounded thread pool.  All retrievals for a request
+ * must complete within the request deadline.
+ *
+ * Summaries of transfers in a terminal state never change, so they are cached
+ * by tenant and transfer id.  The transfer ids come from the events of a job
+ * that the requestor has already been authorized to view.
+ *
+ * @author rcardone
+ */
+public final class TransferSummaryResolver
+{
+    /* ********************************************************************** */
+    /*                               Constants                                */
+    /* ********************************************************************** */
+    // Tracing.
+    private static final Logger _log = LoggerFactory.getLogger(TransferSummaryResolver.class);
+
+    // Default configuration.
+    public static final int  DEFAULT_THREADS         = 8;
+    public static final long DEFAULT_DEADLINE_MILLIS = 30000;
+    public static final int  DEFAULT_CACHE_ENTRIES   = 10000;
+
+    // Returned when a Files call exceeds the deadline or fails without an
+    // http status of its own.
+    public static final int HTTP_GATEWAY_TIMEOUT       = 504;
+    public static final int HTTP_INTERNAL_SERVER_ERROR = 500;
+
+    // Thread naming.
+    private static final String THREAD_PREFIX = "JobsTransferSummary-";
+
+    /* ********************************************************************** */
+    /*                                Fields                                  */
+    /* ********************************************************************** */
+    // Singleton instance of this class.
+    private static TransferSummaryResolver _instance;
+
+    // Configuration.
+    private final long _deadlineMillis;
+    private final int  _maxCacheEntries;
+
+    // The bounded pool on which Files is called.
+    private final ExecutorService _executor;
+
+    // Terminal transfer summaries keyed by tenant and transfer id, LRU order.
+    private final LinkedHashMap<String,JsonObject> _cache;
+
+    /* ********************************************************************** */
+    /*                                Interfaces                              */
+    /* ********************************************************************** */
+    /** Retrieve a transfer task, typically by calling
+     * FilesClient.getTransferTaskHistory(). Implementations are called
+     * concurrently.
+     */
+    @FunctionalInterface
+    public interface TransferTaskFetcher
+    {
+        TransferTask fetch(String transferId) throws TapisClientException;
+    }
+
+    /* ********************************************************************** */
+    /*                             Constructors                               */
+    /* ********************************************************************** */
+    /* ---------------------------------------------------------------------- */
+    /* constructor:                                                           */
+    /* ---------------------------------------------------------------------- */
+    public TransferSummaryResolver(int threads, long deadlineMillis, int maxCacheEntries)
+    {
+        _deadlineMillis  = deadlineMillis;
+        _maxCacheEntries = maxCacheEntries;
+        _cache = new LinkedHashMap<>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String,JsonObject> eldest)
+            {return size() > _maxCacheEntries;}
+        };
+
+        // Daemon threads that time out when idle.
+        var threadNum = new AtomicInteger();
+        var executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<Runnable>(), r -> {
+                var thread = new Thread(r, THREAD_PREFIX + threadNum.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        executor.allowCoreThreadTimeOut(true);
+        _executor = executor;
+    }
+
+    /* ********************************************************************** */
+    /*                             Public Methods                             */
+    /* ********************************************************************** */
+    /* ---------------------------------------------------------------------- */
+    /* getInstance:                                                           */
+    /* ---------------------------------------------------------------------- */
+    public static TransferSummaryResolver getInstance()
+    {
+        // Create the singleton instance if necessary.
+        if (_instance == null) {
+            synchronized (TransferSummaryResolver.class) {
+                if (_instance == null)
+                    _instance = new TransferSummaryResolver(DEFAULT_THREADS, DEFAULT_DEADLINE_MILLIS,
+                                                            DEFAULT_CACHE_ENTRIES);
+            }
+        }
+        return _instance;
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* resolve:                                                               */
+    /* ---------------------------------------------------------------------- */
+    /** Retrieve the summaries of the transfer ids.  The result maps each
+     * distinct, non-null transfer id to its summary, which is an empty json
+     * object if Files returned no task.  The first failure in transfer id
+     * order is reported.
+     *
+     * @param transferIds the transfer ids, possibly with duplicates and nulls
+     * @param fetcher retrieves one transfer task from Files
+     * @param jobUuid the job whose history is being displayed
+     * @param user the requesting user
+     * @param tenant the requesting user's tenant
+     * @return the summaries keyed by transfer id
+     * @throws TapisImplException on Files errors or when the deadline expires
+     */
+    public Map<String,JsonObject> resolve(Collection<String> transferIds,
+                                          TransferTaskFetcher fetcher,
+                                          String jobUuid, String user, String tenant)
+     throws TapisImplException
+    {
+        // Serve what we can from the cache and schedule the rest.
+        var summaries = new LinkedHashMap<String,JsonObject>();
+        var futures   = new LinkedHashMap<String,Future<TransferTask>>();
+        for (var transferId : transferIds) {
+            if (transferId == null || summaries.containsKey(transferId) ||
+                futures.containsKey(transferId))
+               continue;
+            var cached = getCached(tenant, transferId);
+            if (cached != null) summaries.put(transferId, cached);
+              else futures.put(transferId, _executor.submit(() -> fetcher.fetch(transferId)));
+        }
+
+        // Collect the results within the deadline.
+        long deadline = System.currentTimeMillis() + _deadlineMillis;
+        try {
+            for (var entry : futures.entrySet()) {
+                String transferId = entry.getKey();
+                TransferTask task;
+                try {
+                    long remaining = Math.max(0, deadline - System.currentTimeMillis());
+                    task = entry.getValue().get(remaining, TimeUnit.MILLISECONDS);
+                }
+                catch (TimeoutException e) {
+                    String msg = MsgUtils.getMsg("FILES_TRANSFER_HISTORY_RETRIEVE_ERROR",
+                                     transferId, jobUuid, user, tenant, HTTP_GATEWAY_TIMEOUT);
+                    throw new TapisImplException(msg, e, HTTP_GATEWAY_TIMEOUT);
+                }
+                catch (ExecutionException e) {
+                    int code = HTTP_INTERNAL_SERVER_ERROR;
+                    if (e.getCause() instanceof TapisClientException)
+                        code = ((TapisClientException)e.getCause()).getCode();
+                    String msg = MsgUtils.getMsg("FILES_TRANSFER_HISTORY_RETRIEVE_ERROR",
+                                                 transferId, jobUuid, user, tenant, code);
+                    throw new TapisImplException(msg, e.getCause(), code);
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    String msg = MsgUtils.getMsg("FILES_TRANSFER_HISTORY_RETRIEVE_ERROR",
+                                                 transferId, jobUuid, user, tenant, 
+                                                 HTTP_INTERNAL_SERVER_ERROR);
+                    throw new TapisImplException(msg, e, HTTP_INTERNAL_SERVER_ERROR);
+                }
+
+                // Save the summary.
+                var summary = toSummary(transferId, task);
+                summaries.put(transferId, summary);
+                if (task != null && isTerminal(task.getStatus())) putCached(tenant, transferId, summary);
+            }
+        }
+        finally {
+            // Don't leave abandoned calls running after a failure.
+            for (var future : futures.values()) future.cancel(true);
+        }
+
+        if (_log.isDebugEnabled())
+            _log.debug("Resolved " + summaries.size() + " transfer summaries for job " + jobUuid +
+                       " with " + futures.size() + " Files calls.");
+        return summaries;
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* toSummary:                                                             */
+    /* ---------------------------------------------------------------------- */
+    /** Create the json summary of a transfer task as displayed in job history.
+     *
+     * @param transferId the task id
+     * @param transferTask the task or null
+     * @return the summary, empty if the task is null
+     */
+    public static JsonObject toSummary(String transferId, TransferTask transferTask)
+    {
+        var transferSummary = new JsonObject();
+        if (transferTask == null) return transferSummary;
+
+        transferSummary.addProperty("uuid",transferId);
+        transferSummary.addProperty("status",transferTask.getStatus().getValue());
+        transferSummary.addProperty("estimatedTotalBytes",transferTask.getTotalBytesTransferred() );
+        transferSummary.addProperty("totalBytesTransferred",transferTask.getTotalBytesTransferred() );
+        transferSummary.addProperty("completeTransfers",transferTask.getCompleteTransfers());
+        transferSummary.addProperty("totalTransfers",transferTask.getTotalTransfers());
+        if (transferTask.getCreated() == null)
+            transferSummary.addProperty("created","");
+        else
+            transferSummary.addProperty("created",transferTask.getCreated().toString());
+        if (transferTask.getStartTime() == null)
+            transferSummary.addProperty("startTime","");
+        else
+            transferSummary.addProperty("startTime",transferTask.getStartTime().toString());
+        if (transferTask.getEndTime() == null)
+            transferSummary.addProperty("endTime","");
+        else
+            transferSummary.addProperty("endTime",transferTask.getEndTime().toString());
+        transferSummary.addProperty("errorMessage",transferTask.getErrorMessage());
+        return transferSummary;
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* cacheSize:                                                             */
+    /* ---------------------------------------------------------------------- */
+    public synchronized int cacheSize() {return _cache.size();}
+
+    /* ********************************************************************** */
+    /*                            Private Methods                             */
+    /* ********************************************************************** */
+    /* ---------------------------------------------------------------------- */
+    /* isTerminal:                                                            */
+    /* ---------------------------------------------------------------------- */
+    private static boolean isTerminal(TransferStatusEnum status)
+    {
+        return status == TransferStatusEnum.COMPLETED || status == TransferStatusEnum.FAILED ||
+               status == TransferStatusEnum.CANCELLED;
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* getCached:                                                             */
+    /* ---------------------------------------------------------------------- */
+    /** Return a copy of the cached summary or null. */
+    private synchronized JsonObject getCached(String tenant, String transferId)
+    {
+        var summary = _cache.get(tenant + ":" + transferId);
+        return summary == null ? null : summary.deepCopy();
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* putCached:                                                             */
+    /* ---------------------------------------------------------------------- */
+    private synchronized void putCached(String tenant, String transferId, JsonObject summary)
+    {
+        if (_maxCacheEntries > 0) _cache.put(tenant + ":" + transferId, summary.deepCopy());
+    }
+}
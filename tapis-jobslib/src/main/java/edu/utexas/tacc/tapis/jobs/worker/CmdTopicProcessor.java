@@ -9,13 +9,13 @@ import com.rabbitmq.client.BuiltinExchangeType;
 import edu.utexas.tacc.tapis.jobs.queue.DeliveryResponse;
 import edu.utexas.tacc.tapis.jobs.queue.JobQueueManager;
 import edu.utexas.tacc.tapis.jobs.queue.JobQueueManagerNames;
+import edu.utexas.tacc.tapis.jobs.queue.messages.QueueMsgCodec;
 import edu.utexas.tacc.tapis.jobs.queue.messages.cmd.CmdMsg;
 import edu.utexas.tacc.tapis.jobs.queue.messages.cmd.WkrResumeMsg;
 import edu.utexas.tacc.tapis.jobs.queue.messages.cmd.WkrShutdownMsg;
 import edu.utexas.tacc.tapis.jobs.queue.messages.cmd.WkrStatusMsg;
 import edu.utexas.tacc.tapis.jobs.queue.messages.cmd.WkrSuspendMsg;
 import edu.utexas.tacc.tapis.shared.i18n.MsgUtils;
-import edu.utexas.tacc.tapis.shared.utils.TapisGsonUtils;
 import edu.utexas.tacc.tapis.shared.utils.TapisUtils;
 
 /** Processor that runs a worker thread and receives commands on the tenant
@@ -94,10 +94,10 @@ class CmdTopicProcessor
         _log.debug(msg);
     }
     
-    // Decode the input.
+    // Decode the input into the class designated by its type.
     String body = new String(delivery.body);
     CmdMsg cmdMsg = null;
-    try {cmdMsg = TapisGsonUtils.getGson(true).fromJson(body, CmdMsg.class);}
+    try {cmdMsg = QueueMsgCodec.decodeCmdMsg(body);}
         catch (Exception e) {
             if (body.length() > JSON_DUMP_LEN) body = body.substring(0, JSON_DUMP_LEN - 1);
             String msg = MsgUtils.getMsg("ALOE_JSON_PARSE_ERROR", getProcessorName(), body, e.getMessage());
@@ -112,22 +112,21 @@ class CmdTopicProcessor
         return false;
     }
     
-    // Determine the precise command type, populate an object of that type
-    // and then call the command-specific processor.
+    // Call the command-specific processor.
     boolean ack = true;
     try {
         switch (cmdMsg.msgType) {
             case WKR_STATUS:  
-                ack = processCommand(TapisGsonUtils.getGson(true).fromJson(body, WkrStatusMsg.class));
+                ack = processCommand((WkrStatusMsg) cmdMsg);
                 break;
             case WKR_SHUTDOWN: 
-                ack = processCommand(TapisGsonUtils.getGson(true).fromJson(body, WkrShutdownMsg.class));
+                ack = processCommand((WkrShutdownMsg) cmdMsg);
                 break;
             case WKR_SUSPEND: 
-                ack = processCommand(TapisGsonUtils.getGson(true).fromJson(body, WkrSuspendMsg.class));
+                ack = processCommand((WkrSuspendMsg) cmdMsg);
                 break;
             case WKR_RESUME: 
-                ack = processCommand(TapisGsonUtils.getGson(true).fromJson(body, WkrResumeMsg.class));
+                ack = processCommand((WkrResumeMsg) cmdMsg);
                 break;
 
             // The binding keys should prevent all other commands from coming through here.
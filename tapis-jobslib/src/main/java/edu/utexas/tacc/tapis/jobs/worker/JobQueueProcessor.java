@@ -24,6 +24,7 @@ import edu.utexas.tacc.tapis.jobs.queue.DeliveryResponse;
 import edu.utexas.tacc.tapis.jobs.queue.JobQueueManager;
 import edu.utexas.tacc.tapis.jobs.queue.JobQueueManagerNames;
 import edu.utexas.tacc.tapis.jobs.queue.messages.JobSubmitMsg;
+import edu.utexas.tacc.tapis.jobs.queue.messages.QueueMsgCodec;
 import edu.utexas.tacc.tapis.jobs.recover.RecoveryUtils;
 import edu.utexas.tacc.tapis.jobs.utils.JobUtils;
 import edu.utexas.tacc.tapis.jobs.worker.execjob.JobExecutionContext;
@@ -34,7 +35,6 @@ import edu.utexas.tacc.tapis.shared.i18n.MsgUtils;
 import edu.utexas.tacc.tapis.shared.providers.email.EmailClient;
 import edu.utexas.tacc.tapis.shared.providers.email.EmailClientFactory;
 import edu.utexas.tacc.tapis.shared.utils.HTMLizer;
-import edu.utexas.tacc.tapis.shared.utils.TapisGsonUtils;
 import edu.utexas.tacc.tapis.shared.utils.TapisUtils;
 
 final class JobQueueProcessor 
@@ -136,7 +136,7 @@ final class JobQueueProcessor
     try {
       // Reconstitute the job submit message.
       String body = new String(delivery.body);
-      jobMsg = TapisGsonUtils.getGson(true).fromJson(body, JobSubmitMsg.class);
+      jobMsg = QueueMsgCodec.decodeJobSubmitMsg(body);
       
       // Determine if new or existing job processing is required.
       JobsDao jobsDao = new JobsDao();
@@ -10,12 +10,12 @@ import edu.utexas.tacc.tapis.jobs.model.Job;
 import edu.utexas.tacc.tapis.jobs.queue.DeliveryResponse;
 import edu.utexas.tacc.tapis.jobs.queue.JobQueueManager;
 import edu.utexas.tacc.tapis.jobs.queue.JobQueueManagerNames;
+import edu.utexas.tacc.tapis.jobs.queue.messages.QueueMsgCodec;
 import edu.utexas.tacc.tapis.jobs.queue.messages.cmd.CmdMsg;
 import edu.utexas.tacc.tapis.jobs.queue.messages.cmd.JobCancelMsg;
 import edu.utexas.tacc.tapis.jobs.queue.messages.cmd.JobPauseMsg;
 import edu.utexas.tacc.tapis.jobs.queue.messages.cmd.JobStatusMsg;
 import edu.utexas.tacc.tapis.shared.i18n.MsgUtils;
-import edu.utexas.tacc.tapis.shared.utils.TapisGsonUtils;
 import edu.utexas.tacc.tapis.shared.utils.TapisUtils;
 
 /** This is the thread subclass that binds to the tenant command topic with
@@ -107,10 +107,10 @@ final class JobTopicProcessor
         _log.debug(msg);
     }
     
-    // Decode the input.
+    // Decode the input into the class designated by its type.
     String body = new String(delivery.body);
     CmdMsg cmdMsg = null;
-    try {cmdMsg = TapisGsonUtils.getGson(true).fromJson(body, CmdMsg.class);}
+    try {cmdMsg = QueueMsgCodec.decodeCmdMsg(body);}
         catch (Exception e) {
             if (body.length() > JSON_DUMP_LEN) body = body.substring(0, JSON_DUMP_LEN - 1);
             String msg = MsgUtils.getMsg("ALOE_JSON_PARSE_ERROR", getProcessorName(), body, e.getMessage());
@@ -125,19 +125,18 @@ final class JobTopicProcessor
         return false;
     }
     
-    // Determine the precise command type, populate an object of that type
-    // and then call the command-specific processor.
+    // Call the command-specific processor.
     boolean ack = true;
     try {
         switch (cmdMsg.msgType) {
             case JOB_STATUS:  
-                ack = processCommand(TapisGsonUtils.getGson(true).fromJson(body, JobStatusMsg.class));
+                ack = processCommand((JobStatusMsg) cmdMsg);
                 break;
             case JOB_CANCEL: 
-                ack = processCommand(TapisGsonUtils.getGson(true).fromJson(body, JobCancelMsg.class));
+                ack = processCommand((JobCancelMsg) cmdMsg);
                 break;
             case JOB_PAUSE: 
-                ack = processCommand(TapisGsonUtils.getGson(true).fromJson(body, JobPauseMsg.class));
+                ack = processCommand((JobPauseMsg) cmdMsg);
                 break;
                 
             // The binding keys should prevent all other commands from coming through here.
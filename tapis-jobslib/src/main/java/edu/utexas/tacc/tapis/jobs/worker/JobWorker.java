@@ -1,6 +1,7 @@
 package edu.utexas.tacc.tapis.jobs.worker;
 
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
@@ -13,6 +14,7 @@ import org.slf4j.MDC;
 import edu.utexas.tacc.tapis.jobs.config.RuntimeParameters;
 import edu.utexas.tacc.tapis.jobs.exceptions.JobException;
 import edu.utexas.tacc.tapis.jobs.impl.JobsImpl;
+import edu.utexas.tacc.tapis.jobs.launchers.JobLauncherFactory;
 import edu.utexas.tacc.tapis.jobs.queue.JobQueueManager;
 import edu.utexas.tacc.tapis.jobs.queue.JobQueueManagerNames;
 import edu.utexas.tacc.tapis.jobs.queue.messages.event.WkrStatusResp;
@@ -245,6 +247,16 @@ public final class JobWorker
         resp.throttleWindowSeconds = _threadRestartThrottle.getSeconds();
         resp.throttleQueueLength = _threadRestartThrottle.getQueueLength();
         
+        var admission = JobLauncherFactory.getLaunchAdmission();
+        resp.launchWindowSeconds = admission.getSeconds();
+        resp.launchLimit = admission.getLimit();
+        resp.launchQueueDepth = admission.getQueueDepth();
+        resp.launchHostMetrics = new TreeMap<>();
+        for (String host : admission.getHosts()) {
+            var metrics = admission.getMetrics(host);
+            if (metrics != null) resp.launchHostMetrics.put(host, metrics);
+        }
+        
         resp.workerThreadGroupName       = _workerThreadGroup.getName();
         resp.workerThreadGroupNumThreads = _workerThreadGroup.activeCount();
         resp.jobThreadGroupName          = _jobThreadGroup.getName();
@@ -0,0 +1,346 @@
+package edu.utexas.tacc.tapis.jobs.worker.execjob;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import edu.utexas.tacc.tapis.client.shared.exceptions.TapisClientException;
+import edu.utexas.tacc.tapis.shared.exceptions.TapisImplException;
+import edu.utexas.tacc.tapis.shared.i18n.MsgUtils;
+
+/** Create the directories used by jobs.  Each directory creation is a Files
+ * call that in turn issues a remote filesystem call, so rather than creating a
+ * job's directories one at a time, this class de-duplicates the job's distinct
+ * system and path targets and creates them concurrently on a bounded thread
+ * pool.  A directory is only created after the job's directories that contain
+ * it on the same system, so parent and child creations never race.  Each
+ * Files call must complete within the creation deadline, which starts when
+ * the call starts rather than when it's queued.
+ *
+ * Directories successfully created are remembered for a short time, keyed by
+ * tenant, job owner, system, path, effective user and sharing context, so that
+ * jobs that share directories (such as a common output root) don't recreate
+ * them.  The owner and sharing context are part of the key because Files
+ * authorizes each creation on their behalf.
+ *
+ * @author rcardone
+ */
+public final class DirectoryCreator
+{
+    /* ********************************************************************** */
+    /*                               Constants                                */
+    /* ********************************************************************** */
+    // Tracing.
+    private static final Logger _log = LoggerFactory.getLogger(DirectoryCreator.class);
+
+    // Default configuration.
+    public static final int  DEFAULT_THREADS         = 16;
+    public static final long DEFAULT_DEADLINE_MILLIS = 120000;
+    public static final long DEFAULT_CACHE_MILLIS    = 600000;
+    public static final int  DEFAULT_CACHE_ENTRIES   = 10000;
+
+    // Returned when a Files call exceeds the deadline.
+    public static final int HTTP_GATEWAY_TIMEOUT = 504;
+
+    // Returned when interrupted while waiting for Files.
+    public static final int HTTP_INTERNAL_SERVER_ERROR = 500;
+
+    // Thread naming.
+    private static final String THREAD_PREFIX = "JobsMkdir-";
+
+    /* ********************************************************************** */
+    /*                                Fields                                  */
+    /* ********************************************************************** */
+    // Singleton instance of this class.
+    private static DirectoryCreator _instance;
+
+    // Configuration.
+    private final long _deadlineMillis;
+    private final long _cacheMillis;
+    private final int  _maxCacheEntries;
+
+    // The bounded pool on which Files is called.
+    private final ExecutorService _executor;
+
+    // Creation times of recently created directories, LRU order.
+    private final LinkedHashMap<String,Long> _created;
+
+    /* ********************************************************************** */
+    /*                                Records                                 */
+    /* ********************************************************************** */
+    /** A directory to be created.  The dir is used to detect duplicates and in
+     * error messages, the path is passed to Files.  They are usually the same.
+     */
+    public record DirectoryTarget(String systemId, String host, String dir, String path,
+                                  String effectiveUser, boolean sharedAppCtx) {}
+
+    /** A queued Files call and the time it started. */
+    private record Creation(DirectoryTarget target, Future<Void> future, 
+                            CountDownLatch started, AtomicLong startMillis) {}
+
+    /* ********************************************************************** */
+    /*                                Interfaces                              */
+    /* ********************************************************************** */
+    /** Create a directory, typically by calling FilesClient.mkdir().
+     * Implementations are called concurrently.
+     */
+    @FunctionalInterface
+    public interface DirectoryMaker
+    {
+        void mkdir(String systemId, String path, boolean sharedAppCtx) throws TapisClientException;
+    }
+
+    /* ********************************************************************** */
+    /*                             Constructors                               */
+    /* ********************************************************************** */
+    /* ---------------------------------------------------------------------- */
+    /* constructor:                                                           */
+    /* ---------------------------------------------------------------------- */
+    public DirectoryCreator(int threads, long deadlineMillis, long cacheMillis, int maxCacheEntries)
+    {
+        _deadlineMillis  = deadlineMillis;
+        _cacheMillis     = cacheMillis;
+        _maxCacheEntries = maxCacheEntries;
+        _created = new LinkedHashMap<>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String,Long> eldest)
+            {return size() > _maxCacheEntries;}
+        };
+
+        // Daemon threads that time out when idle.
+        var threadNum = new AtomicInteger();
+        var executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<Runnable>(), r -> {
+                var thread = new Thread(r, THREAD_PREFIX + threadNum.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        executor.allowCoreThreadTimeOut(true);
+        _executor = executor;
+    }
+
+    /* ********************************************************************** */
+    /*                             Public Methods                             */
+    /* ********************************************************************** */
+    /* ---------------------------------------------------------------------- */
+    /* getInstance:                                                           */
+    /* ---------------------------------------------------------------------- */
+    public static DirectoryCreator getInstance()
+    {
+        // Create the singleton instance if necessary.
+        if (_instance == null) {
+            synchronized (DirectoryCreator.class) {
+                if (_instance == null)
+                    _instance = new DirectoryCreator(DEFAULT_THREADS, DEFAULT_DEADLINE_MILLIS,
+                                                     DEFAULT_CACHE_MILLIS, DEFAULT_CACHE_ENTRIES);
+            }
+        }
+        return _instance;
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* createDirectories:                                                     */
+    /* ---------------------------------------------------------------------- */
+    /** Create the target directories, which may already exist.  Targets with
+     * the same system and dir as an earlier target are skipped, as are targets
+     * recently created.  The remaining targets are created concurrently, except
+     * that a target is created only after the targets on the same system whose
+     * dirs contain its dir, and not at all if one of them fails.  When any
+     * creation fails, the failure of the first target in list order is reported.
+     *
+     * @param targets the directories in the order they would be created serially
+     * @param maker creates one directory
+     * @param owner the job owner
+     * @param tenant the job tenant
+     * @return the number of Files calls issued
+     * @throws TapisImplException on Files errors or when a call exceeds the deadline
+     */
+    public int createDirectories(List<DirectoryTarget> targets, DirectoryMaker maker,
+                                 String owner, String tenant)
+     throws TapisImplException
+    {
+        // Select the targets not yet created.
+        var dirKeys = new ArrayList<String>(targets.size());
+        var pending = new ArrayList<DirectoryTarget>(targets.size());
+        for (var target : targets) {
+            String dirKey = target.systemId() + "|" + target.dir();
+            if (dirKeys.contains(dirKey)) continue;
+            dirKeys.add(dirKey);
+            if (isCreated(getCacheKey(target, owner, tenant))) continue;
+            pending.add(target);
+        }
+
+        // Create the targets in waves.  Each wave contains the remaining targets
+        // that have no ancestor among the remaining targets.  The targets of a 
+        // failed creation's descendants are never attempted.
+        var failures = new HashMap<DirectoryTarget,Throwable>();
+        var remaining = new ArrayList<>(pending);
+        int calls = 0;
+        while (!remaining.isEmpty()) {
+            var wave = new ArrayList<Creation>();
+            for (var it = remaining.iterator(); it.hasNext();) {
+                var target = it.next();
+                if (hasAncestor(target, remaining)) continue;
+                it.remove();
+                if (hasAncestor(target, failures.keySet())) failures.put(target, null);
+                  else wave.add(submit(target, maker));
+            }
+            calls += wave.size();
+            awaitWave(wave, failures, owner, tenant);
+        }
+
+        // Report the first failure in list order.
+        for (var target : pending) {
+            var failure = failures.get(target);
+            if (failure == null) continue;
+            if (failure instanceof TapisClientException) {
+                int code = ((TapisClientException)failure).getCode();
+                String msg = MsgUtils.getMsg("FILES_REMOTE_MKDIRS_ERROR", target.host(),
+                                             owner, tenant, target.dir(), code);
+                throw new TapisImplException(msg, failure, code);
+            }
+            if (failure instanceof RuntimeException) throw (RuntimeException) failure;
+            if (failure instanceof Error) throw (Error) failure;
+            String msg = MsgUtils.getMsg("FILES_REMOTE_MKDIRS_ERROR", target.host(), owner,
+                                         tenant, target.dir(), HTTP_INTERNAL_SERVER_ERROR);
+            throw new TapisImplException(msg, failure, HTTP_INTERNAL_SERVER_ERROR);
+        }
+
+        if (_log.isDebugEnabled())
+            _log.debug("Created " + dirKeys.size() + " directories for " + owner + "@" + tenant +
+                       " with " + calls + " Files calls.");
+        return calls;
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* cacheSize:                                                             */
+    /* ---------------------------------------------------------------------- */
+    public synchronized int cacheSize() {return _created.size();}
+
+    /* ********************************************************************** */
+    /*                            Private Methods                             */
+    /* ********************************************************************** */
+    /* ---------------------------------------------------------------------- */
+    /* submit:                                                                */
+    /* ---------------------------------------------------------------------- */
+    /** Queue a target's Files call, which records when it starts. */
+    private Creation submit(DirectoryTarget target, DirectoryMaker maker)
+    {
+        var started = new CountDownLatch(1);
+        var startMillis = new AtomicLong();
+        Future<Void> future = _executor.submit(() -> {
+            startMillis.set(System.currentTimeMillis());
+            started.countDown();
+            maker.mkdir(target.systemId(), target.path(), target.sharedAppCtx());
+            return null;
+        });
+        return new Creation(target, future, started, startMillis);
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* awaitWave:                                                             */
+    /* ---------------------------------------------------------------------- */
+    /** Wait for each call in the wave to complete within the deadline of its 
+     * start.  Successes are cached and failures are recorded.
+     * 
+     * @throws TapisImplException when a call exceeds the deadline or the thread
+     *                            is interrupted
+     */
+    private void awaitWave(List<Creation> wave, Map<DirectoryTarget,Throwable> failures,
+                           String owner, String tenant)
+     throws TapisImplException
+    {
+        try {
+            for (var creation : wave) {
+                var target = creation.target();
+                try {
+                    creation.started().await();
+                    long remaining = creation.startMillis().get() + _deadlineMillis - 
+                                     System.currentTimeMillis();
+                    creation.future().get(Math.max(0, remaining), TimeUnit.MILLISECONDS);
+                    putCreated(getCacheKey(target, owner, tenant));
+                }
+                catch (ExecutionException e) {
+                    failures.put(target, e.getCause());
+                }
+                catch (TimeoutException e) {
+                    String msg = MsgUtils.getMsg("FILES_REMOTE_MKDIRS_ERROR", target.host(),
+                                                 owner, tenant, target.dir(), HTTP_GATEWAY_TIMEOUT);
+                    throw new TapisImplException(msg, e, HTTP_GATEWAY_TIMEOUT);
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    String msg = MsgUtils.getMsg("FILES_REMOTE_MKDIRS_ERROR", target.host(), owner, 
+                                                 tenant, target.dir(), HTTP_INTERNAL_SERVER_ERROR);
+                    throw new TapisImplException(msg, e, HTTP_INTERNAL_SERVER_ERROR);
+                }
+            }
+        }
+        finally {
+            // Don't leave abandoned calls running after a timeout or interrupt.
+            for (var creation : wave) creation.future().cancel(true);
+        }
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* hasAncestor:                                                           */
+    /* ---------------------------------------------------------------------- */
+    /** Determine whether any of the candidates is on the target's system and
+     * has a dir that strictly contains the target's dir.
+     */
+    private static boolean hasAncestor(DirectoryTarget target, Collection<DirectoryTarget> candidates)
+    {
+        for (var candidate : candidates) {
+            if (!candidate.systemId().equals(target.systemId())) continue;
+            String dir = candidate.dir().endsWith("/") ? candidate.dir() : candidate.dir() + "/";
+            if (target.dir().startsWith(dir) && !target.dir().equals(candidate.dir())) return true;
+        }
+        return false;
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* getCacheKey:                                                           */
+    /* ---------------------------------------------------------------------- */
+    private static String getCacheKey(DirectoryTarget target, String owner, String tenant)
+    {
+        return tenant + "|" + owner + "|" + target.systemId() + "|" + target.path() + "|" +
+               target.effectiveUser() + "|" + target.sharedAppCtx();
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* isCreated:                                                             */
+    /* ---------------------------------------------------------------------- */
+    private synchronized boolean isCreated(String key)
+    {
+        var created = _created.get(key);
+        if (created == null) return false;
+        if (created + _cacheMillis > System.currentTimeMillis()) return true;
+        _created.remove(key);
+        return false;
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* putCreated:                                                            */
+    /* ---------------------------------------------------------------------- */
+    private synchronized void putCreated(String key)
+    {
+        _created.put(key, System.currentTimeMillis());
+    }
+}
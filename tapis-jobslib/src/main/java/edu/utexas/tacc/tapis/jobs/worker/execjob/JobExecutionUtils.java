@@ -1,5 +1,6 @@
 package edu.utexas.tacc.tapis.jobs.worker.execjob;
 
+import java.util.Collection;
 import java.util.regex.Pattern;
 
 import org.slf4j.Logger;
@@ -40,6 +41,12 @@ public final class JobExecutionUtils
     private static final String DOCKER_ID = "docker ps -a --no-trunc -f \"%s\" --format \"{{.ID}}\"";
     private static final String DOCKER_STATUS = "docker ps -a --no-trunc -f \"name=%s\" --format \"{{.Status}}\"";
     private static final String DOCKER_RM = "docker rm -f %s";
+    private static final String DOCKER_BATCH_STATUS = "docker ps -a --no-trunc%s --format \"{{.Names}}|{{.Status}}\"";
+    private static final String DOCKER_NAME_FILTER = " -f \"name=%s\"";
+    
+    // Separates the container names from the status in batch status results.
+    // Container names cannot contain this character.
+    public static final String DOCKER_BATCH_STATUS_SEPARATOR = "|";
 
     // Docker status return values.
     public static final String DOCKER_ACTIVE_STATUS_PREFIX = "Up ";
@@ -81,6 +88,23 @@ public final class JobExecutionUtils
     public static String getDockerStatusCommand(String containerName)
     {return String.format(DOCKER_STATUS, containerName);}
     
+    /* ---------------------------------------------------------------------- */
+    /* getDockerBatchStatusCommand:                                           */
+    /* ---------------------------------------------------------------------- */
+    /** Get the status of all the named containers in one command.  Docker ORs
+     * multiple name filters.  Each result line contains the container's names
+     * and its status separated by DOCKER_BATCH_STATUS_SEPARATOR.
+     * 
+     * @param containerNames the non-empty container names
+     * @return the command text
+     */
+    public static String getDockerBatchStatusCommand(Collection<String> containerNames)
+    {
+        var filters = new StringBuilder(containerNames.size() * 48);
+        for (var name : containerNames) filters.append(String.format(DOCKER_NAME_FILTER, name));
+        return String.format(DOCKER_BATCH_STATUS, filters);
+    }
+    
     /* ---------------------------------------------------------------------- */
     /* getDockerRmCommand:                                                    */
     /* ---------------------------------------------------------------------- */
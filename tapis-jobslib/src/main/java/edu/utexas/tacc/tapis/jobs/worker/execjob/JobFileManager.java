@@ -4,8 +4,8 @@ import java.nio.file.FileSystems;
 import java.nio.file.PathMatcher;
 import java.nio.file.Paths;
 import java.nio.file.attribute.PosixFilePermission;
+import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.UUID;
 import java.util.regex.Pattern;
@@ -28,6 +28,7 @@ import edu.utexas.tacc.tapis.jobs.model.Job;
 import edu.utexas.tacc.tapis.jobs.model.enumerations.JobRemoteOutcome;
 import edu.utexas.tacc.tapis.jobs.model.submit.JobFileInput;
 import edu.utexas.tacc.tapis.jobs.recover.RecoveryUtils;
+import edu.utexas.tacc.tapis.jobs.worker.execjob.DirectoryCreator.DirectoryTarget;
 import edu.utexas.tacc.tapis.shared.TapisConstants;
 import edu.utexas.tacc.tapis.shared.exceptions.TapisException;
 import edu.utexas.tacc.tapis.shared.exceptions.TapisImplException;
@@ -117,90 +118,44 @@ public final class JobFileManager
         
         // Get the IO targets for the job and check that the systems are enabled.
         var ioTargets = _jobCtx.getJobIOTargets();
+        var sharedCtx = _jobCtx.getJobSharedAppCtx();
         
-        // Create a set to that records the directories already created.
-        var createdSet = new HashSet<String>();
+        // List the directories in the order they were historically created so
+        // that the same error is reported when more than one creation fails.
+        // Duplicate system/directory combinations are only created once.
+        var targets = new ArrayList<DirectoryTarget>(4);
         
         // ---------------------- Exec System Exec Dir ----------------------
-        // Create the directory on the system.
-        try {
-            var sharedAppCtx = _jobCtx.getJobSharedAppCtx().isSharingExecSystemExecDir();
-            filesClient.mkdir(ioTargets.getExecTarget().systemId, 
-                              ioTargets.getExecTarget().dir, sharedAppCtx);
-        } catch (TapisClientException e) {
-            String msg = MsgUtils.getMsg("FILES_REMOTE_MKDIRS_ERROR", 
-                                         ioTargets.getExecTarget().host,
-                                         _job.getOwner(), _job.getTenant(),
-                                         ioTargets.getExecTarget().dir, e.getCode());
-            throw new TapisImplException(msg, e, e.getCode());
-        }
-        
-        // Save the created directory key to avoid attempts to recreate it.
-        createdSet.add(getDirectoryKey(ioTargets.getExecTarget().systemId, 
-                                       ioTargets.getExecTarget().dir));
+        var execTarget = ioTargets.getExecTarget();
+        targets.add(new DirectoryTarget(execTarget.systemId, execTarget.host, 
+                                        execTarget.dir, execTarget.dir,
+                                        getEffectiveUserId(execTarget.systemId),
+                                        sharedCtx.isSharingExecSystemExecDir()));
         
         // ---------------------- Exec System Output Dir ----------------- 
-        // See if the output dir is the same as the exec dir.
-        var execSysOutputDirKey = getDirectoryKey(ioTargets.getOutputTarget().systemId, 
-                                                  ioTargets.getOutputTarget().dir);
-        if (!createdSet.contains(execSysOutputDirKey)) {
-            // Create the directory on the system.
-            try {
-                var sharedAppCtx = _jobCtx.getJobSharedAppCtx().isSharingExecSystemOutputDir();
-                filesClient.mkdir(ioTargets.getOutputTarget().systemId, 
-                                  _job.getExecSystemOutputDir(), sharedAppCtx);
-            } catch (TapisClientException e) {
-                String msg = MsgUtils.getMsg("FILES_REMOTE_MKDIRS_ERROR", 
-                                             ioTargets.getOutputTarget().host,
-                                             _job.getOwner(), _job.getTenant(),
-                                             ioTargets.getOutputTarget().dir, e.getCode());
-                throw new TapisImplException(msg, e, e.getCode());
-            }
-            
-            // Save the created directory key to avoid attempts to recreate it.
-            createdSet.add(execSysOutputDirKey);
-        }
+        var outputTarget = ioTargets.getOutputTarget();
+        targets.add(new DirectoryTarget(outputTarget.systemId, outputTarget.host, 
+                                        outputTarget.dir, _job.getExecSystemOutputDir(),
+                                        getEffectiveUserId(outputTarget.systemId),
+                                        sharedCtx.isSharingExecSystemOutputDir()));
         
         // ---------------------- Exec System Input Dir ------------------ 
-        // See if the input dir is the same as any previously created dir.
-        var execSysInputDirKey = getDirectoryKey(ioTargets.getInputTarget().systemId, 
-                                                 ioTargets.getInputTarget().dir);
-        if (!createdSet.contains(execSysInputDirKey)) {
-            // Create the directory on the system.
-            try {
-                var sharedAppCtx = _jobCtx.getJobSharedAppCtx().isSharingExecSystemInputDir();
-                filesClient.mkdir(ioTargets.getInputTarget().systemId, 
-                                 ioTargets.getInputTarget().dir, sharedAppCtx);
-            } catch (TapisClientException e) {
-                String msg = MsgUtils.getMsg("FILES_REMOTE_MKDIRS_ERROR", 
-                                             ioTargets.getInputTarget().host,
-                                             _job.getOwner(), _job.getTenant(),
-                                             ioTargets.getInputTarget().dir, e.getCode());
-                throw new TapisImplException(msg, e, e.getCode());
-            }
-            
-            // Save the created directory key to avoid attempts to recreate it.
-            createdSet.add(execSysInputDirKey);
-        }
+        var inputTarget = ioTargets.getInputTarget();
+        targets.add(new DirectoryTarget(inputTarget.systemId, inputTarget.host, 
+                                        inputTarget.dir, inputTarget.dir,
+                                        getEffectiveUserId(inputTarget.systemId),
+                                        sharedCtx.isSharingExecSystemInputDir()));
         
         // ---------------------- Archive System Dir ---------------------
-        // See if the archive dir is the same as any previously created dir.
-        var archiveSysDirKey = getDirectoryKey(_job.getArchiveSystemId(), 
-                                               _job.getArchiveSystemDir());
-        if (!createdSet.contains(archiveSysDirKey)) {
-            // Create the directory on the system.
-            try {
-                var sharedAppCtx = _jobCtx.getJobSharedAppCtx().isSharingArchiveSystemDir();
-                filesClient.mkdir(_job.getArchiveSystemId(), 
-                                  _job.getArchiveSystemDir(), sharedAppCtx);
-            } catch (TapisClientException e) {
-                String msg = MsgUtils.getMsg("FILES_REMOTE_MKDIRS_ERROR", 
-                                             _jobCtx.getArchiveSystem().getHost(),
-                                             _job.getOwner(), _job.getTenant(),
-                                             _job.getArchiveSystemDir(), e.getCode());
-                throw new TapisImplException(msg, e, e.getCode());
-            }
-        }
+        var archiveSystem = _jobCtx.getArchiveSystem();
+        targets.add(new DirectoryTarget(_job.getArchiveSystemId(), archiveSystem.getHost(), 
+                                        _job.getArchiveSystemDir(), _job.getArchiveSystemDir(),
+                                        archiveSystem.getEffectiveUserId(),
+                                        sharedCtx.isSharingArchiveSystemDir()));
+        
+        // Create the directories concurrently, skipping those recently created.
+        DirectoryCreator.getInstance().createDirectories(targets, filesClient::mkdir, 
+                                                         _job.getOwner(), _job.getTenant());
     }
     
     /* ---------------------------------------------------------------------- */
@@ -415,17 +370,20 @@ public final class JobFileManager
     /*                            Private Methods                             */
     /* ********************************************************************** */
     /* ---------------------------------------------------------------------- */
-    /* getDirectoryKey:                                                       */
+    /* getEffectiveUserId:                                                    */
     /* ---------------------------------------------------------------------- */
-    /** Create a hash key for a system/directory combination.
+    /** Get the effective user of an IO target system, which is either the
+     * execution system or the dtn system.
      * 
-     * @param systemId the system id
-     * @param directory the directory path
-     * @return a string to use as a hash key to identify the system/directory
+     * @param systemId the IO target's system id
+     * @return the effective user id on the system
      */
-    private String getDirectoryKey(String systemId, String directory)
+    private String getEffectiveUserId(String systemId) throws TapisException
     {
-        return systemId + "|" + directory;
+        var dtnSystem = _jobCtx.getDtnSystem();
+        if (dtnSystem != null && systemId.equals(dtnSystem.getId())) 
+            return dtnSystem.getEffectiveUserId();
+        return _jobCtx.getExecutionSystem().getEffectiveUserId();
     }
     
     /* ---------------------------------------------------------------------- */
@@ -0,0 +1,335 @@
+package edu.utexas.tacc.tapis.jobs.dao;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import edu.utexas.tacc.tapis.jobs.model.Job;
+import edu.utexas.tacc.tapis.jobs.model.JobRecovery;
+import edu.utexas.tacc.tapis.jobs.model.enumerations.JobStatusType;
+import edu.utexas.tacc.tapis.jobs.recover.RecoverConditionCode;
+import edu.utexas.tacc.tapis.jobs.recover.RecoverPolicyType;
+import edu.utexas.tacc.tapis.jobs.recover.RecoverTesterType;
+import edu.utexas.tacc.tapis.shared.exceptions.TapisException;
+
+/** Claim, upsert and delete recovery records in the jobs database.  The
+ * records created here are due long before any real record, so they are
+ * claimed first, and claims of other records are ignored.
+ *
+ * @author rcardone
+ */
+@Test(groups={"integration"})
+public class JobRecoveryDaoTest
+{
+    /* ********************************************************************** */
+    /*                               Constants                                */
+    /* ********************************************************************** */
+    private static final String TENANT = "fakeTenant";
+
+    // Next attempt times of the test records.
+    private static final Instant DUE = Instant.parse("2000-01-01T00:00:00Z");
+
+    /* ********************************************************************** */
+    /*                                 Fields                                 */
+    /* ********************************************************************** */
+    private JobsDao        _jobsDao;
+    private JobRecoveryDao _recoveryDao;
+
+    // The jobs and recovery records to remove after each test.
+    private final List<String>  _jobUuids = new ArrayList<>();
+    private final Set<Integer>  _recoveryIds = new HashSet<>();
+
+    /* ********************************************************************** */
+    /*                            Set Up / Tear Down                          */
+    /* ********************************************************************** */
+    @BeforeClass
+    public void setup() throws TapisException
+    {
+        _jobsDao = new JobsDao();
+        _recoveryDao = new JobRecoveryDao();
+    }
+
+    @AfterMethod
+    public void cleanup() throws Exception
+    {
+        // Deleting the jobs also deletes their blocked records.
+        for (int id : _recoveryIds) _recoveryDao.deleteJobRecovery(id, TENANT);
+        try (var conn = _jobsDao.getConnection()) {
+            conn.setAutoCommit(false);
+            try (var pstmt = conn.prepareStatement("DELETE FROM jobs WHERE uuid = ANY(?)")) {
+                pstmt.setArray(1, conn.createArrayOf("text", _jobUuids.toArray()));
+                pstmt.executeUpdate();
+            }
+            conn.commit();
+        }
+        _recoveryIds.clear();
+        _jobUuids.clear();
+    }
+
+    /* ********************************************************************** */
+    /*                              Test Methods                              */
+    /* ********************************************************************** */
+    /* ---------------------------------------------------------------------- */
+    /* claimSkipsLocked:                                                      */
+    /* ---------------------------------------------------------------------- */
+    /** A record locked by another transaction is skipped rather than waited
+     * on, and claims are returned in next attempt order.
+     */
+    @Test
+    public void claimSkipsLocked() throws Exception
+    {
+        var recoveries = addRecoveries("skip", 3);
+
+        // Lock the first record as a concurrent update would.
+        try (var conn = _recoveryDao.getConnection()) {
+            conn.setAutoCommit(false);
+            try (var pstmt = conn.prepareStatement("SELECT id FROM job_recovery WHERE id = ? FOR UPDATE")) {
+                pstmt.setInt(1, recoveries.get(0).getId());
+                pstmt.executeQuery().close();
+            }
+            var claimed = claim(recoveries, Instant.now().plusSeconds(60));
+            Assert.assertEquals(claimed, List.of(recoveries.get(1).getId(), recoveries.get(2).getId()));
+            conn.rollback();
+        }
+
+        // The lock is released.
+        Assert.assertEquals(claim(recoveries, Instant.now().plusSeconds(60)),
+                            List.of(recoveries.get(0).getId()));
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* concurrentClaims:                                                      */
+    /* ---------------------------------------------------------------------- */
+    /** Two readers claiming at the same time never claim the same record. */
+    @Test
+    public void concurrentClaims() throws Exception
+    {
+        var recoveries = addRecoveries("concurrent", 20);
+        var executor = Executors.newFixedThreadPool(2);
+        try {
+            var start = new CountDownLatch(1);
+            var futures = new ArrayList<Future<List<Integer>>>();
+            for (int i = 0; i < 2; i++)
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    var ids = new ArrayList<Integer>();
+                    while (true) {
+                        var claimed = claim(recoveries, Instant.now().plusSeconds(60), 3);
+                        if (claimed.isEmpty()) return ids;
+                        ids.addAll(claimed);
+                    }
+                }));
+            start.countDown();
+
+            var all = new ArrayList<Integer>();
+            for (var future : futures) all.addAll(future.get(60, TimeUnit.SECONDS));
+            Assert.assertEquals(all.size(), recoveries.size());
+            Assert.assertEquals(new HashSet<>(all), ids(recoveries));
+        }
+        finally {executor.shutdownNow();}
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* leaseExpiry:                                                           */
+    /* ---------------------------------------------------------------------- */
+    /** Claimed records are not due again until their lease expires. */
+    @Test
+    public void leaseExpiry() throws Exception
+    {
+        var recoveries = addRecoveries("lease", 2);
+        Assert.assertEquals(claim(recoveries, Instant.now().plusSeconds(2)).size(), 2);
+        Assert.assertTrue(claim(recoveries, Instant.now().plusSeconds(2)).isEmpty());
+
+        // Reclaim after the lease expires.
+        Thread.sleep(2500);
+        Assert.assertEquals(new HashSet<>(claim(recoveries, Instant.now().plusSeconds(60))),
+                            ids(recoveries));
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* upsert:                                                                */
+    /* ---------------------------------------------------------------------- */
+    /** Readers adding jobs blocked on the same condition at the same time
+     * share a single recovery record whose creation time is preserved.
+     */
+    @Test
+    public void upsert() throws Exception
+    {
+        final int readers = 8;
+        var jobUuids = createJobs(readers);
+        var executor = Executors.newFixedThreadPool(readers);
+        var ids = new HashSet<Integer>();
+        try {
+            var start = new CountDownLatch(1);
+            var futures = new ArrayList<Future<JobRecovery>>();
+            for (var jobUuid : jobUuids)
+                futures.add(executor.submit(() -> {
+                    var recovery = newRecovery("upsert", jobUuid, DUE);
+                    start.await();
+                    _recoveryDao.addJobRecovery(recovery);
+                    return recovery;
+                }));
+            start.countDown();
+            for (var future : futures) ids.add(future.get(60, TimeUnit.SECONDS).getId());
+        }
+        finally {executor.shutdownNow();}
+        _recoveryIds.addAll(ids);
+
+        Assert.assertEquals(ids.size(), 1);
+        int id = ids.iterator().next();
+        Assert.assertEquals(_recoveryDao.getBlockedJobs(id).size(), readers);
+
+        // A later addition doesn't change the creation time.
+        var later = newRecovery("upsert", createJobs(1).get(0), DUE);
+        later.setCreated(Instant.now());
+        _recoveryDao.addJobRecovery(later);
+        Assert.assertEquals(later.getId(), id);
+        var recovery = _recoveryDao.getRecoveryByJobUuid(jobUuids.get(0));
+        Assert.assertEquals(recovery.getId(), id);
+        Assert.assertEquals(recovery.getCreated(), DUE);
+        Assert.assertEquals(_recoveryDao.getBlockedJobs(id).size(), readers + 1);
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* deleteIfEmpty:                                                         */
+    /* ---------------------------------------------------------------------- */
+    /** The recovery record is deleted with its last blocked job, and jobs
+     * blocked after the record was read are preserved.
+     */
+    @Test
+    public void deleteIfEmpty() throws Exception
+    {
+        var jobUuids = createJobs(3);
+        var recovery = newRecovery("delete", jobUuids.get(0), DUE);
+        recovery.addBlockedJobInfo(jobUuids.get(1), "blocked", JobStatusType.QUEUED, DUE);
+        _recoveryDao.addJobRecovery(recovery);
+        _recoveryIds.add(recovery.getId());
+        int id = recovery.getId();
+
+        // Another reader blocks a job on the same condition.
+        var later = newRecovery("delete", jobUuids.get(2), DUE);
+        _recoveryDao.addJobRecovery(later);
+        Assert.assertEquals(later.getId(), id);
+
+        // Deleting the jobs that were read leaves the later one.
+        Assert.assertFalse(_recoveryDao.deleteBlockedJobs(id, TENANT, List.of(jobUuids.get(0))));
+        Assert.assertFalse(_recoveryDao.deleteBlockedJobs(id, TENANT, List.of(jobUuids.get(1))));
+        Assert.assertEquals(_recoveryDao.getBlockedJobs(id).size(), 1);
+        Assert.assertEquals(_recoveryDao.getRecoveryByJobUuid(jobUuids.get(2)).getId(), id);
+
+        // Deleting the last job deletes the record.
+        Assert.assertTrue(_recoveryDao.deleteBlockedJobs(id, TENANT, List.of(jobUuids.get(2))));
+        Assert.assertTrue(_recoveryDao.getBlockedJobs(id).isEmpty());
+        Assert.assertNull(_recoveryDao.getRecoveryByJobUuid(jobUuids.get(2)));
+    }
+
+    /* ********************************************************************** */
+    /*                            Private Methods                             */
+    /* ********************************************************************** */
+    /* ---------------------------------------------------------------------- */
+    /* addRecoveries:                                                         */
+    /* ---------------------------------------------------------------------- */
+    /** Add recovery records that are due one second apart, earliest first. */
+    private List<JobRecovery> addRecoveries(String name, int count) throws TapisException
+    {
+        var recoveries = new ArrayList<JobRecovery>(count);
+        var jobUuids = createJobs(count);
+        for (int i = 0; i < count; i++) {
+            var recovery = newRecovery(name + i, jobUuids.get(i), DUE.plusSeconds(i));
+            _recoveryDao.addJobRecovery(recovery);
+            _recoveryIds.add(recovery.getId());
+            recoveries.add(recovery);
+        }
+        return recoveries;
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* claim:                                                                 */
+    /* ---------------------------------------------------------------------- */
+    /** Claim due records and return the ids of the test records in claim order. */
+    private List<Integer> claim(List<JobRecovery> recoveries, Instant leaseExpiry) throws Exception
+    {
+        return claim(recoveries, leaseExpiry, 100);
+    }
+
+    private List<Integer> claim(List<JobRecovery> recoveries, Instant leaseExpiry, int limit)
+     throws Exception
+    {
+        var ids = ids(recoveries);
+        var claimed = new ArrayList<Integer>();
+        for (var recovery : _recoveryDao.claimDueRecoveries(limit, leaseExpiry))
+            if (ids.contains(recovery.getId())) {
+                Assert.assertEquals(recovery.getBlockedJobs().size(), 1);
+                claimed.add(recovery.getId());
+            }
+        return claimed;
+    }
+
+    private Set<Integer> ids(List<JobRecovery> recoveries)
+    {
+        var ids = new HashSet<Integer>();
+        for (var recovery : recoveries) ids.add(recovery.getId());
+        return ids;
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* newRecovery:                                                           */
+    /* ---------------------------------------------------------------------- */
+    /** A recovery record for one blocked job whose tester hash is unique to
+     * this test run and the given name.
+     */
+    private JobRecovery newRecovery(String name, String jobUuid, Instant nextAttempt)
+    {
+        var recovery = new JobRecovery();
+        recovery.setTenantId(TENANT);
+        recovery.setConditionCode(RecoverConditionCode.SYSTEM_NOT_AVAILABLE);
+        recovery.setTesterType(RecoverTesterType.DEFAULT_SYSTEM_AVAILABLE_TESTER);
+        recovery.setTesterParameters(new TreeMap<>());
+        recovery.setTesterHash(Integer.toHexString(hashCode()) + "-" + name);
+        recovery.setPolicyType(RecoverPolicyType.CONSTANT_BACKOFF);
+        recovery.setPolicyParameters(new TreeMap<>());
+        recovery.setNextAttempt(nextAttempt);
+        recovery.setCreated(DUE);
+        recovery.setLastUpdated(DUE);
+        recovery.addBlockedJobInfo(jobUuid, "blocked", JobStatusType.QUEUED, DUE);
+        return recovery;
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* createJobs:                                                            */
+    /* ---------------------------------------------------------------------- */
+    /** Blocked records reference existing jobs. */
+    private List<String> createJobs(int count) throws TapisException
+    {
+        var jobUuids = new ArrayList<String>(count);
+        for (int i = 0; i < count; i++) {
+            var job = new Job();
+            job.setName("recoveryTestJob");
+            job.setOwner("bud");
+            job.setTenant(TENANT);
+            job.setDescription("This is a fake job that will never run");
+            job.setAppId("fakeAppId");
+            job.setAppVersion("1.0");
+            job.setExecSystemId("fakeExecSystemId");
+            job.setTapisQueue("fakeTapisQueue");
+            job.setCreatedby("mary");
+            job.setCreatedbyTenant(TENANT);
+            _jobsDao.createJob(job);
+            _jobUuids.add(job.getUuid());
+            jobUuids.add(job.getUuid());
+        }
+        return jobUuids;
+    }
+}
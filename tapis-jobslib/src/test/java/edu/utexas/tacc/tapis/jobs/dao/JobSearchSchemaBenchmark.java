@@ -0,0 +1,158 @@
+package edu.utexas.tacc.tapis.jobs.dao;
+
+import java.sql.Types;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.jooq.Condition;
+import org.jooq.Field;
+import org.jooq.impl.DSL;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import edu.utexas.tacc.tapis.jobs.gen.jooq.Tables;
+import edu.utexas.tacc.tapis.search.SearchUtils;
+import edu.utexas.tacc.tapis.search.SearchUtils.SearchOperator;
+import edu.utexas.tacc.tapis.shared.exceptions.TapisException;
+
+/** Search list parsing throughput with columns resolved the way JobsDao did
+ * before the search schema, by looking up the generated table's fields and
+ * the allowed operators on every condition, compared with resolving them
+ * through JobSearchSchema.  Everything else each condition goes through, the
+ * operator, value validation, timestamp conversion and condition creation,
+ * is the same in both cases.
+ *
+ * This is not a unit test.  Run it from the test classpath with:
+ *
+ *   java -cp <test classpath> edu.utexas.tacc.tapis.jobs.dao.JobSearchSchemaBenchmark
+ *
+ * @author rcardone
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JobSearchSchemaBenchmark
+{
+    /* ********************************************************************** */
+    /*                               Constants                                */
+    /* ********************************************************************** */
+    // A search list mixing camel and snake case names, types and operators.
+    private static final List<String> SEARCH_LIST =
+        List.of("status.eq.RUNNING", "execSystemId.eq.frontera", "owner.in.alice,bob,carol",
+                "appId.like.img-classify*", "created.gt.2024-01-01",
+                "lastUpdated.between.2024-01-01,2024-06-30", "exec_system_id.neq.ls6",
+                "name.like.*test*");
+
+    /* ********************************************************************** */
+    /*                                 Fields                                 */
+    /* ********************************************************************** */
+    private JobSearchSchema _schema;
+
+    /* ********************************************************************** */
+    /*                            Set Up / Tear Down                          */
+    /* ********************************************************************** */
+    @Setup
+    public void setup() throws TapisException
+    {
+        // Both paths must build the same where clause.
+        _schema = JobSearchSchema.getInstance();
+        String legacy = legacy().toString(), schema = schema().toString();
+        if (!legacy.equals(schema))
+            throw new IllegalStateException("Conditions differ:\n" + legacy + "\n" + schema);
+    }
+
+    /* ********************************************************************** */
+    /*                               Benchmarks                               */
+    /* ********************************************************************** */
+    @Benchmark
+    public Condition legacy() throws TapisException
+    {
+        Condition where = DSL.noCondition();
+        for (String searchStr : SEARCH_LIST) {
+            String[] parsed = searchStr.split("\\.", 3);
+            Field<?> col = Tables.JOBS.field(DSL.name(parsed[0]));
+            if (col == null) col = Tables.JOBS.field(DSL.name(SearchUtils.camelCaseToSnakeCase(parsed[0])));
+            if (col == null) throw new IllegalArgumentException(searchStr);
+
+            var dataType = col.getDataType();
+            var op = SearchUtils.getSearchOperator(parsed[1].toUpperCase());
+            var ops = SearchUtils.ALLOWED_OPS_BY_TYPE.get(dataType.getSQLType());
+            if (op == null || ops == null || !ops.contains(op))
+                throw new IllegalArgumentException(searchStr);
+            where = where.and(createCondition(col, dataType.getSQLType(), dataType.getTypeName(),
+                                              op, parsed[2]));
+        }
+        return where;
+    }
+
+    @Benchmark
+    public Condition schema() throws TapisException
+    {
+        Condition where = DSL.noCondition();
+        for (String searchStr : SEARCH_LIST) {
+            String[] parsed = searchStr.split("\\.", 3);
+            var column = _schema.getColumn(parsed[0]);
+            if (column == null) throw new IllegalArgumentException(searchStr);
+
+            var op = SearchUtils.getSearchOperator(parsed[1].toUpperCase());
+            if (op == null || !column.allows(op)) throw new IllegalArgumentException(searchStr);
+            where = where.and(createCondition(column.field(), column.sqlType(), column.sqlTypeName(),
+                                              op, parsed[2]));
+        }
+        return where;
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* main:                                                                  */
+    /* ---------------------------------------------------------------------- */
+    public static void main(String[] args) throws RunnerException
+    {
+        new Runner(new OptionsBuilder().include(JobSearchSchemaBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    /* ********************************************************************** */
+    /*                            Private Methods                             */
+    /* ********************************************************************** */
+    /* ---------------------------------------------------------------------- */
+    /* createCondition:                                                       */
+    /* ---------------------------------------------------------------------- */
+    /** Validate the value and create the condition as JobsDao does for the
+     * operators in the search list.
+     */
+    @SuppressWarnings("unchecked")
+    private static Condition createCondition(Field<?> field, int sqlType, String sqlTypeName,
+                                             SearchOperator op, String val)
+     throws TapisException
+    {
+        if (!SearchUtils.validateTypeAndValueList(sqlType, op, val, sqlTypeName,
+                                                  Tables.JOBS.getName(), field.getName()))
+            throw new IllegalArgumentException(val);
+        if (sqlType == Types.TIMESTAMP) val = SearchUtils.convertValuesToTimestamps(op, val);
+
+        var col = (Field<Object>) field;
+        List<String> valList = SearchUtils.listOpSet.contains(op) ? SearchUtils.getValueList(val) : List.of();
+        return switch (op) {
+            case EQ      -> col.eq(val);
+            case NEQ     -> col.ne(val);
+            case GT      -> col.gt(val);
+            case LIKE    -> col.like(val);
+            case IN      -> col.in(valList);
+            case BETWEEN -> col.between(valList.get(0), valList.get(1));
+            default -> throw new IllegalArgumentException(op.name());
+        };
+    }
+}
@@ -0,0 +1,39 @@
+package edu.utexas.tacc.tapis.jobs.dao;
+
+import org.jooq.Field;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import edu.utexas.tacc.tapis.jobs.gen.jooq.Tables;
+import edu.utexas.tacc.tapis.search.SearchUtils;
+import edu.utexas.tacc.tapis.search.SearchUtils.SearchOperator;
+
+/** Verify the search schema against the generated table definition.
+ *
+ * @author rcardone
+ */
+@Test(groups={"unit"})
+public class JobSearchSchemaTest
+{
+    /** Every column is registered under its database and camel case names. */
+    @Test
+    public void matchesTable()
+    {
+        var schema = JobSearchSchema.getInstance();
+        Assert.assertEquals(schema.getColumnNames().size(), Tables.JOBS.fields().length);
+        for (Field<?> field : Tables.JOBS.fields()) {
+            var column = schema.getColumn(field.getName());
+            Assert.assertNotNull(column, field.getName());
+            Assert.assertSame(column.field(), field);
+            Assert.assertEquals(column.sqlType(), field.getDataType().getSQLType());
+
+            var ops = SearchUtils.ALLOWED_OPS_BY_TYPE.get(column.sqlType());
+            if (ops == null) Assert.assertFalse(column.isSearchable());
+              else Assert.assertTrue(column.allowedOps().containsAll(ops));
+        }
+        Assert.assertSame(schema.getField("execSystemId"), Tables.JOBS.EXEC_SYSTEM_ID);
+        Assert.assertSame(schema.getField("exec_system_id"), Tables.JOBS.EXEC_SYSTEM_ID);
+        Assert.assertTrue(schema.getColumn("status").allows(SearchOperator.EQ));
+        Assert.assertNull(schema.getColumn("noSuchColumn"));
+    }
+}
@@ -0,0 +1,159 @@
+package edu.utexas.tacc.tapis.jobs.monitors;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import edu.utexas.tacc.tapis.jobs.monitors.DockerStatusCollector.CommandResult;
+import edu.utexas.tacc.tapis.jobs.monitors.DockerStatusCollector.ContainerStatus;
+import edu.utexas.tacc.tapis.jobs.monitors.DockerStatusCollector.DockerCommandRunner;
+
+/** Verify the batched docker status collection using a stand-in docker host.
+ *
+ * @author rcardone
+ */
+@Test(groups={"unit"})
+public class DockerStatusCollectorTest
+{
+    private static final String HOST = "exec.example.org";
+    private static final String USER = "testuser";
+
+    // Extract the container names from the batch command's filters.
+    private static final Pattern FILTER_PATTERN = Pattern.compile("-f \"name=([^\"]+)\"");
+
+    /** Status lines are mapped to the requested containers with their exit codes. */
+    @Test
+    public void parse()
+    {
+        String output = "job-1|Up 3 minutes\n" +
+                        "job-2,alias|Exited (137) 41 seconds ago\n" +
+                        "job-3|Exited (0) 2 hours ago\n" +
+                        "job-10|Up 1 second\n";
+        var statuses = new HashMap<String,ContainerStatus>();
+        DockerStatusCollector.parse(output, Set.of("job-1", "job-2", "job-3"), statuses);
+
+        Assert.assertEquals(statuses.size(), 3);
+        Assert.assertTrue(statuses.get("job-1").isActive());
+        Assert.assertNull(statuses.get("job-1").exitCode());
+        Assert.assertTrue(statuses.get("job-2").isExited());
+        Assert.assertEquals(statuses.get("job-2").exitCode(), "137");
+        Assert.assertEquals(statuses.get("job-3").exitCode(), "0");
+    }
+
+    /** Hundreds of monitors polling the same host share one collection. */
+    @Test
+    public void sharedAcrossMonitors() throws Exception
+    {
+        final int jobs = 300;
+        var host = new StandInDocker();
+        for (int i = 0; i < jobs; i++) host.containers.put("job-" + i, i % 2 == 0 ? "Up 5 minutes" : "Exited (1) 1 second ago");
+        var collector = new DockerStatusCollector(60000, 100);
+
+        // Register every container, as monitors do on their first poll.  Each
+        // registration collects only the new container's status.
+        for (int i = 0; i < jobs; i++) {
+            var batch = collector.getStatus(HOST, USER, "job-" + i, host);
+            Assert.assertEquals(batch.size(), i + 1);
+        }
+        int registrationCommands = host.commands.get();
+        Assert.assertEquals(registrationCommands, jobs);
+        Assert.assertEquals(host.largestBatch, 1);
+
+        // A full polling cycle issues no new commands within the window.
+        var executor = Executors.newFixedThreadPool(32);
+        try {
+            var tasks = new ArrayList<Callable<ContainerStatus>>();
+            for (int i = 0; i < jobs; i++) {
+                String name = "job-" + i;
+                tasks.add(() -> collector.getStatus(HOST, USER, name, host).getStatus(name));
+            }
+            var results = executor.invokeAll(tasks);
+            for (int i = 0; i < jobs; i++) {
+                var status = results.get(i).get();
+                if (i % 2 == 0) Assert.assertTrue(status.isActive());
+                  else Assert.assertEquals(status.exitCode(), "1");
+            }
+        }
+        finally {executor.shutdownNow();}
+        Assert.assertEquals(host.commands.get(), registrationCommands);
+        Assert.assertEquals(collector.getLoadCount(HOST, USER), jobs);
+    }
+
+    /** Large batches are split and expired collections cover all tracked containers. */
+    @Test
+    public void batchingAndExpiry() throws Exception
+    {
+        var host = new StandInDocker();
+        for (int i = 0; i < 250; i++) host.containers.put("job-" + i, "Up 1 minute");
+        var collector = new DockerStatusCollector(100, 100);
+        for (int i = 0; i < 250; i++) collector.getStatus(HOST, USER, "job-" + i, host);
+
+        Thread.sleep(150);
+        int before = host.commands.get();
+        var batch = collector.getStatus(HOST, USER, "job-0", host);
+        Assert.assertEquals(batch.size(), 250);
+        Assert.assertEquals(host.commands.get() - before, 3);
+        Assert.assertTrue(host.largestBatch <= 100);
+
+        // Terminated containers are no longer collected.
+        for (int i = 1; i < 250; i++) collector.untrack(HOST, USER, "job-" + i);
+        Thread.sleep(150);
+        Assert.assertEquals(collector.getStatus(HOST, USER, "job-0", host).size(), 1);
+    }
+
+    /** Command errors are reported to every monitor in the window. */
+    @Test
+    public void errorShared() throws Exception
+    {
+        var collector = new DockerStatusCollector(60000, 100);
+        var commands = new AtomicInteger();
+        DockerCommandRunner denied = cmd -> {
+            commands.incrementAndGet();
+            return new CommandResult(1, "Got permission denied while trying to connect to the Docker daemon socket");
+        };
+        collector.getStatus(HOST, USER, "job-1", denied);
+        var batch = collector.getStatus(HOST, USER, "job-1", denied);
+        Assert.assertEquals(batch.getRc(), 1);
+        Assert.assertTrue(batch.getErrorOutput().contains("permission denied"));
+        Assert.assertNull(batch.getStatus("job-1"));
+        Assert.assertEquals(commands.get(), 1);
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* StandInDocker:                                                         */
+    /* ---------------------------------------------------------------------- */
+    /** Answer batch status commands from a container table. */
+    private static final class StandInDocker implements DockerCommandRunner
+    {
+        private final Map<String,String> containers = new ConcurrentHashMap<>();
+        private final AtomicInteger      commands   = new AtomicInteger();
+        private volatile int             largestBatch;
+
+        @Override
+        public CommandResult run(String command)
+        {
+            commands.incrementAndGet();
+            List<String> names = new ArrayList<>();
+            var m = FILTER_PATTERN.matcher(command);
+            while (m.find()) names.add(m.group(1));
+            largestBatch = Math.max(largestBatch, names.size());
+
+            var buf = new StringBuilder();
+            for (var name : names) {
+                var status = containers.get(name);
+                if (status != null) buf.append(name).append('|').append(status).append('\n');
+            }
+            return new CommandResult(0, buf.toString());
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package edu.utexas.tacc.tapis.jobs.monitors;
+
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import edu.utexas.tacc.tapis.jobs.monitors.ProcessTableSnapshots.ProcessTable;
+
+/** Verify process table parsing and the sharing of snapshots among monitors.
+ *
+ * @author rcardone
+ */
+@Test(groups={"unit"})
+public class ProcessTableSnapshotsTest
+{
+    private static final String HOST = "exec.example.org";
+    private static final String USER = "testuser";
+
+    // A host with one singularity instance in each of the documented states.
+    private static final String PS_OUTPUT =
+        "      1       0 Ss   root     /sbin/init\n" +
+        " 624784    2286 Ssl  testuser Singularity instance: testuser [job-1]\n" +
+        " 624785  624784 Sl   testuser sinit\n" +
+        " 624799       2 S<   root     [loop1]\n" +
+        " 624807  624785 S    testuser /bin/sh /.singularity.d/startscript\n" +
+        " 624810  624807 Sl   testuser java -cp /usr/local/bin/testapps.jar SleepSeconds 120\n" +
+        " 624900    2286 Ssl  testuser Singularity instance: testuser [job-2]\n" +
+        " 624901  624900 Sl   testuser sinit\n";
+
+    /** Records are indexed by pid, parent and instance name. */
+    @Test
+    public void parse()
+    {
+        var table = ProcessTable.parse(PS_OUTPUT + "garbage\n", HOST);
+        Assert.assertEquals(table.size(), 8);
+        Assert.assertEquals(table.getInstance("job-1").pid, "624784");
+        Assert.assertEquals(table.getInstance("job-2").pid, "624900");
+        Assert.assertEquals(table.getProcess("624785").rest, "Sl   testuser sinit");
+        Assert.assertEquals(table.getFirstChild("624785").pid, "624807");
+        Assert.assertEquals(table.getFirstChild("624807").pid, "624810");
+        Assert.assertNull(table.getFirstChild("624901"));
+        Assert.assertNull(table.getInstance("loop1"));
+        Assert.assertTrue(ProcessTable.parse("", HOST).isEmpty());
+    }
+
+    /** Hundreds of monitors polling one host in the same window share one ps call. */
+    @Test
+    public void sharedAcrossMonitors() throws Exception
+    {
+        final int jobs = 300;
+        var snapshots = new ProcessTableSnapshots(60000);
+        var loads = new AtomicInteger();
+        ProcessTableSnapshots.ProcessTableLoader loader = () -> {
+            loads.incrementAndGet();
+            Thread.sleep(50);
+            return PS_OUTPUT;
+        };
+
+        var executor = Executors.newFixedThreadPool(32);
+        try {
+            var tasks = new ArrayList<Callable<ProcessTable>>();
+            for (int i = 0; i < jobs; i++)
+                tasks.add(() -> snapshots.getSnapshot(HOST, USER, loader));
+            ProcessTable first = null;
+            for (var f : executor.invokeAll(tasks)) {
+                if (first == null) first = f.get();
+                Assert.assertSame(f.get(), first);
+            }
+        }
+        finally {executor.shutdownNow();}
+
+        // Other users on the same host have their own snapshot.
+        snapshots.getSnapshot(HOST, "otheruser", loader);
+        System.out.println("Process table retrievals for " + jobs + " monitors: " + loads.get() + ".");
+        Assert.assertEquals(snapshots.getLoadCount(HOST, USER), 1);
+        Assert.assertEquals(loads.get(), 2);
+    }
+
+    /** Snapshots expire after their window and can be refreshed on demand. */
+    @Test
+    public void windowAndRefresh() throws Exception
+    {
+        var snapshots = new ProcessTableSnapshots(100);
+        var loads = new AtomicInteger();
+        ProcessTableSnapshots.ProcessTableLoader loader = () -> {loads.incrementAndGet(); return PS_OUTPUT;};
+
+        snapshots.getSnapshot(HOST, USER, loader);
+        snapshots.getSnapshot(HOST, USER, loader);
+        Assert.assertEquals(loads.get(), 1);
+        Thread.sleep(150);
+        snapshots.getSnapshot(HOST, USER, loader);
+        Assert.assertEquals(loads.get(), 2);
+
+        // A monitor that needs a snapshot newer than the current one gets one.
+        Thread.sleep(5);
+        snapshots.getSnapshot(HOST, USER, System.currentTimeMillis(), loader);
+        Assert.assertEquals(loads.get(), 3);
+    }
+
+    /** A failed retrieval is reported to all monitors in its window. */
+    @Test
+    public void failureShared() throws Exception
+    {
+        var snapshots = new ProcessTableSnapshots(60000);
+        var loads = new AtomicInteger();
+        ProcessTableSnapshots.ProcessTableLoader loader = () -> {
+            loads.incrementAndGet();
+            throw new IllegalStateException("connection refused");
+        };
+        for (int i = 0; i < 3; i++) {
+            try {
+                snapshots.getSnapshot(HOST, USER, loader);
+                Assert.fail("Expected the load failure.");
+            } catch (IllegalStateException e) {
+                Assert.assertEquals(e.getMessage(), "connection refused");
+            }
+        }
+        Assert.assertEquals(loads.get(), 1);
+    }
+}
@@ -0,0 +1,265 @@
+package edu.utexas.tacc.tapis.jobs.monitors.policies;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.DoubleSupplier;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import edu.utexas.tacc.tapis.jobs.model.Job;
+import edu.utexas.tacc.tapis.jobs.model.enumerations.JobStatusType;
+import edu.utexas.tacc.tapis.jobs.model.enumerations.JobType;
+
+/** Replay job traces against the adaptive and stepwise monitor policies on a
+ * simulated clock and compare the number of status checks and the latency
+ * with which job termination is detected.  The traces are generated from a
+ * fixed seed so that results are repeatable.  Each application profile has a
+ * runtime history of earlier jobs drawn from the same distribution as the
+ * replayed jobs.
+ *
+ * @author rcardone
+ */
+@Test(groups={"unit"})
+public class AdaptiveRuntimePolicySimulationTest
+{
+    // Number of historical and replayed jobs per application profile.
+    private static final int HISTORY_JOBS  = 50;
+    private static final int REPLAYED_JOBS = 100;
+
+    /* ********************************************************************** */
+    /*                                Records                                 */
+    /* ********************************************************************** */
+    /** A job's queue and run times in milliseconds. */
+    private record Trace(long queueMillis, long runMillis) {}
+
+    /** The outcome of replaying a trace. */
+    private record Outcome(int polls, long latencyMillis) {}
+
+    /** Totals over replayed traces. */
+    private static final class Totals
+    {
+        private long polls;
+        private long latencyMillis;
+        private long maxLatencyMillis;
+        private int  jobs;
+
+        private void add(Outcome outcome)
+        {
+            polls += outcome.polls();
+            latencyMillis += outcome.latencyMillis();
+            maxLatencyMillis = Math.max(maxLatencyMillis, outcome.latencyMillis());
+            jobs++;
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format("%6d polls, mean latency %4ds, max latency %4ds",
+                                 polls, latencyMillis / jobs / 1000, maxLatencyMillis / 1000);
+        }
+    }
+
+    /** An application's runtime distribution and limits. */
+    private record Profile(String name, JobType jobType, int maxMinutes,
+                           long meanQueueSecs, DoubleSupplier runtimeSecs) {}
+
+    /* ********************************************************************** */
+    /*                                 Tests                                  */
+    /* ********************************************************************** */
+    /** The adaptive policy issues substantially fewer checks and never exceeds
+     * its maximum detection latency.
+     */
+    @Test
+    public void replayTraces() throws Exception
+    {
+        var random = new Random(42);
+        var profiles = List.of(
+            new Profile("2 minute fork", JobType.FORK, 10, 0,
+                        () -> lognormal(random, 120, 0.3)),
+            new Profile("30 minute batch", JobType.BATCH, 120, 600,
+                        () -> lognormal(random, 1800, 0.4)),
+            new Profile("6 hour batch, 48 hour limit", JobType.BATCH, 2880, 3600,
+                        () -> lognormal(random, 6 * 3600, 0.25)),
+            new Profile("bimodal batch", JobType.BATCH, 720, 1800,
+                        () -> random.nextDouble() < 0.2 ? lognormal(random, 30, 0.5)
+                                                        : lognormal(random, 4 * 3600, 0.2)));
+
+        var adaptiveTotals = new Totals();
+        var stepwiseTotals = new Totals();
+        for (var profile : profiles) {
+            // Generate the runtime history and the traces to replay.
+            var history = new ArrayList<Long>(HISTORY_JOBS);
+            for (int i = 0; i < HISTORY_JOBS; i++)
+                history.add(Math.round(getRuntimeSecs(profile)));
+            var traces = new ArrayList<Trace>(REPLAYED_JOBS);
+            for (int i = 0; i < REPLAYED_JOBS; i++) {
+                double queueSecs = profile.meanQueueSecs() == 0 ? 0 :
+                    -Math.log(1 - random.nextDouble()) * profile.meanQueueSecs();
+                traces.add(new Trace((long) (queueSecs * 1000), (long) (getRuntimeSecs(profile) * 1000)));
+            }
+
+            // Replay the traces under each policy.
+            var adaptive = new Totals();
+            var stepwise = new Totals();
+            for (var trace : traces) {
+                adaptive.add(replay(profile, trace, history, true));
+                stepwise.add(replay(profile, trace, history, false));
+            }
+            System.out.println(String.format("%-28s adaptive: %s", profile.name(), adaptive));
+            System.out.println(String.format("%-28s stepwise: %s", "", stepwise));
+            adaptiveTotals.add(new Outcome((int) adaptive.polls, adaptive.latencyMillis));
+            stepwiseTotals.add(new Outcome((int) stepwise.polls, stepwise.latencyMillis));
+
+            // The latency bound holds for every job.
+            Assert.assertTrue(adaptive.maxLatencyMillis <= MonitorPolicy.DEFAULT_MAX_POLL_MS,
+                              profile.name() + " latency " + adaptive.maxLatencyMillis);
+        }
+
+        System.out.println("Adaptive policy status checks: " + adaptiveTotals.polls + ", stepwise: " +
+                           stepwiseTotals.polls + ", reduction " +
+                           (100 - 100 * adaptiveTotals.polls / stepwiseTotals.polls) + "%.");
+        Assert.assertTrue(adaptiveTotals.polls * 10 < stepwiseTotals.polls * 7);
+    }
+
+    /** Checks are dense near historical runtimes and sparse elsewhere. */
+    @Test
+    public void denseNearHistory() throws Exception
+    {
+        var clock = new SimulatedClock();
+        var job = newJob(JobType.BATCH, 2880, JobStatusType.RUNNING, clock);
+        job.setRemoteChecksSuccess(1);
+        var parms = new MonitorPolicyParameters();
+        parms.runtimeHistorySeconds = new ArrayList<>();
+        for (int i = 0; i < 10; i++) parms.runtimeHistorySeconds.add(7200L + i * 10);
+        var policy = new AdaptiveRuntimePolicy(job, parms, clock);
+
+        // Far from the historical runtimes the maximum wait applies.
+        Assert.assertEquals(policy.millisToWait(false).longValue(), MonitorPolicy.DEFAULT_MAX_POLL_MS);
+        Assert.assertFalse(policy.keepConnection());
+
+        // Just before them the next one is targeted, then the minimum wait applies.
+        clock.advance(7000 * 1000L);
+        Assert.assertEquals(policy.millisToWait(false).longValue(), 200 * 1000L);
+        clock.advance(200 * 1000L);
+        Assert.assertEquals(policy.millisToWait(false).longValue(), MonitorPolicy.DEFAULT_MIN_POLL_MS);
+        Assert.assertTrue(policy.keepConnection());
+
+        // After outliving the history, waits are proportional to elapsed time.
+        clock.advance(800 * 1000L);
+        Assert.assertEquals(policy.millisToWait(false).longValue(), MonitorPolicy.DEFAULT_MAX_POLL_MS);
+    }
+
+    /** The job's maximum runtime is checked shortly after it is reached and
+     * monitoring stops when the time limit expires.
+     */
+    @Test
+    public void maxRuntime() throws Exception
+    {
+        var clock = new SimulatedClock();
+        var job = newJob(JobType.FORK, 30, JobStatusType.RUNNING, clock);
+        var policy = new AdaptiveRuntimePolicy(job, new MonitorPolicyParameters(), clock);
+
+        Assert.assertEquals(policy.millisToWait(false).longValue(), 1000L);
+        clock.advance(1795 * 1000L);
+        Assert.assertEquals(policy.millisToWait(false).longValue(), 15 * 1000L);
+        clock.advance(30 * 1000L);
+        Assert.assertNull(policy.millisToWait(false));
+        Assert.assertEquals(policy.getReasonCode(), MonitorPolicy.ReasonCode.TIME_EXPIRED);
+    }
+
+    /* ********************************************************************** */
+    /*                            Private Methods                             */
+    /* ********************************************************************** */
+    /* ---------------------------------------------------------------------- */
+    /* replay:                                                                */
+    /* ---------------------------------------------------------------------- */
+    /** Replay a trace the way AbstractJobMonitor drives a policy:  wait, then
+     * check the job, advancing it to RUNNING when it's seen running.
+     */
+    private Outcome replay(Profile profile, Trace trace, List<Long> history, boolean useAdaptive)
+     throws Exception
+    {
+        var clock = new SimulatedClock();
+        long t0 = clock.millis();
+        var initialStatus = trace.queueMillis() > 0 ? JobStatusType.QUEUED : JobStatusType.RUNNING;
+        var job = newJob(profile.jobType(), profile.maxMinutes(), initialStatus, clock);
+
+        var parms = new MonitorPolicyParameters();
+        parms.setDefaultMaxElapsedSecond(job);
+        parms.runtimeHistorySeconds = history;
+        MonitorPolicy policy = useAdaptive ? new AdaptiveRuntimePolicy(job, parms, clock)
+                                           : new StepwiseBackoffPolicy(job, parms);
+
+        long endMillis = trace.queueMillis() + trace.runMillis();
+        int polls = 0;
+        while (true) {
+            Long waitMillis = policy.millisToWait(false);
+            Assert.assertNotNull(waitMillis, "Monitoring stopped: " + policy.getReasonCode());
+            clock.advance(waitMillis);
+            polls++;
+
+            long elapsed = clock.millis() - t0;
+            if (elapsed >= endMillis) return new Outcome(polls, elapsed - endMillis);
+            if (job.getStatus() == JobStatusType.QUEUED && elapsed >= trace.queueMillis()) {
+                job.setStatus(JobStatusType.RUNNING);
+                job.setRemoteStarted(clock.instant());
+            }
+        }
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* newJob:                                                                */
+    /* ---------------------------------------------------------------------- */
+    private Job newJob(JobType jobType, int maxMinutes, JobStatusType status, Clock clock)
+    {
+        var job = new Job();
+        job.setJobType(jobType);
+        job.setMaxMinutes(maxMinutes);
+        job.setStatus(status);
+        if (status == JobStatusType.RUNNING) job.setRemoteStarted(clock.instant());
+        return job;
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* getRuntimeSecs:                                                        */
+    /* ---------------------------------------------------------------------- */
+    /** Jobs that exceed their maximum runtime are terminated by the scheduler. */
+    private double getRuntimeSecs(Profile profile)
+    {
+        return Math.min(profile.runtimeSecs().getAsDouble(), profile.maxMinutes() * 60.0);
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* lognormal:                                                             */
+    /* ---------------------------------------------------------------------- */
+    private static double lognormal(Random random, double median, double sigma)
+    {
+        return median * Math.exp(random.nextGaussian() * sigma);
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* SimulatedClock:                                                        */
+    /* ---------------------------------------------------------------------- */
+    /** A clock that only moves when advanced. */
+    private static final class SimulatedClock extends Clock
+    {
+        private Instant _now = Instant.parse("2024-01-01T00:00:00Z");
+
+        private void advance(long millis) {_now = _now.plusMillis(millis);}
+
+        @Override
+        public ZoneId getZone() {return ZoneOffset.UTC;}
+
+        @Override
+        public Clock withZone(ZoneId zone) {return this;}
+
+        @Override
+        public Instant instant() {return _now;}
+    }
+}
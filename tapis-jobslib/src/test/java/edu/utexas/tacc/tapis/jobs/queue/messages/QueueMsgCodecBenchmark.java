@@ -0,0 +1,110 @@
+package edu.utexas.tacc.tapis.jobs.queue.messages;
+
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import edu.utexas.tacc.tapis.jobs.queue.messages.cmd.CmdMsg;
+import edu.utexas.tacc.tapis.jobs.queue.messages.cmd.JobCancelMsg;
+import edu.utexas.tacc.tapis.jobs.queue.messages.cmd.WkrShutdownMsg;
+import edu.utexas.tacc.tapis.jobs.queue.messages.recover.JobCancelRecoverMsg;
+import edu.utexas.tacc.tapis.jobs.queue.messages.recover.JobRecoverMsg;
+import edu.utexas.tacc.tapis.jobs.queue.messages.recover.RecoverMsg;
+import edu.utexas.tacc.tapis.jobs.queue.messages.recover.RecoverShutdownMsg;
+import edu.utexas.tacc.tapis.shared.utils.TapisGsonUtils;
+
+/** Decode throughput for each message type using the codec compared with the
+ * decoding that readers used before the codec:  decode into the base class,
+ * then decode again into the message class using a new Gson.
+ *
+ * This is not a unit test.  Run it from the test classpath with:
+ *
+ *   java -cp <test classpath> edu.utexas.tacc.tapis.jobs.queue.messages.QueueMsgCodecBenchmark
+ *
+ * @author rcardone
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueueMsgCodecBenchmark
+{
+    /* ********************************************************************** */
+    /*                                 Fields                                 */
+    /* ********************************************************************** */
+    @Param({"JobCancelMsg", "WkrShutdownMsg", "JobRecoverMsg", "JobCancelRecoverMsg",
+            "RecoverShutdownMsg"})
+    public String msgName;
+
+    // The encoded message and the classes the two pass decoding uses.
+    private String   _body;
+    private boolean  _cmd;
+    private Class<?> _msgClass;
+
+    /* ********************************************************************** */
+    /*                            Set Up / Tear Down                          */
+    /* ********************************************************************** */
+    @Setup
+    public void setup()
+    {
+        var cancel = new JobCancelMsg();
+        cancel.jobuuid = "d2f1b6a6-3d4e-4b9b-8a51-3c1f0e2b9a7e-007";
+        var recover = new JobRecoverMsg();
+        recover.setJobUuid(cancel.jobuuid);
+        var parms = new TreeMap<String,String>();
+        for (int i = 0; i < 5; i++) parms.put("step" + i, Integer.toString(i * 60));
+        recover.setPolicyParameters(parms);
+
+        Object msg = switch (msgName) {
+            case "JobCancelMsg"        -> cancel;
+            case "WkrShutdownMsg"      -> new WkrShutdownMsg();
+            case "JobRecoverMsg"       -> recover;
+            case "JobCancelRecoverMsg" -> new JobCancelRecoverMsg("s");
+            case "RecoverShutdownMsg"  -> new RecoverShutdownMsg("s");
+            default -> throw new IllegalArgumentException(msgName);
+        };
+        _body = QueueMsgCodec.encode(msg);
+        _cmd = msg instanceof CmdMsg;
+        _msgClass = msg.getClass();
+    }
+
+    /* ********************************************************************** */
+    /*                               Benchmarks                               */
+    /* ********************************************************************** */
+    @Benchmark
+    public Object codec()
+    {
+        return _cmd ? QueueMsgCodec.decodeCmdMsg(_body) : QueueMsgCodec.decodeRecoverMsg(_body);
+    }
+
+    @Benchmark
+    public Object twoPass()
+    {
+        TapisGsonUtils.getGson(true).fromJson(_body, _cmd ? CmdMsg.class : RecoverMsg.class);
+        return TapisGsonUtils.getGson(true).fromJson(_body, _msgClass);
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* main:                                                                  */
+    /* ---------------------------------------------------------------------- */
+    public static void main(String[] args) throws RunnerException
+    {
+        new Runner(new OptionsBuilder().include(QueueMsgCodecBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,118 @@
+package edu.utexas.tacc.tapis.jobs.queue.messages;
+
+import java.util.List;
+import java.util.TreeMap;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.google.gson.JsonParseException;
+
+import edu.utexas.tacc.tapis.jobs.queue.messages.cmd.CmdMsg;
+import edu.utexas.tacc.tapis.jobs.queue.messages.cmd.CmdMsg.CmdType;
+import edu.utexas.tacc.tapis.jobs.queue.messages.cmd.JobCancelMsg;
+import edu.utexas.tacc.tapis.jobs.queue.messages.cmd.JobPauseMsg;
+import edu.utexas.tacc.tapis.jobs.queue.messages.cmd.JobStatusMsg;
+import edu.utexas.tacc.tapis.jobs.queue.messages.cmd.WkrResumeMsg;
+import edu.utexas.tacc.tapis.jobs.queue.messages.cmd.WkrShutdownMsg;
+import edu.utexas.tacc.tapis.jobs.queue.messages.cmd.WkrStatusMsg;
+import edu.utexas.tacc.tapis.jobs.queue.messages.cmd.WkrSuspendMsg;
+import edu.utexas.tacc.tapis.jobs.queue.messages.recover.JobCancelRecoverMsg;
+import edu.utexas.tacc.tapis.jobs.queue.messages.recover.JobRecoverMsg;
+import edu.utexas.tacc.tapis.jobs.queue.messages.recover.RecoverMsg;
+import edu.utexas.tacc.tapis.jobs.queue.messages.recover.RecoverShutdownMsg;
+
+/** Decode queue messages into the classes designated by their types.
+ *
+ * @author rcardone
+ */
+@Test(groups={"unit"})
+public class QueueMsgCodecTest
+{
+    /** Each command type is decoded into its own class. */
+    @Test
+    public void cmdMsgs()
+    {
+        var cancel = new JobCancelMsg();
+        cancel.jobuuid = "job-1";
+        cancel.senderId = "sender";
+        var decoded = QueueMsgCodec.decodeCmdMsg(QueueMsgCodec.encode(cancel));
+        Assert.assertEquals(decoded.getClass(), JobCancelMsg.class);
+        Assert.assertEquals(((JobCancelMsg) decoded).jobuuid, "job-1");
+        Assert.assertEquals(decoded.senderId, "sender");
+
+        var shutdown = new WkrShutdownMsg();
+        shutdown.force = false;
+        shutdown.workerUuid = "worker-1";
+        decoded = QueueMsgCodec.decodeCmdMsg(QueueMsgCodec.encode(shutdown));
+        Assert.assertFalse(((WkrShutdownMsg) decoded).force);
+        Assert.assertEquals(((WkrShutdownMsg) decoded).workerUuid, "worker-1");
+
+        for (CmdMsg msg : List.of(new JobStatusMsg(), new JobPauseMsg(), new WkrStatusMsg(),
+                                  new WkrSuspendMsg(), new WkrResumeMsg()))
+            Assert.assertEquals(QueueMsgCodec.decodeCmdMsg(QueueMsgCodec.encode(msg)).getClass(),
+                                msg.getClass());
+    }
+
+    /** Each recovery type is decoded into its own class. */
+    @Test
+    public void recoverMsgs()
+    {
+        var recover = new JobRecoverMsg();
+        recover.setJobUuid("job-1");
+        recover.setTenantId("dev");
+        var parms = new TreeMap<String,String>();
+        parms.put("msgType", "not the discriminator");
+        recover.setPolicyParameters(parms);
+        var decoded = QueueMsgCodec.decodeRecoverMsg(QueueMsgCodec.encode(recover));
+        Assert.assertEquals(decoded.getClass(), JobRecoverMsg.class);
+        Assert.assertEquals(((JobRecoverMsg) decoded).getJobUuid(), "job-1");
+        Assert.assertEquals(((JobRecoverMsg) decoded).getPolicyParameters(), parms);
+        Assert.assertEquals(decoded.getCorrelationId(), recover.getCorrelationId());
+
+        var cancel = new JobCancelRecoverMsg("sender");
+        cancel.jobUuid = "job-2";
+        decoded = QueueMsgCodec.decodeRecoverMsg(QueueMsgCodec.encode(cancel));
+        Assert.assertEquals(((JobCancelRecoverMsg) decoded).jobUuid, "job-2");
+        Assert.assertEquals(decoded.getSenderId(), "sender");
+
+        var shutdown = new RecoverShutdownMsg("sender");
+        shutdown.setQueueName("recovery");
+        decoded = QueueMsgCodec.decodeRecoverMsg(QueueMsgCodec.encode(shutdown));
+        Assert.assertEquals(((RecoverShutdownMsg) decoded).getQueueName(), "recovery");
+    }
+
+    /** The type is found wherever it appears among the top-level fields. */
+    @Test
+    public void msgTypes()
+    {
+        Assert.assertEquals(QueueMsgCodec.readMsgType(
+            "{\"a\":{\"msgType\":\"JOB_PAUSE\"},\"b\":[1,{\"c\":null}],\"msgType\":\"JOB_CANCEL\"}"),
+            "JOB_CANCEL");
+        Assert.assertNull(QueueMsgCodec.readMsgType("{\"a\":1}"));
+        Assert.assertNull(QueueMsgCodec.readMsgType("{\"msgType\":null}"));
+        Assert.assertNull(QueueMsgCodec.readMsgType("{}"));
+
+        // Missing and unknown types decode to the base class without a type.
+        var decoded = QueueMsgCodec.decodeCmdMsg("{\"msgType\":\"NO_SUCH_TYPE\",\"senderId\":\"s\"}");
+        Assert.assertEquals(decoded.getClass(), CmdMsg.class);
+        Assert.assertNull(decoded.msgType);
+        Assert.assertEquals(decoded.senderId, "s");
+        Assert.assertEquals(QueueMsgCodec.decodeRecoverMsg("{}").getClass(), RecoverMsg.class);
+        Assert.assertEquals(QueueMsgCodec.decodeCmdMsg("{\"msgType\":\"WKR_SHUTDOWN_QUIESCE\"}").msgType,
+                            CmdType.WKR_SHUTDOWN_QUIESCE);
+    }
+
+    /** Bodies that aren't json objects are rejected. */
+    @Test
+    public void malformed()
+    {
+        for (var body : List.of("", "[]", "\"JOB_CANCEL\"", "{\"msgType\":\"JOB_CANCEL\",", "{\"jobuuid\":[}")) {
+            try {
+                QueueMsgCodec.decodeCmdMsg(body);
+                Assert.fail("Expected a parse failure: " + body);
+            }
+            catch (JsonParseException e) {}
+        }
+    }
+}
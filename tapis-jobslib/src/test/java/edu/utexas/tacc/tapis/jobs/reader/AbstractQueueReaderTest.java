@@ -0,0 +1,169 @@
+package edu.utexas.tacc.tapis.jobs.reader;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.Envelope;
+
+import edu.utexas.tacc.tapis.jobs.queue.DeliveryResponse;
+
+/** Settle batches of deliveries on a channel that tracks each delivery's
+ * outcome the way the broker does.
+ *
+ * @author rcardone
+ */
+@Test(groups={"unit"})
+public class AbstractQueueReaderTest
+{
+    /* ********************************************************************** */
+    /*                               Constants                                */
+    /* ********************************************************************** */
+    private static final String ACKED     = "acked";
+    private static final String DISCARDED = "discarded";
+    private static final String REQUEUED  = "requeued";
+
+    /* ********************************************************************** */
+    /*                              Test Methods                              */
+    /* ********************************************************************** */
+    /* ---------------------------------------------------------------------- */
+    /* mixedRuns:                                                             */
+    /* ---------------------------------------------------------------------- */
+    /** Each run of equal decisions is settled with one call. */
+    @Test
+    public void mixedRuns() throws IOException
+    {
+        var broker = new Broker();
+        var batch = broker.deliver(8);
+        broker.settle(batch, new boolean[] {true, true, false, true, false, false, false, true});
+
+        Assert.assertEquals(broker._calls, List.of("basicAck[2, true]", "basicReject[3, false]",
+                                                   "basicAck[4, false]", "basicNack[7, true, false]",
+                                                   "basicAck[8, false]"));
+        Assert.assertEquals(broker.outcomes(batch), List.of(ACKED, ACKED, DISCARDED, ACKED,
+                                                            DISCARDED, DISCARDED, DISCARDED, ACKED));
+        Assert.assertTrue(broker._unsettled.isEmpty());
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* shortDecisions:                                                        */
+    /* ---------------------------------------------------------------------- */
+    /** Deliveries without a decision are requeued one at a time and are not
+     * settled by the next batch's cumulative ack.
+     */
+    @Test
+    public void shortDecisions() throws IOException
+    {
+        var broker = new Broker();
+        var first = broker.deliver(4);
+        broker.settle(first, new boolean[] {true, false});
+        Assert.assertEquals(broker._calls, List.of("basicAck[1, false]", "basicReject[2, false]",
+                                                   "basicNack[3, false, true]",
+                                                   "basicNack[4, false, true]"));
+        Assert.assertTrue(broker._unsettled.isEmpty());
+
+        var second = broker.deliver(3);
+        broker.settle(second, new boolean[] {true, true, true});
+        Assert.assertEquals(broker._calls.get(broker._calls.size() - 1), "basicAck[7, true]");
+        Assert.assertEquals(broker.outcomes(first), List.of(ACKED, DISCARDED, REQUEUED, REQUEUED));
+        Assert.assertEquals(broker.outcomes(second), List.of(ACKED, ACKED, ACKED));
+
+        // A batch without any decisions is requeued.
+        var third = broker.deliver(2);
+        broker.settle(third, new boolean[0]);
+        Assert.assertEquals(broker.outcomes(third), List.of(REQUEUED, REQUEUED));
+        Assert.assertTrue(broker._unsettled.isEmpty());
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* interleavedNacks:                                                      */
+    /* ---------------------------------------------------------------------- */
+    /** A cumulative nack only covers its own run after a requeued batch. */
+    @Test
+    public void interleavedNacks() throws IOException
+    {
+        var broker = new Broker();
+        var first = broker.deliver(3);
+        broker.settle(first, new boolean[] {false});
+        var second = broker.deliver(3);
+        broker.settle(second, new boolean[] {true, false, false});
+
+        Assert.assertEquals(broker.outcomes(first), List.of(DISCARDED, REQUEUED, REQUEUED));
+        Assert.assertEquals(broker.outcomes(second), List.of(ACKED, DISCARDED, DISCARDED));
+        Assert.assertEquals(broker._calls.get(broker._calls.size() - 1), "basicNack[6, true, false]");
+        Assert.assertTrue(broker._unsettled.isEmpty());
+    }
+
+    /* ********************************************************************** */
+    /*                              Broker Class                              */
+    /* ********************************************************************** */
+    /** A channel that assigns delivery tags and records how each delivery is
+     * settled.  Settling a tag that is not outstanding is a channel error.
+     */
+    private static final class Broker
+     implements InvocationHandler
+    {
+        private final TreeSet<Long>     _unsettled = new TreeSet<>();
+        private final Map<Long,String>  _outcomes  = new HashMap<>();
+        private final List<String>      _calls     = new ArrayList<>();
+        private final Channel           _channel   = (Channel) Proxy.newProxyInstance(
+            Channel.class.getClassLoader(), new Class<?>[] {Channel.class}, this);
+        private long                    _lastTag;
+
+        private List<DeliveryResponse> deliver(int count)
+        {
+            var deliveries = new ArrayList<DeliveryResponse>(count);
+            for (int i = 0; i < count; i++) {
+                var delivery = new DeliveryResponse();
+                delivery.envelope = new Envelope(++_lastTag, false, "exchange", "key");
+                deliveries.add(delivery);
+                _unsettled.add(_lastTag);
+            }
+            return deliveries;
+        }
+
+        private void settle(List<DeliveryResponse> deliveries, boolean[] acks) throws IOException
+        {
+            for (var settlement : AbstractQueueReader.getSettlements(deliveries, acks))
+                settlement.apply(_channel);
+        }
+
+        private List<String> outcomes(List<DeliveryResponse> deliveries)
+        {
+            return deliveries.stream().map(d -> _outcomes.get(d.envelope.getDeliveryTag())).toList();
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args)
+        {
+            switch (method.getName()) {
+                case "basicAck"    -> record((long) args[0], (boolean) args[1], ACKED);
+                case "basicNack"   -> record((long) args[0], (boolean) args[1],
+                                             (boolean) args[2] ? REQUEUED : DISCARDED);
+                case "basicReject" -> record((long) args[0], false,
+                                             (boolean) args[1] ? REQUEUED : DISCARDED);
+                default -> throw new UnsupportedOperationException(method.getName());
+            }
+            _calls.add(method.getName() + Arrays.toString(args));
+            return null;
+        }
+
+        private void record(long tag, boolean multiple, String outcome)
+        {
+            Assert.assertTrue(_unsettled.contains(tag), "Unknown delivery tag " + tag);
+            var tags = multiple ? new ArrayList<>(_unsettled.headSet(tag, true)) : List.of(tag);
+            for (var t : tags) {_outcomes.put(t, outcome); _unsettled.remove(t);}
+        }
+    }
+}
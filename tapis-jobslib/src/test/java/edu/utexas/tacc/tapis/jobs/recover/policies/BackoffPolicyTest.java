@@ -0,0 +1,57 @@
+package edu.utexas.tacc.tapis.jobs.recover.policies;
+
+import java.time.Instant;
+import java.util.TreeMap;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import edu.utexas.tacc.tapis.jobs.model.JobRecovery;
+import edu.utexas.tacc.tapis.jobs.recover.RecoverPolicy;
+import edu.utexas.tacc.tapis.jobs.recover.RecoverPolicy.ReasonCode;
+
+/** The elapsed time limit is measured from the recovery record's creation,
+ * not from the first use of a policy object.
+ *
+ * @author rcardone
+ */
+@Test(groups={"unit"})
+public class BackoffPolicyTest
+{
+    /** A fresh policy on a record older than the limit has expired. */
+    @Test
+    public void timeExpired()
+    {
+        for (var created : new Instant[] {Instant.now().minusSeconds(120), Instant.now()}) {
+            boolean expired = created.isBefore(Instant.now().minusSeconds(60));
+            check(new ConstantBackoffPolicy(newRecovery(created)), expired);
+            check(new StepwiseBackoffPolicy(newRecovery(created)), expired);
+        }
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* check:                                                                 */
+    /* ---------------------------------------------------------------------- */
+    private void check(RecoverPolicy policy, boolean expired)
+    {
+        if (expired) {
+            Assert.assertNull(policy.millisToWait());
+            Assert.assertEquals(policy.getReasonCode(), ReasonCode.TIME_EXPIRED);
+        }
+        else Assert.assertNotNull(policy.millisToWait());
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* newRecovery:                                                           */
+    /* ---------------------------------------------------------------------- */
+    /** A recovery record as read from the database with a one minute limit. */
+    private JobRecovery newRecovery(Instant created)
+    {
+        var parms = new TreeMap<String,String>();
+        parms.put("maxElapsedSeconds", "60");
+        var recovery = new JobRecovery();
+        recovery.setPolicyParameters(parms);
+        recovery.setCreated(created);
+        return recovery;
+    }
+}
@@ -0,0 +1,146 @@
+package edu.utexas.tacc.tapis.jobs.utils;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import edu.utexas.tacc.tapis.shared.exceptions.TapisException;
+
+/** Measure the SK calls made on behalf of a non-owner reading jobs with and
+ * without the authorization decision cache using a stand-in for SK.
+ *
+ * @author rcardone
+ */
+@Test(groups={"unit"})
+public class AuthzDecisionCacheTest
+{
+    private static final String TENANT   = "dev";
+    private static final String USER     = "viewer";
+    private static final String RESOURCE = "JOB_HISTORY";
+    private static final String READ     = "READ";
+
+    /** A dashboard refreshing 50 shared jobs through 4 read endpoints. */
+    @Test
+    public void dashboardReduction() throws TapisException
+    {
+        final int jobs = 50, endpoints = 4, refreshes = 5;
+        var sk = new StandInSK(false);
+        for (int j = 0; j < jobs; j++) sk.shared.add("job-" + j);
+
+        // Uncached, each read checks admin and then the share.
+        for (int r = 0; r < refreshes; r++)
+            for (int j = 0; j < jobs; j++)
+                for (int e = 0; e < endpoints; e++) {
+                    sk.isAdmin(USER);
+                    sk.hasPrivilege(USER, "job-" + j);
+                }
+        int uncached = sk.calls.get();
+
+        // Cached.
+        var cached = new StandInSK(false);
+        cached.shared.addAll(sk.shared);
+        var cache = new AuthzDecisionCache(60000, 30000, 15000, 1000);
+        for (int r = 0; r < refreshes; r++)
+            for (int j = 0; j < jobs; j++)
+                for (int e = 0; e < endpoints; e++) {
+                    String job = "job-" + j;
+                    Assert.assertFalse(cache.isAdmin(TENANT, USER, () -> cached.isAdmin(USER)));
+                    Assert.assertTrue(cache.hasSharePrivilege(TENANT, USER, job, RESOURCE, READ,
+                                                              () -> cached.hasPrivilege(USER, job)));
+                }
+        System.out.println("SK calls for " + refreshes + " refreshes of " + jobs + " jobs: " +
+                           uncached + " uncached, " + cached.calls.get() + " cached.");
+
+        Assert.assertEquals(uncached, 2 * jobs * endpoints * refreshes);
+        Assert.assertEquals(cached.calls.get(), 1 + jobs);
+        Assert.assertEquals(cache.getMisses(), 1 + jobs);
+    }
+
+    /** Negative decisions expire sooner than positive ones. */
+    @Test
+    public void negativeTtl() throws Exception
+    {
+        var sk = new StandInSK(true);
+        var cache = new AuthzDecisionCache(60000, 60000, 50, 1000);
+        cache.hasSharePrivilege(TENANT, USER, "job-1", RESOURCE, READ, () -> sk.hasPrivilege(USER, "job-1"));
+        cache.isAdmin(TENANT, USER, () -> sk.isAdmin(USER));
+        Thread.sleep(100);
+        cache.hasSharePrivilege(TENANT, USER, "job-1", RESOURCE, READ, () -> sk.hasPrivilege(USER, "job-1"));
+        cache.isAdmin(TENANT, USER, () -> sk.isAdmin(USER));
+
+        // The unshared job was checked twice, the admin once.
+        Assert.assertEquals(sk.calls.get(), 3);
+    }
+
+    /** Sharing or unsharing through this process takes effect immediately. */
+    @Test
+    public void invalidation() throws TapisException
+    {
+        var sk = new StandInSK(false);
+        var cache = new AuthzDecisionCache(60000, 60000, 60000, 1000);
+        Assert.assertFalse(cache.hasSharePrivilege(TENANT, USER, "job-1", RESOURCE, READ,
+                                                   () -> sk.hasPrivilege(USER, "job-1")));
+        cache.isAdmin(TENANT, USER, () -> sk.isAdmin(USER));
+
+        // Share.
+        sk.shared.add("job-1");
+        cache.invalidateShare(TENANT, USER, "job-1");
+        Assert.assertTrue(cache.hasSharePrivilege(TENANT, USER, "job-1", RESOURCE, READ,
+                                                  () -> sk.hasPrivilege(USER, "job-1")));
+
+        // Unshare.
+        sk.shared.remove("job-1");
+        cache.invalidateShare(TENANT, USER, "job-1");
+        Assert.assertFalse(cache.hasSharePrivilege(TENANT, USER, "job-1", RESOURCE, READ,
+                                                   () -> sk.hasPrivilege(USER, "job-1")));
+
+        // Admin decisions are unaffected.
+        Assert.assertEquals(cache.size(), 2);
+        Assert.assertEquals(sk.calls.get(), 4);
+    }
+
+    /** Failed SK calls are not cached. */
+    @Test
+    public void failuresNotCached()
+    {
+        var cache = new AuthzDecisionCache(60000, 60000, 60000, 1000);
+        var calls = new AtomicInteger();
+        for (int i = 0; i < 3; i++) {
+            try {
+                cache.isAdmin(TENANT, USER, () -> {
+                    calls.incrementAndGet();
+                    throw new TapisException("SK unavailable");
+                });
+                Assert.fail("Expected the SK failure.");
+            } catch (TapisException e) {
+                Assert.assertEquals(e.getMessage(), "SK unavailable");
+            }
+        }
+        Assert.assertEquals(calls.get(), 3);
+        Assert.assertEquals(cache.size(), 0);
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* StandInSK:                                                             */
+    /* ---------------------------------------------------------------------- */
+    /** Stand-in for the SK isAdmin and hasPrivilege calls. */
+    private static final class StandInSK
+    {
+        private final boolean       _admin;
+        private final Set<String>   shared = new HashSet<>();
+        private final AtomicInteger calls  = new AtomicInteger();
+
+        private StandInSK(boolean admin) {_admin = admin;}
+
+        private boolean isAdmin(String user) {calls.incrementAndGet(); return _admin;}
+
+        private boolean hasPrivilege(String user, String jobUuid)
+        {
+            calls.incrementAndGet();
+            return shared.contains(jobUuid);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package edu.utexas.tacc.tapis.jobs.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/** Admit launches at the configured rate per host, in arrival order within a
+ * tenant and round-robin among tenants.
+ *
+ * @author rcardone
+ */
+@Test(groups={"unit"})
+public class LaunchAdmissionControllerTest
+{
+    /** Launches within the limit are admitted immediately and the next one
+     * waits for the window to free up.
+     */
+    @Test
+    public void slidingWindow() throws Exception
+    {
+        var admission = new LaunchAdmissionController("test", 1, 3);
+        for (int i = 0; i < 3; i++) Assert.assertEquals(admission.acquire("host1", "dev"), 0L);
+
+        // Other hosts are not affected.
+        Assert.assertEquals(admission.acquire("host2", "dev"), 0L);
+
+        // The fourth launch waits about a second.
+        long waitMs = admission.acquire("host1", "dev");
+        Assert.assertTrue(waitMs >= 900 && waitMs < 1500, "Waited " + waitMs + " ms.");
+
+        var metrics = admission.getMetrics("host1");
+        Assert.assertEquals(metrics.queued(), 0);
+        Assert.assertEquals(metrics.admitted(), 4L);
+        Assert.assertEquals(metrics.delayed(), 1L);
+        Assert.assertEquals(metrics.maxWaitMillis(), metrics.totalWaitMillis());
+        Assert.assertNull(admission.getMetrics("host3"));
+    }
+
+    /** A tenant with a large batch shares the host with a tenant that
+     * arrives later rather than delaying it behind the whole batch.
+     */
+    @Test
+    public void fairShare() throws Exception
+    {
+        var admission = new LaunchAdmissionController("test", 1, 2);
+        var order = new ConcurrentLinkedQueue<String>();
+        var threads = new ArrayList<Thread>();
+
+        // Fill the window, then queue a batch of 4 launches from tenant A
+        // followed by 2 from tenant B.
+        admission.acquire("host", "A");
+        admission.acquire("host", "A");
+        for (var name : List.of("A1", "A2", "A3", "A4", "B1", "B2")) {
+            var thread = new Thread(() -> {
+                try {admission.acquire("host", name.substring(0, 1)); order.add(name);}
+                    catch (InterruptedException e) {}
+            });
+            thread.start();
+            threads.add(thread);
+            awaitQueueDepth(admission, "host", threads.size());
+        }
+        for (var thread : threads) thread.join(10000);
+
+        // Tenants alternate and each tenant's launches are admitted in order.
+        // Both launches admitted when the window frees up can finish in either
+        // order, so the order is checked a window at a time.
+        var admitted = new ArrayList<>(order);
+        Assert.assertEquals(admitted.size(), 6);
+        Assert.assertEquals(Set.copyOf(admitted.subList(0, 2)), Set.of("A1", "B1"));
+        Assert.assertEquals(Set.copyOf(admitted.subList(2, 4)), Set.of("A2", "B2"));
+        Assert.assertEquals(Set.copyOf(admitted.subList(4, 6)), Set.of("A3", "A4"));
+        Assert.assertEquals(admission.getMetrics("host").delayed(), 6L);
+        Assert.assertEquals(admission.getQueueDepth(), 0);
+    }
+
+    /** An interrupted request is withdrawn and the next one takes its place. */
+    @Test
+    public void interrupted() throws Exception
+    {
+        var admission = new LaunchAdmissionController("test", 1, 1);
+        admission.acquire("host", "dev");
+
+        var interrupted = new ConcurrentLinkedQueue<String>();
+        var first = new Thread(() -> {
+            try {admission.acquire("host", "dev");}
+                catch (InterruptedException e) {interrupted.add("first");}
+        });
+        first.start();
+        awaitQueueDepth(admission, "host", 1);
+        var second = new Thread(() -> {
+            try {admission.acquire("host", "dev");}
+                catch (InterruptedException e) {interrupted.add("second");}
+        });
+        second.start();
+        awaitQueueDepth(admission, "host", 2);
+
+        // Withdraw the head so that the second request is admitted instead.
+        first.interrupt();
+        first.join(5000);
+        second.join(5000);
+        Assert.assertEquals(new ArrayList<>(interrupted), List.of("first"));
+        Assert.assertEquals(admission.getQueueDepth("host"), 0);
+        Assert.assertEquals(admission.getMetrics("host").admitted(), 2L);
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* awaitQueueDepth:                                                       */
+    /* ---------------------------------------------------------------------- */
+    private static void awaitQueueDepth(LaunchAdmissionController admission, String host, int depth)
+     throws InterruptedException
+    {
+        for (int i = 0; i < 500 && admission.getQueueDepth(host) < depth; i++) Thread.sleep(2);
+        Assert.assertEquals(admission.getQueueDepth(host), depth);
+    }
+}
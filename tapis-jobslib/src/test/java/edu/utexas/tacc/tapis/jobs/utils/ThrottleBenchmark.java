@@ -0,0 +1,76 @@
+package edu.utexas.tacc.tapis.jobs.utils;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/** Admission throughput with all threads contending on one throttle.  With a
+ * one hour window the limit is reached almost immediately, so that case
+ * measures rejections.  With a zero length window every earlier insertion has
+ * already left the window, so that case measures admissions.
+ *
+ * This is not a unit test.  Run it from the test classpath with:
+ *
+ *   java -cp <test classpath> edu.utexas.tacc.tapis.jobs.utils.ThrottleBenchmark
+ *
+ * @author rcardone
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ThrottleBenchmark
+{
+    /* ********************************************************************** */
+    /*                                 Fields                                 */
+    /* ********************************************************************** */
+    @Param({"0", "3600"})
+    public int seconds;
+
+    private Throttle _throttle;
+
+    /* ********************************************************************** */
+    /*                            Set Up / Tear Down                          */
+    /* ********************************************************************** */
+    @Setup
+    public void setup() {_throttle = new Throttle(seconds, 100);}
+
+    /* ********************************************************************** */
+    /*                               Benchmarks                               */
+    /* ********************************************************************** */
+    @Benchmark
+    @Threads(1)
+    public boolean record1() {return _throttle.record();}
+
+    @Benchmark
+    @Threads(4)
+    public boolean record4() {return _throttle.record();}
+
+    @Benchmark
+    @Threads(16)
+    public boolean record16() {return _throttle.record();}
+
+    /* ---------------------------------------------------------------------- */
+    /* main:                                                                  */
+    /* ---------------------------------------------------------------------- */
+    public static void main(String[] args) throws RunnerException
+    {
+        new Runner(new OptionsBuilder().include(ThrottleBenchmark.class.getSimpleName()).build()).run();
+    }
+}
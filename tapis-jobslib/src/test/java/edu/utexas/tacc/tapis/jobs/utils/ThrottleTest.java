@@ -1,5 +1,14 @@
 package edu.utexas.tacc.tapis.jobs.utils;
 
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.Assert;
 import org.testng.annotations.Test;
 
 /** A short demonstration of how sliding window throttling works.
@@ -60,5 +69,68 @@ public class ThrottleTest
         }
     }
     
+    /** Exactly the limit is admitted when many threads record at once. */
+    @Test
+    public void exactLimitUnderContention() throws Exception
+    {
+        final int threads = 16;
+        for (int limit : new int[] {1, 8, 1000}) {
+            var throttle = new Throttle(60, limit);
+            var admitted = new AtomicInteger();
+            runConcurrently(threads, () -> {
+                for (int i = 0; i < 2000; i++) if (throttle.record()) admitted.incrementAndGet();
+                return null;
+            });
+            Assert.assertEquals(admitted.get(), limit);
+            Assert.assertEquals(throttle.getQueueLength(), limit);
+            Assert.assertFalse(throttle.record());
+        }
+    }
+
+    /** Insertions become available again as earlier ones leave the window. */
+    @Test
+    public void slidingWindow() throws Exception
+    {
+        var throttle = new Throttle(1, 3);
+        Assert.assertTrue(throttle.isEmpty());
+        Assert.assertTrue(throttle.record());
+        Thread.sleep(500);
+        Assert.assertTrue(throttle.record());
+        Assert.assertTrue(throttle.record());
+        Assert.assertFalse(throttle.record());
+
+        // Only the first insertion has left the window.
+        Thread.sleep(600);
+        Assert.assertEquals(throttle.getQueueLength(), 2);
+        Assert.assertTrue(throttle.record());
+        Assert.assertFalse(throttle.record());
+
+        // Everything leaves the window.
+        Thread.sleep(1100);
+        Assert.assertTrue(throttle.isEmpty());
+        Assert.assertTrue(throttle.record());
+
+        // A zero limit admits nothing.
+        Assert.assertFalse(new Throttle(1, 0).record());
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* runConcurrently:                                                       */
+    /* ---------------------------------------------------------------------- */
+    /** Start the task on all threads at once and wait for them to finish. */
+    private static void runConcurrently(int threads, Callable<Void> task) throws Exception
+    {
+        var executor = Executors.newFixedThreadPool(threads);
+        try {
+            var start = new CountDownLatch(1);
+            var futures = new ArrayList<Future<Void>>();
+            for (int i = 0; i < threads; i++)
+                futures.add(executor.submit(() -> {start.await(); return task.call();}));
+            start.countDown();
+            for (var future : futures) future.get(60, TimeUnit.SECONDS);
+        }
+        finally {executor.shutdownNow();}
+    }
+
     private void print(String s) {System.out.println(s);}
 }
@@ -0,0 +1,136 @@
+package edu.utexas.tacc.tapis.jobs.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import edu.utexas.tacc.tapis.files.client.gen.model.TransferStatusEnum;
+import edu.utexas.tacc.tapis.files.client.gen.model.TransferTask;
+import edu.utexas.tacc.tapis.jobs.utils.TransferSummaryResolver.TransferTaskFetcher;
+import edu.utexas.tacc.tapis.shared.exceptions.TapisImplException;
+import edu.utexas.tacc.tapis.shared.exceptions.TapisImplException.Condition;
+
+/** Measure the transfer summary resolver against a stand-in for the Files
+ * client that takes a fixed amount of time to answer each request.
+ *
+ * @author rcardone
+ */
+@Test(groups={"unit"})
+public class TransferSummaryResolverTest
+{
+    // Simulated Files latency.
+    private static final long FILES_MILLIS = 100;
+
+    private static final String JOB    = "job-uuid";
+    private static final String USER   = "testuser";
+    private static final String TENANT = "dev";
+
+    /** Many events referencing a few distinct transfers take about as long
+     * as the slowest Files call rather than the sum of all calls.
+     */
+    @Test
+    public void concurrentDeduplicated() throws TapisImplException
+    {
+        // 40 events that reference 10 transfers.
+        var files = new StandInFiles(TransferStatusEnum.COMPLETED);
+        var resolver = new TransferSummaryResolver(10, 5000, 100);
+        var ids = new ArrayList<String>();
+        for (int i = 0; i < 40; i++) ids.add("xfer-" + (i % 10));
+        ids.add(null);
+
+        long start = System.currentTimeMillis();
+        Map<String,?> summaries = resolver.resolve(ids, files, JOB, USER, TENANT);
+        long elapsed = System.currentTimeMillis() - start;
+        print("Resolved " + ids.size() + " events with " + files.calls.get() +
+              " Files calls in " + elapsed + " ms (serial: " + (ids.size() - 1) * FILES_MILLIS + " ms).");
+
+        Assert.assertEquals(summaries.size(), 10);
+        Assert.assertEquals(files.calls.get(), 10);
+        Assert.assertTrue(elapsed < 5 * FILES_MILLIS, "elapsed " + elapsed);
+        Assert.assertEquals(summaries.keySet().iterator().next(), "xfer-0");
+    }
+
+    /** Only terminal transfers are cached. */
+    @Test
+    public void terminalCached() throws TapisImplException
+    {
+        var resolver = new TransferSummaryResolver(4, 5000, 100);
+        var done = new StandInFiles(TransferStatusEnum.COMPLETED);
+        var ids = List.of("a", "b", "c");
+        resolver.resolve(ids, done, JOB, USER, TENANT);
+        var summaries = resolver.resolve(ids, done, JOB, USER, TENANT);
+        Assert.assertEquals(done.calls.get(), 3);
+        Assert.assertEquals(resolver.cacheSize(), 3);
+        Assert.assertEquals(summaries.get("b").get("status").getAsString(),
+                            TransferStatusEnum.COMPLETED.getValue());
+
+        // Another tenant's transfers are separate.
+        resolver.resolve(ids, done, JOB, USER, "other");
+        Assert.assertEquals(done.calls.get(), 6);
+
+        // Active transfers are always retrieved.
+        var active = new StandInFiles(TransferStatusEnum.IN_PROGRESS);
+        resolver.resolve(List.of("d", "e"), active, JOB, USER, TENANT);
+        resolver.resolve(List.of("d", "e"), active, JOB, USER, TENANT);
+        Assert.assertEquals(active.calls.get(), 4);
+    }
+
+    /** Files calls that outlive the deadline fail the request. */
+    @Test
+    public void deadlineExceeded()
+    {
+        var resolver = new TransferSummaryResolver(4, 50, 100);
+        var files = new StandInFiles(TransferStatusEnum.COMPLETED);
+        long start = System.currentTimeMillis();
+        try {
+            resolver.resolve(List.of("slow1", "slow2"), files, JOB, USER, TENANT);
+            Assert.fail("Expected the deadline to expire.");
+        } catch (TapisImplException e) {
+            Assert.assertTrue(System.currentTimeMillis() - start < FILES_MILLIS);
+        }
+    }
+
+    /** Fetch failures are reported and nothing is cached. */
+    @Test
+    public void fetchFailure()
+    {
+        var resolver = new TransferSummaryResolver(4, 5000, 100);
+        TransferTaskFetcher broken = id -> {throw new IllegalStateException("no files for you");};
+        try {
+            resolver.resolve(List.of("x"), broken, JOB, USER, TENANT);
+            Assert.fail("Expected a fetch failure.");
+        } catch (TapisImplException e) {
+            Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+            Assert.assertEquals(e.condition, Condition.INTERNAL_SERVER_ERROR);
+        }
+        Assert.assertEquals(resolver.cacheSize(), 0);
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* StandInFiles:                                                          */
+    /* ---------------------------------------------------------------------- */
+    /** Stand-in for FilesClient.getTransferTaskHistory() with fixed latency. */
+    private static final class StandInFiles implements TransferTaskFetcher
+    {
+        private final TransferStatusEnum _status;
+        private final AtomicInteger calls = new AtomicInteger();
+
+        private StandInFiles(TransferStatusEnum status) {_status = status;}
+
+        @Override
+        public TransferTask fetch(String transferId)
+        {
+            calls.incrementAndGet();
+            try {Thread.sleep(FILES_MILLIS);} catch (InterruptedException e) {return null;}
+            var task = new TransferTask();
+            task.setStatus(_status);
+            return task;
+        }
+    }
+
+    private void print(String s) {System.out.println(s);}
+}
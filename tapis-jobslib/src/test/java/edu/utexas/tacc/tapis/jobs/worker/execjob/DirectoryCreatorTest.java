@@ -0,0 +1,203 @@
+package edu.utexas.tacc.tapis.jobs.worker.execjob;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import edu.utexas.tacc.tapis.client.shared.exceptions.TapisClientException;
+import edu.utexas.tacc.tapis.jobs.worker.execjob.DirectoryCreator.DirectoryMaker;
+import edu.utexas.tacc.tapis.jobs.worker.execjob.DirectoryCreator.DirectoryTarget;
+import edu.utexas.tacc.tapis.shared.exceptions.TapisImplException;
+
+/** Verify concurrent directory creation using a stand-in Files service.
+ *
+ * @author rcardone
+ */
+@Test(groups={"unit"})
+public class DirectoryCreatorTest
+{
+    private static final String OWNER  = "testuser";
+    private static final String TENANT = "dev";
+
+    /** Distinct targets are created concurrently and duplicates only once. */
+    @Test
+    public void concurrentAndDeduplicated() throws Exception
+    {
+        var creator = new DirectoryCreator(8, 10000, 60000, 100);
+        var calls = new ConcurrentHashMap<String,Integer>();
+
+        // Every call waits until all three distinct directories are in flight.
+        var inFlight = new CountDownLatch(3);
+        DirectoryMaker maker = (systemId, path, shared) -> {
+            calls.merge(systemId + ":" + path, 1, Integer::sum);
+            inFlight.countDown();
+            try {inFlight.await(5, TimeUnit.SECONDS);}
+                catch (InterruptedException e) {Thread.currentThread().interrupt();}
+        };
+
+        int issued = creator.createDirectories(List.of(
+            target("exec", "/work/job1"), target("exec", "/work/job1"),
+            target("exec", "/scratch/job1"), target("archive", "/work/job1/archive")),
+            maker, OWNER, TENANT);
+        Assert.assertEquals(issued, 3);
+        Assert.assertEquals(calls.size(), 3);
+        Assert.assertTrue(calls.values().stream().allMatch(n -> n == 1));
+    }
+
+    /** Recently created directories are not created again for the same user. */
+    @Test
+    public void recentlyCreated() throws Exception
+    {
+        var creator = new DirectoryCreator(4, 10000, 60000, 100);
+        var calls = new AtomicInteger();
+        DirectoryMaker maker = (systemId, path, shared) -> calls.incrementAndGet();
+
+        var shared = target("exec", "/work/outputs");
+        creator.createDirectories(List.of(shared, target("exec", "/work/job1")), maker, OWNER, TENANT);
+        int issued = creator.createDirectories(List.of(shared, target("exec", "/work/job2")), maker, OWNER, TENANT);
+        Assert.assertEquals(issued, 1);
+        Assert.assertEquals(calls.get(), 3);
+
+        // Other owners and effective users are not served from the cache.
+        Assert.assertEquals(creator.createDirectories(List.of(shared), maker, "otheruser", TENANT), 1);
+        var otherEffUser = new DirectoryTarget("exec", "exec.example.org", "/work/outputs",
+                                               "/work/outputs", "otheruser", false);
+        Assert.assertEquals(creator.createDirectories(List.of(otherEffUser), maker, OWNER, TENANT), 1);
+        Assert.assertEquals(creator.cacheSize(), 5);
+    }
+
+    /** The first failing target in list order is reported and failures are not cached. */
+    @Test
+    public void firstFailureReported() throws Exception
+    {
+        var creator = new DirectoryCreator(4, 10000, 60000, 100);
+        var calls = new AtomicInteger();
+        DirectoryMaker maker = (systemId, path, shared) -> {
+            calls.incrementAndGet();
+            if (path.endsWith("inputs")) throw new TapisClientException("inputs");
+            if (path.startsWith("/archive")) {
+                // The later target fails first.
+                throw new TapisClientException("archive");
+            }
+            try {Thread.sleep(100);} catch (InterruptedException e) {}
+        };
+
+        var targets = List.of(target("exec", "/work/job1"), target("exec", "/work/job1/inputs"),
+                              target("archive", "/archive/job1"));
+        try {
+            creator.createDirectories(targets, maker, OWNER, TENANT);
+            Assert.fail("Expected the mkdir failure.");
+        } catch (TapisImplException e) {
+            Assert.assertEquals(e.getCause().getMessage(), "inputs");
+        }
+
+        // Only the successful directory is skipped on retry.
+        calls.set(0);
+        try {creator.createDirectories(targets, maker, OWNER, TENANT);}
+            catch (TapisImplException e) {}
+        Assert.assertEquals(calls.get(), 2);
+    }
+
+    /** Directories are created after the directories that contain them, and
+     * not at all when one of those fails.
+     */
+    @Test
+    public void ancestorsFirst() throws Exception
+    {
+        var creator = new DirectoryCreator(4, 10000, 60000, 100);
+        var events = new ConcurrentLinkedQueue<String>();
+        DirectoryMaker maker = (systemId, path, shared) -> {
+            events.add("start " + path);
+            if (path.startsWith("/fail")) throw new TapisClientException("fail");
+            try {Thread.sleep(50);} catch (InterruptedException e) {}
+            events.add("end " + path);
+        };
+
+        // Children are listed before their parents.
+        creator.createDirectories(List.of(target("exec", "/work/job1/outputs/logs"),
+                                          target("exec", "/work/job1/outputs"),
+                                          target("exec", "/work/job1"), target("exec", "/work/job10")),
+                                  maker, OWNER, TENANT);
+        var order = new ArrayList<>(events);
+        Assert.assertTrue(order.indexOf("end /work/job1") < order.indexOf("start /work/job1/outputs"));
+        Assert.assertTrue(order.indexOf("end /work/job1/outputs") < order.indexOf("start /work/job1/outputs/logs"));
+        Assert.assertTrue(order.indexOf("start /work/job10") < order.indexOf("end /work/job1"));
+
+        // The failed parent is reported and its child is never attempted.
+        events.clear();
+        try {
+            creator.createDirectories(List.of(target("exec", "/fail/child"), target("exec", "/fail")),
+                                      maker, OWNER, TENANT);
+            Assert.fail("Expected the mkdir failure.");
+        } catch (TapisImplException e) {
+            Assert.assertEquals(e.getCause().getMessage(), "fail");
+            Assert.assertTrue(e.getMessage().contains("/fail"));
+        }
+        Assert.assertEquals(new ArrayList<>(events), List.of("start /fail"));
+    }
+
+    /** Unexpected exceptions from Files are thrown unchanged. */
+    @Test
+    public void runtimeExceptionUnchanged()
+    {
+        var creator = new DirectoryCreator(4, 10000, 60000, 100);
+        var failure = new IllegalStateException("unexpected");
+        try {
+            creator.createDirectories(List.of(target("exec", "/work/job1")),
+                                      (systemId, path, shared) -> {throw failure;}, OWNER, TENANT);
+            Assert.fail("Expected the runtime exception.");
+        } catch (IllegalStateException e) {
+            Assert.assertSame(e, failure);
+        } catch (TapisImplException e) {
+            Assert.fail("The runtime exception was wrapped.", e);
+        }
+    }
+
+    /** Time spent waiting for a pool thread does not count against the deadline. */
+    @Test
+    public void queueTimeNotCounted() throws Exception
+    {
+        var creator = new DirectoryCreator(1, 200, 60000, 100);
+        DirectoryMaker maker = (systemId, path, shared) -> {
+            try {Thread.sleep(120);} catch (InterruptedException e) {}
+        };
+        int issued = creator.createDirectories(List.of(target("exec", "/work/1"), target("exec", "/work/2"),
+                                                       target("exec", "/work/3")), maker, OWNER, TENANT);
+        Assert.assertEquals(issued, 3);
+    }
+
+    /** Each creation must complete within the deadline of its start. */
+    @Test
+    public void deadline() throws Exception
+    {
+        var creator = new DirectoryCreator(4, 200, 60000, 100);
+        DirectoryMaker maker = (systemId, path, shared) -> {
+            try {Thread.sleep(150);} catch (InterruptedException e) {}
+            if (path.endsWith("3")) try {Thread.sleep(5000);} catch (InterruptedException e) {}
+        };
+
+        long start = System.currentTimeMillis();
+        try {
+            creator.createDirectories(List.of(target("exec", "/work/1"), target("exec", "/work/2"),
+                                              target("exec", "/work/3")), maker, OWNER, TENANT);
+            Assert.fail("Expected the deadline to expire.");
+        } catch (TapisImplException e) {
+            Assert.assertTrue(System.currentTimeMillis() - start < 2000);
+        }
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* target:                                                                */
+    /* ---------------------------------------------------------------------- */
+    private static DirectoryTarget target(String systemId, String dir)
+    {
+        return new DirectoryTarget(systemId, systemId + ".example.org", dir, dir, OWNER, false);
+    }
+}
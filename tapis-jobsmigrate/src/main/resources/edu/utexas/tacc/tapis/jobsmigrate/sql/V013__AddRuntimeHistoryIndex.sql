@@ -0,0 +1,2 @@
+-- Support retrieval of recent job runtimes by application and execution system.
+CREATE INDEX IF NOT EXISTS jobs_runtime_history_idx ON jobs (tenant, exec_system_id, app_id, app_version, remote_ended DESC);
@@ -0,0 +1,3 @@
+-- Recovery readers claim due recovery records in (next_attempt, tester_hash) order.
+CREATE INDEX IF NOT EXISTS job_recovery_next_attempt_hash_idx ON job_recovery (next_attempt, tester_hash);
+DROP INDEX IF EXISTS job_recovery_next_attempt_idx;
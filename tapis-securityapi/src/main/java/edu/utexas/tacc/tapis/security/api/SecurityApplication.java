@@ -10,6 +10,8 @@ import org.glassfish.jersey.server.ResourceConfig;
 import edu.utexas.tacc.tapis.security.api.utils.TenantInit;
 import edu.utexas.tacc.tapis.security.authz.impl.RoleImpl;
 import edu.utexas.tacc.tapis.security.config.RuntimeParameters;
+import edu.utexas.tacc.tapis.security.secrets.SecretCache;
+import edu.utexas.tacc.tapis.security.secrets.ServicePwdVerifier;
 import edu.utexas.tacc.tapis.security.secrets.VaultManager;
 import edu.utexas.tacc.tapis.shared.TapisConstants;
 import edu.utexas.tacc.tapis.shared.security.TenantManager;
@@ -115,6 +117,28 @@ public class SecurityApplication
             }
         if (success) System.out.println("**** SUCCESS:  VaultManager initialized ****");
         
+        // ------- Secret Cache Initialization
+        // A null instance means caching is disabled.
+        success = false;
+        try {success = SecretCache.getInstance(parms) != null;}
+            catch (Exception e) {
+                // We don't depend on the logging subsystem.
+                errors.add("**** FAILURE TO INITIALIZE: tapis-securityapi SecretCache ****\n" + e.getMessage());
+                e.printStackTrace();
+            }
+        if (success) System.out.println("**** SUCCESS:  SecretCache initialized ****");
+        
+        // ------- Service Password Verifier Initialization
+        // A null instance means passwords are always validated against vault.
+        success = false;
+        try {success = ServicePwdVerifier.getInstance(parms) != null;}
+            catch (Exception e) {
+                // We don't depend on the logging subsystem.
+                errors.add("**** FAILURE TO INITIALIZE: tapis-securityapi ServicePwdVerifier ****\n" + e.getMessage());
+                e.printStackTrace();
+            }
+        if (success) System.out.println("**** SUCCESS:  ServicePwdVerifier initialized ****");
+        
         // ------- Database Initialization
         success = false;
         try {RoleImpl.getInstance().queryDB("sk_role"); success = true;}
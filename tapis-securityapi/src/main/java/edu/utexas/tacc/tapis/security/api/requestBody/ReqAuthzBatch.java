@@ -0,0 +1,121 @@
+package edu.utexas.tacc.tapis.security.api.requestBody;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.lang3.StringUtils;
+
+import edu.utexas.tacc.tapis.security.api.utils.SKApiUtils;
+import edu.utexas.tacc.tapis.security.authz.model.SkAuthzQuestion;
+import edu.utexas.tacc.tapis.security.authz.model.SkAuthzQuestion.QuestionType;
+import edu.utexas.tacc.tapis.shared.i18n.MsgUtils;
+
+public final class ReqAuthzBatch
+ implements IReqBody
+{
+    // Maximum number of questions in a single request.
+    public static final int MAX_BATCH_SIZE = 1000;
+    
+    public String     tenant;
+    public Question[] questions;
+    
+    // Exactly one of permSpec, roleName or privilege must be set.
+    public static final class Question
+    {
+        public String  user;
+        public String  permSpec;
+        public String  roleName;
+        public String  resourceType;
+        public String  resourceId1;
+        public String  resourceId2;  // can be null
+        public String  privilege;
+        public boolean orAdmin;
+    }
+
+    /** Return a user-appropriate error message on failed validation
+     *  and return null if validation succeeds.
+     */ 
+    @Override
+    public String validate() 
+    {
+        // Final checks.
+        if (StringUtils.isBlank(tenant)) 
+            return MsgUtils.getMsg("TAPIS_NULL_PARAMETER", "isAuthorizedBatch", "tenant");
+        if (questions == null || (questions.length == 0))
+            return MsgUtils.getMsg("TAPIS_NULL_PARAMETER", "isAuthorizedBatch", "questions");
+        if (questions.length > MAX_BATCH_SIZE)
+            return MsgUtils.getMsg("TAPIS_INVALID_PARAMETER", "isAuthorizedBatch", "questions", 
+                                   questions.length);
+        
+        // Check each question.
+        for (Question q : questions) {
+            if (q == null) 
+                return MsgUtils.getMsg("TAPIS_NULL_PARAMETER", "isAuthorizedBatch", "question");
+            if (StringUtils.isBlank(q.user)) 
+                return MsgUtils.getMsg("TAPIS_NULL_PARAMETER", "isAuthorizedBatch", "user");
+            
+            // Exactly one kind of question must be asked.
+            int kinds = 0;
+            if (!StringUtils.isBlank(q.permSpec)) kinds++;
+            if (!StringUtils.isBlank(q.roleName)) kinds++;
+            if (!StringUtils.isBlank(q.privilege)) kinds++;
+            if (kinds != 1)
+                return MsgUtils.getMsg("TAPIS_INVALID_PARAMETER", "isAuthorizedBatch", 
+                                       "permSpec|roleName|privilege", q.user);
+            
+            // Role and share specific checks.
+            if (!StringUtils.isBlank(q.roleName) && !SKApiUtils.isValidName(q.roleName))
+                return MsgUtils.getMsg("TAPIS_INVALID_PARAMETER", "isAuthorizedBatch", "roleName", q.roleName);
+            if (!StringUtils.isBlank(q.privilege)) {
+                if (StringUtils.isBlank(q.resourceType)) 
+                    return MsgUtils.getMsg("TAPIS_NULL_PARAMETER", "isAuthorizedBatch", "resourceType");
+                if (StringUtils.isBlank(q.resourceId1)) 
+                    return MsgUtils.getMsg("TAPIS_NULL_PARAMETER", "isAuthorizedBatch", "resourceId1");
+            }
+        }
+        
+        // Success.
+        return null;
+    }
+    
+    /** Does any question require a share privilege check?
+     * 
+     * @return true if at least one share question is present
+     */
+    public boolean hasShareQuestion()
+    {
+        for (Question q : questions) if (!StringUtils.isBlank(q.privilege)) return true;
+        return false;
+    }
+    
+    /** Convert the validated request questions into backend questions.
+     * 
+     * @return the list of questions in request order
+     */
+    public List<SkAuthzQuestion> toSkQuestions()
+    {
+        var list = new ArrayList<SkAuthzQuestion>(questions.length);
+        for (Question q : questions) {
+            var skq = new SkAuthzQuestion();
+            skq.setUser(q.user);
+            skq.setOrAdmin(q.orAdmin);
+            if (!StringUtils.isBlank(q.permSpec)) {
+                skq.setType(QuestionType.PERMISSION);
+                skq.setPermSpec(q.permSpec);
+            }
+            else if (!StringUtils.isBlank(q.roleName)) {
+                skq.setType(QuestionType.ROLE);
+                skq.setRoleName(q.roleName);
+            }
+            else {
+                skq.setType(QuestionType.SHARE);
+                skq.setResourceType(q.resourceType);
+                skq.setResourceId1(q.resourceId1);
+                skq.setResourceId2(StringUtils.stripToNull(q.resourceId2));
+                skq.setPrivilege(q.privilege);
+            }
+            list.add(skq);
+        }
+        return list;
+    }
+}
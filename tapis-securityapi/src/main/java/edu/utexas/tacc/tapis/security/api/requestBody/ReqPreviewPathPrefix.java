@@ -14,6 +14,8 @@ public final class ReqPreviewPathPrefix
     public String newSystemId;
     public String oldPrefix;
     public String newPrefix;
+    public int    afterId;   // 0 means start from the beginning
+    public int    limit;     // 0 means no limit
 
     /** Return a user-appropriate error message on failed validation
      *  and return null if validation succeeds.
@@ -30,6 +32,10 @@ public final class ReqPreviewPathPrefix
             return MsgUtils.getMsg("TAPIS_NULL_PARAMETER", "previewPathPrefix", "oldSystemId");
         if (StringUtils.isBlank(newSystemId)) 
             return MsgUtils.getMsg("TAPIS_NULL_PARAMETER", "previewPathPrefix", "newSystemId");
+        if (afterId < 0) 
+            return MsgUtils.getMsg("TAPIS_INVALID_PARAMETER", "previewPathPrefix", "afterId", afterId);
+        if (limit < 0) 
+            return MsgUtils.getMsg("TAPIS_INVALID_PARAMETER", "previewPathPrefix", "limit", limit);
         
         // Success.
         return null;
@@ -1425,6 +1425,14 @@ public final class RoleResource
                          + "permission that matched the search criteria and the new permission if "
                          + "the specified transformations were applied.\n\n"
                          + ""
+                         + "Large result sets can be paged using the optional limit and afterId "
+                         + "parameters. When limit is greater than zero, at most limit "
+                         + "transformations are returned in ascending permission sequence "
+                         + "number order, starting after the afterId sequence number. To get "
+                         + "the next page, set afterId to the sequence number of the last "
+                         + "transformation returned. A page with fewer than limit "
+                         + "transformations is the last page.\n\n"
+                         + ""
                          + "A valid tenant and user must be specified in the request body.  "
                          + "This request is authorized if the requestor is a user that has "
                          + "access to the specified tenant or if the requestor is a service."
@@ -1485,6 +1493,8 @@ public final class RoleResource
          String newSystemId = payload.newSystemId;
          String oldPrefix = payload.oldPrefix;
          String newPrefix = payload.newPrefix;
+         int    afterId = payload.afterId;
+         int    limit = payload.limit;
          
          // Canonicalize blank prefix values.
          if (StringUtils.isBlank(oldPrefix)) oldPrefix = "";
@@ -1497,12 +1507,19 @@ public final class RoleResource
          
         // ------------------------ Request Processing ------------------------
          // Get the list of transformations that would be appled by replacePathPrefix.
+         // A positive limit selects a single page of transformations.
          List<Transformation> transList = null;
          try {
-                 transList = getRoleImpl().previewPathPrefix(schema, roleName, 
-                                                             oldSystemId, newSystemId, 
-                                                             oldPrefix, newPrefix, 
-                                                             tenant);
+                 if (limit > 0)
+                     transList = getRoleImpl().previewPathPrefix(schema, roleName, 
+                                                                 oldSystemId, newSystemId, 
+                                                                 oldPrefix, newPrefix, 
+                                                                 tenant, afterId, limit);
+                 else
+                     transList = getRoleImpl().previewPathPrefix(schema, roleName, 
+                                                                 oldSystemId, newSystemId, 
+                                                                 oldPrefix, newPrefix, 
+                                                                 tenant);
              }
              catch (Exception e) {
                  String msg = MsgUtils.getMsg("SK_PERM_TRANSFORM_FAILED", schema, roleName,
@@ -28,6 +28,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import edu.utexas.tacc.tapis.security.api.requestBody.ReqAuthzBatch;
 import edu.utexas.tacc.tapis.security.api.requestBody.ReqGrantAdminRole;
 import edu.utexas.tacc.tapis.security.api.requestBody.ReqGrantUserPermission;
 import edu.utexas.tacc.tapis.security.api.requestBody.ReqGrantUserRole;
@@ -40,9 +41,11 @@ import edu.utexas.tacc.tapis.security.api.requestBody.ReqUserHasRoleMulti;
 import edu.utexas.tacc.tapis.security.api.requestBody.ReqUserIsAdmin;
 import edu.utexas.tacc.tapis.security.api.requestBody.ReqUserIsPermitted;
 import edu.utexas.tacc.tapis.security.api.requestBody.ReqUserIsPermittedMulti;
+import edu.utexas.tacc.tapis.security.api.responses.RespAuthzBatch;
 import edu.utexas.tacc.tapis.security.api.utils.SKCheckAuthz;
 import edu.utexas.tacc.tapis.security.authz.impl.UserImpl;
 import edu.utexas.tacc.tapis.security.authz.impl.UserImpl.AuthOperation;
+import edu.utexas.tacc.tapis.security.authz.model.SkAuthzDecisionList;
 import edu.utexas.tacc.tapis.security.config.RuntimeParameters;
 import edu.utexas.tacc.tapis.shared.exceptions.TapisNotFoundException;
 import edu.utexas.tacc.tapis.shared.i18n.MsgUtils;
@@ -100,6 +103,8 @@ public final class UserResource
             "/edu/utexas/tacc/tapis/security/api/jsonschema/RevokeAdminRoleRequest.json";
     private static final String FILE_SK_USER_IS_ADMIN_REQUEST = 
             "/edu/utexas/tacc/tapis/security/api/jsonschema/UserIsAdminRequest.json";
+    private static final String FILE_SK_AUTHZ_BATCH_REQUEST = 
+            "/edu/utexas/tacc/tapis/security/api/jsonschema/AuthzBatchRequest.json";
     
     /* **************************************************************************** */
     /*                                    Fields                                    */
@@ -1583,6 +1588,102 @@ public final class UserResource
          return isPermittedMulti(payloadStream, prettyPrint, AuthOperation.ALL, null);
      }
      
+     /* ---------------------------------------------------------------------------- */
+     /* isAuthorizedBatch:                                                           */
+     /* ---------------------------------------------------------------------------- */
+     @POST
+     @Path("/isAuthorizedBatch")
+     @Consumes(MediaType.APPLICATION_JSON)
+     @Produces(MediaType.APPLICATION_JSON)
+     @Operation(
+             description = "Answer a list of authorization questions in a single request. "
+                           + "Each question names a user and exactly one of a permission "
+                           + "specification (*permSpec*), a role name (*roleName*) or a "
+                           + "share privilege (*privilege* with *resourceType*, *resourceId1* "
+                           + "and optional *resourceId2*). All questions apply to the tenant "
+                           + "specified in the request body. The *orAdmin* flag on a question "
+                           + "causes tenant administrators to always be authorized.\n\n"
+                           + ""
+                           + "The response contains one boolean decision for each question "
+                           + "in the same order as the questions in the request. Each distinct "
+                           + "user's roles and permissions are retrieved only once per request, "
+                           + "so this call is preferred over multiple single-subject calls when "
+                           + "a list of resources needs to be authorized.\n\n"
+                           + ""
+                           + "This request is authorized if the requestor is a user that has "
+                           + "access to the specified tenant or if the requestor is a service. "
+                           + "If any share privilege question is present, the requestor must "
+                           + "be a service."
+                           + "",
+             tags = "user",
+             security = {@SecurityRequirement(name = "TapisJWT")},
+             requestBody = 
+                 @RequestBody(
+                     required = true,
+                     content = @Content(schema = @Schema(
+                         implementation = edu.utexas.tacc.tapis.security.api.requestBody.ReqAuthzBatch.class))),
+             responses = 
+                 {@ApiResponse(responseCode = "200", description = "Checks completed.",
+                     content = @Content(schema = @Schema(
+                         implementation = edu.utexas.tacc.tapis.security.api.responses.RespAuthzBatch.class))),
+                  @ApiResponse(responseCode = "400", description = "Input error.",
+                     content = @Content(schema = @Schema(
+                         implementation = edu.utexas.tacc.tapis.sharedapi.responses.RespBasic.class))),
+                  @ApiResponse(responseCode = "401", description = "Not authorized.",
+                     content = @Content(schema = @Schema(
+                         implementation = edu.utexas.tacc.tapis.sharedapi.responses.RespBasic.class))),
+                  @ApiResponse(responseCode = "500", description = "Server error.",
+                     content = @Content(schema = @Schema(
+                         implementation = edu.utexas.tacc.tapis.sharedapi.responses.RespBasic.class)))}
+         )
+     public Response isAuthorizedBatch(@DefaultValue("false") @QueryParam("pretty") boolean prettyPrint,
+                                       InputStream payloadStream)
+     {
+         // Trace this request.
+         if (_log.isTraceEnabled()) {
+             String msg = MsgUtils.getMsg("TAPIS_TRACE_REQUEST", getClass().getSimpleName(), 
+                                          "isAuthorizedBatch", _request.getRequestURL());
+             _log.trace(msg);
+         }
+         
+         // ------------------------- Input Processing -------------------------
+         // Parse and validate the json in the request payload, which must exist.
+         ReqAuthzBatch payload = null;
+         try {payload = getPayload(payloadStream, FILE_SK_AUTHZ_BATCH_REQUEST, 
+                                   ReqAuthzBatch.class);
+         } 
+         catch (Exception e) {
+             String msg = MsgUtils.getMsg("NET_REQUEST_PAYLOAD_ERROR", 
+                                          "isAuthorizedBatch", e.getMessage());
+             _log.error(msg, e);
+             return Response.status(Status.BAD_REQUEST).
+               entity(TapisRestUtils.createErrorResponse(msg, prettyPrint)).build();
+         }
+         
+         // ------------------------- Check Authz ------------------------------
+         // Authorization passed if a null response is returned.  Share privilege
+         // checks are restricted to services just as in the share api.
+         var authz = SKCheckAuthz.configure(payload.tenant, null);
+         if (payload.hasShareQuestion()) authz.setCheckIsService();
+         Response resp = authz.check(prettyPrint);
+         if (resp != null) return resp;
+         
+         // ------------------------ Request Processing ------------------------
+         var list = new SkAuthzDecisionList();
+         try {list.decisions = getUserImpl().isAuthorizedBatch(payload.tenant, payload.toSkQuestions());}
+             catch (Exception e) {
+                 String msg = MsgUtils.getMsg("SK_USER_GET_PERMISSIONS_ERROR", 
+                                              payload.tenant, "isAuthorizedBatch", e.getMessage());
+                 return getExceptionResponse(e, msg, prettyPrint);
+             }
+         
+         // ---------------------------- Success ------------------------------- 
+         // Success means all questions were answered.
+         RespAuthzBatch r = new RespAuthzBatch(list);
+         return Response.status(Status.OK).entity(TapisRestUtils.createSuccessResponse(
+             MsgUtils.getMsg("TAPIS_FOUND", "Decisions", list.decisions.size()), prettyPrint, r)).build();
+     }
+     
      /* ---------------------------------------------------------------------------- */
      /* getUsersWithRole:                                                            */
      /* ---------------------------------------------------------------------------- */
@@ -0,0 +1,12 @@
+package edu.utexas.tacc.tapis.security.api.responses;
+
+import edu.utexas.tacc.tapis.security.authz.model.SkAuthzDecisionList;
+import edu.utexas.tacc.tapis.sharedapi.responses.RespAbstract;
+
+public final class RespAuthzBatch
+ extends RespAbstract
+{
+    public RespAuthzBatch(SkAuthzDecisionList list) {result = list;}
+    
+    public SkAuthzDecisionList result;
+}
@@ -3,6 +3,7 @@ package edu.utexas.tacc.tapis.security.authz.dao;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -546,6 +547,118 @@ public final class SkRolePermissionDao
       return list;
   }
   
+  /* ---------------------------------------------------------------------- */
+  /* getMatchingPermissionsPage:                                            */
+  /* ---------------------------------------------------------------------- */
+  /** Get at most limit short permission records in ascending id order whose 
+   * ids are greater than afterId and whose permissions are like the permSpec.
+   * Otherwise, this method behaves like getMatchingPermissions().  Callers
+   * page through large result sets by passing the id of the last record
+   * returned by the previous call as the next afterId, starting with 0.
+   * 
+   * @param tenant the tenant that defines the role/permission
+   * @param permSpec the permission search specification
+   * @param roleId the optional role id filter
+   * @param afterId only ids greater than this value are returned
+   * @param limit the maximum number of records returned
+   * @return the list of short permission records that meet the search criteria
+   * @throws TapisException on error
+   */
+  public List<SkRolePermissionShort> getMatchingPermissionsPage(String tenant,
+                                                                String permSpec, 
+                                                                int roleId,
+                                                                int afterId,
+                                                                int limit)
+   throws TapisException
+  {
+      // ------------------------- Check Input -------------------------
+      // Exceptions can be throw from here.
+      if (StringUtils.isBlank(tenant)) {
+          String msg = MsgUtils.getMsg("TAPIS_NULL_PARAMETER", "getMatchingPermissionsPage", "tenant");
+          _log.error(msg);
+          throw new TapisException(msg);
+      }
+      if (StringUtils.isBlank(permSpec)) {
+          String msg = MsgUtils.getMsg("TAPIS_NULL_PARAMETER", "getMatchingPermissionsPage", "permSpec");
+          _log.error(msg);
+          throw new TapisException(msg);
+      }
+      if (limit <= 0) {
+          String msg = MsgUtils.getMsg("TAPIS_INVALID_PARAMETER", "getMatchingPermissionsPage", 
+                                       "limit", limit);
+          _log.error(msg);
+          throw new TapisException(msg);
+      }
+      
+      // ------------------------- Select Query ------------------------
+      // Determine the type of query we are going to issue
+      // based on whether we have a valid role id.
+      boolean hasRoleId = roleId > 0;
+      String sql = hasRoleId ? 
+                      SqlStatements.SELECT_PERMISSION_PREFIX_WITH_ROLE_PAGE :
+                      SqlStatements.SELECT_PERMISSION_PREFIX_PAGE;
+      
+      // ------------------------- Call SQL ----------------------------
+      // Result list.
+      var list = new ArrayList<SkRolePermissionShort>(Math.min(limit, 1024));
+
+      Connection conn = null;
+      try
+      {
+          // Get a database connection.
+          conn = getConnection();
+
+          // Prepare the statement and fill in the placeholders.
+          PreparedStatement pstmt = conn.prepareStatement(sql);
+          int i = 1;
+          pstmt.setString(i++, tenant);
+          pstmt.setString(i++, permSpec);
+          if (hasRoleId) pstmt.setInt(i++, roleId);
+          pstmt.setInt(i++, afterId);
+          pstmt.setInt(i++, limit);
+
+          // Issue the call for the page.
+          ResultSet rs = pstmt.executeQuery();
+          SkRolePermissionShort obj = populateSkRolePermissionShort(rs);
+          while (obj != null) {
+            list.add(obj);
+            obj = populateSkRolePermissionShort(rs);
+          }
+          
+          // Close the result and statement.
+          rs.close();
+          pstmt.close();
+    
+          // Commit the transaction.
+          conn.commit();
+      }
+      catch (Exception e)
+      {
+          // Rollback transaction.
+          try {if (conn != null) conn.rollback();}
+          catch (Exception e1){_log.error(MsgUtils.getMsg("DB_FAILED_ROLLBACK"), e1);}
+          
+          // Log the exception.
+          String msg = MsgUtils.getMsg("DB_QUERY_ERROR", "sk_role_permission", e.getMessage());
+          _log.error(msg, e);
+          throw TapisUtils.tapisify(e);
+      }
+      finally {
+          // Conditionally return the connection back to the connection pool.
+          if (conn != null)
+              try {conn.close();}
+              catch (Exception e)
+              {
+                  // If commit worked, we can swallow the exception.
+                  // If not, the commit exception will be thrown.
+                  String msg = MsgUtils.getMsg("DB_FAILED_CONNECTION_CLOSE");
+                  _log.error(msg, e);
+              }
+      }
+      
+      return list;
+  }
+  
   /* ---------------------------------------------------------------------- */
   /* updatePermissions:                                                     */
   /* ---------------------------------------------------------------------- */
@@ -579,7 +692,8 @@ public final class SkRolePermissionDao
           // Set the sql command.
           String sql = SqlStatements.UPDATE_PERMISSION_BY_ID;
           
-          // Prepare the statement once and use multiple times.
+          // Prepare the statement once and batch all updates so that the
+          // whole list is sent to the database in a single round trip.
           PreparedStatement pstmt = conn.prepareStatement(sql);
           for (var transformation : transList) {
           
@@ -587,12 +701,17 @@ public final class SkRolePermissionDao
               pstmt.setString(1, transformation.newPerm);
               pstmt.setString(2, tenant);
               pstmt.setInt(3, transformation.permId);
-
-              // Issue the call. 0 rows will be returned when a duplicate
-              // key conflict occurs--this is not considered an error.
-              rows += pstmt.executeUpdate();
+              pstmt.addBatch();
           }
           
+          // Issue the batch. 0 rows will be returned when a duplicate
+          // key conflict occurs--this is not considered an error.  Drivers
+          // that don't report counts are assumed to have updated one row.
+          int[] counts = pstmt.executeBatch();
+          for (int count : counts) 
+              if (count > 0) rows += count;
+                else if (count == Statement.SUCCESS_NO_INFO) rows++;
+          
           // Commit the transaction.
           pstmt.close();
           conn.commit();
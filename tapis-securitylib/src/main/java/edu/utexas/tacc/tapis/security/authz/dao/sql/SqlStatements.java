@@ -94,6 +94,22 @@ public class SqlStatements
       + "WHERE tenant = ? AND permission LIKE ? AND role_id = ? "
       + "ORDER BY permission";  
   
+  // Get one page of rows that match a permission prefix for all roles.  Keyset 
+  // pagination on the id allows rows to be updated between pages without being
+  // skipped or revisited.
+  public static final String SELECT_PERMISSION_PREFIX_PAGE = 
+      "SELECT id, tenant, role_id, permission "
+      + "FROM sk_role_permission " 
+      + "WHERE tenant = ? AND permission LIKE ? AND id > ? "
+      + "ORDER BY id LIMIT ?";     
+      
+  // Get one page of rows that match a permission prefix with a role id constraint.
+  public static final String SELECT_PERMISSION_PREFIX_WITH_ROLE_PAGE = 
+      "SELECT id, tenant, role_id, permission "
+      + "FROM sk_role_permission " 
+      + "WHERE tenant = ? AND permission LIKE ? AND role_id = ? AND id > ? "
+      + "ORDER BY id LIMIT ?";  
+  
   // Update the permission string.
   public static final String UPDATE_PERMISSION_BY_ID = 
       "UPDATE sk_role_permission SET permission = ? WHERE tenant = ? and id = ?";
@@ -41,6 +41,10 @@ public final class RoleImpl
     /* ********************************************************************** */
     // Tracing.
     private static final Logger _log = LoggerFactory.getLogger(RoleImpl.class);
+    
+    // The number of permission records read, transformed and updated in each 
+    // transaction by replacePathPrefix().
+    public static final int PATH_PREFIX_CHUNK_SIZE = 1000;
 
     /* ********************************************************************** */
     /*                                Fields                                  */
@@ -600,78 +604,72 @@ public final class RoleImpl
                                                   String tenant)
      throws TapisImplException
     {
-        // Make sure the schema is one that we know uses extended path semantics.
-        // The index can be no lower than 3 since the minimum schema to support
-        // path semantic must start with the schema name and also include the 
-        // tenant, system and path.  These 4 parts are always required.
-        int pathIndex = ExtWildcardPermission.getRecursivePathIndex(schema);
-        if (pathIndex < 3) {
-            String msg = MsgUtils.getMsg("SK_PERM_NO_PATH_SUPPORT", schema);
-            _log.error(msg);
-            throw new TapisImplException(msg, Condition.BAD_REQUEST);
-        }
-        
-        // Retrieve the role id if a role name is given.
-        SkRole role = null;
-        int roleId  = -1;
-        if (!StringUtils.isBlank(roleName)) {
-            role = getRoleByName(tenant, roleName);
-            if (role == null) {
-                String msg = MsgUtils.getMsg("SK_ROLE_NOT_FOUND", tenant, roleName);
-                _log.error(msg);
-                throw new TapisImplException(msg, Condition.BAD_REQUEST);
-            }
-            roleId = role.getId();
-        }
-        
-        // Create the permission search template.
-        String permSpec = getPermissionSpec(schema, tenant, oldSystemId, 
-                                            oldPrefix, pathIndex);
-        
-        // Get the dao.
-        SkRolePermissionDao dao = null;
-        try {dao = getSkRolePermissionDao();}
-            catch (Exception e) {
-                String msg = MsgUtils.getMsg("DB_DAO_ERROR", "rolePermission");
-                _log.error(msg, e);
-                throw new TapisImplException(msg, e, Condition.INTERNAL_SERVER_ERROR);
-            }
+        // Resolve the search parameters.
+        var search = new PathPrefixSearch(schema, roleName, oldSystemId, newSystemId,
+                                          oldPrefix, newPrefix, tenant);
         
         // Get the short records from the database.
         List<SkRolePermissionShort> dblist = null;
-        try {dblist = dao.getMatchingPermissions(tenant, permSpec, roleId);}
+        try {dblist = search.dao.getMatchingPermissions(tenant, search.permSpec, search.roleId);}
         catch (Exception e) {
-            String msg = MsgUtils.getMsg("SK_PERM_SEARCH_ERROR", permSpec, roleId);
+            String msg = MsgUtils.getMsg("SK_PERM_SEARCH_ERROR", search.permSpec, search.roleId);
             _log.error(msg, e);
             throw new TapisImplException(msg, e, Condition.INTERNAL_SERVER_ERROR);
         }
         
-        // Maybe there's nothing to do.
-        if (dblist.isEmpty()) return new ArrayList<Transformation>(0);
-            
-        // Create a transformer object.  The index parameter is for the permission
-        // part that is before the path part (i.e., the system part).
-        String oldText = oldSystemId + ":" + oldPrefix;
-        String newText = newSystemId + ":" + newPrefix;
-        var transformer = new PermissionTransformer(pathIndex-1, oldText, newText);
-        
-        // Calculate the transformations. Exceptions indicate a bug.
-        try {transformer.addTransformations(dblist);}
-            catch (Exception e) {
-                String msg = MsgUtils.getMsg("SK_PERM_TRANSFORM_ERROR", permSpec, 
-                                             oldText, newText, tenant);
-                _log.error(msg, e);
-                throw new TapisImplException(msg, e, Condition.INTERNAL_SERVER_ERROR);
-            }
+        // Return the transformations.
+        return search.transform(dblist);
+    }
+    
+    /* ---------------------------------------------------------------------- */
+    /* previewPathPrefix:                                                     */
+    /* ---------------------------------------------------------------------- */
+    /** Calculate one page of the permission transformations that would be 
+     * applied if the replacePathPrefix() method was called.  Pages are ordered
+     * by permission id.  The first page is retrieved by setting afterId to 0, 
+     * subsequent pages are retrieved by setting afterId to the permId of the 
+     * last transformation in the previous page.  A page with fewer than limit 
+     * transformations indicates the last page. 
+     * 
+     * @param schema the 1st part of the permission
+     * @param roleName optional filter that restricts permission changes to one role
+     * @param oldSystemId the value of the current system id part
+     * @param newSystemId the value of the new system id part
+     * @param oldPrefix the value of the current path prefix
+     * @param newPrefix the value of the new path prefix
+     * @param tenant the tenant id
+     * @param afterId the exclusive lower bound on permission ids returned
+     * @param limit the maximum number of transformations returned
+     * @return a page of prospective transformations
+     * @throws TapisImplException on error
+     */
+    public List<Transformation> previewPathPrefix(String schema, String roleName, 
+                                                  String oldSystemId, String newSystemId, 
+                                                  String oldPrefix, String newPrefix,
+                                                  String tenant, int afterId, int limit)
+     throws TapisImplException
+    {
+        // Resolve the search parameters.
+        var search = new PathPrefixSearch(schema, roleName, oldSystemId, newSystemId,
+                                          oldPrefix, newPrefix, tenant);
+        
+        // Get the page of short records from the database.
+        var dblist = search.getPage(afterId, limit);
         
         // Return the transformations.
-        return transformer.getTransformations();
+        return search.transform(dblist);
     }
     
     /* ---------------------------------------------------------------------- */
     /* replacePathPrefix:                                                     */
     /* ---------------------------------------------------------------------- */
-    /** Calculate the list of permission transformations and then apply them.
+    /** Calculate the permission transformations and then apply them.  Matching
+     * permissions are read and updated in chunks of PATH_PREFIX_CHUNK_SIZE records,
+     * with each chunk's updates batched and committed in its own transaction.  
+     * This bounds both the memory used and the time locks are held when very 
+     * large numbers of permissions are affected.  If a chunk fails, the chunks
+     * already committed remain in effect; since the transformation is idempotent
+     * on the remaining matching permissions, the call can simply be reissued.
      * 
      * @param schema the 1st part of the permission
      * @param roleName optional filter that restricts permission changes to one role
@@ -680,7 +678,7 @@ public final class RoleImpl
      * @param oldPrefix the value of the current path prefix
      * @param newPrefix the value of the new path prefix
      * @param tenant the tenant id
-     * @return a list of prospective transformations
+     * @return the number of permissions updated
      * @throws TapisImplException on error
      */
     public int replacePathPrefix(String schema, String roleName, 
@@ -689,14 +687,27 @@ public final class RoleImpl
                                  String tenant)
      throws TapisImplException
     {
-        // Get the list of transformation to apply.
-        List<Transformation> transList = previewPathPrefix(schema, roleName, 
-                                                           oldSystemId, newSystemId, 
-                                                           oldPrefix, newPrefix, 
-                                                           tenant);
-        
-        // Update the selected permissions.
-        int rows = updatePermissions(tenant, transList);
+        // Resolve the search parameters.
+        var search = new PathPrefixSearch(schema, roleName, oldSystemId, newSystemId,
+                                          oldPrefix, newPrefix, tenant);
+        
+        // Process the matching permissions one chunk at a time.  Paging by id means
+        // rows updated in earlier chunks are never revisited, even if their new 
+        // values still match the search specification.
+        int rows = 0;
+        int afterId = 0;
+        while (true) {
+            var dblist = search.getPage(afterId, PATH_PREFIX_CHUNK_SIZE);
+            if (dblist.isEmpty()) break;
+            
+            // Update the selected permissions in their own transaction.
+            rows += updatePermissions(tenant, search.transform(dblist));
+            
+            // Are we done?
+            if (dblist.size() < PATH_PREFIX_CHUNK_SIZE) break;
+            afterId = dblist.get(dblist.size() - 1).getId();
+        }
+        
         return rows;
     }
     
@@ -812,4 +823,106 @@ public final class RoleImpl
                 
         return buf.toString();
     }
+    
+    /* ********************************************************************** */
+    /*                         PathPrefixSearch Class                         */
+    /* ********************************************************************** */
+    /** The resolved search parameters shared by the path prefix preview and 
+     * replacement methods.  The constructor performs all validation and 
+     * lookups that precede the database search.
+     */
+    private final class PathPrefixSearch
+    {
+        private final String              tenant;
+        private final int                 roleId;
+        private final int                 pathIndex;
+        private final String              permSpec;
+        private final String              oldText;
+        private final String              newText;
+        private final SkRolePermissionDao dao;
+        
+        private PathPrefixSearch(String schema, String roleName, 
+                                 String oldSystemId, String newSystemId, 
+                                 String oldPrefix, String newPrefix,
+                                 String tenant)
+         throws TapisImplException
+        {
+            // Make sure the schema is one that we know uses extended path semantics.
+            // The index can be no lower than 3 since the minimum schema to support
+            // path semantic must start with the schema name and also include the 
+            // tenant, system and path.  These 4 parts are always required.
+            pathIndex = ExtWildcardPermission.getRecursivePathIndex(schema);
+            if (pathIndex < 3) {
+                String msg = MsgUtils.getMsg("SK_PERM_NO_PATH_SUPPORT", schema);
+                _log.error(msg);
+                throw new TapisImplException(msg, Condition.BAD_REQUEST);
+            }
+            
+            // Retrieve the role id if a role name is given.
+            int id = -1;
+            if (!StringUtils.isBlank(roleName)) {
+                SkRole role = getRoleByName(tenant, roleName);
+                if (role == null) {
+                    String msg = MsgUtils.getMsg("SK_ROLE_NOT_FOUND", tenant, roleName);
+                    _log.error(msg);
+                    throw new TapisImplException(msg, Condition.BAD_REQUEST);
+                }
+                id = role.getId();
+            }
+            roleId = id;
+            this.tenant = tenant;
+            
+            // Create the permission search template.
+            permSpec = getPermissionSpec(schema, tenant, oldSystemId, oldPrefix, pathIndex);
+            
+            // The transformer text.
+            oldText = oldSystemId + ":" + oldPrefix;
+            newText = newSystemId + ":" + newPrefix;
+            
+            // Get the dao.
+            try {dao = getSkRolePermissionDao();}
+                catch (Exception e) {
+                    String msg = MsgUtils.getMsg("DB_DAO_ERROR", "rolePermission");
+                    _log.error(msg, e);
+                    throw new TapisImplException(msg, e, Condition.INTERNAL_SERVER_ERROR);
+                }
+        }
+        
+        /** Get a page of matching records in id order. */
+        private List<SkRolePermissionShort> getPage(int afterId, int limit)
+         throws TapisImplException
+        {
+            try {return dao.getMatchingPermissionsPage(tenant, permSpec, roleId, afterId, limit);}
+            catch (Exception e) {
+                String msg = MsgUtils.getMsg("SK_PERM_SEARCH_ERROR", permSpec, roleId);
+                _log.error(msg, e);
+                throw new TapisImplException(msg, e, Condition.INTERNAL_SERVER_ERROR);
+            }
+        }
+        
+        /** Calculate the transformations for a list of matching records. */
+        private List<Transformation> transform(List<SkRolePermissionShort> dblist)
+         throws TapisImplException
+        {
+            // Maybe there's nothing to do.
+            if (dblist.isEmpty()) return new ArrayList<Transformation>(0);
+            
+            // Create a transformer object.  The index parameter is for the permission
+            // part that is before the path part (i.e., the system part).
+            var transformer = new PermissionTransformer(pathIndex-1, oldText, newText);
+            
+            // Calculate the transformations. Exceptions indicate a bug.
+            try {transformer.addTransformations(dblist);}
+                catch (Exception e) {
+                    String msg = MsgUtils.getMsg("SK_PERM_TRANSFORM_ERROR", permSpec, 
+                                                 oldText, newText, tenant);
+                    _log.error(msg, e);
+                    throw new TapisImplException(msg, e, Condition.INTERNAL_SERVER_ERROR);
+                }
+            
+            // The transformer returns null if no records were transformed.
+            var list = transformer.getTransformations();
+            return list == null ? new ArrayList<Transformation>(0) : list;
+        }
+    }
 }
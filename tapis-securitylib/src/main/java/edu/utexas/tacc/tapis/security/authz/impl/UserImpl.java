@@ -11,6 +11,8 @@ import org.slf4j.LoggerFactory;
 
 import edu.utexas.tacc.tapis.security.authz.dao.SkRolePermissionDao;
 import edu.utexas.tacc.tapis.security.authz.dao.SkUserRoleDao;
+import edu.utexas.tacc.tapis.security.authz.model.SkAuthzQuestion;
+import edu.utexas.tacc.tapis.security.authz.model.SkSharePrivilegeSelector;
 import edu.utexas.tacc.tapis.security.authz.permissions.ExtWildcardPermission;
 import edu.utexas.tacc.tapis.shared.exceptions.TapisImplException;
 import edu.utexas.tacc.tapis.shared.exceptions.TapisImplException.Condition;
@@ -582,6 +584,113 @@ public final class UserImpl
         return authorized;
     }
 
+    /* ---------------------------------------------------------------------- */
+    /* isAuthorizedBatch:                                                     */
+    /* ---------------------------------------------------------------------- */
+    /** Answer a heterogeneous list of permission, role and share questions
+     * in a single call.  The role names and permissions of each distinct user
+     * are retrieved from the database at most once, and identical share
+     * questions are only evaluated once.  The returned list contains one
+     * decision for each question in the same order as the input list.
+     *
+     * Any exception causes the whole batch to fail.
+     *
+     * @param tenant the tenant common to all questions
+     * @param questions the non-empty list of questions
+     * @return the ordered list of decisions
+     * @throws TapisImplException on error
+     */
+    public List<Boolean> isAuthorizedBatch(String tenant, List<SkAuthzQuestion> questions)
+     throws TapisImplException
+    {
+        // Check inputs not checked by called routines.
+        if (questions == null || questions.isEmpty()) {
+            String msg = MsgUtils.getMsg("TAPIS_NULL_PARAMETER", "isAuthorizedBatch", "questions");
+            _log.error(msg);
+            throw new TapisImplException(msg, Condition.BAD_REQUEST);
+        }
+
+        // Per-user caches that live only for the duration of this call.  Role
+        // lists are sorted in ascending order by the dao.
+        var userRoles  = new HashMap<String,List<String>>();
+        var userPerms  = new HashMap<String,List<String>>();
+        var permMaps   = new HashMap<String,HashMap<String,ExtWildcardPermission>>();
+        var shareCache = new HashMap<String,Boolean>();
+
+        // Answer each question in order.
+        var decisions = new ArrayList<Boolean>(questions.size());
+        for (var q : questions)
+        {
+            // Make sure we have a question type and user.
+            if (q == null || q.getType() == null || StringUtils.isBlank(q.getUser())) {
+                String msg = MsgUtils.getMsg("TAPIS_NULL_PARAMETER", "isAuthorizedBatch", "question");
+                _log.error(msg);
+                throw new TapisImplException(msg, Condition.BAD_REQUEST);
+            }
+            String user = q.getUser();
+
+            boolean authorized;
+            switch (q.getType())
+            {
+                case PERMISSION:
+                {
+                    // Retrieve the user's permissions and permission object cache once.
+                    var perms = userPerms.get(user);
+                    if (perms == null) {
+                        perms = getUserPermissions(tenant, user);
+                        userPerms.put(user, perms);
+                        permMaps.put(user, new HashMap<>(1 + 2 * perms.size()));
+                    }
+                    authorized = !perms.isEmpty() &&
+                                 matchPermission(q.getPermSpec(), perms, permMaps.get(user));
+                    break;
+                }
+
+                case ROLE:
+                    authorized = Collections.binarySearch(
+                                    getCachedRoleNames(tenant, user, userRoles),
+                                    q.getRoleName()) >= 0;
+                    break;
+
+                case SHARE:
+                {
+                    // Identical share questions are only sent to the database once.
+                    var sel = new SkSharePrivilegeSelector();
+                    sel.setTenant(tenant);
+                    sel.setGrantee(user);
+                    sel.setResourceType(q.getResourceType());
+                    sel.setResourceId1(q.getResourceId1());
+                    sel.setResourceId2(q.getResourceId2());
+                    sel.setPrivilege(q.getPrivilege());
+                    String key = user + "|" + q.getResourceType() + "|" + q.getResourceId1() +
+                                 "|" + q.getResourceId2() + "|" + q.getPrivilege();
+                    Boolean shared = shareCache.get(key);
+                    if (shared == null) {
+                        shared = ShareImpl.getInstance().hasPrivilege(sel);
+                        shareCache.put(key, shared);
+                    }
+                    authorized = shared;
+                    break;
+                }
+
+                default:
+                    String msg = MsgUtils.getMsg("TAPIS_INVALID_PARAMETER", "isAuthorizedBatch",
+                                                 "type", q.getType().name());
+                    _log.error(msg);
+                    throw new TapisImplException(msg, Condition.BAD_REQUEST);
+            }
+
+            // Fall back to the admin role when requested.
+            if (!authorized && q.isOrAdmin())
+                authorized = Collections.binarySearch(getCachedRoleNames(tenant, user, userRoles),
+                                                      ADMIN_ROLE_NAME) >= 0;
+
+            decisions.add(authorized);
+        }
+
+        return decisions;
+    }
+
     /* ---------------------------------------------------------------------- */
     /* grantAdminRoleInternal:                                                */
     /* ---------------------------------------------------------------------- */
@@ -809,6 +918,30 @@ public final class UserImpl
         return false;
     }
     
+    /* ---------------------------------------------------------------------------- */
+    /* getCachedRoleNames:                                                          */
+    /* ---------------------------------------------------------------------------- */
+    /** Retrieve the user's sorted role names from the cache or from the database
+     * on a cache miss.
+     *
+     * @param tenant the user's tenant
+     * @param user the user whose roles are requested
+     * @param userRoles the caller's cache of user to role names
+     * @return the user's role names sorted in ascending order
+     * @throws TapisImplException on error
+     */
+    private List<String> getCachedRoleNames(String tenant, String user,
+                                            HashMap<String,List<String>> userRoles)
+     throws TapisImplException
+    {
+        var roles = userRoles.get(user);
+        if (roles == null) {
+            roles = getUserRoleNames(tenant, user);
+            userRoles.put(user, roles);
+        }
+        return roles;
+    }
+
     /* ---------------------------------------------------------------------------- */
     /* createAndAssignRole:                                                         */
     /* ---------------------------------------------------------------------------- */
@@ -1,5 +1,6 @@
 package edu.utexas.tacc.tapis.security.authz.impl;
 
+import java.security.MessageDigest;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -21,9 +22,11 @@ import edu.utexas.tacc.tapis.security.authz.model.SkSecretMetadata;
 import edu.utexas.tacc.tapis.security.authz.model.SkSecretVersion;
 import edu.utexas.tacc.tapis.security.authz.model.SkSecretVersionMetadata;
 import edu.utexas.tacc.tapis.security.authz.secrets.GenerateSecrets;
+import edu.utexas.tacc.tapis.security.secrets.SecretCache;
 import edu.utexas.tacc.tapis.security.secrets.SecretPathMapper;
 import edu.utexas.tacc.tapis.security.secrets.SecretPathMapper.SecretPathMapperParms;
 import edu.utexas.tacc.tapis.security.secrets.SecretType;
+import edu.utexas.tacc.tapis.security.secrets.ServicePwdVerifier;
 import edu.utexas.tacc.tapis.security.secrets.VaultManager;
 import edu.utexas.tacc.tapis.shared.exceptions.TapisImplException;
 import edu.utexas.tacc.tapis.shared.exceptions.TapisImplException.Condition;
@@ -48,6 +51,9 @@ public final class VaultImpl
    // Singleton instance of this class.
    private static VaultImpl _instance;
    
+   // Empty salt used when comparing passwords without a verifier.
+   private static final byte[] _noSalt = new byte[0];
+   
    // A list that contains a single zero integer.
    private static final ArrayList<Integer> _zeroVersionList = initZeroVersionList();
    
@@ -95,6 +101,20 @@ public final class VaultImpl
    public SkSecret secretRead(String tenant, String user, 
                               SecretPathMapperParms pathParms, Integer version)
     throws TapisImplException
+   {
+       return secretRead(tenant, user, pathParms, version, true);
+   }
+   
+   /* ---------------------------------------------------------------------- */
+   /* secretRead:                                                            */
+   /* ---------------------------------------------------------------------- */
+   /** Read a secret with the option of bypassing the secret cache.  Reads 
+    * that bypass the cache neither use nor populate it. 
+    */
+   private SkSecret secretRead(String tenant, String user, 
+                               SecretPathMapperParms pathParms, Integer version,
+                               boolean useCache)
+    throws TapisImplException
    {
        // ------------------------ Input Checking ----------------------------
        if (StringUtils.isBlank(tenant)) {
@@ -127,23 +147,41 @@ public final class VaultImpl
        // Calculate the secret path.  An exception can be thrown here.
        String secretPath = new SecretPathMapper(pathParms).getSecretPath(tenant, user);
        
-       // Issue the vault call.
-       LogicalResponse logicalResp = null;
-       try {
-           var logical = VaultManager.getInstance().getVault().logical();
-           logicalResp = logical.read(secretPath, Boolean.TRUE, version);
-       } catch (Exception e) {
-           String msg = MsgUtils.getMsg("SK_VAULT_READ_SECRET_ERROR", 
-                                        tenant, user, secretPath, version, 
-                                        e.getMessage());
-           _log.error(msg, e);
-           throw new TapisImplException(msg, Condition.INTERNAL_SERVER_ERROR);
+       // Use a cached response if one exists.
+       var cache = useCache ? SecretCache.getInstance() : null;
+       var cached = cache == null ? null :
+           cache.get(pathParms.getSecretType(), tenant, secretPath, version);
+       long generation = cache == null ? 0 : cache.getGeneration();
+       int vaultStatus;
+       String vaultBody;
+       if (cached != null) {
+           vaultStatus = cached.status;
+           vaultBody   = cached.body;
        }
+       else {
+           // Issue the vault call.
+           LogicalResponse logicalResp = null;
+           try {
+               var logical = VaultManager.getInstance().getVault().logical();
+               logicalResp = logical.read(secretPath, Boolean.TRUE, version);
+           } catch (Exception e) {
+               String msg = MsgUtils.getMsg("SK_VAULT_READ_SECRET_ERROR", 
+                                            tenant, user, secretPath, version, 
+                                            e.getMessage());
+               _log.error(msg, e);
+               throw new TapisImplException(msg, Condition.INTERNAL_SERVER_ERROR);
+           }
        
-       // The rest response field is non-null if we get here.
-       var restResp = logicalResp.getRestResponse();
-       int vaultStatus = restResp.getStatus();
-       String vaultBody = restResp.getBody() == null ? "{}" : new String(restResp.getBody());
+           // The rest response field is non-null if we get here.
+           var restResp = logicalResp.getRestResponse();
+           vaultStatus = restResp.getStatus();
+           vaultBody = restResp.getBody() == null ? "{}" : new String(restResp.getBody());
+           
+           // Cache successful and not found responses.
+           if (cache != null) 
+               cache.put(pathParms.getSecretType(), tenant, secretPath, version, 
+                         vaultStatus, vaultBody, logicalResp.getLeaseDuration(), generation);
+       }
        
        // Did vault encounter a problem?
        if (vaultStatus >= 400) {
@@ -281,6 +319,9 @@ public final class VaultImpl
            throw new TapisImplException(msg, Condition.INTERNAL_SERVER_ERROR);
        }
        
+       // Discard cached copies of this secret even if vault reported an error.
+       invalidateCache(pathParms.getSecretType(), tenant, secretPath);
+       
        // The rest response field is non-null if we get here.
        var restResp = logicalResp.getRestResponse();
        int vaultStatus = restResp.getStatus();
@@ -382,6 +423,9 @@ public final class VaultImpl
            throw new TapisImplException(msg, Condition.INTERNAL_SERVER_ERROR);
        }
        
+       // Discard cached copies of this secret even if vault reported an error.
+       invalidateCache(pathParms.getSecretType(), tenant, secretPath);
+       
        // The rest response field is non-null if we get here.
        var restResp = logicalResp.getRestResponse();
        int vaultStatus = restResp.getStatus();
@@ -476,6 +520,9 @@ public final class VaultImpl
            throw new TapisImplException(msg, Condition.INTERNAL_SERVER_ERROR);
        }
        
+       // Discard cached copies of this secret even if vault reported an error.
+       invalidateCache(pathParms.getSecretType(), tenant, secretPath);
+       
        // The rest response field is non-null if we get here.
        var restResp = logicalResp.getRestResponse();
        int vaultStatus = restResp.getStatus();
@@ -568,6 +615,9 @@ public final class VaultImpl
            throw new TapisImplException(msg, Condition.INTERNAL_SERVER_ERROR);
        }
        
+       // Discard cached copies of this secret even if vault reported an error.
+       invalidateCache(pathParms.getSecretType(), tenant, secretPath);
+       
        // The rest response field is non-null if we get here.
        var restResp = logicalResp.getRestResponse();
        int vaultStatus = restResp.getStatus();
@@ -630,22 +680,40 @@ public final class VaultImpl
        // Construct the secret's full path that include tenant and user.
        String secretPath = new SecretPathMapper(pathParms).getSecretPath(tenant, user);
        
-       // Issue the vault call.
-       LogicalResponse logicalResp = null;
-       try {
-           var logical = VaultManager.getInstance().getVault().logical();
-           logicalResp = logical.list(secretPath);
-       } catch (Exception e) {
-           String msg = MsgUtils.getMsg("SK_VAULT_READ_SECRET_METADATA_ERROR", 
-                                        tenant, user, secretPath, e.getMessage());
-           _log.error(msg, e);
-           throw new TapisImplException(msg, Condition.INTERNAL_SERVER_ERROR);
+       // Use a cached response if one exists.
+       var cache = SecretCache.getInstance();
+       var cached = cache == null ? null :
+           cache.get(pathParms.getSecretType(), tenant, secretPath, SecretCache.META_VERSION);
+       long generation = cache == null ? 0 : cache.getGeneration();
+       int vaultStatus;
+       String vaultBody;
+       if (cached != null) {
+           vaultStatus = cached.status;
+           vaultBody   = cached.body;
        }
+       else {
+           // Issue the vault call.
+           LogicalResponse logicalResp = null;
+           try {
+               var logical = VaultManager.getInstance().getVault().logical();
+               logicalResp = logical.list(secretPath);
+           } catch (Exception e) {
+               String msg = MsgUtils.getMsg("SK_VAULT_READ_SECRET_METADATA_ERROR", 
+                                            tenant, user, secretPath, e.getMessage());
+               _log.error(msg, e);
+               throw new TapisImplException(msg, Condition.INTERNAL_SERVER_ERROR);
+           }
        
-       // The rest response field is non-null if we get here.
-       var restResp = logicalResp.getRestResponse();
-       int vaultStatus = restResp.getStatus();
-       String vaultBody = restResp.getBody() == null ? "{}" : new String(restResp.getBody());
+           // The rest response field is non-null if we get here.
+           var restResp = logicalResp.getRestResponse();
+           vaultStatus = restResp.getStatus();
+           vaultBody = restResp.getBody() == null ? "{}" : new String(restResp.getBody());
+           
+           // Cache successful and not found responses.
+           if (cache != null) 
+               cache.put(pathParms.getSecretType(), tenant, secretPath, SecretCache.META_VERSION, 
+                         vaultStatus, vaultBody, logicalResp.getLeaseDuration(), generation);
+       }
        
        // Did vault encounter a problem?
        if (vaultStatus >= 400) {
@@ -854,6 +922,9 @@ public final class VaultImpl
            throw new TapisImplException(msg, Condition.INTERNAL_SERVER_ERROR);
        }
        
+       // Discard cached copies of this secret even if vault reported an error.
+       invalidateCache(pathParms.getSecretType(), tenant, secretPath);
+       
        // The rest response field is non-null if we get here.
        var restResp = logicalResp.getRestResponse();
        int vaultStatus = restResp.getStatus();
@@ -874,6 +945,12 @@ public final class VaultImpl
    /** Return true only if the password parameter exactly matches the service's 
     * password in vault.  Otherwise, false is returned.
     * 
+    * When service password verifiers are enabled, the candidate password is 
+    * compared against a salted hash of the vault password that is kept in 
+    * memory and periodically refreshed, so most validations don't call vault.
+    * In all cases the comparison is constant time and plaintext passwords
+    * read from vault are not cached.
+    * 
     * @param tenant the service's tenant
     * @param serviceName the service name
     * @param secretName the path name of the password
@@ -904,31 +981,56 @@ public final class VaultImpl
        var pathParms = new SecretPathMapperParms(SecretType.ServicePwd);
        pathParms.setSecretName(secretName);
        
-       // Let the read method do the heavy lifting by reading the 
-       // latest version of the secret.
-       SkSecret secret;
-       try {secret = secretRead(tenant, serviceName, pathParms, 0);}
-           catch (Exception e) {
-               String msg = MsgUtils.getMsg("SK_INVALID_SERVICE_PASSWORD", 
-                                            tenant, serviceName, secretName);
-               _log.error(msg, e);
-               throw e;
-           }
+       // Reads the latest version of the password from vault, bypassing the 
+       // secret cache.  The secret map will list passwords as the last element
+       // in a path.
+       ServicePwdVerifier.PasswordLoader loader = () -> {
+           SkSecret secret = secretRead(tenant, serviceName, pathParms, 0, false);
+           return secret.secretMap.get(FilenameUtils.getName(secretName));
+       };
        
-       // Get the password if it exists.  The secret map
-       // will list passwords as the last element in a path.
-       String key = FilenameUtils.getName(secretName);
-       String vaultPassword = secret.secretMap.get(key);
-       if (StringUtils.isBlank(vaultPassword)) return false;
-       if (!vaultPassword.equals(password))    return false;
-       
-       // A match.
-       return true;
+       try {
+           // Use the in-memory verifier if it's enabled.
+           var verifier = ServicePwdVerifier.getInstance();
+           if (verifier != null) {
+               String secretPath = new SecretPathMapper(pathParms).getSecretPath(tenant, serviceName);
+               return verifier.validate(tenant, secretPath, password, loader);
+           }
+           
+           // Compare directly with the vault password.  Hashing both values 
+           // first keeps the comparison from leaking the password's length.
+           String vaultPassword = loader.load();
+           if (StringUtils.isBlank(vaultPassword)) return false;
+           return MessageDigest.isEqual(ServicePwdVerifier.hash(_noSalt, vaultPassword), 
+                                        ServicePwdVerifier.hash(_noSalt, password));
+       }
+       catch (Exception e) {
+           String msg = MsgUtils.getMsg("SK_INVALID_SERVICE_PASSWORD", 
+                                        tenant, serviceName, secretName);
+           _log.error(msg, e);
+           throw e;
+       }
    }
    
    /* **************************************************************************** */
    /*                               Private Methods                                */
    /* **************************************************************************** */
+   /* ---------------------------------------------------------------------------- */
+   /* invalidateCache:                                                             */
+   /* ---------------------------------------------------------------------------- */
+   /** Remove all cached versions and metadata of a secret if caching is enabled. 
+    * Service password verifiers for the path are also discarded. 
+    */
+   private void invalidateCache(SecretType secretType, String tenant, String secretPath)
+   {
+       var cache = SecretCache.getInstance();
+       if (cache != null) cache.invalidate(secretType, tenant, secretPath);
+       
+       var verifier = ServicePwdVerifier.getInstance();
+       if (verifier != null && secretType == SecretType.ServicePwd) 
+           verifier.invalidate(tenant, secretPath);
+   }
+   
    /* ---------------------------------------------------------------------------- */
    /* getSecretLatestVersionNumber:                                                */
    /* ---------------------------------------------------------------------------- */
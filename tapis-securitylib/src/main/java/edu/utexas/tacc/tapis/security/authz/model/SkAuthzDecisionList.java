@@ -0,0 +1,10 @@
+package edu.utexas.tacc.tapis.security.authz.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public final class SkAuthzDecisionList
+{
+    // One decision per question in request order.
+    public List<Boolean> decisions = new ArrayList<>();
+}
@@ -0,0 +1,80 @@
+package edu.utexas.tacc.tapis.security.authz.model;
+
+/** A single authorization question submitted as part of a batch authorization
+ * request.  Exactly one of permSpec, roleName or privilege (with its resource
+ * fields) is expected to be set; the question type determines which one is
+ * used.  The tenant is common to all questions in a batch.
+ *
+ * @author rcardone
+ */
+public final class SkAuthzQuestion
+{
+    // The kinds of questions that can be asked.
+    public enum QuestionType {PERMISSION, ROLE, SHARE}
+
+    private QuestionType type;
+    private String       user;
+    private String       permSpec;
+    private String       roleName;
+    private String       resourceType;
+    private String       resourceId1;
+    private String       resourceId2;
+    private String       privilege;
+    private boolean      orAdmin;
+
+    // Accessors.
+    public QuestionType getType() {
+        return type;
+    }
+    public void setType(QuestionType type) {
+        this.type = type;
+    }
+    public String getUser() {
+        return user;
+    }
+    public void setUser(String user) {
+        this.user = user;
+    }
+    public String getPermSpec() {
+        return permSpec;
+    }
+    public void setPermSpec(String permSpec) {
+        this.permSpec = permSpec;
+    }
+    public String getRoleName() {
+        return roleName;
+    }
+    public void setRoleName(String roleName) {
+        this.roleName = roleName;
+    }
+    public String getResourceType() {
+        return resourceType;
+    }
+    public void setResourceType(String resourceType) {
+        this.resourceType = resourceType;
+    }
+    public String getResourceId1() {
+        return resourceId1;
+    }
+    public void setResourceId1(String resourceId1) {
+        this.resourceId1 = resourceId1;
+    }
+    public String getResourceId2() {
+        return resourceId2;
+    }
+    public void setResourceId2(String resourceId2) {
+        this.resourceId2 = resourceId2;
+    }
+    public String getPrivilege() {
+        return privilege;
+    }
+    public void setPrivilege(String privilege) {
+        this.privilege = privilege;
+    }
+    public boolean isOrAdmin() {
+        return orAdmin;
+    }
+    public void setOrAdmin(boolean orAdmin) {
+        this.orAdmin = orAdmin;
+    }
+}
@@ -0,0 +1,478 @@
+package edu.utexas.tacc.tapis.security.commands.aux;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import com.google.gson.JsonObject;
+
+import edu.utexas.tacc.tapis.shared.utils.TapisGsonUtils;
+
+/** Parallel, resumable traversal of a Vault KV v2 secrets tree.  This class
+ * replaces the serial recursive walks that the SkExport and TransferSecrets
+ * utilities used to perform.
+ *
+ * Each path is a task in a fork/join pool, so idle workers steal pending paths
+ * from busy ones while the number of concurrent Vault requests never exceeds
+ * the configured parallelism.  A LIST on a path that returns 404 identifies a
+ * secret (a leaf), which is handed to the caller's LeafProcessor.  Idempotent
+ * requests (GET and LIST) that fail with an I/O error, 429 or 5xx status are
+ * retried with exponential backoff and jitter; all other requests are sent
+ * once since a failed response doesn't prove the request had no effect.
+ *
+ * When a checkpoint file is specified, each completed listing and, unless
+ * disabled, each processed leaf is appended to it as a json line.  Only paths
+ * and listing keys are recorded, never the values returned by the processor.
+ * A later run with the same file skips all recorded work, so an interrupted
+ * run resumes where it stopped.  Failed requests are not recorded and are
+ * retried on the next run.  The file is made readable only by its owner and
+ * is deleted when a run completes without failures.
+ *
+ * The leaves are returned in the same depth-first order, using Vault's key
+ * order at each level, that the serial walk produced, regardless of the order
+ * in which requests completed or whether the run was resumed.
+ *
+ * @author rcardone
+ */
+public final class VaultTreeWalker
+{
+    /* ********************************************************************** */
+    /*                               Constants                                */
+    /* ********************************************************************** */
+    // Defaults.
+    public static final int DEFAULT_PARALLELISM = 8;
+    public static final int DEFAULT_MAX_RETRIES = 3;
+
+    // Retry backoff bounds.
+    private static final long RETRY_BASE_MILLIS = 250;
+    private static final long RETRY_MAX_MILLIS  = 8000;
+
+    // HTTP status codes.
+    private static final int HTTP_NOT_FOUND         = 404;
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+    private static final int HTTP_SERVER_ERROR      = 500;
+
+    // Checkpoint record types.
+    private static final String CHECKPOINT_LISTING = "L";
+    private static final String CHECKPOINT_LEAF    = "S";
+
+    // Owner-only permissions for new checkpoint files.
+    private static final String CHECKPOINT_PERMS = "rw-------";
+    
+    // Only these request methods are retried.
+    private static final Set<String> IDEMPOTENT_METHODS = Set.of("GET", "LIST");
+
+    // Returned by list() when a path is a leaf.
+    private static final List<String> LEAF = Collections.emptyList();
+
+    /* ********************************************************************** */
+    /*                                 Fields                                 */
+    /* ********************************************************************** */
+    // Vault access.
+    private final HttpClient     _httpClient;
+    private final String         _vurl;
+    private final String         _vtok;
+
+    // Caller callbacks.
+    private final LeafProcessor    _processor;
+    private final Consumer<String> _out;
+    private final Consumer<String> _failedRead;
+
+    // Configuration.
+    private int     _parallelism = DEFAULT_PARALLELISM;
+    private int     _maxRetries  = DEFAULT_MAX_RETRIES;
+    private Path    _checkpointFile;
+    private boolean _checkpointLeaves = true;
+
+    // Completed work:  listed paths map to their child keys, leaf paths
+    // processed in this run map to the value returned by the processor and
+    // leaf paths processed in a previous run are restored from the checkpoint.
+    private final Map<String,List<String>> _listings = new ConcurrentHashMap<>();
+    private final Map<String,String>       _leaves   = new ConcurrentHashMap<>();
+    private final Set<String>              _restored = ConcurrentHashMap.newKeySet();
+
+    // Progress counters.
+    private final AtomicInteger _numListings = new AtomicInteger();
+    private final AtomicInteger _numReads    = new AtomicInteger();
+    private final AtomicInteger _numFailures = new AtomicInteger();
+
+    // Open only during a walk.
+    private BufferedWriter _checkpointWriter;
+
+    /* ********************************************************************** */
+    /*                                Interfaces                              */
+    /* ********************************************************************** */
+    /** Process the secret at a leaf path and return a value to be reported
+     * with the leaf, or null if processing failed.  Failures are expected to
+     * have been recorded by the processor.  Implementations are called
+     * concurrently.
+     */
+    @FunctionalInterface
+    public interface LeafProcessor
+    {
+        String process(String path) throws Exception;
+    }
+
+    /* ********************************************************************** */
+    /*                                 Records                                */
+    /* ********************************************************************** */
+    // A processed leaf.  The value is null for leaves restored from a checkpoint.
+    public record Leaf(String path, String value) {}
+
+    /* ********************************************************************** */
+    /*                              Constructors                              */
+    /* ********************************************************************** */
+    /* ---------------------------------------------------------------------- */
+    /* constructor:                                                           */
+    /* ---------------------------------------------------------------------- */
+    /** Create a walker.
+     *
+     * @param httpClient the client used for all vault requests
+     * @param vurl the vault base url with a trailing slash
+     * @param vtok the vault token
+     * @param processor called once for each leaf
+     * @param out progress and error message sink
+     * @param failedRead sink for the urls of failed requests
+     */
+    public VaultTreeWalker(HttpClient httpClient, String vurl, String vtok,
+                           LeafProcessor processor, Consumer<String> out,
+                           Consumer<String> failedRead)
+    {
+        _httpClient = httpClient;
+        _vurl       = vurl;
+        _vtok       = vtok;
+        _processor  = processor;
+        _out        = out;
+        _failedRead = failedRead;
+    }
+
+    /* ********************************************************************** */
+    /*                             Public Methods                             */
+    /* ********************************************************************** */
+    /* ---------------------------------------------------------------------- */
+    /* walk:                                                                  */
+    /* ---------------------------------------------------------------------- */
+    /** Traverse the tree rooted at the path and return the processed leaves
+     * in depth-first order.  The checkpoint file, if any, is deleted when no
+     * listing or leaf failed.
+     *
+     * @param root the starting path, which must end with a slash
+     * @return the processed leaves
+     * @throws Exception on checkpoint file errors
+     */
+    public List<Leaf> walk(String root) throws Exception
+    {
+        // Restore and continue a previous run.
+        if (_checkpointFile != null) openCheckpoint();
+
+        // Walk the tree.  The pool's size is capped because threads blocked in
+        // HttpClient.send() would otherwise cause the pool to add compensating
+        // threads without limit; at the cap, joins wait instead.
+        var pool = new ForkJoinPool(_parallelism, ForkJoinPool.defaultForkJoinWorkerThreadFactory,
+                                    null, false, _parallelism, _parallelism, 1, 
+                                    p -> true, 60, TimeUnit.SECONDS);
+        try {pool.invoke(new PathTask(root));}
+        finally {
+            pool.shutdown();
+            if (_checkpointWriter != null) {
+                _checkpointWriter.close();
+                _checkpointWriter = null;
+            }
+        }
+
+        // A complete run leaves nothing to resume.
+        if (_checkpointFile != null && _numFailures.get() == 0) {
+            Files.deleteIfExists(_checkpointFile);
+            _out.accept("Deleted checkpoint file " + _checkpointFile + " after a complete run.");
+        }
+
+        // Assemble the leaves in traversal order.
+        var leaves = new ArrayList<Leaf>(_leaves.size());
+        collect(root, leaves);
+        return leaves;
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* send:                                                                  */
+    /* ---------------------------------------------------------------------- */
+    /** Send a request, retrying I/O errors and retryable status codes of GET
+     * and LIST requests with exponential backoff.  Other requests, such as
+     * writes, are sent once.  The last response or exception is passed back
+     * when the retries are exhausted.  Processors should use this method for
+     * their own vault requests.
+     *
+     * @param request the request to send
+     * @return the response
+     * @throws Exception when the request could not be sent
+     */
+    public HttpResponse<String> send(HttpRequest request) throws Exception
+    {
+        int maxRetries = IDEMPOTENT_METHODS.contains(request.method()) ? _maxRetries : 0;
+        for (int attempt = 0; ; attempt++) {
+            try {
+                var resp = _httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+                int rc = resp.statusCode();
+                if ((rc == HTTP_TOO_MANY_REQUESTS || rc >= HTTP_SERVER_ERROR) && attempt < maxRetries) {
+                    backoff(attempt);
+                    continue;
+                }
+                return resp;
+            }
+            catch (IOException e) {
+                if (attempt >= maxRetries) throw e;
+                backoff(attempt);
+            }
+        }
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* accessors:                                                             */
+    /* ---------------------------------------------------------------------- */
+    public int getNumListings() {return _numListings.get();}
+    public int getNumReads() {return _numReads.get();}
+    public int getNumFailures() {return _numFailures.get();}
+    public void setParallelism(int parallelism) {_parallelism = Math.max(1, parallelism);}
+    public void setMaxRetries(int maxRetries) {_maxRetries = Math.max(0, maxRetries);}
+    public void setCheckpointFile(Path checkpointFile) {_checkpointFile = checkpointFile;}
+    
+    /** When false, only listings are checkpointed and every leaf is processed
+     * on every run.  Use this when the processor's result is needed from each
+     * run, since the result itself is never checkpointed.
+     */
+    public void setCheckpointLeaves(boolean checkpointLeaves) {_checkpointLeaves = checkpointLeaves;}
+
+    /* ********************************************************************** */
+    /*                             Private Methods                            */
+    /* ********************************************************************** */
+    /* ---------------------------------------------------------------------- */
+    /* list:                                                                  */
+    /* ---------------------------------------------------------------------- */
+    /** List a path.  Return the child keys, LEAF if the path is a leaf or
+     * null if the listing failed.
+     */
+    private List<String> list(String curpath)
+    {
+        // Make the request to list the curpath.
+        String url = _vurl + "v1/secret/metadata/" + curpath;
+        HttpResponse<String> resp;
+        try {
+            var request = HttpRequest.newBuilder()
+                .uri(new URI(url))
+                .headers("X-Vault-Token", _vtok, "Accept", "application/json",
+                         "Content-Type", "application/json")
+                .method("LIST", BodyPublishers.noBody())
+                .build();
+            resp = send(request);
+        } catch (Exception e) {
+            // Record read failure and display error message.
+            _numFailures.incrementAndGet();
+            _failedRead.accept(url);
+            _out.accept(e.getClass().getSimpleName() + ": " + e.getMessage());
+            return null;
+        }
+
+        // Check return code.
+        int rc = resp.statusCode();
+        if (rc == HTTP_NOT_FOUND) return LEAF;
+        if (rc >= 300) {
+            // Looks like an error.
+            _numFailures.incrementAndGet();
+            _failedRead.accept(url);
+            _out.accept("Received http status code " + rc + " on LIST request to " +
+                        "source vault: " + url + ".");
+            return null;
+        }
+
+        // Intermediate node. Parse the response body that looks something like this:
+        // {"data": {"keys": ["foo", "foo/"]}}
+        var jsonObj = TapisGsonUtils.getGson().fromJson(resp.body(), JsonObject.class);
+        var keys    = jsonObj.get("data").getAsJsonObject().get("keys").getAsJsonArray();
+        var result  = new ArrayList<String>(keys.size());
+        for (int i = 0; i < keys.size(); i++) result.add(keys.get(i).getAsString());
+        return result;
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* processLeaf:                                                           */
+    /* ---------------------------------------------------------------------- */
+    private void processLeaf(String curpath)
+    {
+        // Let the caller do the work.
+        String value;
+        try {value = _processor.process(curpath);}
+            catch (Exception e) {
+                _numFailures.incrementAndGet();
+                _failedRead.accept(_vurl + "v1/secret/data/" + curpath);
+                _out.accept(e.getClass().getSimpleName() + ": " + e.getMessage());
+                return;
+            }
+
+        // Only successes are recorded, and only by path.
+        if (value == null) {
+            _numFailures.incrementAndGet();
+            return;
+        }
+        _leaves.put(curpath, value);
+        if (_checkpointLeaves) writeCheckpoint(CHECKPOINT_LEAF, curpath, null);
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* collect:                                                               */
+    /* ---------------------------------------------------------------------- */
+    private void collect(String curpath, List<Leaf> leaves)
+    {
+        String value = _leaves.get(curpath);
+        if (value != null || _restored.contains(curpath)) {
+            leaves.add(new Leaf(curpath, value));
+            return;
+        }
+        var keys = _listings.get(curpath);
+        if (keys != null) for (var key : keys) collect(curpath + key, leaves);
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* backoff:                                                               */
+    /* ---------------------------------------------------------------------- */
+    private void backoff(int attempt) throws InterruptedException
+    {
+        long millis = Math.min(RETRY_MAX_MILLIS, RETRY_BASE_MILLIS << Math.min(attempt, 16));
+        Thread.sleep(millis + ThreadLocalRandom.current().nextLong(millis / 2 + 1));
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* openCheckpoint:                                                        */
+    /* ---------------------------------------------------------------------- */
+    /** Load the records of a previous run, if any, and open the file for
+     * appending.  A partially written last line is ignored.  An existing
+     * file's permissions are restricted to its owner before it's used.
+     */
+    private void openCheckpoint() throws IOException
+    {
+        var perms = PosixFilePermissions.fromString(CHECKPOINT_PERMS);
+        if (Files.exists(_checkpointFile)) {
+            Files.setPosixFilePermissions(_checkpointFile, perms);
+            int restored = 0;
+            for (var line : Files.readAllLines(_checkpointFile, StandardCharsets.UTF_8)) {
+                CheckpointRec rec;
+                try {rec = TapisGsonUtils.getGson().fromJson(line, CheckpointRec.class);}
+                    catch (Exception e) {continue;}
+                if (rec == null || rec.path == null) continue;
+                if (CHECKPOINT_LISTING.equals(rec.type) && rec.keys != null)
+                    _listings.put(rec.path, rec.keys);
+                else if (CHECKPOINT_LEAF.equals(rec.type) && _checkpointLeaves)
+                    _restored.add(rec.path);
+                else continue;
+                restored++;
+            }
+            _out.accept("Restored " + restored + " records from checkpoint file " +
+                        _checkpointFile + ".");
+        }
+        else {
+            Files.createFile(_checkpointFile, PosixFilePermissions.asFileAttribute(perms));
+        }
+
+        _checkpointWriter = Files.newBufferedWriter(_checkpointFile, StandardCharsets.UTF_8,
+                                                    StandardOpenOption.APPEND);
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* writeCheckpoint:                                                       */
+    /* ---------------------------------------------------------------------- */
+    private void writeCheckpoint(String type, String path, List<String> keys)
+    {
+        if (_checkpointWriter == null) return;
+        var rec = new CheckpointRec();
+        rec.type  = type;
+        rec.path  = path;
+        rec.keys  = keys;
+        String line = TapisGsonUtils.getGson().toJson(rec).replace('\n', ' ');
+        synchronized (this) {
+            try {
+                _checkpointWriter.write(line);
+                _checkpointWriter.newLine();
+                _checkpointWriter.flush();
+            } catch (IOException e) {
+                // The work will be redone on the next run.
+                _out.accept("Unable to write checkpoint record for " + path + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /* ********************************************************************** */
+    /*                             PathTask Class                             */
+    /* ********************************************************************** */
+    /** Visit one path and fork a task for each of its children. */
+    private final class PathTask
+     extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+        private final String _path;
+
+        private PathTask(String path) {_path = path;}
+
+        @Override
+        protected void compute()
+        {
+            // Every visit counts as a listing, even when restored.
+            _numListings.incrementAndGet();
+
+            // Already processed leaf.
+            if (_restored.contains(_path)) {
+                _numReads.incrementAndGet();
+                return;
+            }
+
+            // Get the children from the checkpoint or from vault.
+            List<String> keys = _listings.get(_path);
+            if (keys == null) {
+                keys = list(_path);
+                if (keys == null) return;  // failure recorded
+                if (keys == LEAF) {
+                    // We discovered a secret.
+                    _numReads.incrementAndGet();
+                    processLeaf(_path);
+                    return;
+                }
+                _listings.put(_path, keys);
+                writeCheckpoint(CHECKPOINT_LISTING, _path, keys);
+            }
+
+            // Explore the children in parallel.
+            var tasks = new ArrayList<PathTask>(keys.size());
+            for (var key : keys) tasks.add(new PathTask(_path + key));
+            invokeAll(tasks);
+        }
+    }
+
+    /* ********************************************************************** */
+    /*                           CheckpointRec Class                          */
+    /* ********************************************************************** */
+    // Json line written to the checkpoint file.
+    private static final class CheckpointRec
+    {
+        private String       type;
+        private String       path;
+        private List<String> keys;
+    }
+}
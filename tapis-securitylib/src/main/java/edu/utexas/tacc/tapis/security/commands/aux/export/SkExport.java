@@ -3,15 +3,16 @@ package edu.utexas.tacc.tapis.security.commands.aux.export;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
-import java.net.http.HttpRequest.BodyPublishers;
 import java.net.http.HttpResponse;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.TreeSet;
+import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.regex.Pattern;
 
 import com.google.gson.JsonObject;
 
+import edu.utexas.tacc.tapis.security.commands.aux.VaultTreeWalker;
 import edu.utexas.tacc.tapis.security.commands.aux.export.SkExportParameters.OutputFormat;
 import edu.utexas.tacc.tapis.security.secrets.SecretPathMapper;
 import edu.utexas.tacc.tapis.security.secrets.SecretType;
@@ -51,16 +52,17 @@ public class SkExport
     // The client used for all http calls.
     private final HttpClient           _httpClient;
     
+    // Parallel vault tree traversal.
+    private final VaultTreeWalker      _walker;
+    
     // Raw secrets information.
     private final ArrayList<SecretInfo> _secretRecs;
     
     // Progress counters.
-    private int                        _numListings;
-    private int                        _numReads;
     private int                        _numUnknownPaths;
     
     // Result reporting lists.
-    private final TreeSet<String>      _failedReads;   // Number of secrets paths that could not be read.
+    private final ConcurrentSkipListSet<String> _failedReads; // Number of secrets paths that could not be read.
     
     /* ********************************************************************** */
     /*                                 Records                                */
@@ -88,8 +90,19 @@ public class SkExport
         // Initialize final fields.
         _parms = parms;
         _httpClient  = HttpClient.newHttpClient();
-        _failedReads = new TreeSet<String>();
+        _failedReads = new ConcurrentSkipListSet<String>();
         _secretRecs  = new ArrayList<>(256);
+        
+        // Configure the traversal.
+        _walker = new VaultTreeWalker(_httpClient, _parms.vurl, _parms.vtok, 
+                                      this::readSecret, this::out, this::recordFailedRead);
+        _walker.setParallelism(_parms.parallelism);
+        _walker.setMaxRetries(_parms.retries);
+        if (_parms.checkpointFile != null) _walker.setCheckpointFile(Path.of(_parms.checkpointFile));
+        
+        // Secret values are never checkpointed, so every secret is read on 
+        // each run and only the listings are skipped when resuming.
+        _walker.setCheckpointLeaves(false);
     }
 
     /* ********************************************************************** */
@@ -123,8 +136,10 @@ public class SkExport
         // Check status of Vault.
         checkVaultStatus();
         
-        // Walk the Vault source tree and discover all tapis secrets.
-        processSourceTree(TAPIS_SECRET_ROOT);
+        // Walk the Vault source tree and discover all tapis secrets.  The
+        // secrets are returned in depth-first order.
+        for (var leaf : _walker.walk(TAPIS_SECRET_ROOT)) 
+            storeSecret(leaf.path(), leaf.value());
         
         // Put all secrets into a list of records.
         var outputRecs = calculateOutputRecs();
@@ -142,72 +157,10 @@ public class SkExport
     private void out(String s) {if (_parms.verbose) System.out.println(s);}
     
     /* ---------------------------------------------------------------------- */
-    /* processSourceTree:                                                     */
+    /* storeSecret:                                                           */
     /* ---------------------------------------------------------------------- */
-    /** The first call to this recursive method starts at the root of the tapis
-     * hierarchy in Vault. 
-     * 
-     * @param curpath the path to explore depth-first
-     */
-    private void processSourceTree(String curpath) throws Exception
+    private void storeSecret(String curpath, String secretText)
     {
-        // Increment listing counter.
-        _numListings++;
-        
-        // Make the request to list the curpath.
-        HttpRequest request;
-        HttpResponse<String> resp;
-        try {
-            request = HttpRequest.newBuilder()
-                .uri(new URI(_parms.vurl + "v1/secret/metadata/" + curpath))
-                .headers("X-Vault-Token", _parms.vtok, "Accept", "application/json", 
-                         "Content-Type", "application/json")
-                .method("LIST", BodyPublishers.noBody())
-                .build();
-            resp = _httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-        } catch (Exception e) {
-            // Record read failure and display error message.
-            recordFailedRead(_parms.vurl + "v1/secret/metadata/" + curpath);
-            out(e.getClass().getSimpleName() + ": " + e.getMessage());
-            return;
-        }
-        
-        // Check return code.
-        int rc = resp.statusCode();
-        if (rc == 404) {
-            // We probably discovered a secret (i.e., leaf node).
-            copySecret(curpath);
-            return;
-        }
-        else if (rc >= 300) {
-            // Looks like an error.
-            recordFailedRead(_parms.vurl + "v1/secret/metadata/" + curpath);
-            out("Received http status code " + rc + " on LIST request to " + 
-                "source vault: " + request.uri().toString() + ".");
-            return;
-        } else {
-            // Intermediate node. Parse the response body that looks something like this:
-            // {"data": {"keys": ["foo", "foo/"]}}
-            var jsonObj = TapisGsonUtils.getGson().fromJson(resp.body(), JsonObject.class);
-            var data    = jsonObj.get("data").getAsJsonObject();
-            var keys    = data.get("keys").getAsJsonArray();
-            int numKeys = keys.size();
-            for (int i = 0; i < numKeys; i++) {         
-               String key = keys.get(i).getAsString();
-               processSourceTree(curpath + key);
-            }
-        }
-    }
-    
-    /* ---------------------------------------------------------------------- */
-    /* copySecret:                                                            */
-    /* ---------------------------------------------------------------------- */
-    private void copySecret(String curpath)
-    {
-        // Get the secret from the source vault.
-        var secretText = readSecret(curpath);
-        if (secretText == null) return;
-        
         // Do we care about this path?
         // We may not need to export all secrets.
         var typeWrapper = new SecretTypeWrapper(); 
@@ -216,20 +169,20 @@ public class SkExport
         // Collect the path and secret.
         var r = new SecretInfo(typeWrapper._secretType, curpath, secretText);
         _secretRecs.add(r);
-        
-        // Accumulate the secrets written.
-        if (_numReads % 500 == 0) 
-            out("->Listings = " + _numListings 
-                + ",\tReads = "  + _numReads);
     }
     
     /* ---------------------------------------------------------------------- */
     /* readSecret:                                                            */
     /* ---------------------------------------------------------------------- */
+    /** Called concurrently by the tree walker for each secret path.  The 
+     * walker has already counted the read.
+     */
     private String readSecret(String secretPath)
     {
-        // Increment listing counter.
-        _numReads++;
+        // Report progress.
+        if (_walker.getNumReads() % 500 == 0) 
+            out("->Listings = " + _walker.getNumListings() 
+                + ",\tReads = "  + _walker.getNumReads());
         
         // Make the request.
         HttpRequest request;
@@ -240,7 +193,7 @@ public class SkExport
                 .headers("X-Vault-Token", _parms.vtok, "Accept", "application/json", 
                          "Content-Type", "application/json")
                 .build();
-            resp = _httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            resp = _walker.send(request);
         } catch (Exception e) {
             // Record read failure and display error message.
             recordFailedRead(_parms.vurl + "v1/secret/data/" + secretPath);
@@ -629,9 +582,10 @@ public class SkExport
         // Print summary information.
         var numWrites = _secretRecs.size();
         out("\n-------------------------------------------------");
-        out("Attempted listings = " + _numListings + ", attempted reads = " + _numReads);
+        int numReads = _walker.getNumReads();
+        out("Attempted listings = " + _walker.getNumListings() + ", attempted reads = " + numReads);
         out("Unknown paths encountered = " + _numUnknownPaths + unknownPathMsg);
-        out("Secrets written = " + numWrites + ", secrets skipped = " + (_numReads - numWrites));
+        out("Secrets written = " + numWrites + ", secrets skipped = " + (numReads - numWrites));
         if (!_failedReads.isEmpty()) {
             out("\n-------------------------------------------------");
             out("Failed secret reads: " + _failedReads.size() + "\n");
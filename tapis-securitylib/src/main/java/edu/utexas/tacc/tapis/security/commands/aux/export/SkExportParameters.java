@@ -9,6 +9,7 @@ import org.kohsuke.args4j.Option;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import edu.utexas.tacc.tapis.security.commands.aux.VaultTreeWalker;
 import edu.utexas.tacc.tapis.shared.exceptions.TapisException;
 
 /** Parse, validate and massage SkExport parameters.  
@@ -75,6 +76,18 @@ public class SkExportParameters
             usage = "enclose secret values in single quotes when -format=ENV")
     public boolean quoteEnvValues = false;
     
+    @Option(name = "-par", required = false, aliases = {"--parallelism"}, 
+            usage = "maximum number of concurrent Vault requests")
+    public int parallelism = VaultTreeWalker.DEFAULT_PARALLELISM;
+    
+    @Option(name = "-retries", required = false, aliases = {"--retries"}, 
+            usage = "number of times a failed Vault request is retried")
+    public int retries = VaultTreeWalker.DEFAULT_MAX_RETRIES;
+    
+    @Option(name = "-checkpoint", required = false, aliases = {"--checkpoint"}, 
+            usage = "progress file that allows an interrupted run to resume")
+    public String checkpointFile;
+    
     @Option(name = "-v", required = false, aliases = {"--verbose"}, 
             usage = "output statistics in addtion to secrets")
     public boolean verbose = false;
@@ -169,5 +182,9 @@ public class SkExportParameters
     {
         // Make sure there's a trailing slash in the url.
         if (!vurl.endsWith("/")) vurl += "/";
+        
+        // Check traversal settings.
+        if (parallelism < 1) throw new TapisException("-par must be at least 1.");
+        if (retries < 0) throw new TapisException("-retries cannot be negative.");
     }
 }
@@ -5,10 +5,13 @@ import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpRequest.BodyPublishers;
 import java.net.http.HttpResponse;
+import java.nio.file.Path;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentSkipListSet;
 
 import com.google.gson.JsonObject;
 
+import edu.utexas.tacc.tapis.security.commands.aux.VaultTreeWalker;
 import edu.utexas.tacc.tapis.shared.utils.TapisGsonUtils;
 
 /** This program can be used to transfer Tapis secrets from one Vault instance to
@@ -20,6 +23,11 @@ import edu.utexas.tacc.tapis.shared.utils.TapisGsonUtils;
  * token should be the same token that SK would use during normal execution.  The
  * target token should be an AppRole generated token using the "sk" role-id.  
  * 
+ * The source tree is walked in parallel by VaultTreeWalker.  Specify a 
+ * checkpoint file to make an interrupted transfer resumable; secrets already
+ * written to the target are not copied again.  Dry runs write nothing and 
+ * therefore never use a checkpoint file.
+ * 
  * @author rcardone
  */
 public class TransferSecrets 
@@ -44,14 +52,13 @@ public class TransferSecrets
     // The client used for all http calls.
     private final HttpClient           _httpClient;
     
-    // Progress counters.
-    private int                        _numListings;
-    private int                        _numReads;
+    // Parallel vault tree traversal.
+    private final VaultTreeWalker      _walker;
     
     // Result reporting lists.
     private final TreeSet<String>      _successWrites; // Number of secrets written to target.
-    private final TreeSet<String>      _failedWrites;  // Number of secrets that failed write to target.
-    private final TreeSet<String>      _failedReads;   // Number of secrets paths that could not be read.
+    private final ConcurrentSkipListSet<String> _failedWrites; // Number of secrets that failed write to target.
+    private final ConcurrentSkipListSet<String> _failedReads;  // Number of secrets paths that could not be read.
     
     /* ********************************************************************** */
     /*                              Constructors                              */
@@ -71,8 +78,21 @@ public class TransferSecrets
         _parms = parms;
         _httpClient = HttpClient.newHttpClient();
         _successWrites = new TreeSet<String>();
-        _failedWrites  = new TreeSet<String>();
-        _failedReads   = new TreeSet<String>();
+        _failedWrites  = new ConcurrentSkipListSet<String>();
+        _failedReads   = new ConcurrentSkipListSet<String>();
+        
+        // Configure the traversal.
+        _walker = new VaultTreeWalker(_httpClient, _parms.surl, _parms.stok, 
+                                      this::copySecret, System.out::println, 
+                                      this::recordFailedRead);
+        _walker.setParallelism(_parms.parallelism);
+        _walker.setMaxRetries(_parms.retries);
+        if (_parms.checkpointFile != null) {
+            if (_parms.dryRun) 
+                System.out.println("Ignoring checkpoint file " + _parms.checkpointFile + 
+                                   " during a dry run.");
+              else _walker.setCheckpointFile(Path.of(_parms.checkpointFile));
+        }
     }
 
     /* ********************************************************************** */
@@ -106,8 +126,10 @@ public class TransferSecrets
         checkStatus(VaultInstance.source);
         checkStatus(VaultInstance.target);
         
-        // Walk the source tree and discover all tapis secrets.
-        processSourceTree(TAPIS_SECRET_ROOT);
+        // Walk the source tree and copy all tapis secrets.  The leaves include
+        // those written by a previous run when resuming from a checkpoint.
+        for (var leaf : _walker.walk(TAPIS_SECRET_ROOT)) 
+            _successWrites.add(_parms.turl + "v1/secret/data/" + leaf.path());
         
         // Output.
         writeResults();
@@ -117,82 +139,24 @@ public class TransferSecrets
     /*                             Private Methods                            */
     /* ********************************************************************** */
     /* ---------------------------------------------------------------------- */
-    /* processSourceTree:                                                     */
+    /* copySecret:                                                            */
     /* ---------------------------------------------------------------------- */
-    /** The first call to this method
-     * 
-     * @param curpath
-     * @return
+    /** Called concurrently by the tree walker for each secret path.  The 
+     * target url is returned if the secret was written, otherwise null.
      */
-    private void processSourceTree(String curpath) throws Exception
+    private String copySecret(String curpath)
     {
-        // Increment listing counter.
-        _numListings++;
-        
-        // Make the request to list the curpath.
-        HttpRequest request;
-        HttpResponse<String> resp;
-        try {
-            request = HttpRequest.newBuilder()
-                .uri(new URI(_parms.surl + "v1/secret/metadata/" + curpath))
-                .headers("X-Vault-Token", _parms.stok, "Accept", "application/json", 
-                         "Content-Type", "application/json")
-                .method("LIST", BodyPublishers.noBody())
-                .build();
-            resp = _httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-        } catch (Exception e) {
-            // Record read failure and display error message.
-            recordFailedRead(_parms.surl + "v1/secret/metadata/" + curpath);
-            System.out.println(e.getClass().getSimpleName() + ": " + e.getMessage());
-            return;
-        }
+        // Report progress.
+        if (_walker.getNumReads() % 500 == 0) 
+            System.out.println("->Listings = " + _walker.getNumListings() 
+                               + ",\tReads = "  + _walker.getNumReads());
         
-        // Check return code.
-        int rc = resp.statusCode();
-        if (rc == 404) {
-            // We probably discovered a secret (i.e., leaf node).
-            copySecret(curpath);
-            return;
-        }
-        else if (rc >= 300) {
-            // Looks like an error.
-            recordFailedRead(_parms.surl + "v1/secret/metadata/" + curpath);
-            System.out.println("Received http status code " + rc + " on LIST request to " + 
-                               "source vault: " + request.uri().toString() + ".");
-            return;
-        } else {
-            // Intermediate node. Parse the response body that looks something like this:
-            // {"data": {"keys": ["foo", "foo/"]}}
-            var jsonObj = TapisGsonUtils.getGson().fromJson(resp.body(), JsonObject.class);
-            var data    = jsonObj.get("data").getAsJsonObject();
-            var keys    = data.get("keys").getAsJsonArray();
-            int numKeys = keys.size();
-            for (int i = 0; i < numKeys; i++) {         
-               String key = keys.get(i).getAsString();
-               processSourceTree(curpath + key);
-            }
-        }
-        
-        return;
-    }
-    
-    /* ---------------------------------------------------------------------- */
-    /* copySecret:                                                            */
-    /* ---------------------------------------------------------------------- */
-    private void copySecret(String curpath)
-    {
         // Get the secret from the source vault.
         var secretText = readSecret(curpath);
-        if (secretText == null) return;
+        if (secretText == null) return null;
         
         // Write the secret to the target vault.
-        writeSecret(curpath, secretText);
-        
-        // Accumulate the secrets written.
-        if (_numReads % 500 == 0) 
-            System.out.println("->Listings = " + _numListings 
-                               + ",\tReads = "  + _numReads 
-                               + ",\tWrites = " + _successWrites.size());
+        return writeSecret(curpath, secretText);
     }
     
     /* ---------------------------------------------------------------------- */
@@ -200,9 +164,6 @@ public class TransferSecrets
     /* ---------------------------------------------------------------------- */
     private String readSecret(String secretPath)
     {
-        // Increment listing counter.
-        _numReads++;
-        
         // Make the request.
         HttpRequest request;
         HttpResponse<String> resp;
@@ -212,7 +173,7 @@ public class TransferSecrets
                 .headers("X-Vault-Token", _parms.stok, "Accept", "application/json", 
                          "Content-Type", "application/json")
                 .build();
-            resp = _httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            resp = _walker.send(request);
         } catch (Exception e) {
             // Record read failure and display error message.
             recordFailedRead(_parms.surl + "v1/secret/data/" + secretPath);
@@ -241,7 +202,7 @@ public class TransferSecrets
     /* ---------------------------------------------------------------------- */
     /* writeSecret:                                                           */
     /* ---------------------------------------------------------------------- */
-    private void writeSecret(String secretPath, String secretText)
+    private String writeSecret(String secretPath, String secretText)
     {
         // Format the json payload.
         secretText = "{\"data\":" + secretText + "}";
@@ -259,19 +220,17 @@ public class TransferSecrets
                 .POST(BodyPublishers.ofString(secretText))
                 .build();
             
-            // Assume that the write would have worked.
-            if (_parms.dryRun) {
-                _successWrites.add(request.uri().toString());
-                return;
-            }
+            // Assume that the write would have worked.  Dry runs never 
+            // checkpoint, so the secret is not recorded as written.
+            if (_parms.dryRun) return request.uri().toString();
             
-            // Write to target.
-            resp = _httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            // Write to target.  Writes are not retried.
+            resp = _walker.send(request);
         } catch (Exception e) {
             // Record failure and output error message.
             recordFailedWrite(_parms.turl + "v1/secret/data/" + secretPath);
             System.out.println(e.getClass().getSimpleName() + ": " + e.getMessage());
-            return;
+            return null;
         }
         
         // Check return code.
@@ -281,10 +240,11 @@ public class TransferSecrets
             recordFailedWrite(uri.toString());
             System.out.println("Received http status code " + rc + " on WRITE request to " + 
                                "target vault: " + request.uri().toString() + ".");
+            return null;
         } 
         
-        // Update the success list.
-        _successWrites.add(uri.toString());
+        // Success.
+        return uri.toString();
     }
     
     /* ---------------------------------------------------------------------- */
@@ -376,7 +336,8 @@ public class TransferSecrets
     private void writeResults()
     {
         System.out.println("\n-------------------------------------------------");
-        System.out.println("Attempted listings = " + _numListings + ", attempted reads = " + _numReads);
+        System.out.println("Attempted listings = " + _walker.getNumListings() + 
+                           ", attempted reads = " + _walker.getNumReads());
         if (_parms.dryRun) System.out.println("DRY RUN - secrets that would be copied: " + _successWrites.size() + "\n");
           else System.out.println("Total secrets copied to target Vault: " + _successWrites.size() + "\n");
         if (!_successWrites.isEmpty()) {
@@ -8,6 +8,7 @@ import org.kohsuke.args4j.CmdLineException;
 import org.kohsuke.args4j.CmdLineParser;
 import org.kohsuke.args4j.Option;
 
+import edu.utexas.tacc.tapis.security.commands.aux.VaultTreeWalker;
 import edu.utexas.tacc.tapis.shared.exceptions.TapisException;
 
 public class TransferSecretsParms 
@@ -35,6 +36,18 @@ public class TransferSecretsParms
             usage = "read source secrets but don't write to target")
     public boolean dryRun = false;
     
+    @Option(name = "-par", required = false, aliases = {"--parallelism"}, 
+            usage = "maximum number of concurrent Vault requests")
+    public int parallelism = VaultTreeWalker.DEFAULT_PARALLELISM;
+    
+    @Option(name = "-retries", required = false, aliases = {"--retries"}, 
+            usage = "number of times a failed Vault request is retried")
+    public int retries = VaultTreeWalker.DEFAULT_MAX_RETRIES;
+    
+    @Option(name = "-checkpoint", required = false, aliases = {"--checkpoint"}, 
+            usage = "progress file that allows an interrupted run to resume")
+    public String checkpointFile;
+    
     @Option(name = "-help", aliases = {"--help"}, 
             usage = "display help information")
     public boolean help;
@@ -135,5 +148,11 @@ public class TransferSecretsParms
         if (StringUtils.isBlank(turl)) 
             throw new RuntimeException("Missing required argument: -turl");
         else if (!turl.endsWith("/")) turl += "/";
+        
+        // Check traversal settings.
+        if (parallelism < 1) 
+            throw new RuntimeException("Invalid argument: -par must be at least 1");
+        if (retries < 0) 
+            throw new RuntimeException("Invalid argument: -retries cannot be negative");
     }
 }
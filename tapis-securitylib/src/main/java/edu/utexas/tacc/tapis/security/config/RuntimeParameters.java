@@ -1,6 +1,7 @@
 package edu.utexas.tacc.tapis.security.config;
 
 import java.text.NumberFormat;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Properties;
 import java.util.Random;
@@ -9,7 +10,9 @@ import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import edu.utexas.tacc.tapis.security.secrets.ISecretCacheParms;
 import edu.utexas.tacc.tapis.security.secrets.IVaultManagerParms;
+import edu.utexas.tacc.tapis.security.secrets.SecretType;
 import edu.utexas.tacc.tapis.shared.TapisConstants;
 import edu.utexas.tacc.tapis.shared.exceptions.TapisException;
 import edu.utexas.tacc.tapis.shared.exceptions.runtime.TapisRuntimeException;
@@ -40,7 +43,7 @@ import edu.utexas.tacc.tapis.shared.uuid.UUIDType;
  * @author rcardone
  */
 public final class RuntimeParameters 
- implements EmailClientParameters, IVaultManagerParms
+ implements EmailClientParameters, IVaultManagerParms, ISecretCacheParms
 {
     /* ********************************************************************** */
     /*                               Constants                                */
@@ -77,6 +80,22 @@ public final class RuntimeParameters
     private static final int MIN_VAULT_TOKEN_THRESHOLD = 20;      // percent 
     private static final int MAX_VAULT_TOKEN_THRESHOLD = 80;      // percent
     
+    // Secret cache parameter names.  These are not tapis environment variables, 
+    // so they are assigned in the service's input properties.  The per-type ttl
+    // names end with the secret type's url text (ex: tapis.sk.secret.cache.ttl.service).
+    private static final String SECRET_CACHE_MAX_ENTRIES_PARM  = "tapis.sk.secret.cache.max.entries";
+    private static final String SECRET_CACHE_NEGATIVE_TTL_PARM = "tapis.sk.secret.cache.negative.ttl";
+    private static final String SECRET_CACHE_TTL_PARM_PREFIX   = "tapis.sk.secret.cache.ttl.";
+    private static final String SERVICE_PWD_REFRESH_PARM       = "tapis.sk.service.pwd.refresh.seconds";
+    
+    // Secret cache defaults.  Ttls are in seconds and zero disables caching.
+    private static final int DEFAULT_SECRET_CACHE_MAX_ENTRIES  = 2000;
+    private static final int DEFAULT_SECRET_CACHE_NEGATIVE_TTL = 10;
+    private static final int DEFAULT_SECRET_CACHE_TTL          = 60;
+    private static final int DEFAULT_SECRET_CACHE_JWT_TTL      = 300;
+    private static final int DEFAULT_SECRET_CACHE_USER_TTL     = 30;
+    private static final int DEFAULT_SERVICE_PWD_REFRESH       = 300;
+    
     /* ********************************************************************** */
     /*                                 Fields                                 */
     /* ********************************************************************** */
@@ -139,6 +158,13 @@ public final class RuntimeParameters
 	private int     vaultRenewThreshold;  // point at which token renewal begins,
 	                                      //   expressed as percent of expiration time
 	
+	// Secret cache parameters.
+	private int     secretCacheMaxEntries;       // zero disables the cache
+	private int     secretCacheNegativeTTLSeconds; // ttl for not found responses
+	private final EnumMap<SecretType,Integer> secretCacheTTLSeconds = 
+	                                      new EnumMap<>(SecretType.class);
+	private int     servicePwdRefreshSeconds; // zero disables password verifiers
+	
 	/* ********************************************************************** */
 	/*                              Constructors                              */
 	/* ********************************************************************** */
@@ -613,8 +639,64 @@ public final class RuntimeParameters
     // TODO: we'll probably need to adjust this when mutual auth is actually used.
     parm = inputProperties.getProperty(EnvVar.TAPIS_SK_VAULT_SK_KEY_PEM_FILE.getEnvName());
     if (StringUtils.isBlank(parm)) setVaultSkKeyPemFile(parm);
+    
+    // --------------------- Secret Cache Parameters ------------------
+    // Bound the number of vault responses cached in memory.
+    setSecretCacheMaxEntries(getNonNegativeInt(inputProperties, SECRET_CACHE_MAX_ENTRIES_PARM, 
+                                               DEFAULT_SECRET_CACHE_MAX_ENTRIES));
+    
+    // Not found responses are cached for a short time.
+    setSecretCacheNegativeTTLSeconds(getNonNegativeInt(inputProperties, SECRET_CACHE_NEGATIVE_TTL_PARM, 
+                                                       DEFAULT_SECRET_CACHE_NEGATIVE_TTL));
+    
+    // Signing keys rarely change, user secrets are the most volatile.
+    for (SecretType type : SecretType.values()) {
+        int defaultTTL;
+        switch (type) {
+            case JWTSigning: defaultTTL = DEFAULT_SECRET_CACHE_JWT_TTL;  break;
+            case User:       defaultTTL = DEFAULT_SECRET_CACHE_USER_TTL; break;
+            default:         defaultTTL = DEFAULT_SECRET_CACHE_TTL;      break;
+        }
+        secretCacheTTLSeconds.put(type, getNonNegativeInt(inputProperties, 
+                                  SECRET_CACHE_TTL_PARM_PREFIX + type.getUrlText(), defaultTTL));
+    }
+    
+    // Service password verifiers are refreshed from vault on this interval.
+    setServicePwdRefreshSeconds(getNonNegativeInt(inputProperties, SERVICE_PWD_REFRESH_PARM, 
+                                                  DEFAULT_SERVICE_PWD_REFRESH));
    }
 	
+    /* ---------------------------------------------------------------------- */
+    /* getNonNegativeInt:                                                     */
+    /* ---------------------------------------------------------------------- */
+    /** Return the named integer property or the default if it's not set.  
+     * 
+     * @throws TapisRuntimeException on a non-integer or negative value
+     */
+    private int getNonNegativeInt(Properties inputProperties, String name, int defaultValue)
+     throws TapisRuntimeException
+    {
+        String parm = inputProperties.getProperty(name);
+        if (StringUtils.isBlank(parm)) return defaultValue;
+        try {
+            int value = Integer.valueOf(parm);
+            if (value < 0) {
+                String msg = MsgUtils.getMsg("TAPIS_PARAMETER_LESS_THAN_MIN", name, value, 0);
+                throw new IllegalArgumentException(msg);
+            }
+            return value;
+        }
+        catch (Exception e) {
+            // Stop on bad input.
+            String msg = MsgUtils.getMsg("TAPIS_SERVICE_PARM_INITIALIZATION_FAILED",
+                                         TapisConstants.SERVICE_NAME_SECURITY,
+                                         name,
+                                         e.getMessage());
+            _log.error(msg, e);
+            throw new TapisRuntimeException(msg, e);
+        }
+    }
+    
     /* ---------------------------------------------------------------------- */
     /* getRuntimeInfo:                                                        */
     /* ---------------------------------------------------------------------- */
@@ -691,6 +773,16 @@ public final class RuntimeParameters
         buf.append(this.getVaultRenewSeconds());
         buf.append("\ntapis.sk.vault.token.renewal.threshold: ");
         buf.append(this.getVaultRenewThreshold());
+        buf.append("\n" + SECRET_CACHE_MAX_ENTRIES_PARM + ": ");
+        buf.append(this.getSecretCacheMaxEntries());
+        buf.append("\n" + SECRET_CACHE_NEGATIVE_TTL_PARM + ": ");
+        buf.append(this.getSecretCacheNegativeTTLSeconds());
+        for (SecretType type : SecretType.values()) {
+            buf.append("\n" + SECRET_CACHE_TTL_PARM_PREFIX + type.getUrlText() + ": ");
+            buf.append(this.getSecretCacheTTLSeconds(type));
+        }
+        buf.append("\n" + SERVICE_PWD_REFRESH_PARM + ": ");
+        buf.append(this.getServicePwdRefreshSeconds());
         
 	    buf.append("\n------- Email Configuration -----------------------");
 	    buf.append("\ntapis.mail.provider: ");
@@ -1125,4 +1217,33 @@ public final class RuntimeParameters
     public void setTenantBaseUrl(String tenantBaseUrl) {
         this.tenantBaseUrl = tenantBaseUrl;
     }
+
+    public int getSecretCacheMaxEntries() {
+        return secretCacheMaxEntries;
+    }
+
+    public void setSecretCacheMaxEntries(int secretCacheMaxEntries) {
+        this.secretCacheMaxEntries = secretCacheMaxEntries;
+    }
+
+    public int getSecretCacheNegativeTTLSeconds() {
+        return secretCacheNegativeTTLSeconds;
+    }
+
+    public void setSecretCacheNegativeTTLSeconds(int secretCacheNegativeTTLSeconds) {
+        this.secretCacheNegativeTTLSeconds = secretCacheNegativeTTLSeconds;
+    }
+
+    public int getSecretCacheTTLSeconds(SecretType secretType) {
+        Integer ttl = secretCacheTTLSeconds.get(secretType);
+        return ttl == null ? 0 : ttl;
+    }
+
+    public int getServicePwdRefreshSeconds() {
+        return servicePwdRefreshSeconds;
+    }
+
+    public void setServicePwdRefreshSeconds(int servicePwdRefreshSeconds) {
+        this.servicePwdRefreshSeconds = servicePwdRefreshSeconds;
+    }
 }
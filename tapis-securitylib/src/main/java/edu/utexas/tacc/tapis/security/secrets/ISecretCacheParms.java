@@ -0,0 +1,16 @@
+package edu.utexas.tacc.tapis.security.secrets;
+
+/** Interface that provides access to secret cache configuration parameters.
+ * A maximum entry count of zero disables the cache; a time-to-live of zero
+ * disables caching for the secret type.  A service password refresh interval
+ * of zero disables the service password verifiers.
+ *
+ * @author rcardone
+ */
+public interface ISecretCacheParms
+{
+    public int getSecretCacheMaxEntries();
+    public int getSecretCacheTTLSeconds(SecretType secretType);
+    public int getSecretCacheNegativeTTLSeconds();
+    public int getServicePwdRefreshSeconds();
+}
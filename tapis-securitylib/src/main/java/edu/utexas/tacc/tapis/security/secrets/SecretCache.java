@@ -0,0 +1,328 @@
+package edu.utexas.tacc.tapis.security.secrets;
+
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.crypto.Cipher;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import edu.utexas.tacc.tapis.shared.exceptions.runtime.TapisRuntimeException;
+import edu.utexas.tacc.tapis.shared.i18n.MsgUtils;
+
+/** Read-through cache of Vault responses used by VaultImpl.  Entries are keyed
+ * by secret type, tenant, Vault path and version, where version zero means the
+ * latest version and META_VERSION designates the path's version metadata.
+ *
+ * The cached value is the raw Vault response body and status code so that
+ * VaultImpl processes cached and uncached responses identically.  Bodies are
+ * encrypted with AES/GCM under a random key that never leaves this process,
+ * so secrets do not appear in plaintext in heap dumps.  The cache is bounded
+ * by a maximum entry count and evicts least recently used entries.
+ *
+ * Each secret type has its own time-to-live, which is further limited by any
+ * lease Vault places on a secret.  Not found responses are cached for a
+ * separate, usually shorter, period.  Writes, deletes, undeletes and destroys
+ * invalidate all cached versions of a path, but only in this SK instance.
+ * Callers take the cache generation before reading from Vault and pass it to
+ * put(), which discards the response if an invalidation occurred meanwhile.
+ * Otherwise a read that raced a write could re-insert the overwritten value.
+ * When multiple SK replicas run, the time-to-live bounds how long another
+ * replica can return stale data.
+ *
+ * The singleton is created during service initialization.  When it has not
+ * been created, such as in command line utilities, getInstance() returns null
+ * and callers go directly to Vault.
+ *
+ * @author rcardone
+ */
+public final class SecretCache
+{
+    /* ********************************************************************** */
+    /*                               Constants                                */
+    /* ********************************************************************** */
+    // Tracing.
+    private static final Logger _log = LoggerFactory.getLogger(SecretCache.class);
+
+    // The pseudo-version used to cache secret metadata.
+    public static final int META_VERSION = -1;
+
+    // The only error status that gets cached.
+    public static final int HTTP_NOT_FOUND = 404;
+
+    // Encryption parameters.
+    private static final String KEY_ALGORITHM    = "AES";
+    private static final String CIPHER_TRANSFORM = "AES/GCM/NoPadding";
+    private static final int    KEY_BITS         = 256;
+    private static final int    IV_BYTES         = 12;
+    private static final int    TAG_BITS         = 128;
+
+    // Key component separator that cannot appear in a vault path.
+    private static final char KEY_SEP = '\0';
+
+    /* ********************************************************************** */
+    /*                                 Fields                                 */
+    /* ********************************************************************** */
+    // Singleton instance of this class.
+    private static SecretCache _instance;
+
+    // Configuration.
+    private final ISecretCacheParms _parms;
+
+    // Process-local encryption key and iv generator.
+    private final SecretKey    _key;
+    private final SecureRandom _random = new SecureRandom();
+
+    // Access ordered map guarded by its own monitor.
+    private final LinkedHashMap<String,CacheEntry> _map;
+
+    // Incremented on each invalidation so that responses read before an
+    // invalidation are not cached after it.  Guarded by _map.
+    private long _generation;
+
+    /* ********************************************************************** */
+    /*                              Constructors                              */
+    /* ********************************************************************** */
+    private SecretCache(ISecretCacheParms parms)
+     throws TapisRuntimeException
+    {
+        _parms = parms;
+
+        // Create this process's encryption key.
+        try {
+            var keyGen = KeyGenerator.getInstance(KEY_ALGORITHM);
+            keyGen.init(KEY_BITS, _random);
+            _key = keyGen.generateKey();
+        } catch (Exception e) {
+            String msg = MsgUtils.getMsg("TAPIS_RUNTIME_EXCEPTION", e.getMessage());
+            _log.error(msg, e);
+            throw new TapisRuntimeException(msg, e);
+        }
+
+        // Evict the least recently used entry when the cache is full.
+        final int maxEntries = parms.getSecretCacheMaxEntries();
+        _map = new LinkedHashMap<String,CacheEntry>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String,CacheEntry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /* ********************************************************************** */
+    /*                             Public Methods                             */
+    /* ********************************************************************** */
+    /* ---------------------------------------------------------------------- */
+    /* getInstance:                                                           */
+    /* ---------------------------------------------------------------------- */
+    /** Get the singleton instance of this class, creating it if necessary.
+     * A null result is returned when the configuration disables the cache.
+     *
+     * @param parms the cache configuration
+     * @return the singleton instance or null
+     */
+    public static synchronized SecretCache getInstance(ISecretCacheParms parms)
+     throws TapisRuntimeException
+    {
+        // Create the instance if necessary.
+        if (_instance == null && parms != null && parms.getSecretCacheMaxEntries() > 0)
+            _instance = new SecretCache(parms);
+
+        return _instance;
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* getInstance:                                                           */
+    /* ---------------------------------------------------------------------- */
+    /** Return the singleton instance or null if it hasn't been created. */
+    public static SecretCache getInstance() {return _instance;}
+
+    /* ---------------------------------------------------------------------- */
+    /* get:                                                                   */
+    /* ---------------------------------------------------------------------- */
+    /** Return the unexpired cached response for the key or null if none exists.
+     *
+     * @param secretType the type of secret
+     * @param tenant the secret's tenant
+     * @param secretPath the full vault path
+     * @param version the secret version, 0 for latest, META_VERSION for metadata
+     * @return the decrypted response or null
+     */
+    public CachedResponse get(SecretType secretType, String tenant,
+                              String secretPath, int version)
+    {
+        // Find an unexpired entry.
+        String key = makeKey(secretType, tenant, secretPath, version);
+        CacheEntry entry;
+        synchronized (_map) {
+            entry = _map.get(key);
+            if (entry == null) return null;
+            if (entry.expiresAt <= System.currentTimeMillis()) {
+                _map.remove(key);
+                return null;
+            }
+        }
+
+        // Decrypt outside of the lock.
+        try {
+            var cipher = Cipher.getInstance(CIPHER_TRANSFORM);
+            cipher.init(Cipher.DECRYPT_MODE, _key, new GCMParameterSpec(TAG_BITS, entry.iv));
+            String body = new String(cipher.doFinal(entry.ciphertext), StandardCharsets.UTF_8);
+            return new CachedResponse(entry.status, body);
+        } catch (Exception e) {
+            // Discard the entry and let the caller go to vault.
+            String msg = MsgUtils.getMsg("TAPIS_RUNTIME_EXCEPTION", e.getMessage());
+            _log.error(msg, e);
+            synchronized (_map) {_map.remove(key);}
+            return null;
+        }
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* getGeneration:                                                         */
+    /* ---------------------------------------------------------------------- */
+    /** Return the current generation, which callers must retrieve before
+     * reading from vault and pass to put().
+     *
+     * @return the current invalidation generation
+     */
+    public long getGeneration() {synchronized (_map) {return _generation;}}
+
+    /* ---------------------------------------------------------------------- */
+    /* put:                                                                   */
+    /* ---------------------------------------------------------------------- */
+    /** Cache a vault response.  Only successful and not found responses are
+     * cached; all other responses are ignored.  A positive lease duration
+     * shortens the secret type's time-to-live if it's smaller.  The response
+     * is discarded if any invalidation occurred since the generation was
+     * retrieved, since it may predate a write.
+     *
+     * @param secretType the type of secret
+     * @param tenant the secret's tenant
+     * @param secretPath the full vault path
+     * @param version the secret version, 0 for latest, META_VERSION for metadata
+     * @param status the vault http status
+     * @param body the vault response body
+     * @param leaseSeconds the vault lease duration, 0 or null for none
+     * @param generation the generation retrieved before reading from vault
+     */
+    public void put(SecretType secretType, String tenant, String secretPath,
+                    int version, int status, String body, Long leaseSeconds,
+                    long generation)
+    {
+        // Determine the time-to-live in seconds.
+        long ttl;
+        if (status < 400) {
+            ttl = _parms.getSecretCacheTTLSeconds(secretType);
+            if (leaseSeconds != null && leaseSeconds > 0) ttl = Math.min(ttl, leaseSeconds);
+        }
+        else if (status == HTTP_NOT_FOUND) ttl = _parms.getSecretCacheNegativeTTLSeconds();
+        else return;
+        if (ttl <= 0) return;
+
+        // Encrypt the body with a fresh iv.
+        var entry = new CacheEntry();
+        entry.status = status;
+        entry.expiresAt = System.currentTimeMillis() + (ttl * 1000);
+        entry.iv = new byte[IV_BYTES];
+        try {
+            _random.nextBytes(entry.iv);
+            var cipher = Cipher.getInstance(CIPHER_TRANSFORM);
+            cipher.init(Cipher.ENCRYPT_MODE, _key, new GCMParameterSpec(TAG_BITS, entry.iv));
+            entry.ciphertext = cipher.doFinal((body == null ? "{}" : body).getBytes(StandardCharsets.UTF_8));
+        } catch (Exception e) {
+            // Don't cache what we can't protect.
+            String msg = MsgUtils.getMsg("TAPIS_RUNTIME_EXCEPTION", e.getMessage());
+            _log.error(msg, e);
+            return;
+        }
+
+        String key = makeKey(secretType, tenant, secretPath, version);
+        synchronized (_map) {if (generation == _generation) _map.put(key, entry);}
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* invalidate:                                                            */
+    /* ---------------------------------------------------------------------- */
+    /** Remove all versions and the metadata of a secret from the cache.
+     *
+     * @param secretType the type of secret
+     * @param tenant the secret's tenant
+     * @param secretPath the full vault path
+     */
+    public void invalidate(SecretType secretType, String tenant, String secretPath)
+    {
+        // The prefix includes the trailing separator so only this path matches.
+        String prefix = makeKeyPrefix(secretType, tenant, secretPath);
+        synchronized (_map) {
+            _generation++;
+            Iterator<String> it = _map.keySet().iterator();
+            while (it.hasNext()) if (it.next().startsWith(prefix)) it.remove();
+        }
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* clear:                                                                 */
+    /* ---------------------------------------------------------------------- */
+    public void clear() {synchronized (_map) {_map.clear();}}
+
+    /* ---------------------------------------------------------------------- */
+    /* size:                                                                  */
+    /* ---------------------------------------------------------------------- */
+    public int size() {synchronized (_map) {return _map.size();}}
+
+    /* ********************************************************************** */
+    /*                            Private Methods                             */
+    /* ********************************************************************** */
+    /* ---------------------------------------------------------------------- */
+    /* makeKeyPrefix:                                                         */
+    /* ---------------------------------------------------------------------- */
+    private static String makeKeyPrefix(SecretType secretType, String tenant, String secretPath)
+    {
+        return secretType.name() + KEY_SEP + tenant + KEY_SEP + secretPath + KEY_SEP;
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* makeKey:                                                               */
+    /* ---------------------------------------------------------------------- */
+    private static String makeKey(SecretType secretType, String tenant,
+                                  String secretPath, int version)
+    {
+        return makeKeyPrefix(secretType, tenant, secretPath) + version;
+    }
+
+    /* ********************************************************************** */
+    /*                            CacheEntry Class                            */
+    /* ********************************************************************** */
+    private static final class CacheEntry
+    {
+        private int    status;
+        private long   expiresAt;
+        private byte[] iv;
+        private byte[] ciphertext;
+    }
+
+    /* ********************************************************************** */
+    /*                          CachedResponse Class                          */
+    /* ********************************************************************** */
+    /** A decrypted vault response. */
+    public static final class CachedResponse
+    {
+        public final int    status;
+        public final String body;
+
+        private CachedResponse(int status, String body)
+        {
+            this.status = status;
+            this.body = body;
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package edu.utexas.tacc.tapis.security.secrets;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import edu.utexas.tacc.tapis.shared.exceptions.TapisImplException;
+import edu.utexas.tacc.tapis.shared.exceptions.TapisImplException.Condition;
+import edu.utexas.tacc.tapis.shared.exceptions.runtime.TapisRuntimeException;
+import edu.utexas.tacc.tapis.shared.i18n.MsgUtils;
+
+/** In-memory verifiers for service passwords.  Rather than read a service's
+ * password from Vault on every validation request, this class keeps a salted
+ * SHA-256 hash of each password it has seen and compares candidate passwords
+ * against that hash in constant time.  Plaintext passwords are only held long
+ * enough to compute their hash.
+ *
+ * Verifiers are loaded on first use, reloaded by a background thread every
+ * refresh interval and reloaded on demand when a candidate doesn't match a
+ * verifier that's older than the minimum reload interval.  The latter allows
+ * password rotations to take effect immediately without letting a stream of
+ * bad passwords turn into a stream of Vault calls.  Verifiers that haven't been
+ * used for several refresh intervals are discarded.
+ *
+ * Verifiers are keyed by tenant and Vault path and are invalidated whenever
+ * VaultImpl changes the secret on that path.  A verifier loaded concurrently
+ * with an invalidation may hold the old password, so it is not retained if
+ * any invalidation occurred while its password was being read.
+ *
+ * @author rcardone
+ */
+public final class ServicePwdVerifier
+{
+    /* ********************************************************************** */
+    /*                               Constants                                */
+    /* ********************************************************************** */
+    // Tracing.
+    private static final Logger _log = LoggerFactory.getLogger(ServicePwdVerifier.class);
+
+    // Hashing parameters.
+    private static final String HASH_ALGORITHM = "SHA-256";
+    private static final int    SALT_BYTES     = 16;
+
+    // A mismatch triggers a reload only if the verifier is at least this old.
+    private static final long MIN_RELOAD_MILLIS = 10 * 1000;
+
+    // Unused verifiers are discarded after this many refresh intervals.
+    private static final int IDLE_REFRESH_INTERVALS = 4;
+
+    // Refresh thread name.
+    private static final String REFRESH_THREAD_NAME = "SkSvcPwdRefreshThread";
+
+    // Key component separator that cannot appear in a vault path.
+    private static final char KEY_SEP = '\0';
+
+    /* ********************************************************************** */
+    /*                                 Fields                                 */
+    /* ********************************************************************** */
+    // Singleton instance of this class.
+    private static ServicePwdVerifier _instance;
+
+    // Refresh interval in milliseconds.
+    private final long _refreshMillis;
+
+    // Salt generator.
+    private final SecureRandom _random = new SecureRandom();
+
+    // The verifiers.
+    private final Map<String,Verifier> _verifiers = new ConcurrentHashMap<>();
+
+    // Incremented on each invalidation so that verifiers loaded before an
+    // invalidation are not retained after it.
+    private final AtomicLong _generation = new AtomicLong();
+
+    /* ********************************************************************** */
+    /*                              Constructors                              */
+    /* ********************************************************************** */
+    private ServicePwdVerifier(int refreshSeconds)
+    {
+        _refreshMillis = refreshSeconds * 1000L;
+
+        // Start the daemon refresh thread.
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            var thread = new Thread(r, REFRESH_THREAD_NAME);
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::refresh, refreshSeconds, refreshSeconds,
+                                        TimeUnit.SECONDS);
+    }
+
+    /* ********************************************************************** */
+    /*                             Public Methods                             */
+    /* ********************************************************************** */
+    /* ---------------------------------------------------------------------- */
+    /* getInstance:                                                           */
+    /* ---------------------------------------------------------------------- */
+    /** Get the singleton instance of this class, creating it if necessary.
+     * A null result is returned when the configuration disables verifiers.
+     *
+     * @param parms the cache configuration
+     * @return the singleton instance or null
+     */
+    public static synchronized ServicePwdVerifier getInstance(ISecretCacheParms parms)
+     throws TapisRuntimeException
+    {
+        // Create the instance if necessary.
+        if (_instance == null && parms != null && parms.getServicePwdRefreshSeconds() > 0)
+            _instance = new ServicePwdVerifier(parms.getServicePwdRefreshSeconds());
+
+        return _instance;
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* getInstance:                                                           */
+    /* ---------------------------------------------------------------------- */
+    /** Return the singleton instance or null if it hasn't been created. */
+    public static ServicePwdVerifier getInstance() {return _instance;}
+
+    /* ---------------------------------------------------------------------- */
+    /* validate:                                                              */
+    /* ---------------------------------------------------------------------- */
+    /** Return true if the password matches the service password on the path.
+     * The loader is called when the verifier needs to be (re)loaded and is
+     * retained for background refreshes.  Loader exceptions are passed through.
+     *
+     * @param tenant the service's tenant
+     * @param secretPath the full vault path of the password
+     * @param password the candidate password
+     * @param loader reads the current password from vault
+     * @return true if the password matches, false otherwise
+     * @throws TapisImplException when the password cannot be loaded
+     */
+    public boolean validate(String tenant, String secretPath, String password,
+                            PasswordLoader loader)
+     throws TapisImplException
+    {
+        // Get a current verifier.
+        String key = makeKey(tenant, secretPath);
+        long now = System.currentTimeMillis();
+        Verifier verifier = _verifiers.get(key);
+        if (verifier == null || now - verifier.loadedAt > _refreshMillis)
+            verifier = load(key, loader);
+
+        // Try the verifier, then reload and retry once if it's not too recent.
+        verifier.lastUsed = now;
+        if (verifier.matches(password)) return true;
+        if (now - verifier.loadedAt < MIN_RELOAD_MILLIS) return false;
+        return load(key, loader).matches(password);
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* invalidate:                                                            */
+    /* ---------------------------------------------------------------------- */
+    /** Discard the verifier for a path so the next validation reads vault.
+     *
+     * @param tenant the service's tenant
+     * @param secretPath the full vault path of the password
+     */
+    public void invalidate(String tenant, String secretPath)
+    {
+        _generation.incrementAndGet();
+        _verifiers.remove(makeKey(tenant, secretPath));
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* size:                                                                  */
+    /* ---------------------------------------------------------------------- */
+    public int size() {return _verifiers.size();}
+
+    /* ---------------------------------------------------------------------- */
+    /* hash:                                                                  */
+    /* ---------------------------------------------------------------------- */
+    /** Compute the salted hash of a password. */
+    public static byte[] hash(byte[] salt, String password)
+    {
+        try {
+            var digest = MessageDigest.getInstance(HASH_ALGORITHM);
+            digest.update(salt);
+            return digest.digest(password.getBytes(StandardCharsets.UTF_8));
+        } catch (Exception e) {
+            // SHA-256 is required on all java platforms.
+            String msg = MsgUtils.getMsg("TAPIS_RUNTIME_EXCEPTION", e.getMessage());
+            throw new TapisRuntimeException(msg, e);
+        }
+    }
+
+    /* ********************************************************************** */
+    /*                            Private Methods                             */
+    /* ********************************************************************** */
+    /* ---------------------------------------------------------------------- */
+    /* load:                                                                  */
+    /* ---------------------------------------------------------------------- */
+    /** Read the password and replace the verifier.  The verifier is removed if
+     * the password cannot be read.  The new verifier is used by the current
+     * request but not retained if an invalidation occurred during the read.
+     */
+    private Verifier load(String key, PasswordLoader loader)
+     throws TapisImplException
+    {
+        long generation = _generation.get();
+        String password;
+        try {password = loader.load();}
+            catch (TapisImplException e) {
+                _verifiers.remove(key);
+                throw e;
+            }
+            catch (Exception e) {
+                _verifiers.remove(key);
+                String msg = MsgUtils.getMsg("TAPIS_RUNTIME_EXCEPTION", e.getMessage());
+                _log.error(msg, e);
+                throw new TapisImplException(msg, e, Condition.INTERNAL_SERVER_ERROR);
+            }
+
+        // A blank password never matches.
+        var verifier = new Verifier();
+        verifier.loader = loader;
+        verifier.loadedAt = System.currentTimeMillis();
+        verifier.lastUsed = verifier.loadedAt;
+        if (StringUtils.isNotBlank(password)) {
+            verifier.salt = new byte[SALT_BYTES];
+            _random.nextBytes(verifier.salt);
+            verifier.hash = hash(verifier.salt, password);
+        }
+        _verifiers.compute(key, (k, old) -> generation == _generation.get() ? verifier : old);
+        return verifier;
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* refresh:                                                               */
+    /* ---------------------------------------------------------------------- */
+    /** Reload recently used verifiers and discard idle ones.  This method runs
+     * on the refresh thread and must not throw exceptions.
+     */
+    private void refresh()
+    {
+        long idleCutoff = System.currentTimeMillis() - (_refreshMillis * IDLE_REFRESH_INTERVALS);
+        for (var entry : _verifiers.entrySet()) {
+            try {
+                if (entry.getValue().lastUsed < idleCutoff)
+                    _verifiers.remove(entry.getKey());
+                else {
+                    long lastUsed = entry.getValue().lastUsed;
+                    load(entry.getKey(), entry.getValue().loader).lastUsed = lastUsed;
+                }
+            }
+            catch (Exception e) {
+                // The verifier has been removed and will be reloaded on demand.
+                String msg = MsgUtils.getMsg("TAPIS_RUNTIME_EXCEPTION", e.getMessage());
+                _log.warn(msg);
+            }
+        }
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* makeKey:                                                               */
+    /* ---------------------------------------------------------------------- */
+    private static String makeKey(String tenant, String secretPath)
+    {
+        return tenant + KEY_SEP + secretPath;
+    }
+
+    /* ********************************************************************** */
+    /*                             Verifier Class                             */
+    /* ********************************************************************** */
+    private static final class Verifier
+    {
+        private byte[]         salt;     // null when the password is blank
+        private byte[]         hash;     // null when the password is blank
+        private PasswordLoader loader;
+        private long           loadedAt;
+        private volatile long  lastUsed;
+
+        // Constant time comparison.
+        private boolean matches(String password)
+        {
+            if (hash == null || password == null) return false;
+            return MessageDigest.isEqual(hash, ServicePwdVerifier.hash(salt, password));
+        }
+    }
+
+    /* ********************************************************************** */
+    /*                         PasswordLoader Interface                       */
+    /* ********************************************************************** */
+    /** Read the current plaintext password from vault. */
+    @FunctionalInterface
+    public interface PasswordLoader
+    {
+        String load() throws TapisImplException;
+    }
+}
@@ -0,0 +1,115 @@
+package edu.utexas.tacc.tapis.security.authz;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import edu.utexas.tacc.tapis.security.authz.dao.SkRoleDao;
+import edu.utexas.tacc.tapis.security.authz.impl.UserImpl;
+import edu.utexas.tacc.tapis.security.authz.impl.UserImpl.AuthOperation;
+import edu.utexas.tacc.tapis.security.authz.model.SkAuthzQuestion;
+import edu.utexas.tacc.tapis.security.authz.model.SkAuthzQuestion.QuestionType;
+import edu.utexas.tacc.tapis.security.authz.model.SkRole;
+import edu.utexas.tacc.tapis.shared.exceptions.TapisException;
+
+/** This test compares the batch authorization path with the single-question
+ * path that services use today.  A small set of users are assigned a role with
+ * a handful of permissions, then a list of questions typical of authorizing a
+ * list response (many resources, few users) is answered both ways.  The test
+ * checks that the decisions agree and prints the per-question timings.
+ *
+ * @author rcardone
+ */
+@Test(groups={"integration"})
+public class AuthzBatchTest
+{
+    /* ********************************************************************** */
+    /*                               Constants                                */
+    /* ********************************************************************** */
+    // The tenant and users referenced in this test.
+    private static final String tenant   = "testtenant";
+    private static final String user     = "testuser";
+    private static final String roleName = "AuthzBatchTestRole";
+    private static final String[] users  = {"testuser1", "testuser2", "testuser3"};
+
+    // Number of resources checked per user.
+    private static final int NUM_RESOURCES = 50;
+
+    /* ********************************************************************** */
+    /*                            Main Test Method                            */
+    /* ********************************************************************** */
+    /* ---------------------------------------------------------------------- */
+    /* testBatch:                                                             */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testBatch() throws TapisException
+    {
+        // Start clean and create the role that grants every other resource.
+        deleteRole();
+        createRole();
+
+        // Construct the questions.
+        var questions = new ArrayList<SkAuthzQuestion>();
+        for (String u : users)
+            for (int i = 0; i < NUM_RESOURCES; i++) {
+                var q = new SkAuthzQuestion();
+                q.setType(QuestionType.PERMISSION);
+                q.setUser(u);
+                q.setPermSpec("batch:" + i + ":read");
+                questions.add(q);
+            }
+
+        // Time the single-question path.
+        var impl = UserImpl.getInstance();
+        var singleDecisions = new ArrayList<Boolean>(questions.size());
+        long start = System.nanoTime();
+        for (var q : questions)
+            singleDecisions.add(impl.isPermitted(tenant, q.getUser(),
+                                new String[] {q.getPermSpec()}, AuthOperation.ANY));
+        long singleNanos = System.nanoTime() - start;
+
+        // Time the batch path.
+        start = System.nanoTime();
+        List<Boolean> batchDecisions = impl.isAuthorizedBatch(tenant, questions);
+        long batchNanos = System.nanoTime() - start;
+
+        // Report and compare.
+        System.out.println(" **** single path: " + (singleNanos / questions.size() / 1000)
+                           + " usecs per question");
+        System.out.println(" **** batch path:  " + (batchNanos / questions.size() / 1000)
+                           + " usecs per question");
+        Assert.assertEquals(batchDecisions, singleDecisions);
+        for (int i = 0; i < questions.size(); i++)
+            Assert.assertEquals(batchDecisions.get(i).booleanValue(), (i % NUM_RESOURCES) % 2 == 0);
+
+        // Clean up.
+        deleteRole();
+    }
+
+    /* ********************************************************************** */
+    /*                             Private Methods                            */
+    /* ********************************************************************** */
+    /* ---------------------------------------------------------------------- */
+    /* deleteRole:                                                            */
+    /* ---------------------------------------------------------------------- */
+    private void deleteRole() throws TapisException
+    {
+        SkRoleDao dao = new SkRoleDao();
+        dao.deleteRole(tenant, roleName);
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* createRole:                                                            */
+    /* ---------------------------------------------------------------------- */
+    private void createRole() throws TapisException
+    {
+        SkRoleDao dao = new SkRoleDao();
+        dao.createRole(roleName, tenant, "Role created by AuthzBatchTest", "AuthzBatchTest", tenant);
+        SkRole role = dao.getRole(tenant, roleName);
+        for (int i = 0; i < NUM_RESOURCES; i += 2)
+            role.addPermission(user, tenant, "batch:" + i + ":read");
+        for (String u : users) role.addUser(user, tenant, u, tenant);
+    }
+}
@@ -0,0 +1,362 @@
+package edu.utexas.tacc.tapis.security.commands.aux;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/** Exercise the vault tree walker against an in-process HTTP server that
+ * stands in for Vault.  The stand-in serves a synthetic kv v2 tree rooted at
+ * tapis/ with a configurable number of directories, each holding a configurable
+ * number of secrets.  It can inject retryable failures and permanently broken
+ * secrets, and it counts the secret reads that reach it.
+ *
+ * The large tree test issues hundreds of thousands of requests and is in the
+ * integration group rather than the unit group.
+ *
+ * @author rcardone
+ */
+public class VaultTreeWalkerTest
+{
+    /* ********************************************************************** */
+    /*                               Constants                                */
+    /* ********************************************************************** */
+    private static final String ROOT = "tapis/";
+
+    // The kv v2 prefixes used by the walker.
+    private static final String METADATA_PREFIX = "/v1/secret/metadata/";
+    private static final String DATA_PREFIX     = "/v1/secret/data/";
+
+    // The http server property that disables delayed acks.
+    private static final String NODELAY_PROPERTY = "sun.net.httpserver.nodelay";
+
+    /* ********************************************************************** */
+    /*                                 Fields                                 */
+    /* ********************************************************************** */
+    // The vault stand-in and its threads.
+    private HttpServer      _server;
+    private ExecutorService _executor;
+    private String          _vurl;
+    private HttpClient      _httpClient;
+    private String          _savedNodelay;
+
+    // The synthetic tree's shape.
+    private volatile int _numDirs;
+    private volatile int _secretsPerDir;
+
+    // Injected faults and request counting.
+    private final AtomicInteger       _unavailable = new AtomicInteger();
+    private final Set<String>         _broken      = ConcurrentHashMap.newKeySet();
+    private final Map<String,AtomicInteger> _reads = new ConcurrentHashMap<>();
+
+    /* ********************************************************************** */
+    /*                            Set Up / Tear Down                          */
+    /* ********************************************************************** */
+    @BeforeClass(alwaysRun=true)
+    public void setup() throws IOException
+    {
+        // Start the stand-in on an ephemeral port.  Without TCP_NODELAY, the
+        // server's small responses wait on delayed acks.  The property is 
+        // restored on teardown.
+        _savedNodelay = System.setProperty(NODELAY_PROPERTY, "true");
+        _executor = Executors.newFixedThreadPool(16);
+        _server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        _server.createContext("/", this::handle);
+        _server.setExecutor(_executor);
+        _server.start();
+        _vurl = "http://127.0.0.1:" + _server.getAddress().getPort() + "/";
+        _httpClient = HttpClient.newHttpClient();
+    }
+
+    @AfterClass(alwaysRun=true)
+    public void teardown()
+    {
+        if (_server != null) _server.stop(0);
+        if (_executor != null) _executor.shutdownNow();
+        if (_savedNodelay == null) System.clearProperty(NODELAY_PROPERTY);
+          else System.setProperty(NODELAY_PROPERTY, _savedNodelay);
+    }
+
+    @BeforeMethod(alwaysRun=true)
+    public void reset()
+    {
+        _numDirs = 10;
+        _secretsPerDir = 10;
+        _unavailable.set(0);
+        _broken.clear();
+        _reads.clear();
+    }
+
+    /* ********************************************************************** */
+    /*                              Test Methods                              */
+    /* ********************************************************************** */
+    /* ---------------------------------------------------------------------- */
+    /* deterministicOrder:                                                    */
+    /* ---------------------------------------------------------------------- */
+    @Test(groups= {"unit"})
+    public void deterministicOrder() throws Exception
+    {
+        // The serial walk defines the expected order.
+        var serial = new Run(1, null);
+        var serialLeaves = serial.walk();
+        Assert.assertEquals(serialLeaves.size(), _numDirs * _secretsPerDir);
+        Assert.assertEquals(serialLeaves.get(0).path(), ROOT + "d0/s0");
+        Assert.assertEquals(serialLeaves.get(1).path(), ROOT + "d0/s1");
+
+        // Parallel walks return the same leaves in the same order.
+        for (int i = 0; i < 3; i++) {
+            var parallel = new Run(16, null);
+            Assert.assertEquals(parallel.walk(), serialLeaves);
+            Assert.assertTrue(parallel.failedReads.isEmpty());
+        }
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* retriesUnavailable:                                                    */
+    /* ---------------------------------------------------------------------- */
+    @Test(groups= {"unit"})
+    public void retriesUnavailable() throws Exception
+    {
+        // Fewer failures than the retry limit never surface.
+        _unavailable.set(3);
+        var run = new Run(1, null);
+        var leaves = run.walk();
+        Assert.assertEquals(leaves.size(), _numDirs * _secretsPerDir);
+        Assert.assertTrue(run.failedReads.isEmpty());
+        Assert.assertEquals(_unavailable.get(), 0);
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* resumeFromCheckpoint:                                                  */
+    /* ---------------------------------------------------------------------- */
+    @Test(groups= {"unit"})
+    public void retriesOnlyReads() throws Exception
+    {
+        // A failed write is returned rather than sent again.
+        _unavailable.set(1);
+        var run = new Run(1, null);
+        var request = HttpRequest.newBuilder()
+            .uri(new URI(_vurl + "v1/secret/data/" + ROOT + "d0/s0"))
+            .headers("X-Vault-Token", "test-token", "Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString("{\"data\":{}}"))
+            .build();
+        Assert.assertEquals(run.walker.send(request).statusCode(), 503);
+        Assert.assertEquals(_unavailable.get(), 0);
+        Assert.assertTrue(_reads.isEmpty());
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* resumeFromCheckpoint:                                                  */
+    /* ---------------------------------------------------------------------- */
+    @Test(groups= {"unit"})
+    public void resumeFromCheckpoint() throws Exception
+    {
+        Path checkpoint = Files.createTempFile("VaultTreeWalkerTest", ".ckpt");
+        Files.delete(checkpoint);
+        try {
+            // The first run fails on the broken secrets.
+            _broken.add(ROOT + "d3/s7");
+            _broken.add(ROOT + "d8/s0");
+            var first = new Run(8, checkpoint);
+            var firstLeaves = first.walk();
+            Assert.assertEquals(firstLeaves.size(), _numDirs * _secretsPerDir - 2);
+            Assert.assertEquals(first.failed.size(), 2);
+
+            // The checkpoint is private and records paths but no secret values.
+            Assert.assertEquals(PosixFilePermissions.toString(Files.getPosixFilePermissions(checkpoint)),
+                                "rw-------");
+            String text = Files.readString(checkpoint);
+            Assert.assertTrue(text.contains(ROOT + "d0/s0"));
+            Assert.assertFalse(text.contains("\"key\""));
+
+            // The second run only reads the secrets that failed.
+            _broken.clear();
+            _reads.clear();
+            var second = new Run(8, checkpoint);
+            var secondLeaves = second.walk();
+            Assert.assertEquals(secondLeaves.size(), _numDirs * _secretsPerDir);
+            Assert.assertEquals(_reads.keySet(), Set.of(ROOT + "d3/s7", ROOT + "d8/s0"));
+
+            // The resumed result has the same leaves in the same order as an
+            // uninterrupted one, and the completed run removed the checkpoint.
+            Assert.assertEquals(paths(secondLeaves), paths(new Run(8, null).walk()));
+            Assert.assertFalse(Files.exists(checkpoint));
+        } finally {
+            Files.deleteIfExists(checkpoint);
+        }
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* existingCheckpointRestricted:                                          */
+    /* ---------------------------------------------------------------------- */
+    @Test(groups= {"unit"})
+    public void existingCheckpointRestricted() throws Exception
+    {
+        // A world readable checkpoint is made private before it's used.
+        Path checkpoint = Files.createTempFile("VaultTreeWalkerTest", ".ckpt");
+        try {
+            Files.setPosixFilePermissions(checkpoint, PosixFilePermissions.fromString("rw-r--r--"));
+            _broken.add(ROOT + "d0/s0");
+            new Run(4, checkpoint).walk();
+            Assert.assertEquals(PosixFilePermissions.toString(Files.getPosixFilePermissions(checkpoint)),
+                                "rw-------");
+        } finally {
+            Files.deleteIfExists(checkpoint);
+        }
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* largeTree:                                                             */
+    /* ---------------------------------------------------------------------- */
+    @Test(groups= {"integration"})
+    public void largeTree() throws Exception
+    {
+        // 100k secrets.
+        _numDirs = 200;
+        _secretsPerDir = 500;
+        var run = new Run(32, null);
+        var leaves = run.walk();
+        Assert.assertEquals(leaves.size(), 100000);
+        Assert.assertEquals(run.walker.getNumReads(), 100000);
+        Assert.assertEquals(run.walker.getNumListings(), 100000 + _numDirs + 1);
+        Assert.assertTrue(run.failedReads.isEmpty());
+
+        // Spot check the order.
+        Assert.assertEquals(leaves.get(500).path(), ROOT + "d1/s0");
+        Assert.assertEquals(leaves.get(99999).path(), ROOT + "d199/s499");
+    }
+
+    /* ********************************************************************** */
+    /*                            Private Methods                             */
+    /* ********************************************************************** */
+    /* ---------------------------------------------------------------------- */
+    /* paths:                                                                 */
+    /* ---------------------------------------------------------------------- */
+    private List<String> paths(List<VaultTreeWalker.Leaf> leaves)
+    {
+        var paths = new ArrayList<String>(leaves.size());
+        for (var leaf : leaves) paths.add(leaf.path());
+        return paths;
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* handle:                                                                */
+    /* ---------------------------------------------------------------------- */
+    /** Minimal vault stand-in. */
+    private void handle(HttpExchange exchange) throws IOException
+    {
+        // Injected unavailability.
+        if (_unavailable.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+            respond(exchange, 503, "{\"errors\":[\"Vault is sealed\"]}");
+            return;
+        }
+
+        String path = exchange.getRequestURI().getPath();
+        if (path.startsWith(METADATA_PREFIX)) {
+            // Directories list their children, everything else is a leaf.
+            var keys = listKeys(path.substring(METADATA_PREFIX.length()));
+            if (keys == null) respond(exchange, 404, "{\"errors\":[]}");
+              else respond(exchange, 200, "{\"data\":{\"keys\":[" + String.join(",", keys) + "]}}");
+            return;
+        }
+
+        if (path.startsWith(DATA_PREFIX)) {
+            String secretPath = path.substring(DATA_PREFIX.length());
+            _reads.computeIfAbsent(secretPath, k -> new AtomicInteger()).incrementAndGet();
+            if (_broken.contains(secretPath)) respond(exchange, 403, "{\"errors\":[\"permission denied\"]}");
+              else respond(exchange, 200, "{\"data\":{\"data\":{\"key\":\"" + secretPath + "\"}}}");
+            return;
+        }
+
+        respond(exchange, 404, "{\"errors\":[]}");
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* listKeys:                                                              */
+    /* ---------------------------------------------------------------------- */
+    /** Return the quoted child keys of a directory or null for a leaf. */
+    private List<String> listKeys(String secretPath)
+    {
+        var keys = new ArrayList<String>();
+        if (ROOT.equals(secretPath)) {
+            for (int i = 0; i < _numDirs; i++) keys.add("\"d" + i + "/\"");
+            return keys;
+        }
+        if (secretPath.startsWith(ROOT) && secretPath.endsWith("/")) {
+            for (int i = 0; i < _secretsPerDir; i++) keys.add("\"s" + i + "\"");
+            return keys;
+        }
+        return null;
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* respond:                                                               */
+    /* ---------------------------------------------------------------------- */
+    private void respond(HttpExchange exchange, int status, String body) throws IOException
+    {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (var out = exchange.getResponseBody()) {out.write(bytes);}
+    }
+
+    /* ********************************************************************** */
+    /*                                Run Class                               */
+    /* ********************************************************************** */
+    /** One walk whose processor reads each secret the way the utilities do. */
+    private final class Run
+    {
+        private final VaultTreeWalker walker;
+        private final Set<String> failed      = new ConcurrentSkipListSet<>();
+        private final Set<String> failedReads = new ConcurrentSkipListSet<>();
+
+        private Run(int parallelism, Path checkpoint)
+        {
+            walker = new VaultTreeWalker(_httpClient, _vurl, "test-token", this::read,
+                                         msg -> {}, failedReads::add);
+            walker.setParallelism(parallelism);
+            walker.setMaxRetries(3);
+            walker.setCheckpointFile(checkpoint);
+        }
+
+        private List<VaultTreeWalker.Leaf> walk() throws Exception {return walker.walk(ROOT);}
+
+        private String read(String path) throws Exception
+        {
+            var request = HttpRequest.newBuilder()
+                .uri(new URI(_vurl + "v1/secret/data/" + path))
+                .headers("X-Vault-Token", "test-token", "Accept", "application/json")
+                .GET()
+                .build();
+            var resp = walker.send(request);
+            if (resp.statusCode() != 200) {
+                failed.add(path);
+                return null;
+            }
+            return resp.body();
+        }
+    }
+}
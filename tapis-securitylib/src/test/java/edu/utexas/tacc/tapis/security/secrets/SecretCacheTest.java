@@ -0,0 +1,307 @@
+package edu.utexas.tacc.tapis.security.secrets;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import edu.utexas.tacc.tapis.security.authz.impl.VaultImpl;
+import edu.utexas.tacc.tapis.security.secrets.SecretPathMapper.SecretPathMapperParms;
+import edu.utexas.tacc.tapis.shared.exceptions.TapisImplException;
+import edu.utexas.tacc.tapis.shared.exceptions.TapisImplException.Condition;
+
+/** Exercise the secret cache through VaultImpl using an in-process HTTP server
+ * that stands in for Vault.  The stand-in implements just enough of the approle
+ * login and kv v2 data api for the vault driver, and it counts the secret reads
+ * that reach it so we can verify that steady-state reads are served from cache.
+ *
+ * @author rcardone
+ */
+@Test(groups= {"unit"})
+public class SecretCacheTest
+{
+    /* ********************************************************************** */
+    /*                               Constants                                */
+    /* ********************************************************************** */
+    private static final String tenant  = "testtenant";
+    private static final String service = "testservice";
+    private static final String user    = "testuser";
+
+    // The kv v2 data prefix and the login path used by the vault driver.
+    private static final String DATA_PREFIX = "/v1/secret/data/";
+    private static final String LOGIN_PATH  = "/v1/auth/approle/login";
+
+    /* ********************************************************************** */
+    /*                                 Fields                                 */
+    /* ********************************************************************** */
+    // The vault stand-in, its secrets and its read counter.
+    private HttpServer _server;
+    private final Map<String,JsonObject> _secrets = new HashMap<>();
+    private final AtomicInteger _reads = new AtomicInteger();
+    private final Gson _gson = new Gson();
+
+    /* ********************************************************************** */
+    /*                            Set Up / Tear Down                          */
+    /* ********************************************************************** */
+    @BeforeClass
+    public void setup() throws IOException
+    {
+        // Start the stand-in on an ephemeral port.
+        _server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        _server.createContext("/", this::handle);
+        _server.start();
+
+        // Initialize vault communication and the cache.
+        var parms = new TestParms("http://127.0.0.1:" + _server.getAddress().getPort());
+        VaultManager.getInstance(parms);
+        Assert.assertNotNull(SecretCache.getInstance(parms));
+    }
+
+    @AfterClass
+    public void teardown()
+    {
+        if (_server != null) _server.stop(0);
+    }
+
+    @BeforeMethod
+    public void reset()
+    {
+        SecretCache.getInstance().clear();
+        _secrets.clear();
+        _reads.set(0);
+    }
+
+    /* ********************************************************************** */
+    /*                              Test Methods                              */
+    /* ********************************************************************** */
+    /* ---------------------------------------------------------------------- */
+    /* steadyStateReads:                                                      */
+    /* ---------------------------------------------------------------------- */
+    @Test(enabled=true)
+    public void steadyStateReads() throws TapisImplException
+    {
+        var impl = VaultImpl.getInstance();
+        var parms = serviceParms("password");
+        impl.secretWrite(tenant, service, parms, secretMap("password", "pwd1"));
+
+        // Only the first read reaches vault.
+        for (int i = 0; i < 10; i++) {
+            var secret = impl.secretRead(tenant, service, parms, 0);
+            Assert.assertEquals(secret.secretMap.get("password"), "pwd1");
+        }
+        Assert.assertEquals(_reads.get(), 1);
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* writeInvalidates:                                                      */
+    /* ---------------------------------------------------------------------- */
+    @Test(enabled=true)
+    public void writeInvalidates() throws TapisImplException
+    {
+        var impl = VaultImpl.getInstance();
+        var parms = serviceParms("password");
+        impl.secretWrite(tenant, service, parms, secretMap("password", "pwd1"));
+        Assert.assertEquals(impl.secretRead(tenant, service, parms, 0).secretMap.get("password"), "pwd1");
+
+        // The new value is visible immediately.
+        impl.secretWrite(tenant, service, parms, secretMap("password", "pwd2"));
+        Assert.assertEquals(impl.secretRead(tenant, service, parms, 0).secretMap.get("password"), "pwd2");
+        Assert.assertEquals(impl.secretRead(tenant, service, parms, 0).secretMap.get("password"), "pwd2");
+        Assert.assertEquals(_reads.get(), 2);
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* negativeCaching:                                                       */
+    /* ---------------------------------------------------------------------- */
+    @Test(enabled=true)
+    public void negativeCaching() throws TapisImplException
+    {
+        var impl = VaultImpl.getInstance();
+        var parms = serviceParms("missing");
+        for (int i = 0; i < 3; i++) {
+            try {
+                impl.secretRead(tenant, service, parms, 0);
+                Assert.fail("Expected a not found exception.");
+            } catch (TapisImplException e) {
+                Assert.assertEquals(e.condition, Condition.NOT_FOUND);
+            }
+        }
+        Assert.assertEquals(_reads.get(), 1);
+
+        // Creating the secret replaces the negative entry.
+        impl.secretWrite(tenant, service, parms, secretMap("password", "pwd3"));
+        Assert.assertEquals(impl.secretRead(tenant, service, parms, 0).secretMap.get("password"), "pwd3");
+        Assert.assertEquals(_reads.get(), 2);
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* zeroTTLNotCached:                                                      */
+    /* ---------------------------------------------------------------------- */
+    @Test(enabled=true)
+    public void zeroTTLNotCached() throws TapisImplException
+    {
+        // User secrets are configured with a zero ttl.
+        var impl = VaultImpl.getInstance();
+        var parms = new SecretPathMapperParms(SecretType.User);
+        parms.setSecretName("mysecret");
+        impl.secretWrite(tenant, user, parms, secretMap("key", "value"));
+        impl.secretRead(tenant, user, parms, 0);
+        impl.secretRead(tenant, user, parms, 0);
+        Assert.assertEquals(_reads.get(), 2);
+        Assert.assertEquals(SecretCache.getInstance().size(), 0);
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* staleReadDiscarded:                                                    */
+    /* ---------------------------------------------------------------------- */
+    @Test(enabled=true)
+    public void staleReadDiscarded()
+    {
+        // A response read before an invalidation is not cached after it.
+        var cache = SecretCache.getInstance();
+        String path = "secret/tapis/tenant/testtenant/service/testservice/kv/password";
+        long generation = cache.getGeneration();
+        cache.invalidate(SecretType.ServicePwd, tenant, path);
+        cache.put(SecretType.ServicePwd, tenant, path, 0, 200, "{}", null, generation);
+        Assert.assertNull(cache.get(SecretType.ServicePwd, tenant, path, 0));
+
+        // A response read after the invalidation is cached.
+        cache.put(SecretType.ServicePwd, tenant, path, 0, 200, "{}", null, cache.getGeneration());
+        Assert.assertNotNull(cache.get(SecretType.ServicePwd, tenant, path, 0));
+    }
+
+    /* ********************************************************************** */
+    /*                            Private Methods                             */
+    /* ********************************************************************** */
+    /* ---------------------------------------------------------------------- */
+    /* serviceParms:                                                          */
+    /* ---------------------------------------------------------------------- */
+    private SecretPathMapperParms serviceParms(String secretName) throws TapisImplException
+    {
+        var parms = new SecretPathMapperParms(SecretType.ServicePwd);
+        parms.setSecretName(secretName);
+        return parms;
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* secretMap:                                                             */
+    /* ---------------------------------------------------------------------- */
+    private Map<String,Object> secretMap(String key, String value)
+    {
+        var map = new HashMap<String,Object>();
+        map.put(key, value);
+        return map;
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* handle:                                                                */
+    /* ---------------------------------------------------------------------- */
+    /** Minimal vault stand-in. */
+    private void handle(HttpExchange exchange) throws IOException
+    {
+        String path = exchange.getRequestURI().getPath();
+        String method = exchange.getRequestMethod();
+
+        if (LOGIN_PATH.equals(path)) {
+            respond(exchange, 200, "{\"auth\":{\"client_token\":\"test-token\",\"policies\":[\"default\"]," +
+                                   "\"lease_duration\":3600,\"renewable\":false}}");
+            return;
+        }
+
+        if (path.startsWith(DATA_PREFIX)) {
+            String secretPath = path.substring(DATA_PREFIX.length());
+            if ("GET".equals(method)) {
+                _reads.incrementAndGet();
+                JsonObject data = _secrets.get(secretPath);
+                if (data == null) respond(exchange, 404, "{\"errors\":[]}");
+                  else {
+                      var outer = new JsonObject();
+                      outer.add("data", data);
+                      outer.add("metadata", metadata());
+                      var body = new JsonObject();
+                      body.add("data", outer);
+                      body.addProperty("lease_duration", 0);
+                      respond(exchange, 200, _gson.toJson(body));
+                  }
+                return;
+            }
+
+            // Writes arrive wrapped in a data object.
+            var in = _gson.fromJson(new String(exchange.getRequestBody().readAllBytes(),
+                                               StandardCharsets.UTF_8), JsonObject.class);
+            _secrets.put(secretPath, in.getAsJsonObject("data"));
+            var body = new JsonObject();
+            body.add("data", metadata());
+            respond(exchange, 200, _gson.toJson(body));
+            return;
+        }
+
+        respond(exchange, 404, "{\"errors\":[]}");
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* metadata:                                                              */
+    /* ---------------------------------------------------------------------- */
+    private JsonObject metadata()
+    {
+        var meta = new JsonObject();
+        meta.addProperty("created_time", "2020-01-01T00:00:00.000000Z");
+        meta.addProperty("deletion_time", "");
+        meta.addProperty("destroyed", false);
+        meta.addProperty("version", 1);
+        return meta;
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* respond:                                                               */
+    /* ---------------------------------------------------------------------- */
+    private void respond(HttpExchange exchange, int status, String body) throws IOException
+    {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (var out = exchange.getResponseBody()) {out.write(bytes);}
+    }
+
+    /* ********************************************************************** */
+    /*                             TestParms Class                            */
+    /* ********************************************************************** */
+    private static final class TestParms
+     implements IVaultManagerParms, ISecretCacheParms
+    {
+        private final String _address;
+        private TestParms(String address) {_address = address;}
+
+        @Override public boolean isVaultDisabled() {return false;}
+        @Override public boolean isVaultRenewalDisabled() {return true;}
+        @Override public String  getVaultAddress() {return _address;}
+        @Override public String  getVaultRoleId() {return "test-role";}
+        @Override public String  getVaultSecretId() {return "test-secret";}
+        @Override public int     getVaultOpenTimeout() {return 5;}
+        @Override public int     getVaultReadTimeout() {return 5;}
+        @Override public boolean isVaultSslVerify() {return false;}
+        @Override public String  getVaultSslCertFile() {return null;}
+        @Override public String  getVaultSkKeyPemFile() {return null;}
+        @Override public int     getVaultRenewSeconds() {return 3600;}
+        @Override public int     getVaultRenewThreshold() {return 50;}
+
+        @Override public int getSecretCacheMaxEntries() {return 100;}
+        @Override public int getSecretCacheNegativeTTLSeconds() {return 60;}
+        @Override public int getServicePwdRefreshSeconds() {return 0;}
+        @Override public int getSecretCacheTTLSeconds(SecretType secretType)
+        {return secretType == SecretType.User ? 0 : 60;}
+    }
+}
@@ -0,0 +1,137 @@
+package edu.utexas.tacc.tapis.security.secrets;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import edu.utexas.tacc.tapis.shared.exceptions.TapisImplException;
+import edu.utexas.tacc.tapis.shared.exceptions.TapisImplException.Condition;
+
+/** Exercise the service password verifiers with loaders that stand in for
+ * vault and count how often they're called.
+ *
+ * @author rcardone
+ */
+@Test(groups= {"unit"})
+public class ServicePwdVerifierTest
+{
+    /* ********************************************************************** */
+    /*                               Constants                                */
+    /* ********************************************************************** */
+    private static final String tenant = "testtenant";
+
+    /* ********************************************************************** */
+    /*                                 Fields                                 */
+    /* ********************************************************************** */
+    private ServicePwdVerifier _verifier;
+
+    /* ********************************************************************** */
+    /*                            Set Up / Tear Down                          */
+    /* ********************************************************************** */
+    @BeforeClass
+    public void setup()
+    {
+        // Use a long refresh interval so background refreshes don't interfere.
+        _verifier = ServicePwdVerifier.getInstance(new ISecretCacheParms() {
+            @Override public int getSecretCacheMaxEntries() {return 0;}
+            @Override public int getSecretCacheTTLSeconds(SecretType secretType) {return 0;}
+            @Override public int getSecretCacheNegativeTTLSeconds() {return 0;}
+            @Override public int getServicePwdRefreshSeconds() {return 3600;}
+        });
+        Assert.assertNotNull(_verifier);
+    }
+
+    /* ********************************************************************** */
+    /*                              Test Methods                              */
+    /* ********************************************************************** */
+    /* ---------------------------------------------------------------------- */
+    /* loadsOnce:                                                             */
+    /* ---------------------------------------------------------------------- */
+    @Test(enabled=true)
+    public void loadsOnce() throws TapisImplException
+    {
+        var loads = new AtomicInteger();
+        ServicePwdVerifier.PasswordLoader loader = () -> {loads.incrementAndGet(); return "pwd1";};
+
+        // Bad passwords against a fresh verifier don't reach vault.
+        for (int i = 0; i < 100; i++) {
+            Assert.assertTrue(_verifier.validate(tenant, "path/loadsOnce", "pwd1", loader));
+            Assert.assertFalse(_verifier.validate(tenant, "path/loadsOnce", "pwd2", loader));
+        }
+        Assert.assertEquals(loads.get(), 1);
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* invalidateReloads:                                                     */
+    /* ---------------------------------------------------------------------- */
+    @Test(enabled=true)
+    public void invalidateReloads() throws TapisImplException
+    {
+        var password = new String[] {"old"};
+        var loads = new AtomicInteger();
+        ServicePwdVerifier.PasswordLoader loader = () -> {loads.incrementAndGet(); return password[0];};
+
+        Assert.assertTrue(_verifier.validate(tenant, "path/invalidate", "old", loader));
+
+        // Rotate the password and invalidate as VaultImpl does on write.
+        password[0] = "new";
+        _verifier.invalidate(tenant, "path/invalidate");
+        Assert.assertTrue(_verifier.validate(tenant, "path/invalidate", "new", loader));
+        Assert.assertFalse(_verifier.validate(tenant, "path/invalidate", "old", loader));
+        Assert.assertEquals(loads.get(), 2);
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* staleLoadDiscarded:                                                    */
+    /* ---------------------------------------------------------------------- */
+    @Test(enabled=true)
+    public void staleLoadDiscarded() throws TapisImplException
+    {
+        // The password is rotated and invalidated while the old one is being
+        // read, so the verifier built from the old password is not retained.
+        var password = new String[] {"old"};
+        var loads = new AtomicInteger();
+        ServicePwdVerifier.PasswordLoader loader = () -> {
+            String current = password[0];
+            if (loads.incrementAndGet() == 1) {
+                password[0] = "new";
+                _verifier.invalidate(tenant, "path/stale");
+            }
+            return current;
+        };
+
+        Assert.assertTrue(_verifier.validate(tenant, "path/stale", "old", loader));
+        Assert.assertFalse(_verifier.validate(tenant, "path/stale", "old", loader));
+        Assert.assertTrue(_verifier.validate(tenant, "path/stale", "new", loader));
+        Assert.assertEquals(loads.get(), 2);
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* blankNeverMatches:                                                     */
+    /* ---------------------------------------------------------------------- */
+    @Test(enabled=true)
+    public void blankNeverMatches() throws TapisImplException
+    {
+        Assert.assertFalse(_verifier.validate(tenant, "path/blank", "pwd", () -> null));
+        Assert.assertFalse(_verifier.validate(tenant, "path/blank2", "", () -> ""));
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* loadErrorPassesThrough:                                                */
+    /* ---------------------------------------------------------------------- */
+    @Test(enabled=true)
+    public void loadErrorPassesThrough()
+    {
+        int size = _verifier.size();
+        try {
+            _verifier.validate(tenant, "path/missing", "pwd",
+                () -> {throw new TapisImplException("not found", Condition.NOT_FOUND);});
+            Assert.fail("Expected the loader exception.");
+        } catch (TapisImplException e) {
+            Assert.assertEquals(e.condition, Condition.NOT_FOUND);
+        }
+        Assert.assertEquals(_verifier.size(), size);
+    }
+}
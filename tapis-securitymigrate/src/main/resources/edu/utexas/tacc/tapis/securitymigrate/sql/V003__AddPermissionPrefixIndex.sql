@@ -0,0 +1,12 @@
+-- This file adds an index that supports the prefix searches issued by the
+-- Security Kernel's path prefix preview and replacement operations.
+--
+-- Permissions are matched with LIKE patterns whose leading characters are
+-- fixed (e.g., files:tenant:%:system:/path%).  Since the database may not use
+-- the C collation, a text_pattern_ops index is needed for the planner to turn
+-- the fixed prefix into an index range scan.
+
+-- ----------------------------------------------------------------------------------------
+--                                   sk_role_permission
+-- ----------------------------------------------------------------------------------------
+CREATE INDEX sk_role_permission_t_p_pattern_idx ON sk_role_permission (tenant, permission text_pattern_ops);